@@ -21,4 +21,10 @@ package org.apache.axiom.core;
 public final class Content {
     public CoreChildNode firstChild;
     public CoreChildNode lastChild;
+    
+    /**
+     * The index of child elements (see {@code org.apache.axiom.core.impl.ElementIndex}), or
+     * <code>null</code> if no index has been created yet.
+     */
+    public Object elementIndex;
 }
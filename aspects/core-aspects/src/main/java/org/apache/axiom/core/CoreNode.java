@@ -65,4 +65,20 @@ public interface CoreNode {
     <T> void cloneChildrenIfNecessary(ClonePolicy<T> policy, T options, CoreNode clone) throws CoreModelException;
 
     void internalSerialize(XmlHandler handler, boolean cache) throws CoreModelException, StreamException;
+    
+    /**
+     * Determine whether this node is part of a tree that has been frozen using
+     * {@link CoreParentNode#coreFreeze()}.
+     * 
+     * @return <code>true</code> if the node is frozen, <code>false</code> otherwise
+     */
+    boolean coreIsFrozen();
+    
+    /**
+     * Check that this node may be modified.
+     * 
+     * @throws FrozenNodeException
+     *             if the node is part of a frozen tree
+     */
+    void internalCheckNotFrozen();
 }
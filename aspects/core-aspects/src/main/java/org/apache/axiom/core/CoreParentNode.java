@@ -74,6 +74,36 @@ public interface CoreParentNode extends CoreNode {
     CoreChildNode coreGetLastChild() throws CoreModelException;
     CoreChildNode coreGetLastChild(NodeFilter filter) throws CoreModelException;
     
+    /**
+     * Get the first child element with the given name. For parent nodes with a large number of
+     * children, this method creates an index so that subsequent lookups don't need to scan the
+     * children. The method doesn't build more nodes than a sequential scan of the children would.
+     * 
+     * @param namespaceURI
+     *            the namespace URI of the element
+     * @param localName
+     *            the local name of the element
+     * @return the first matching child element, or <code>null</code> if there is no such element
+     * @throws CoreModelException
+     */
+    CoreNSAwareElement coreGetFirstChildByName(String namespaceURI, String localName) throws CoreModelException;
+    
+    /**
+     * Get the next child element with the given name.
+     * 
+     * @param child
+     *            the child after which to start the search, or <code>null</code> to start at the
+     *            first child
+     * @param namespaceURI
+     *            the namespace URI of the element
+     * @param localName
+     *            the local name of the element
+     * @return the first matching child element following <code>child</code>, or
+     *         <code>null</code> if there is no such element
+     * @throws CoreModelException
+     */
+    CoreNSAwareElement coreGetNextChildByName(CoreChildNode child, String namespaceURI, String localName) throws CoreModelException;
+    
     void coreAppendChild(CoreChildNode child) throws CoreModelException;
     void coreAppendChildren(CoreDocumentFragment fragment) throws CoreModelException;
     
@@ -88,4 +118,18 @@ public interface CoreParentNode extends CoreNode {
     void coreRemoveChildren(Semantics semantics) throws CoreModelException;
     
     void coreDiscard(boolean consumeInput) throws CoreModelException;
+    
+    /**
+     * Build the tree rooted at this node completely and make it read-only. After this method
+     * returns, all nodes in the tree are fully expanded, and operations that only read the tree
+     * (navigation, lookups by name and serialization) no longer modify any internal state. Any
+     * attempt to modify the tree will result in a {@link FrozenNodeException}. This method has no
+     * effect if the tree is already frozen.
+     * 
+     * @throws IllegalStateException
+     *             if this node is not the root of its tree (i.e. has a parent)
+     * @throws CoreModelException
+     *             if an error occurs while building the tree
+     */
+    void coreFreeze() throws CoreModelException;
 }
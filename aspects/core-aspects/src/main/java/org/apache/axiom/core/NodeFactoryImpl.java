@@ -18,111 +18,89 @@
  */
 package org.apache.axiom.core;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
-import org.apache.axiom.core.util.EdgeRelation;
-import org.apache.axiom.core.util.TopologicalSort;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 public abstract class NodeFactoryImpl implements NodeFactory {
-    private final Map<Class<?>,Constructor<?>> constructorMap;
+    private static final Log log = LogFactory.getLog(NodeFactoryImpl.class);
     
-    public NodeFactoryImpl(ClassLoader cl, String... packages) {
-        List<Class<?>> implementations = new ArrayList<Class<?>>();
-        for (String pkg : packages) {
-            try {
-                BufferedReader in = new BufferedReader(new InputStreamReader(cl.getResourceAsStream(pkg.replace('.', '/') + "/nodetypes.index"), "UTF-8"));
-                try {
-                    String line;
-                    while ((line = in.readLine()) != null) {
-                        if (line.startsWith("#")) {
-                            continue;
-                        }
-                        String className = pkg + "." + line;
-                        try {
-                            implementations.add(cl.loadClass(className));
-                        } catch (ClassNotFoundException ex) {
-                            throw new NodeFactoryException("Failed to load class " + className, ex);
-                        }
-                    }
-                } finally {
-                    in.close();
-                }
-            } catch (IOException ex) {
-                throw new NodeFactoryException("Failed to load node type index for package " + pkg, ex);
-            }
-        }
-        implementations = TopologicalSort.sort(implementations, new EdgeRelation<Class<?>>() {
-            public boolean isEdge(Class<?> from, Class<?> to) {
-                return to.isAssignableFrom(from);
-            }
-        });
-        Map<Class<?>,Class<?>> interfaceToImplementationMap = new HashMap<Class<?>,Class<?>>();
-        Map<Class<?>,Constructor<?>> implementationToConstructorMap = new HashMap<Class<?>,Constructor<?>>();
-        Set<Class<?>> ambiguousInterfaces = new HashSet<Class<?>>();
-        for (Class<?> implementation : implementations) {
-            Set<Class<?>> interfaces = new HashSet<Class<?>>();
-            collectInterfaces(implementation, interfaces);
-            for (Class<?> iface : interfaces) {
-                if (!ambiguousInterfaces.contains(iface)) {
-                    Class<?> clazz = interfaceToImplementationMap.get(iface);
-                    if (clazz == null || implementation.isAssignableFrom(clazz)) {
-                        interfaceToImplementationMap.put(iface, implementation);
-                    } else if (!clazz.isAssignableFrom(implementation)) {
-                        interfaceToImplementationMap.remove(iface);
-                        ambiguousInterfaces.add(iface);
-                    }
-                }
-            }
-            try {
-                implementationToConstructorMap.put(implementation, implementation.getConstructor());
-            } catch (NoSuchMethodException ex) {
-                throw new NodeFactoryException("Failed to get constructor for " + implementation.getName(), ex);
-            }
+    /**
+     * The index of a node type in the array returned by {@link NodeInstantiator#getTypes()}.
+     */
+    private static final class Slot {
+        final int index;
+        
+        Slot(int index) {
+            this.index = index;
         }
-        constructorMap = new HashMap<Class<?>,Constructor<?>>();
-        for (Map.Entry<Class<?>,Class<?>> entry : interfaceToImplementationMap.entrySet()) {
-            constructorMap.put(entry.getKey(), implementationToConstructorMap.get(entry.getValue()));
+    }
+    
+    private final NodeInstantiator instantiator;
+    
+    /**
+     * Maps node types to slots. The slot is computed once per type and then cached by the
+     * {@link Class} object itself, so that {@link #createNode(Class)} neither hashes the type
+     * nor unboxes the index.
+     */
+    private final ClassValue<Slot> slots;
+    
+    /**
+     * Constructor.
+     * 
+     * @param cl
+     *            the class loader to load the node implementation classes from
+     * @param instantiatorClassName
+     *            the name of the {@link NodeInstantiator} class generated at build time for the
+     *            node implementation classes; if that class can't be found, the implementation
+     *            classes are discovered using the <code>nodetypes.index</code> resources in the
+     *            given packages and nodes are created using reflection
+     * @param packages
+     *            the packages containing the node implementation classes; only used if the
+     *            generated {@link NodeInstantiator} class can't be found (the build discovers the
+     *            packages from the <code>nodetypes.index</code> resources of the module)
+     */
+    public NodeFactoryImpl(ClassLoader cl, String instantiatorClassName, String... packages) {
+        instantiator = createInstantiator(cl, instantiatorClassName, packages);
+        Class<?>[] types = instantiator.getTypes();
+        final Map<Class<?>,Slot> slotMap = new HashMap<Class<?>,Slot>(types.length*2);
+        for (int i=0; i<types.length; i++) {
+            slotMap.put(types[i], new Slot(i));
         }
-        // TODO: this should eventually go away
-        constructorMap.putAll(implementationToConstructorMap);
+        slots = new ClassValue<Slot>() {
+            @Override
+            protected Slot computeValue(Class<?> type) {
+                return slotMap.get(type);
+            }
+        };
     }
 
-    private static void collectInterfaces(Class<?> clazz, Set<Class<?>> interfaces) {
-        for (Class<?> iface : clazz.getInterfaces()) {
-            if (interfaces.add(iface)) {
-                collectInterfaces(iface, interfaces);
-            }
+    private static NodeInstantiator createInstantiator(ClassLoader cl, String instantiatorClassName, String... packages) {
+        Class<?> instantiatorClass;
+        try {
+            instantiatorClass = cl.loadClass(instantiatorClassName);
+        } catch (ClassNotFoundException ex) {
+            log.warn(instantiatorClassName + " not found; using reflection to create nodes. This"
+                    + " is expected only if the classes have not been built with Maven.");
+            return new ReflectiveNodeInstantiator(cl, packages);
         }
-        Class<?> superclass = clazz.getSuperclass();
-        if (superclass != null) {
-            collectInterfaces(superclass, interfaces);
+        try {
+            return instantiatorClass.asSubclass(NodeInstantiator.class).newInstance();
+        } catch (InstantiationException ex) {
+            throw new NodeFactoryException("Failed to create instance of " + instantiatorClassName, ex);
+        } catch (IllegalAccessException ex) {
+            throw new NodeFactoryException("Failed to create instance of " + instantiatorClassName, ex);
         }
     }
     
     public final <T extends CoreNode> T createNode(Class<T> type) {
-        Constructor<?> constructor = constructorMap.get(type);
-        if (constructor == null) {
+        Slot slot = slots.get(type);
+        if (slot == null) {
             throw new NodeFactoryException("Unknown node type " + type.getName());
         } else {
-            try {
-                return type.cast(constructor.newInstance());
-            } catch (InvocationTargetException ex) {
-                throw new NodeFactoryException("Caught exception thrown by constructor", ex.getCause());
-            } catch (InstantiationException ex) {
-                throw new NodeFactoryException("Failed to invoke constructor", ex);
-            } catch (IllegalAccessException ex) {
-                throw new NodeFactoryException("Failed to invoke constructor", ex);
-            }
+            return type.cast(instantiator.newInstance(slot.index));
         }
     }
 }
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core;
+
+/**
+ * Creates instances of the node implementation classes used by a {@link NodeFactoryImpl}.
+ * Subclasses are normally generated at build time (see the <code>generate-node-instantiator</code>
+ * goal of the <code>buildutils-maven-plugin</code>) so that nodes are created using plain
+ * constructor invocations instead of reflection.
+ * <p>
+ * For internal use only.
+ */
+public abstract class NodeInstantiator {
+    /**
+     * Get the node types supported by this instantiator. These are the interfaces and classes that
+     * may be passed to {@link NodeFactory#createNode(Class)}. Several types may map to the same
+     * implementation class.
+     * 
+     * @return the supported node types; the index of each type in the array is the value to be
+     *         passed to {@link #newInstance(int)}
+     */
+    public abstract Class<?>[] getTypes();
+
+    /**
+     * Create a new node.
+     * 
+     * @param index
+     *            the index of the requested node type in the array returned by {@link #getTypes()}
+     * @return the new node
+     */
+    public abstract CoreNode newInstance(int index);
+}
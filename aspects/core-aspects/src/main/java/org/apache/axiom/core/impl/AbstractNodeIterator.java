@@ -57,6 +57,21 @@ public abstract class AbstractNodeIterator<T extends CoreNode,S> implements Node
 
     protected abstract boolean matches(T node) throws CoreModelException;
 
+    /**
+     * Get the next child of the start node. This is used for {@link Axis#CHILDREN} and
+     * may be overridden to skip children that are known not to match.
+     * 
+     * @param parent
+     *            the start node
+     * @param child
+     *            the current child, or <code>null</code> if the iteration has not started yet
+     * @return the next child, or <code>null</code> if there are no more children
+     * @throws CoreModelException
+     */
+    protected CoreChildNode getNextChild(CoreParentNode parent, CoreChildNode child) throws CoreModelException {
+        return child == null ? parent.coreGetFirstChild() : child.coreGetNextSibling();
+    }
+
     private void computeNext(Axis axis) {
         CoreNode node = currentNode;
         if (node instanceof CoreChildNode && ((CoreChildNode)node).coreGetParent() != currentParent) {
@@ -67,11 +82,7 @@ public abstract class AbstractNodeIterator<T extends CoreNode,S> implements Node
                 // Get to the next node
                 switch (axis) {
                     case CHILDREN:
-                        if (node == null) {
-                            node = startNode.coreGetFirstChild();
-                        } else {
-                            node = ((CoreChildNode)node).coreGetNextSibling();
-                        }
+                        node = getNextChild(startNode, (CoreChildNode)node);
                         break;
                     case DESCENDANTS:
                     case DESCENDANTS_OR_SELF:
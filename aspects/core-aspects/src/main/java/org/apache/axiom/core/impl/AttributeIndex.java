@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.impl;
+
+import org.apache.axiom.core.AttributeMatcher;
+import org.apache.axiom.core.CoreAttribute;
+import org.apache.axiom.core.CoreElement;
+import org.apache.axiom.core.CoreNSAwareAttribute;
+import org.apache.axiom.core.CoreNSUnawareAttribute;
+import org.apache.axiom.core.NSAwareAttributeMatcher;
+
+/**
+ * Hash index for the attributes of a {@link CoreElement} with a large number of attributes. The
+ * index doesn't replace the linked list of attributes (which continues to define the document
+ * order); it only speeds up lookups by namespace URI and local name and keeps track of the last
+ * attribute so that appending an attribute is a constant time operation.
+ * <p>
+ * The index is an open addressing hash table with linear probing. Namespace aware attributes are
+ * keyed by namespace URI and local name, namespace unaware attributes by their name (with an empty
+ * namespace URI). Namespace declarations are not indexed. Since the key is computed from the
+ * attribute itself, the index must be rebuilt if the name of one of the attributes changes.
+ */
+public final class AttributeIndex {
+    /**
+     * The name of the system property that specifies the number of attributes above which an
+     * index is created for an element.
+     */
+    public static final String THRESHOLD_PROPERTY = AttributeIndex.class.getName() + ".threshold";
+    
+    /**
+     * The number of attributes above which an index is created for an element.
+     */
+    public static final int THRESHOLD = getThreshold();
+    
+    private CoreAttribute firstAttribute;
+    private CoreAttribute lastAttribute;
+    private CoreAttribute[] table;
+    private int size;
+    
+    /**
+     * Create an index for the given list of attributes.
+     * 
+     * @param firstAttribute
+     *            the first attribute of the element
+     */
+    public AttributeIndex(CoreAttribute firstAttribute) {
+        this.firstAttribute = firstAttribute;
+        table = new CoreAttribute[32];
+        CoreAttribute attr = firstAttribute;
+        while (attr != null) {
+            lastAttribute = attr;
+            insert(attr);
+            attr = attr.coreGetNextAttribute();
+        }
+    }
+    
+    private static int getThreshold() {
+        try {
+            return Integer.getInteger(THRESHOLD_PROPERTY, 16);
+        } catch (SecurityException ex) {
+            return 16;
+        }
+    }
+    
+    private static String getNamespaceURI(CoreAttribute attr) {
+        if (attr instanceof CoreNSAwareAttribute) {
+            return ((CoreNSAwareAttribute)attr).coreGetNamespaceURI();
+        } else if (attr instanceof CoreNSUnawareAttribute) {
+            return "";
+        } else {
+            return null;
+        }
+    }
+    
+    private static String getName(CoreAttribute attr) {
+        if (attr instanceof CoreNSAwareAttribute) {
+            return ((CoreNSAwareAttribute)attr).coreGetLocalName();
+        } else {
+            return ((CoreNSUnawareAttribute)attr).coreGetName();
+        }
+    }
+    
+    private static int hash(String namespaceURI, String name) {
+        int h = name.hashCode() * 31 + namespaceURI.hashCode();
+        return h ^ (h >>> 16);
+    }
+    
+    public CoreAttribute getFirstAttribute() {
+        return firstAttribute;
+    }
+
+    public void setFirstAttribute(CoreAttribute firstAttribute) {
+        this.firstAttribute = firstAttribute;
+    }
+
+    public CoreAttribute getLastAttribute() {
+        return lastAttribute;
+    }
+
+    private void insert(CoreAttribute attr) {
+        String namespaceURI = getNamespaceURI(attr);
+        if (namespaceURI == null) {
+            return;
+        }
+        if (2*(size+1) > table.length) {
+            CoreAttribute[] oldTable = table;
+            table = new CoreAttribute[oldTable.length*2];
+            for (int i=0; i<oldTable.length; i++) {
+                CoreAttribute entry = oldTable[i];
+                if (entry != null) {
+                    table[findFreeSlot(hash(getNamespaceURI(entry), getName(entry)))] = entry;
+                }
+            }
+        }
+        table[findFreeSlot(hash(namespaceURI, getName(attr)))] = attr;
+        size++;
+    }
+    
+    private int findFreeSlot(int hash) {
+        int mask = table.length-1;
+        int i = hash & mask;
+        while (table[i] != null) {
+            i = (i+1) & mask;
+        }
+        return i;
+    }
+    
+    /**
+     * Update the index after an attribute has been linked into the list of attributes of the
+     * element. Note that this method doesn't update the first attribute.
+     * 
+     * @param attr
+     *            the attribute that has been added
+     */
+    public void add(CoreAttribute attr) {
+        if (attr.coreGetNextAttribute() == null) {
+            lastAttribute = attr;
+        }
+        insert(attr);
+    }
+    
+    /**
+     * Update the index after an attribute has been unlinked from the list of attributes of the
+     * element. Note that this method doesn't update the first attribute.
+     * 
+     * @param attr
+     *            the attribute that has been removed
+     * @param previousAttr
+     *            the attribute that preceded the removed attribute, or <code>null</code> if the
+     *            removed attribute was the first attribute
+     */
+    public void remove(CoreAttribute attr, CoreAttribute previousAttr) {
+        if (attr == lastAttribute) {
+            lastAttribute = previousAttr;
+        }
+        String namespaceURI = getNamespaceURI(attr);
+        if (namespaceURI == null) {
+            return;
+        }
+        int mask = table.length-1;
+        int i = hash(namespaceURI, getName(attr)) & mask;
+        while (true) {
+            CoreAttribute entry = table[i];
+            if (entry == null) {
+                return;
+            } else if (entry == attr) {
+                break;
+            }
+            i = (i+1) & mask;
+        }
+        size--;
+        // Backward shift deletion: move subsequent entries of the same cluster into the freed slot
+        // if that is closer to (or at) their home slot.
+        int j = i;
+        while (true) {
+            table[i] = null;
+            CoreAttribute entry;
+            int home;
+            do {
+                j = (j+1) & mask;
+                entry = table[j];
+                if (entry == null) {
+                    return;
+                }
+                home = hash(getNamespaceURI(entry), getName(entry)) & mask;
+            } while (i <= j ? i < home && home <= j : i < home || home <= j);
+            table[i] = entry;
+            i = j;
+        }
+    }
+    
+    /**
+     * Look up an attribute. If the matcher is a {@link NSAwareAttributeMatcher}, then the hash
+     * table is used. For other matchers the list of attributes is scanned.
+     * 
+     * @param matcher
+     *            the attribute matcher
+     * @param namespaceURI
+     *            the <code>namespaceURI</code> parameter to pass to the matcher
+     * @param name
+     *            the <code>name</code> parameter to pass to the matcher
+     * @return the first matching attribute (in document order), or <code>null</code> if there is
+     *         no matching attribute
+     */
+    public CoreAttribute get(AttributeMatcher matcher, String namespaceURI, String name) {
+        if (matcher instanceof NSAwareAttributeMatcher) {
+            int mask = table.length-1;
+            int i = hash(namespaceURI, name) & mask;
+            CoreAttribute match = null;
+            CoreAttribute entry;
+            while ((entry = table[i]) != null) {
+                if (matcher.matches(entry, namespaceURI, name)) {
+                    if (match == null) {
+                        match = entry;
+                    } else {
+                        // There are several matching attributes (e.g. a namespace aware and a
+                        // namespace unaware attribute with the same name); use a scan to
+                        // determine the one that comes first in document order.
+                        break;
+                    }
+                }
+                i = (i+1) & mask;
+            }
+            if (entry == null) {
+                return match;
+            }
+        }
+        CoreAttribute attr = firstAttribute;
+        while (attr != null && !matcher.matches(attr, namespaceURI, name)) {
+            attr = attr.coreGetNextAttribute();
+        }
+        return attr;
+    }
+}
@@ -0,0 +1,475 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.impl;
+
+import java.util.Arrays;
+
+import org.apache.axiom.core.CoreChildNode;
+import org.apache.axiom.core.CoreModelException;
+import org.apache.axiom.core.CoreNSAwareElement;
+import org.apache.axiom.core.CoreParentNode;
+
+/**
+ * Index of the child elements of a {@link CoreParentNode} with a large number of children, keyed
+ * by namespace URI and local name. The index covers the children up to (and including) the last
+ * indexed child; children after that node (in particular children that have been appended or that
+ * have not been built yet) are added lazily, so that using the index never forces the builder to
+ * build more nodes than a sequential scan would.
+ * <p>
+ * The index consists of two open addressing hash tables with linear probing. The first one maps
+ * names to arrays of elements in document order. The second one is keyed by identity and maps
+ * each indexed element to its position in the corresponding array, so that iterating over the
+ * elements with a given name is a constant time operation per step. Removing a child only clears
+ * its slot. Inserting a child element before the last indexed child or renaming a child element
+ * marks the array for the new name as stale; the array is rebuilt by the next lookup for that
+ * name, while the arrays for the other names remain valid.
+ */
+public final class ElementIndex {
+    /**
+     * The name of the system property that specifies the number of children that need to be
+     * scanned by a lookup before an index is created for a parent node.
+     */
+    public static final String THRESHOLD_PROPERTY = ElementIndex.class.getName() + ".threshold";
+
+    /**
+     * The number of children that need to be scanned by a lookup before an index is created.
+     */
+    public static final int THRESHOLD = getThreshold();
+
+    private static final class Entry {
+        final String namespaceURI;
+        final String localName;
+        /**
+         * The indexed elements with the given name, in document order. Removed elements leave a
+         * <code>null</code> slot until the array is compacted.
+         */
+        CoreNSAwareElement[] elements = new CoreNSAwareElement[4];
+        int size;
+        int removed;
+        /**
+         * Indicates that {@link #elements} may be incomplete or out of order and needs to be
+         * rebuilt before it can be used.
+         */
+        boolean stale;
+        /**
+         * The position of the element last returned by a lookup. This avoids the lookup in
+         * {@link ElementIndex#keys} when iterating over the elements with the given name. It is
+         * only a hint that is validated before use, so that concurrent lookups (on a frozen tree)
+         * may overwrite it without synchronization.
+         */
+        int hint;
+
+        Entry(String namespaceURI, String localName) {
+            this.namespaceURI = namespaceURI;
+            this.localName = localName;
+        }
+    }
+
+    private Entry[] entries = new Entry[16];
+    private int entryCount;
+
+    private CoreNSAwareElement[] keys = new CoreNSAwareElement[128];
+    private int[] positions = new int[128];
+    private int keyCount;
+
+    private CoreChildNode lastIndexedChild;
+
+    private static int getThreshold() {
+        try {
+            return Integer.getInteger(THRESHOLD_PROPERTY, 64);
+        } catch (SecurityException ex) {
+            return 64;
+        }
+    }
+
+    /**
+     * Check if the given node is a namespace aware element with the given name.
+     *
+     * @param node
+     *            the node to check
+     * @param namespaceURI
+     *            the namespace URI
+     * @param localName
+     *            the local name
+     * @return <code>true</code> if the node is an element with the given name
+     */
+    public static boolean hasName(CoreChildNode node, String namespaceURI, String localName) {
+        if (node instanceof CoreNSAwareElement) {
+            CoreNSAwareElement element = (CoreNSAwareElement)node;
+            return localName.equals(element.coreGetLocalName())
+                    && namespaceURI.equals(element.coreGetNamespaceURI());
+        } else {
+            return false;
+        }
+    }
+
+    private static int hash(String namespaceURI, String localName) {
+        int h = localName.hashCode() * 31 + namespaceURI.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int identityHash(Object object) {
+        int h = System.identityHashCode(object);
+        return h ^ (h >>> 16);
+    }
+
+    private Entry getEntry(String namespaceURI, String localName, boolean create) {
+        int mask = entries.length-1;
+        int i = hash(namespaceURI, localName) & mask;
+        Entry entry;
+        while ((entry = entries[i]) != null) {
+            if (entry.localName.equals(localName) && entry.namespaceURI.equals(namespaceURI)) {
+                return entry;
+            }
+            i = (i+1) & mask;
+        }
+        if (!create) {
+            return null;
+        }
+        entry = new Entry(namespaceURI, localName);
+        if (2*(entryCount+1) > entries.length) {
+            Entry[] oldEntries = entries;
+            entries = new Entry[oldEntries.length*2];
+            for (int j=0; j<oldEntries.length; j++) {
+                Entry oldEntry = oldEntries[j];
+                if (oldEntry != null) {
+                    entries[findFreeEntrySlot(hash(oldEntry.namespaceURI, oldEntry.localName))] = oldEntry;
+                }
+            }
+            i = findFreeEntrySlot(hash(namespaceURI, localName));
+        }
+        entries[i] = entry;
+        entryCount++;
+        return entry;
+    }
+
+    private int findFreeEntrySlot(int hash) {
+        int mask = entries.length-1;
+        int i = hash & mask;
+        while (entries[i] != null) {
+            i = (i+1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Find the slot of the given element in {@link #keys}.
+     *
+     * @return the slot, or -1 if the element is not indexed
+     */
+    private int findKey(CoreNSAwareElement element) {
+        int mask = keys.length-1;
+        int i = identityHash(element) & mask;
+        CoreNSAwareElement key;
+        while ((key = keys[i]) != null) {
+            if (key == element) {
+                return i;
+            }
+            i = (i+1) & mask;
+        }
+        return -1;
+    }
+
+    private int findFreeKeySlot(CoreNSAwareElement element) {
+        int mask = keys.length-1;
+        int i = identityHash(element) & mask;
+        while (keys[i] != null) {
+            i = (i+1) & mask;
+        }
+        return i;
+    }
+
+    private void putKey(CoreNSAwareElement element, int position) {
+        if (4*(keyCount+1) > 3*keys.length) {
+            CoreNSAwareElement[] oldKeys = keys;
+            int[] oldPositions = positions;
+            keys = new CoreNSAwareElement[oldKeys.length*2];
+            positions = new int[oldKeys.length*2];
+            for (int j=0; j<oldKeys.length; j++) {
+                CoreNSAwareElement key = oldKeys[j];
+                if (key != null) {
+                    int i = findFreeKeySlot(key);
+                    keys[i] = key;
+                    positions[i] = oldPositions[j];
+                }
+            }
+        }
+        int i = findFreeKeySlot(element);
+        keys[i] = element;
+        positions[i] = position;
+        keyCount++;
+    }
+
+    private void removeKey(int i) {
+        int mask = keys.length-1;
+        keyCount--;
+        // Backward shift deletion: move subsequent keys of the same cluster into the freed slot
+        // if that is closer to (or at) their home slot.
+        int j = i;
+        while (true) {
+            keys[i] = null;
+            CoreNSAwareElement key;
+            int home;
+            do {
+                j = (j+1) & mask;
+                key = keys[j];
+                if (key == null) {
+                    return;
+                }
+                home = identityHash(key) & mask;
+            } while (i <= j ? i < home && home <= j : i < home || home <= j);
+            keys[i] = key;
+            positions[i] = positions[j];
+            i = j;
+        }
+    }
+
+    private void append(Entry entry, CoreNSAwareElement element) {
+        if (entry.size == entry.elements.length) {
+            entry.elements = Arrays.copyOf(entry.elements, entry.size*2);
+        }
+        putKey(element, entry.size);
+        entry.elements[entry.size++] = element;
+    }
+
+    /**
+     * Remove the element with the given slot in {@link #keys} from the index.
+     */
+    private void remove(CoreNSAwareElement element, int i) {
+        int position = positions[i];
+        removeKey(i);
+        // The entry is normally the one for the current name of the element, unless the element
+        // has just been renamed. In that case, look for the entry that contains the element.
+        Entry entry = getEntry(element.coreGetNamespaceURI(), element.coreGetLocalName(), false);
+        if (entry == null || position >= entry.size || entry.elements[position] != element) {
+            for (int j=0; ; j++) {
+                entry = entries[j];
+                if (entry != null && position < entry.size && entry.elements[position] == element) {
+                    break;
+                }
+            }
+        }
+        entry.elements[position] = null;
+        if (++entry.removed > 4 && 2*entry.removed > entry.size) {
+            CoreNSAwareElement[] elements = entry.elements;
+            int size = 0;
+            for (int j=0; j<entry.size; j++) {
+                CoreNSAwareElement e = elements[j];
+                if (e != null) {
+                    if (j != size) {
+                        elements[size] = e;
+                        positions[findKey(e)] = size;
+                    }
+                    size++;
+                }
+            }
+            Arrays.fill(elements, size, entry.size, null);
+            entry.size = size;
+            entry.removed = 0;
+        }
+    }
+
+    /**
+     * Rebuild the array of elements of a stale entry by scanning the indexed children.
+     */
+    private void rebuild(CoreParentNode parent, Entry entry) throws CoreModelException {
+        CoreNSAwareElement[] elements = entry.elements;
+        for (int position=0; position<entry.size; position++) {
+            CoreNSAwareElement element = elements[position];
+            if (element != null) {
+                removeKey(findKey(element));
+                elements[position] = null;
+            }
+        }
+        entry.size = 0;
+        entry.removed = 0;
+        entry.stale = false;
+        if (lastIndexedChild != null) {
+            CoreChildNode child = parent.coreGetFirstChild();
+            while (true) {
+                if (hasName(child, entry.namespaceURI, entry.localName)) {
+                    append(entry, (CoreNSAwareElement)child);
+                }
+                if (child == lastIndexedChild) {
+                    break;
+                }
+                child = child.coreGetNextSibling();
+            }
+        }
+    }
+
+    /**
+     * Add the children following the last indexed child to the index until an element with the
+     * given name is found.
+     */
+    private CoreNSAwareElement extend(CoreParentNode parent, String namespaceURI, String localName) throws CoreModelException {
+        CoreChildNode child = lastIndexedChild == null ? parent.coreGetFirstChild() : lastIndexedChild.coreGetNextSibling();
+        while (child != null) {
+            add(child);
+            if (hasName(child, namespaceURI, localName)) {
+                return (CoreNSAwareElement)child;
+            }
+            child = child.coreGetNextSibling();
+        }
+        return null;
+    }
+
+    /**
+     * Add a child to the index. Children must be added in document order.
+     *
+     * @param child
+     *            the child to add
+     */
+    public void add(CoreChildNode child) {
+        if (child instanceof CoreNSAwareElement) {
+            CoreNSAwareElement element = (CoreNSAwareElement)child;
+            append(getEntry(element.coreGetNamespaceURI(), element.coreGetLocalName(), true), element);
+        }
+        lastIndexedChild = child;
+    }
+
+    /**
+     * Get the first child element with the given name.
+     *
+     * @param parent
+     *            the parent node this index belongs to
+     * @param namespaceURI
+     *            the namespace URI
+     * @param localName
+     *            the local name
+     * @return the first matching child element, or <code>null</code> if there is no such element
+     * @throws CoreModelException
+     */
+    public CoreNSAwareElement getFirst(CoreParentNode parent, String namespaceURI, String localName) throws CoreModelException {
+        Entry entry = getEntry(namespaceURI, localName, false);
+        if (entry != null) {
+            if (entry.stale) {
+                rebuild(parent, entry);
+            }
+            CoreNSAwareElement[] elements = entry.elements;
+            for (int position=0; position<entry.size; position++) {
+                if (elements[position] != null) {
+                    entry.hint = position;
+                    return elements[position];
+                }
+            }
+        }
+        return extend(parent, namespaceURI, localName);
+    }
+
+    /**
+     * Get the child element with the given name following a given child element.
+     *
+     * @param parent
+     *            the parent node this index belongs to
+     * @param element
+     *            a child element with the given name
+     * @param namespaceURI
+     *            the namespace URI
+     * @param localName
+     *            the local name
+     * @return the first matching child element following <code>element</code>, or
+     *         <code>null</code> if there is no such element
+     * @throws CoreModelException
+     */
+    public CoreNSAwareElement getNext(CoreParentNode parent, CoreNSAwareElement element, String namespaceURI, String localName) throws CoreModelException {
+        Entry entry = getEntry(namespaceURI, localName, false);
+        if (entry != null) {
+            if (entry.stale) {
+                rebuild(parent, entry);
+            }
+            CoreNSAwareElement[] elements = entry.elements;
+            int position = entry.hint;
+            if (position >= entry.size || elements[position] != element) {
+                int i = findKey(element);
+                position = i == -1 ? -1 : positions[i];
+            }
+            if (position != -1) {
+                while (++position < entry.size) {
+                    if (elements[position] != null) {
+                        entry.hint = position;
+                        return elements[position];
+                    }
+                }
+                return extend(parent, namespaceURI, localName);
+            }
+        }
+        // The element follows the last indexed child
+        CoreChildNode child = element;
+        do {
+            child = child.coreGetNextSibling();
+        } while (child != null && !hasName(child, namespaceURI, localName));
+        return (CoreNSAwareElement)child;
+    }
+
+    /**
+     * Update the index after a child has been unlinked from the children of the parent node.
+     *
+     * @param child
+     *            the child that has been removed
+     * @param previousSibling
+     *            the child that preceded the removed child, or <code>null</code> if the removed
+     *            child was the first child
+     */
+    public void childRemoved(CoreChildNode child, CoreChildNode previousSibling) {
+        if (child == lastIndexedChild) {
+            lastIndexedChild = previousSibling;
+        }
+        if (child instanceof CoreNSAwareElement) {
+            CoreNSAwareElement element = (CoreNSAwareElement)child;
+            int i = findKey(element);
+            if (i != -1) {
+                remove(element, i);
+            }
+        }
+    }
+
+    /**
+     * Update the index after a child has been linked into the children of the parent node at a
+     * position other than the end. Note that appending a child doesn't require any update.
+     *
+     * @param child
+     *            the child that has been inserted
+     */
+    public void childInserted(CoreChildNode child) {
+        if (lastIndexedChild == null || child.coreGetPreviousSibling() == lastIndexedChild) {
+            // The child will be indexed when the index is extended
+            return;
+        }
+        if (child instanceof CoreNSAwareElement) {
+            CoreNSAwareElement element = (CoreNSAwareElement)child;
+            getEntry(element.coreGetNamespaceURI(), element.coreGetLocalName(), true).stale = true;
+        }
+    }
+
+    /**
+     * Update the index after the namespace URI or local name of a child element has changed.
+     *
+     * @param element
+     *            the child element that has been renamed
+     */
+    public void elementRenamed(CoreNSAwareElement element) {
+        int i = findKey(element);
+        if (i != -1) {
+            remove(element, i);
+        }
+        // We don't know if the element precedes the last indexed child; assume that it does.
+        getEntry(element.coreGetNamespaceURI(), element.coreGetLocalName(), true).stale = true;
+    }
+}
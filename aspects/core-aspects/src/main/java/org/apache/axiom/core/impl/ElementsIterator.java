@@ -19,6 +19,7 @@
 package org.apache.axiom.core.impl;
 
 import org.apache.axiom.core.Axis;
+import org.apache.axiom.core.CoreChildNode;
 import org.apache.axiom.core.CoreElement;
 import org.apache.axiom.core.CoreModelException;
 import org.apache.axiom.core.CoreParentNode;
@@ -30,12 +31,23 @@ public final class ElementsIterator<T extends CoreElement,S> extends AbstractNod
     private final ElementMatcher<? super T> matcher;
     private final String namespaceURI;
     private final String name;
+    private final boolean useIndex;
 
     public ElementsIterator(CoreParentNode startNode, Axis axis, Class<T> type, ElementMatcher<? super T> matcher, String namespaceURI, String name, Mapper<S,? super T> mapper, Semantics semantics) {
         super(startNode, axis, type, mapper, semantics);
         this.matcher = matcher;
         this.namespaceURI = namespaceURI;
         this.name = name;
+        useIndex = axis == Axis.CHILDREN && matcher == ElementMatcher.BY_QNAME;
+    }
+
+    @Override
+    protected CoreChildNode getNextChild(CoreParentNode parent, CoreChildNode child) throws CoreModelException {
+        if (useIndex) {
+            return parent.coreGetNextChildByName(child, namespaceURI, name);
+        } else {
+            return super.getNextChild(parent, child);
+        }
     }
 
     @Override
@@ -44,4 +44,10 @@ public final class Flags {
      * Used to store the information returned by {@link CoreCharacterDataNode#coreIsIgnorable()}.
      */
     public static final int IGNORABLE = 32;
+    
+    /**
+     * Indicates that the node is part of a tree that has been frozen using
+     * {@link CoreParentNode#coreFreeze()}.
+     */
+    public static final int FROZEN = 64;
 }
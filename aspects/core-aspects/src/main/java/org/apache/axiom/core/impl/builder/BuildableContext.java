@@ -210,7 +210,7 @@ final class BuildableContext extends Context implements InputContext {
             CoreNSAwareAttribute attr = builderHandler.nodeFactory.createNode(CoreNSAwareAttribute.class);
             attr.initName(namespaceURI, localName, prefix, builderHandler.namespaceHelper);
             try {
-                attr.coreSetCharacterData(value, null);
+                attr.coreSetCharacterData(builderHandler.compact(value), null);
             } catch (CoreModelException ex) {
                 throw new CoreModelStreamException(ex);
             }
@@ -228,7 +228,7 @@ final class BuildableContext extends Context implements InputContext {
             CoreNSUnawareAttribute attr = builderHandler.nodeFactory.createNode(CoreNSUnawareAttribute.class);
             attr.coreSetName(name);
             try {
-                attr.coreSetCharacterData(value, null);
+                attr.coreSetCharacterData(builderHandler.compact(value), null);
             } catch (CoreModelException ex) {
                 throw new CoreModelStreamException(ex);
             }
@@ -263,10 +263,10 @@ final class BuildableContext extends Context implements InputContext {
         if (passThroughHandler != null) {
             passThroughHandler.processCharacterData(data, ignorable);
         } else if (!ignorable && pendingCharacterData == null && target.coreGetFirstChildIfAvailable() == null) {
-            pendingCharacterData = data;
+            pendingCharacterData = builderHandler.compact(data);
         } else {
             CoreCharacterDataNode node = builderHandler.nodeFactory.createNode(CoreCharacterDataNode.class);
-            node.coreSetCharacterData(data);
+            node.coreSetCharacterData(builderHandler.compact(data));
             node.coreSetIgnorable(ignorable);
             addChild(node);
         }
@@ -33,10 +33,11 @@ import org.apache.axiom.core.stream.XmlHandler;
 
 final class BuilderHandler implements XmlHandler {
     final NodeFactory nodeFactory;
-    final Model model;
+    Model model;
     final Builder builder;
     final Object namespaceHelper;
-    private final Context rootContext;
+    private CharacterDataCompactor characterDataCompactor;
+    private Context rootContext;
     private Context context;
     private int activeContextCount;
     // returns the state of completion
@@ -63,6 +64,40 @@ final class BuilderHandler implements XmlHandler {
         activeContextCount = 1;
     }
 
+    void reset(Model model) {
+        if (rootContext instanceof UnwrappingContext) {
+            throw new UnsupportedOperationException("A builder linked to an existing element can't be reset");
+        }
+        this.model = model;
+        // The root context and the nested contexts hanging off it are left in their initial state
+        // once the document is complete; reuse them instead of allocating a new chain.
+        context = rootContext;
+        activeContextCount = 1;
+        done = false;
+        document = null;
+        depth = 0;
+        if (deferredActions != null) {
+            deferredActions.clear();
+        }
+    }
+
+    void setCharacterDataCompactor(CharacterDataCompactor characterDataCompactor) {
+        this.characterDataCompactor = characterDataCompactor;
+    }
+
+    /**
+     * Convert character data received from the parser into the form in which it will be stored in
+     * the tree.
+     * 
+     * @param data
+     *            the character data
+     * @return the character data to store
+     * @see CharacterDataCompactor
+     */
+    Object compact(Object data) {
+        return characterDataCompactor != null && data instanceof String ? characterDataCompactor.compact((String)data) : data;
+    }
+
     void addListener(BuilderListener listener) {
         if (listeners == null) {
             listeners = new ArrayList<BuilderListener>();
@@ -28,7 +28,7 @@ import org.apache.axiom.core.stream.XmlInput;
 import org.apache.axiom.core.stream.XmlReader;
 
 public final class BuilderImpl implements Builder {
-    private final XmlReader reader;
+    private XmlReader reader;
     private final BuilderHandler builderHandler;
     private Object facade;
 
@@ -41,6 +41,17 @@ public final class BuilderImpl implements Builder {
     public void addListener(BuilderListener listener) {
         builderHandler.addListener(listener);
     }
+
+    /**
+     * Set the object that converts the character data received from the parser into the form in
+     * which it is stored in the tree. This must be called before the builder starts parsing.
+     * 
+     * @param compactor
+     *            the compactor, or <code>null</code> to store the character data unchanged
+     */
+    public void setCharacterDataCompactor(CharacterDataCompactor compactor) {
+        builderHandler.setCharacterDataCompactor(compactor);
+    }
     
     public Object getFacade() {
         return facade;
@@ -76,6 +87,30 @@ public final class BuilderImpl implements Builder {
         return document;
     }
     
+    /**
+     * Reset this builder so that it can be reused to build a new document from the given input.
+     * This is only allowed once the current document has been built completely: at that point no
+     * node of the previously built tree references the builder any longer, so that the new parse
+     * can't affect it.
+     * 
+     * @param input
+     *            the new input
+     * @param model
+     *            the model to use for the new document
+     * @throws IllegalStateException
+     *             if the builder has not completed the current document
+     * @throws UnsupportedOperationException
+     *             if the builder is linked to an existing element instead of a document
+     */
+    public void reset(XmlInput input, Model model) {
+        if (!isCompleted()) {
+            throw new IllegalStateException("The builder has not completed the current document");
+        }
+        builderHandler.reset(model);
+        reader.dispose();
+        reader = input.createReader(builderHandler);
+    }
+
     @Override
     public void close() {
         reader.dispose();
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.impl.builder;
+
+import org.apache.axiom.core.stream.util.CompactCharacterData;
+
+/**
+ * Converts the character data (text and attribute values) received by the builder into the form
+ * in which it is stored in the tree. A compactor is set on the builder using
+ * {@link BuilderImpl#setCharacterDataCompactor(CharacterDataCompactor)}; without it the data is
+ * stored unchanged. A compactor supports two options intended for data heavy documents:
+ * <ul>
+ * <li>compaction: store text that only contains ISO-8859-1 characters as
+ * {@link CompactCharacterData}, i.e. with one byte per character and short values packed into a
+ * single field.
+ * <li>deduplication: share a single instance between short values that occur repeatedly in a
+ * document (e.g. whitespace used for indentation, codes and flags).
+ * </ul>
+ * The stored data is transparent for the rest of the model: {@link CompactCharacterData} is a
+ * {@link org.apache.axiom.core.stream.CharacterData} and is therefore supported everywhere text
+ * is accessed or serialized.
+ */
+public final class CharacterDataCompactor {
+    /**
+     * The maximum length of values eligible for deduplication.
+     */
+    private static final int DEDUPLICATE_MAX_LENGTH = 32;
+
+    /**
+     * The size of the deduplication cache. Must be a power of two.
+     */
+    private static final int CACHE_SIZE = 256;
+
+    private final boolean compact;
+    private final boolean deduplicate;
+
+    /**
+     * Direct mapped cache of recently seen values. Entries are either {@link String} or
+     * {@link CompactCharacterData} instances. Colliding values simply replace each other so that
+     * the memory used by the cache is bounded.
+     */
+    private Object[] cache;
+
+    /**
+     * Constructor.
+     * 
+     * @param compact
+     *            <code>true</code> if text should be stored as {@link CompactCharacterData} where
+     *            possible
+     * @param deduplicate
+     *            <code>true</code> if short values that occur repeatedly should share a single
+     *            instance
+     */
+    public CharacterDataCompactor(boolean compact, boolean deduplicate) {
+        this.compact = compact;
+        this.deduplicate = deduplicate;
+    }
+
+    /**
+     * Get the representation in which the given value should be stored.
+     * 
+     * @param s
+     *            the value received from the parser
+     * @return the value to store, i.e. either a {@link String} or a {@link CompactCharacterData}
+     */
+    Object compact(String s) {
+        int length = s.length();
+        if (length == 0) {
+            return s;
+        }
+        if (!deduplicate || length > DEDUPLICATE_MAX_LENGTH) {
+            return doCompact(s);
+        }
+        if (cache == null) {
+            cache = new Object[CACHE_SIZE];
+        }
+        int h = s.hashCode();
+        int index = (h ^ (h >>> 16)) & (CACHE_SIZE-1);
+        Object cached = cache[index];
+        if (cached != null) {
+            if (cached instanceof String ? cached.equals(s) : ((CompactCharacterData)cached).contentEquals(s)) {
+                return cached;
+            }
+        }
+        Object result = doCompact(s);
+        cache[index] = result;
+        return result;
+    }
+
+    private Object doCompact(String s) {
+        if (compact) {
+            CompactCharacterData data = CompactCharacterData.create(s);
+            if (data != null) {
+                return data;
+            }
+        }
+        return s;
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.common.builder;
+
+import java.io.InputStream;
+
+import org.apache.axiom.core.impl.builder.BuilderImpl;
+
+/**
+ * For internal use only.
+ */
+public interface BuilderResetter {
+    /**
+     * Reset the given builder so that it reads a new document from the given stream.
+     * 
+     * @param builder
+     *            the builder to reset; the builder must have completed the current document
+     * @param in
+     *            the stream to read the new document from
+     * @return the {@link Detachable} for the new input, or <code>null</code> if none is needed
+     */
+    Detachable reset(BuilderImpl builder, InputStream in);
+}
@@ -63,6 +63,15 @@ final class CustomBuilderManager implements BuilderListener {
         }
     }
     
+    /**
+     * Forget the element saved for late custom builder registrations so that no reference to a
+     * previously built tree is retained when the builder is reset.
+     */
+    void reset() {
+        lastCandidateElement = null;
+        lastCandidateDepth = -1;
+    }
+
     @Override
     public Runnable nodeAdded(CoreNode node, int depth) {
         return getAction(node, depth, 0);
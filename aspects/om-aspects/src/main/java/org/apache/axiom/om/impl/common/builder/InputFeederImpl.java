@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axiom.om.impl.common.builder;
+
+import java.nio.ByteBuffer;
+
+import org.apache.axiom.core.CoreModelException;
+import org.apache.axiom.core.impl.builder.BuilderImpl;
+import org.apache.axiom.core.stream.async.AsyncXmlInput;
+import org.apache.axiom.om.OMInputFeeder;
+import org.apache.axiom.om.impl.common.AxiomExceptionTranslator;
+
+final class InputFeederImpl implements OMInputFeeder {
+    private final BuilderImpl builder;
+    private final AsyncXmlInput input;
+
+    InputFeederImpl(BuilderImpl builder, AsyncXmlInput input) {
+        this.builder = builder;
+        this.input = input;
+    }
+
+    @Override
+    public void feed(ByteBuffer buffer) {
+        input.feed(buffer);
+        build();
+    }
+
+    @Override
+    public void endOfInput() {
+        input.endOfInput();
+        build();
+    }
+
+    @Override
+    public boolean isInputNeeded() {
+        return !builder.isCompleted() && !input.isEndOfInput();
+    }
+
+    /**
+     * Build the object model as far as the data fed so far allows. The builder is only asked for
+     * the next event if the input is known to be able to produce it; this ensures that it never
+     * sees the exception that the input throws when it runs out of data.
+     */
+    private void build() {
+        try {
+            while (!builder.isCompleted() && input.isEventAvailable()) {
+                builder.next();
+            }
+        } catch (CoreModelException ex) {
+            throw AxiomExceptionTranslator.translate(ex);
+        }
+    }
+}
@@ -18,30 +18,55 @@
  */
 package org.apache.axiom.om.impl.common.builder;
 
+import java.io.InputStream;
+
 import org.apache.axiom.core.CoreModelException;
 import org.apache.axiom.core.impl.builder.BuilderImpl;
+import org.apache.axiom.core.stream.async.AsyncXmlInput;
+import org.apache.axiom.om.NonBlockingBuilder;
 import org.apache.axiom.om.OMDocument;
 import org.apache.axiom.om.OMElement;
 import org.apache.axiom.om.OMException;
+import org.apache.axiom.om.OMInputFeeder;
 import org.apache.axiom.om.OMXMLParserWrapper;
+import org.apache.axiom.om.ResettableBuilder;
 import org.apache.axiom.om.ds.custombuilder.CustomBuilder;
 import org.apache.axiom.om.ds.custombuilder.CustomBuilderSupport;
 import org.apache.axiom.om.ds.custombuilder.CustomBuilder.Selector;
 import org.apache.axiom.om.impl.common.AxiomExceptionTranslator;
 import org.apache.axiom.om.impl.intf.AxiomDocument;
 
-public class OMXMLParserWrapperImpl implements OMXMLParserWrapper, CustomBuilderSupport {
+public class OMXMLParserWrapperImpl implements OMXMLParserWrapper, CustomBuilderSupport,
+        ResettableBuilder, NonBlockingBuilder {
     private final BuilderImpl builder;
-    private final Detachable detachable;
+    private Detachable detachable;
+    private final BuilderResetter resetter;
     private final CustomBuilderManager customBuilderManager = new CustomBuilderManager();
+    private OMInputFeeder inputFeeder;
 
     public OMXMLParserWrapperImpl(BuilderImpl builder, Detachable detachable) {
+        this(builder, detachable, null);
+    }
+
+    public OMXMLParserWrapperImpl(BuilderImpl builder, Detachable detachable, BuilderResetter resetter) {
         this.builder = builder;
         this.detachable = detachable;
+        this.resetter = resetter;
         builder.setFacade(this);
         builder.addListener(customBuilderManager);
     }
 
+    /**
+     * Make this builder a non-blocking builder for the given input. Must be called before any
+     * input is fed.
+     * 
+     * @param input
+     *            the input the underlying {@link BuilderImpl} has been created with
+     */
+    public final void setAsyncInput(AsyncXmlInput input) {
+        inputFeeder = new InputFeederImpl(builder, input);
+    }
+
     @Override
     public final void registerCustomBuilder(Selector selector, CustomBuilder customBuilder) {
         customBuilderManager.register(selector, customBuilder);
@@ -100,4 +125,21 @@ public class OMXMLParserWrapperImpl implements OMXMLParserWrapper, CustomBuilder
             }
         }
     }
+
+    @Override
+    public final void reset(InputStream in) {
+        if (resetter == null) {
+            throw new UnsupportedOperationException("This builder can't be reset");
+        }
+        if (!builder.isCompleted()) {
+            throw new IllegalStateException("The builder has not completed the current document");
+        }
+        customBuilderManager.reset();
+        detachable = resetter.reset(builder, in);
+    }
+
+    @Override
+    public final OMInputFeeder getInputFeeder() {
+        return inputFeeder;
+    }
 }
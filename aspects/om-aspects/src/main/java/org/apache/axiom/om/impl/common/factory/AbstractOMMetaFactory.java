@@ -28,6 +28,8 @@ import javax.xml.transform.sax.SAXSource;
 import org.apache.axiom.core.NodeFactory;
 import org.apache.axiom.mime.MultipartBody;
 import org.apache.axiom.om.OMAttachmentAccessor;
+import org.apache.axiom.om.OMBuilderSpec;
+import org.apache.axiom.om.OMBuilderSpecSupport;
 import org.apache.axiom.om.OMMetaFactory;
 import org.apache.axiom.om.OMMetaFactorySPI;
 import org.apache.axiom.om.OMXMLParserWrapper;
@@ -40,7 +42,7 @@ import org.xml.sax.InputSource;
  * Base class for {@link OMMetaFactory} implementations that make use of the standard builders
  * ({@link org.apache.axiom.core.impl.builder.BuilderImpl} and its subclasses).
  */
-public abstract class AbstractOMMetaFactory implements OMMetaFactorySPI {
+public abstract class AbstractOMMetaFactory implements OMMetaFactorySPI, OMBuilderSpecSupport {
     private final NodeFactory nodeFactory;
     
     public AbstractOMMetaFactory(NodeFactory nodeFactory) {
@@ -54,7 +56,7 @@ public abstract class AbstractOMMetaFactory implements OMMetaFactorySPI {
 
     @Override
     public OMXMLParserWrapper createOMBuilder(StAXParserConfiguration configuration, InputSource is) {
-        return OM.createBuilder(nodeFactory, BuilderSpec.from(configuration, is));
+        return createOMBuilder(OMBuilderSpec.from(configuration, is));
     }
     
     @Override
@@ -89,7 +91,7 @@ public abstract class AbstractOMMetaFactory implements OMMetaFactorySPI {
 
     @Override
     public SOAPModelBuilder createSOAPModelBuilder(InputSource is) {
-        return SOAP.createBuilder(nodeFactory, BuilderSpec.from(StAXParserConfiguration.SOAP, is));
+        return createSOAPModelBuilder(OMBuilderSpec.from(StAXParserConfiguration.SOAP, is));
     }
 
     @Override
@@ -106,4 +108,14 @@ public abstract class AbstractOMMetaFactory implements OMMetaFactorySPI {
     public SOAPModelBuilder createSOAPModelBuilder(Source rootPart, OMAttachmentAccessor attachmentAccessor) {
         return SOAP.createBuilder(nodeFactory, BuilderSpec.from(StAXParserConfiguration.SOAP, rootPart, attachmentAccessor));
     }
+
+    @Override
+    public OMXMLParserWrapper createOMBuilder(OMBuilderSpec spec) {
+        return OM.createBuilder(nodeFactory, spec);
+    }
+
+    @Override
+    public SOAPModelBuilder createSOAPModelBuilder(OMBuilderSpec spec) {
+        return SOAP.createBuilder(nodeFactory, spec);
+    }
 }
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.common.factory;
+
+import org.apache.axiom.core.stream.XmlFilter;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.om.OMBinaryContent;
+
+/**
+ * Decodes the base64 encoded content of the elements selected by a given {@link OMBinaryContent}
+ * into blobs, so that the builder creates a single binary text node for each of these elements
+ * instead of accumulating the encoded text.
+ */
+final class Base64DecodingFilter implements XmlFilter {
+    private final OMBinaryContent binaryContent;
+
+    Base64DecodingFilter(OMBinaryContent binaryContent) {
+        this.binaryContent = binaryContent;
+    }
+
+    @Override
+    public XmlHandler createFilterHandler(XmlHandler parent) {
+        return new Base64DecodingFilterHandler(parent, binaryContent);
+    }
+}
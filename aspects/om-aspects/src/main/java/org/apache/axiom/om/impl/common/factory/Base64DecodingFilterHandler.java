@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.common.factory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+
+import javax.activation.DataHandler;
+
+import org.apache.axiom.blob.BlobDataSource;
+import org.apache.axiom.blob.WritableBlob;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlHandlerWrapper;
+import org.apache.axiom.om.OMBinaryContent;
+import org.apache.axiom.om.impl.intf.TextContent;
+import org.apache.axiom.util.base64.Base64DecodingOutputStreamWriter;
+
+final class Base64DecodingFilterHandler extends XmlHandlerWrapper {
+    private static final String XSI_URI = "http://www.w3.org/2001/XMLSchema-instance";
+    private static final String XSD_URI = "http://www.w3.org/2001/XMLSchema";
+    private static final String BASE64_BINARY = "base64Binary";
+    
+    private final OMBinaryContent binaryContent;
+    private final boolean xsiTypeDetection;
+    
+    /**
+     * The namespace declarations in scope, used to resolve the value of <tt>xsi:type</tt>
+     * attributes. Only maintained if <tt>xsi:type</tt> detection is enabled.
+     */
+    private String[] namespaceStack = new String[32];
+    private int bindings;
+    private int[] scopeStack = new int[16];
+    private int depth;
+    
+    /**
+     * Indicates that the current element has been selected by name or by its <tt>xsi:type</tt>
+     * attribute; only meaningful until {@link #attributesCompleted()} is called.
+     */
+    private boolean selected;
+    
+    /**
+     * The blob receiving the decoded data of the current element, or <code>null</code> if the
+     * content of the current element is not being decoded.
+     */
+    private WritableBlob blob;
+    private Writer writer;
+    private boolean hasText;
+
+    Base64DecodingFilterHandler(XmlHandler parent, OMBinaryContent binaryContent) {
+        super(parent);
+        this.binaryContent = binaryContent;
+        xsiTypeDetection = binaryContent.isXsiTypeDetection();
+    }
+
+    private void checkNotDecoding() throws StreamException {
+        if (blob != null) {
+            throw new StreamException("Unexpected content in element containing base64 encoded data");
+        }
+    }
+
+    @Override
+    public void startElement(String namespaceURI, String localName, String prefix)
+            throws StreamException {
+        checkNotDecoding();
+        if (xsiTypeDetection) {
+            if (++depth == scopeStack.length) {
+                int[] newScopeStack = new int[scopeStack.length*2];
+                System.arraycopy(scopeStack, 0, newScopeStack, 0, scopeStack.length);
+                scopeStack = newScopeStack;
+            }
+            scopeStack[depth] = bindings;
+        }
+        selected = binaryContent.isBinaryElement(namespaceURI, localName);
+        super.startElement(namespaceURI, localName, prefix);
+    }
+
+    @Override
+    public void processNamespaceDeclaration(String prefix, String namespaceURI)
+            throws StreamException {
+        if (xsiTypeDetection) {
+            if (bindings*2 == namespaceStack.length) {
+                String[] newNamespaceStack = new String[namespaceStack.length*2];
+                System.arraycopy(namespaceStack, 0, newNamespaceStack, 0, namespaceStack.length);
+                namespaceStack = newNamespaceStack;
+            }
+            namespaceStack[bindings*2] = prefix;
+            namespaceStack[bindings*2+1] = namespaceURI;
+            bindings++;
+        }
+        super.processNamespaceDeclaration(prefix, namespaceURI);
+    }
+
+    @Override
+    public void processAttribute(String namespaceURI, String localName, String prefix,
+            String value, String type, boolean specified) throws StreamException {
+        if (xsiTypeDetection && !selected && localName.equals("type") && namespaceURI.equals(XSI_URI)) {
+            selected = isBase64Binary(value.trim());
+        }
+        super.processAttribute(namespaceURI, localName, prefix, value, type, specified);
+    }
+
+    private boolean isBase64Binary(String qname) {
+        int idx = qname.indexOf(':');
+        String prefix;
+        String localName;
+        if (idx == -1) {
+            prefix = "";
+            localName = qname;
+        } else {
+            prefix = qname.substring(0, idx);
+            localName = qname.substring(idx+1);
+        }
+        if (!localName.equals(BASE64_BINARY)) {
+            return false;
+        }
+        // Namespace declarations of the current element have already been reported
+        for (int i=bindings-1; i>=0; i--) {
+            if (namespaceStack[i*2].equals(prefix)) {
+                return XSD_URI.equals(namespaceStack[i*2+1]);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void attributesCompleted() throws StreamException {
+        super.attributesCompleted();
+        if (selected) {
+            selected = false;
+            blob = binaryContent.getBlobFactory().createBlob();
+            try {
+                writer = new Base64DecodingOutputStreamWriter(
+                        new BufferedOutputStream(blob.getOutputStream()));
+            } catch (IOException ex) {
+                throw new StreamException(ex);
+            }
+        }
+    }
+
+    @Override
+    public void endElement() throws StreamException {
+        if (xsiTypeDetection) {
+            bindings = scopeStack[depth--];
+        }
+        if (blob != null) {
+            WritableBlob blob = this.blob;
+            this.blob = null;
+            try {
+                writer.close();
+            } catch (IOException ex) {
+                throw new StreamException(ex);
+            }
+            writer = null;
+            if (hasText) {
+                hasText = false;
+                super.processCharacterData(new TextContent(null,
+                        new DataHandler(new BlobDataSource(blob, "application/octet-stream")),
+                        false), false);
+            } else {
+                release(blob);
+            }
+        }
+        super.endElement();
+    }
+
+    @Override
+    public void processCharacterData(Object data, boolean ignorable) throws StreamException {
+        if (blob == null) {
+            super.processCharacterData(data, ignorable);
+        } else if (data instanceof String) {
+            try {
+                writer.write((String)data);
+            } catch (IOException ex) {
+                throw new StreamException(ex);
+            }
+            hasText = true;
+        } else if (!hasText) {
+            // The content is already available in another form (e.g. a reference to an
+            // attachment); don't decode it.
+            try {
+                writer.close();
+            } catch (IOException ex) {
+                throw new StreamException(ex);
+            }
+            writer = null;
+            release(blob);
+            blob = null;
+            super.processCharacterData(data, ignorable);
+        } else {
+            throw new StreamException("Unexpected content in element containing base64 encoded data");
+        }
+    }
+
+    private static void release(WritableBlob blob) throws StreamException {
+        try {
+            blob.release();
+        } catch (IOException ex) {
+            throw new StreamException(ex);
+        }
+    }
+
+    @Override
+    public void startCDATASection() throws StreamException {
+        if (blob == null) {
+            super.startCDATASection();
+        }
+    }
+
+    @Override
+    public void endCDATASection() throws StreamException {
+        if (blob == null) {
+            super.endCDATASection();
+        }
+    }
+
+    @Override
+    public void startProcessingInstruction(String target) throws StreamException {
+        checkNotDecoding();
+        super.startProcessingInstruction(target);
+    }
+
+    @Override
+    public void startComment() throws StreamException {
+        checkNotDecoding();
+        super.startComment();
+    }
+
+    @Override
+    public void processEntityReference(String name, String replacementText)
+            throws StreamException {
+        checkNotDecoding();
+        super.processEntityReference(name, replacementText);
+    }
+}
@@ -18,13 +18,22 @@
  */
 package org.apache.axiom.om.impl.common.factory;
 
+import java.io.InputStream;
+
 import org.apache.axiom.core.CoreNode;
 import org.apache.axiom.core.NodeFactory;
 import org.apache.axiom.core.impl.builder.BuilderImpl;
 import org.apache.axiom.core.impl.builder.BuilderListener;
+import org.apache.axiom.core.impl.builder.CharacterDataCompactor;
 import org.apache.axiom.core.impl.builder.PlainXMLModel;
 import org.apache.axiom.core.stream.FilteredXmlInput;
+import org.apache.axiom.core.stream.async.AsyncXmlInput;
+import org.apache.axiom.core.stream.eventlog.BinaryXmlInput;
+import org.apache.axiom.om.OMBuilderSpec;
+import org.apache.axiom.om.OMCharacterDataStorage;
 import org.apache.axiom.om.OMXMLParserWrapper;
+import org.apache.axiom.om.impl.common.builder.BuilderResetter;
+import org.apache.axiom.om.impl.common.builder.Detachable;
 import org.apache.axiom.om.impl.common.builder.OMXMLParserWrapperImpl;
 import org.apache.axiom.soap.SOAPFactory;
 import org.apache.axiom.soap.SOAPModelBuilder;
@@ -33,20 +42,30 @@ import org.apache.axiom.soap.impl.common.builder.SOAPModel;
 import org.apache.axiom.soap.impl.common.builder.SOAPModelBuilderImpl;
 import org.apache.axiom.soap.impl.intf.AxiomSOAPEnvelope;
 import org.apache.axiom.soap.impl.intf.AxiomSOAPMessage;
+import org.xml.sax.InputSource;
 
 abstract class BuilderFactory<T extends OMXMLParserWrapper> {
     final static BuilderFactory<OMXMLParserWrapper> OM = new BuilderFactory<OMXMLParserWrapper>() {
         @Override
-        OMXMLParserWrapper createBuilder(NodeFactory nodeFactory, BuilderSpec spec) {
-            return new OMXMLParserWrapperImpl(new BuilderImpl(spec.getInput(), nodeFactory,
-                    PlainXMLModel.INSTANCE, null), spec.getDetachable());
+        OMXMLParserWrapper createBuilder(NodeFactory nodeFactory, BuilderSpec spec,
+                CharacterDataCompactor compactor, BuilderResetter resetter) {
+            BuilderImpl builder = new BuilderImpl(spec.getInput(), nodeFactory, PlainXMLModel.INSTANCE, null);
+            builder.setCharacterDataCompactor(compactor);
+            return new OMXMLParserWrapperImpl(builder, spec.getDetachable(), resetter);
+        }
+
+        @Override
+        void reset(BuilderImpl builder, BuilderSpec spec) {
+            builder.reset(spec.getInput(), PlainXMLModel.INSTANCE);
         }
     };
 
     final static BuilderFactory<SOAPModelBuilder> SOAP = new BuilderFactory<SOAPModelBuilder>() {
         @Override
-        SOAPModelBuilder createBuilder(NodeFactory nodeFactory, BuilderSpec spec) {
+        SOAPModelBuilder createBuilder(NodeFactory nodeFactory, BuilderSpec spec,
+                CharacterDataCompactor compactor, BuilderResetter resetter) {
             BuilderImpl builder = new BuilderImpl(new FilteredXmlInput(spec.getInput(), SOAPFilter.INSTANCE), nodeFactory, new SOAPModel(), null);
+            builder.setCharacterDataCompactor(compactor);
             // The SOAPFactory instance linked to the SOAPMessage is unknown until we reach the
             // SOAPEnvelope. Register a post-processor that does the necessary updates on the
             // SOAPMessage.
@@ -59,13 +78,66 @@ abstract class BuilderFactory<T extends OMXMLParserWrapper> {
                         message = (AxiomSOAPMessage)node;
                     } else if (message != null && node instanceof AxiomSOAPEnvelope) {
                         message.initSOAPFactory((SOAPFactory)((AxiomSOAPEnvelope)node).getOMFactory());
+                        // Don't keep a reference to the tree; the builder may be reset to parse
+                        // another message.
+                        message = null;
                     }
                     return null;
                 }
             });
-            return new SOAPModelBuilderImpl(builder, spec.getDetachable());
+            return new SOAPModelBuilderImpl(builder, spec.getDetachable(), resetter);
+        }
+
+        @Override
+        void reset(BuilderImpl builder, BuilderSpec spec) {
+            builder.reset(new FilteredXmlInput(spec.getInput(), SOAPFilter.INSTANCE), new SOAPModel());
         }
     };
 
-    abstract T createBuilder(NodeFactory nodeFactory, BuilderSpec spec);
+    abstract T createBuilder(NodeFactory nodeFactory, BuilderSpec spec,
+            CharacterDataCompactor compactor, BuilderResetter resetter);
+
+    abstract void reset(BuilderImpl builder, BuilderSpec spec);
+
+    final T createBuilder(NodeFactory nodeFactory, BuilderSpec spec) {
+        return createBuilder(nodeFactory, spec, null, null);
+    }
+
+    /**
+     * Create a builder for the input and options described by the given {@link OMBuilderSpec}.
+     * Builders for plain XML input can be reset to parse subsequent documents from new streams
+     * using the same configuration and options.
+     */
+    final T createBuilder(NodeFactory nodeFactory, final OMBuilderSpec options) {
+        OMCharacterDataStorage storage = options.getCharacterDataStorage();
+        CharacterDataCompactor compactor = storage == OMCharacterDataStorage.DEFAULT ? null
+                : new CharacterDataCompactor(storage.isCompact(), storage.isDeduplicated());
+        if (options.isAsync()) {
+            AsyncXmlInput input = new AsyncXmlInput();
+            T builder = createBuilder(nodeFactory, applyOptions(BuilderSpec.from(input), options), compactor, null);
+            ((OMXMLParserWrapperImpl)builder).setAsyncInput(input);
+            return builder;
+        } else if (options.getInputSource() == null) {
+            return createBuilder(nodeFactory, applyOptions(
+                    BuilderSpec.from(new BinaryXmlInput(options.getBinaryInputStream())), options),
+                    compactor, null);
+        } else {
+            return createBuilder(nodeFactory,
+                    applyOptions(BuilderSpec.from(options.getConfiguration(), options.getInputSource()), options),
+                    compactor,
+                    new BuilderResetter() {
+                        @Override
+                        public Detachable reset(BuilderImpl builder, InputStream in) {
+                            BuilderSpec spec = applyOptions(BuilderSpec.from(options.getConfiguration(), new InputSource(in)), options);
+                            BuilderFactory.this.reset(builder, spec);
+                            return spec.getDetachable();
+                        }
+                    });
+        }
+    }
+
+    private static BuilderSpec applyOptions(BuilderSpec spec, OMBuilderSpec options) {
+        spec = spec.project(options.getProjection()).decodeBase64(options.getBinaryContent());
+        return options.isParallel() ? spec.parallelize(options.getExecutor()) : spec;
+    }
 }
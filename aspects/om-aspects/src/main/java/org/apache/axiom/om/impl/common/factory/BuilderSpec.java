@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.net.URL;
+import java.util.concurrent.Executor;
 
 import javax.activation.DataHandler;
 import javax.xml.stream.XMLStreamException;
@@ -36,12 +37,17 @@ import javax.xml.transform.stream.StreamSource;
 import org.apache.axiom.core.stream.FilteredXmlInput;
 import org.apache.axiom.core.stream.NamespaceRepairingFilter;
 import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.async.AsyncXmlInput;
+import org.apache.axiom.core.stream.eventlog.BinaryXmlInput;
+import org.apache.axiom.core.stream.parallel.ParallelXmlInput;
 import org.apache.axiom.core.stream.dom.DOMInput;
 import org.apache.axiom.core.stream.sax.SAXInput;
 import org.apache.axiom.mime.MultipartBody;
 import org.apache.axiom.mime.Part;
 import org.apache.axiom.om.OMAttachmentAccessor;
+import org.apache.axiom.om.OMBinaryContent;
 import org.apache.axiom.om.OMException;
+import org.apache.axiom.om.OMProjection;
 import org.apache.axiom.om.impl.common.builder.Detachable;
 import org.apache.axiom.om.impl.stream.stax.pull.StAXPullInput;
 import org.apache.axiom.om.impl.stream.xop.XOPDecodingFilter;
@@ -186,6 +192,14 @@ final class BuilderSpec {
         return new BuilderSpec(new FilteredXmlInput(new SAXInput(source, expandEntityReferences), NamespaceRepairingFilter.DEFAULT), null);
     }
 
+    static BuilderSpec from(AsyncXmlInput input) {
+        return new BuilderSpec(input, null);
+    }
+
+    static BuilderSpec from(BinaryXmlInput input) {
+        return new BuilderSpec(input, null);
+    }
+
     static BuilderSpec from(StAXParserConfiguration configuration, final MultipartBody message) {
         Part rootPart = message.getRootPart();
         InputSource is = new InputSource(rootPart.getInputStream(false));
@@ -218,6 +232,46 @@ final class BuilderSpec {
                 spec.getDetachable());
     }
 
+    /**
+     * Create a new spec that only builds the parts of the document selected by the given
+     * projection.
+     * 
+     * @param projection
+     *            the projection, or <code>null</code> if the entire document should be built
+     * @return the new spec
+     */
+    BuilderSpec project(OMProjection projection) {
+        return projection == null ? this : new BuilderSpec(
+                new FilteredXmlInput(input, new ProjectionFilter(projection)), detachable);
+    }
+
+    /**
+     * Create a new spec that decodes the base64 encoded content of the elements selected by the
+     * given {@link OMBinaryContent} while parsing.
+     * 
+     * @param binaryContent
+     *            the elements containing binary data, or <code>null</code> if no data should be
+     *            decoded
+     * @return the new spec
+     */
+    BuilderSpec decodeBase64(OMBinaryContent binaryContent) {
+        return binaryContent == null ? this : new BuilderSpec(
+                new FilteredXmlInput(input, new Base64DecodingFilter(binaryContent)), detachable);
+    }
+
+    /**
+     * Create a new spec that parses the document on a separate thread. The {@link Detachable} is
+     * kept: it is thread safe, so that detaching the builder buffers whatever the parser thread
+     * hasn't read yet.
+     * 
+     * @param executor
+     *            the executor to run the parser, or <code>null</code> to use a new daemon thread
+     * @return the new spec
+     */
+    BuilderSpec parallelize(Executor executor) {
+        return new BuilderSpec(new ParallelXmlInput(input, executor), detachable);
+    }
+
     XmlInput getInput() {
         return input;
     }
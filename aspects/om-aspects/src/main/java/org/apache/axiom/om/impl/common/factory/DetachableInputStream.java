@@ -27,6 +27,11 @@ import org.apache.axiom.ext.io.StreamCopyException;
 import org.apache.axiom.om.OMException;
 import org.apache.axiom.om.impl.common.builder.Detachable;
 
+/**
+ * Wraps the stream read by the parser so that its remaining content can be buffered in memory
+ * when the builder is detached. The methods are synchronized because with a parallel builder the
+ * stream is read by the parser thread while {@link #detach()} is called by the application thread.
+ */
 final class DetachableInputStream extends InputStream implements Detachable {
     private InputStream target;
     private final boolean closeOnDetach;
@@ -37,37 +42,37 @@ final class DetachableInputStream extends InputStream implements Detachable {
     }
 
     @Override
-    public int read() throws IOException {
+    public synchronized int read() throws IOException {
         return target.read();
     }
 
     @Override
-    public int read(byte[] b) throws IOException {
+    public synchronized int read(byte[] b) throws IOException {
         return target.read(b);
     }
 
     @Override
-    public int read(byte[] b, int off, int len) throws IOException {
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
         return target.read(b, off, len);
     }
 
     @Override
-    public long skip(long n) throws IOException {
+    public synchronized long skip(long n) throws IOException {
         return target.skip(n);
     }
 
     @Override
-    public int available() throws IOException {
+    public synchronized int available() throws IOException {
         return target.available();
     }
 
     @Override
-    public void close() throws IOException {
+    public synchronized void close() throws IOException {
         target.close();
     }
 
     @Override
-    public void detach() throws OMException {
+    public synchronized void detach() throws OMException {
         MemoryBlob blob = Blobs.createMemoryBlob();
         try {
             blob.readFrom(target);
@@ -31,6 +31,10 @@ import org.apache.axiom.blob.MemoryBlob;
 import org.apache.axiom.om.OMException;
 import org.apache.axiom.om.impl.common.builder.Detachable;
 
+/**
+ * Character stream counterpart of {@link DetachableInputStream}. Detaching converts the remaining
+ * content to UTF-8 and buffers it in memory. Synchronized for the same reason.
+ */
 final class DetachableReader extends Reader implements Detachable {
     private static final Charset UTF8 = Charset.forName("UTF-8");
     
@@ -41,42 +45,42 @@ final class DetachableReader extends Reader implements Detachable {
     }
 
     @Override
-    public int read(CharBuffer target) throws IOException {
+    public synchronized int read(CharBuffer target) throws IOException {
         return target.read(target);
     }
 
     @Override
-    public int read() throws IOException {
+    public synchronized int read() throws IOException {
         return target.read();
     }
 
     @Override
-    public int read(char[] cbuf) throws IOException {
+    public synchronized int read(char[] cbuf) throws IOException {
         return target.read(cbuf);
     }
 
     @Override
-    public int read(char[] cbuf, int off, int len) throws IOException {
+    public synchronized int read(char[] cbuf, int off, int len) throws IOException {
         return target.read(cbuf, off, len);
     }
 
     @Override
-    public long skip(long n) throws IOException {
+    public synchronized long skip(long n) throws IOException {
         return target.skip(n);
     }
 
     @Override
-    public boolean ready() throws IOException {
+    public synchronized boolean ready() throws IOException {
         return target.ready();
     }
 
     @Override
-    public void close() throws IOException {
+    public synchronized void close() throws IOException {
         target.close();
     }
     
     @Override
-    public void detach() {
+    public synchronized void detach() {
         MemoryBlob blob = Blobs.createMemoryBlob();
         Writer out = new OutputStreamWriter(blob.getOutputStream(), UTF8);
         char[] buffer = new char[2048];
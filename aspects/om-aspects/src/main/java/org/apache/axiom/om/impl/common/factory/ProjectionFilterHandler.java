@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.common.factory;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlHandlerWrapper;
+import org.apache.axiom.om.OMProjection;
+
+final class ProjectionFilterHandler extends XmlHandlerWrapper {
+    private final OMProjection projection;
+    
+    /**
+     * The projections for the elements on the current path.
+     */
+    private OMProjection[] stack = new OMProjection[16];
+    private int depth;
+    
+    /**
+     * The depth relative to the root of the subtree that is currently being skipped, or 0 if
+     * events are currently passed through.
+     */
+    private int skipDepth;
+
+    ProjectionFilterHandler(XmlHandler parent, OMProjection projection) {
+        super(parent);
+        this.projection = projection;
+    }
+
+    @Override
+    public void startDocument(String inputEncoding, String xmlVersion, String xmlEncoding,
+            Boolean standalone) throws StreamException {
+        stack[0] = projection;
+        super.startDocument(inputEncoding, xmlVersion, xmlEncoding, standalone);
+    }
+
+    @Override
+    public void startFragment() throws StreamException {
+        stack[0] = projection;
+        super.startFragment();
+    }
+
+    @Override
+    public void startElement(String namespaceURI, String localName, String prefix)
+            throws StreamException {
+        if (skipDepth > 0) {
+            skipDepth++;
+            return;
+        }
+        OMProjection childProjection = stack[depth].getChildProjection(namespaceURI, localName);
+        if (childProjection == null) {
+            skipDepth = 1;
+            return;
+        }
+        if (++depth == stack.length) {
+            OMProjection[] newStack = new OMProjection[stack.length*2];
+            System.arraycopy(stack, 0, newStack, 0, stack.length);
+            stack = newStack;
+        }
+        stack[depth] = childProjection;
+        super.startElement(namespaceURI, localName, prefix);
+    }
+
+    @Override
+    public void endElement() throws StreamException {
+        if (skipDepth > 0) {
+            skipDepth--;
+        } else {
+            stack[depth--] = null;
+            super.endElement();
+        }
+    }
+
+    @Override
+    public void processAttribute(String namespaceURI, String localName, String prefix,
+            String value, String type, boolean specified) throws StreamException {
+        if (skipDepth == 0) {
+            super.processAttribute(namespaceURI, localName, prefix, value, type, specified);
+        }
+    }
+
+    @Override
+    public void processAttribute(String name, String value, String type, boolean specified)
+            throws StreamException {
+        if (skipDepth == 0) {
+            super.processAttribute(name, value, type, specified);
+        }
+    }
+
+    @Override
+    public void processNamespaceDeclaration(String prefix, String namespaceURI)
+            throws StreamException {
+        if (skipDepth == 0) {
+            super.processNamespaceDeclaration(prefix, namespaceURI);
+        }
+    }
+
+    @Override
+    public void attributesCompleted() throws StreamException {
+        if (skipDepth == 0) {
+            super.attributesCompleted();
+        }
+    }
+
+    @Override
+    public void processCharacterData(Object data, boolean ignorable) throws StreamException {
+        if (skipDepth == 0) {
+            super.processCharacterData(data, ignorable);
+        }
+    }
+
+    @Override
+    public void startProcessingInstruction(String target) throws StreamException {
+        if (skipDepth == 0) {
+            super.startProcessingInstruction(target);
+        }
+    }
+
+    @Override
+    public void endProcessingInstruction() throws StreamException {
+        if (skipDepth == 0) {
+            super.endProcessingInstruction();
+        }
+    }
+
+    @Override
+    public void startComment() throws StreamException {
+        if (skipDepth == 0) {
+            super.startComment();
+        }
+    }
+
+    @Override
+    public void endComment() throws StreamException {
+        if (skipDepth == 0) {
+            super.endComment();
+        }
+    }
+
+    @Override
+    public void startCDATASection() throws StreamException {
+        if (skipDepth == 0) {
+            super.startCDATASection();
+        }
+    }
+
+    @Override
+    public void endCDATASection() throws StreamException {
+        if (skipDepth == 0) {
+            super.endCDATASection();
+        }
+    }
+
+    @Override
+    public void processEntityReference(String name, String replacementText)
+            throws StreamException {
+        if (skipDepth == 0) {
+            super.processEntityReference(name, replacementText);
+        }
+    }
+}
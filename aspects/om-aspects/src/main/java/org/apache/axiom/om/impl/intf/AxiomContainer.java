@@ -18,11 +18,12 @@
  */
 package org.apache.axiom.om.impl.intf;
 
+import org.apache.axiom.om.Freezable;
 import org.apache.axiom.om.OMContainer;
 import org.apache.axiom.om.OMException;
 import org.apache.axiom.om.OMNode;
 
-public interface AxiomContainer extends OMContainer, AxiomCoreParentNode {
+public interface AxiomContainer extends OMContainer, Freezable, AxiomCoreParentNode {
     /**
      * Check if the node can be added as a child of this container.
      * 
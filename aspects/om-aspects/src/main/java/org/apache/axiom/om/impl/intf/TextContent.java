@@ -176,8 +176,7 @@ public final class TextContent implements CloneableCharacterData {
             getDataHandler().writeTo(out);
             out.complete();
         } else {
-            // TODO: there must be a better way to just write a String
-            sink.getWriter().write(value);
+            sink.writeString(value);
         }
     }
 
@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import org.apache.axiom.blob.Blobs;
+import org.apache.axiom.blob.MemoryBlob;
+import org.apache.axiom.core.CoreAttribute;
+import org.apache.axiom.core.CoreChildNode;
+import org.apache.axiom.core.CoreDocument;
+import org.apache.axiom.core.CoreElement;
+import org.apache.axiom.core.CoreModelException;
+import org.apache.axiom.core.CoreNSAwareElement;
+import org.apache.axiom.core.CoreParentNode;
+import org.apache.axiom.core.stream.NamespaceRepairingFilterHandler;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlHandlerWrapper;
+import org.apache.axiom.core.stream.serializer.Serializer;
+import org.apache.axiom.om.OMOutputFormat;
+
+/**
+ * Serializes a tree using multiple threads. The serializer locates the element with the largest
+ * number of children (e.g. the body of a SOAP message containing a large number of records),
+ * splits these children into chunks and serializes each chunk into a {@link MemoryBlob} using a
+ * task submitted to an {@link Executor}. The rest of the tree is serialized on the calling thread
+ * and the content of the blobs is copied to the output stream in document order. Each chunk is
+ * serialized using handlers forked from the ones used for the rest of the tree (see
+ * {@link NamespaceRepairingFilterHandler#fork(XmlHandler)}) so that the output is identical to
+ * the output produced by sequential serialization.
+ * <p>
+ * The tree must be completely built and must not be modified during serialization. Only charset
+ * encodings that are stateless and compatible with ASCII are supported (see
+ * {@link #isEncodingSupported(String)}); for other encodings, concatenating independently
+ * encoded chunks may not produce the same result as encoding the document sequentially.
+ */
+public final class ParallelSerializer {
+    /**
+     * The minimum number of children an element must have to be split.
+     */
+    private static final int MIN_CHILDREN = 128;
+    
+    /**
+     * The minimum number of children serialized by a single task. Chunks are only split before
+     * element nodes (see {@link #serializeChildren(CoreParentNode)}), so a chunk may be larger.
+     */
+    private static final int CHUNK_SIZE = 64;
+    
+    /**
+     * Handler that discards the {@link XmlHandler#startFragment()} and
+     * {@link XmlHandler#completed()} events generated when serializing a child node.
+     */
+    private static final class ChildNodeFilterHandler extends XmlHandlerWrapper {
+        ChildNodeFilterHandler(XmlHandler parent) {
+            super(parent);
+        }
+
+        @Override
+        public void startFragment() throws StreamException {
+        }
+
+        @Override
+        public void completed() throws StreamException {
+        }
+    }
+    
+    private final OutputStream out;
+    private final String encoding;
+    private final OMOutputFormat format;
+    private final CoreElement contextElement;
+    private final Executor executor;
+    private Serializer serializer;
+    private XsiTypeFilterHandler xsiTypeFilter;
+    private NamespaceRepairingFilterHandler namespaceRepairingFilter;
+
+    public ParallelSerializer(OutputStream out, String encoding, OMOutputFormat format,
+            CoreElement contextElement, Executor executor) {
+        this.out = out;
+        this.encoding = encoding;
+        this.format = format;
+        this.contextElement = contextElement;
+        this.executor = executor;
+    }
+
+    /**
+     * Check whether the given charset encoding can be used with this serializer.
+     * 
+     * @param encoding
+     *            the charset encoding
+     * @return <code>true</code> if the encoding is supported, <code>false</code> otherwise
+     */
+    public static boolean isEncodingSupported(String encoding) {
+        String name = Charset.forName(encoding).name();
+        return name.equals("UTF-8") || name.equals("US-ASCII") || name.equals("ISO-8859-1");
+    }
+
+    public void serialize(CoreParentNode root) throws CoreModelException, StreamException {
+        root.coreBuild();
+        serializer = new Serializer(out, encoding);
+        XmlHandler handler = new XmlDeclarationRewriterHandler(serializer, format);
+        if (contextElement != null) {
+            handler = xsiTypeFilter = new XsiTypeFilterHandler(handler, contextElement);
+        }
+        handler = namespaceRepairingFilter = new NamespaceRepairingFilterHandler(handler, null, true);
+        List<CoreParentNode> path = findSplitPath(root);
+        if (path == null) {
+            root.internalSerialize(handler, true);
+        } else {
+            boolean isDocument = root instanceof CoreDocument;
+            if (!isDocument) {
+                handler.startFragment();
+            }
+            serialize(path, 0, handler);
+            if (!isDocument) {
+                handler.completed();
+            }
+        }
+    }
+
+    private static boolean isSplittable(CoreParentNode node) throws StreamException {
+        if (node instanceof CoreDocument) {
+            return true;
+        } else if (node instanceof CoreNSAwareElement) {
+            // Sourced elements that have not been expanded are serialized as a whole
+            return ((CoreNSAwareElement)node).getXmlInput(true, false) == null;
+        } else {
+            return false;
+        }
+    }
+
+    private static int countChildren(CoreParentNode node, int max) throws CoreModelException {
+        int count = 0;
+        CoreChildNode child = node.coreGetFirstChild();
+        while (child != null && count < max) {
+            count++;
+            child = child.coreGetNextSibling();
+        }
+        return count;
+    }
+
+    /**
+     * Determine the path from the root to the element whose children should be serialized in
+     * parallel. Starting from the root, the method descends into the child element with the
+     * largest number of children until an element with at least {@link #MIN_CHILDREN} children
+     * is found.
+     * 
+     * @return the path, or <code>null</code> if no such element exists
+     */
+    private static List<CoreParentNode> findSplitPath(CoreParentNode root) throws CoreModelException, StreamException {
+        if (!isSplittable(root)) {
+            return null;
+        }
+        List<CoreParentNode> path = new ArrayList<CoreParentNode>();
+        CoreParentNode node = root;
+        while (true) {
+            path.add(node);
+            if (node instanceof CoreElement && countChildren(node, MIN_CHILDREN) == MIN_CHILDREN) {
+                return path;
+            }
+            CoreParentNode next = null;
+            int maxChildren = 0;
+            for (CoreChildNode child = node.coreGetFirstChild(); child != null; child = child.coreGetNextSibling()) {
+                if (child instanceof CoreNSAwareElement && isSplittable((CoreParentNode)child)) {
+                    int count = countChildren((CoreParentNode)child, MIN_CHILDREN);
+                    if (count > maxChildren) {
+                        next = (CoreParentNode)child;
+                        maxChildren = count;
+                    }
+                }
+            }
+            if (next == null) {
+                return null;
+            }
+            node = next;
+        }
+    }
+
+    private void serialize(List<CoreParentNode> path, int level, XmlHandler handler) throws CoreModelException, StreamException {
+        CoreParentNode node = path.get(level);
+        node.serializeStartEvent(handler);
+        if (node instanceof CoreElement) {
+            for (CoreAttribute attr = ((CoreElement)node).coreGetFirstAttribute(); attr != null; attr = attr.coreGetNextAttribute()) {
+                attr.internalSerialize(handler, true);
+            }
+            handler.attributesCompleted();
+        }
+        if (level == path.size()-1) {
+            serializeChildren(node);
+        } else {
+            CoreParentNode next = path.get(level+1);
+            XmlHandler childHandler = new ChildNodeFilterHandler(handler);
+            for (CoreChildNode child = node.coreGetFirstChild(); child != null; child = child.coreGetNextSibling()) {
+                if (child == next) {
+                    serialize(path, level+1, handler);
+                } else {
+                    child.internalSerialize(childHandler, true);
+                }
+            }
+        }
+        node.serializeEndEvent(handler);
+    }
+
+    private void serializeChildren(CoreParentNode parent) throws CoreModelException, StreamException {
+        List<FutureTask<MemoryBlob>> tasks = new ArrayList<FutureTask<MemoryBlob>>();
+        try {
+            CoreChildNode child = parent.coreGetFirstChild();
+            while (child != null) {
+                final List<CoreChildNode> chunk = new ArrayList<CoreChildNode>(CHUNK_SIZE);
+                // Only split before an element: the serializer keeps some state between
+                // character data events (e.g. to escape the '>' in "]]>" if the square brackets
+                // and the '>' are in different text nodes) and that state is reset by a start tag.
+                while (child != null && (chunk.size() < CHUNK_SIZE || !(child instanceof CoreElement))) {
+                    chunk.add(child);
+                    child = child.coreGetNextSibling();
+                }
+                final MemoryBlob blob = Blobs.createMemoryBlob();
+                final OutputStream blobOut = blob.getOutputStream();
+                final Serializer chunkSerializer = new Serializer(blobOut, encoding);
+                // Fork the handlers on this thread, while they are in the state corresponding
+                // to the start of the chunk
+                XmlHandler handler = chunkSerializer;
+                if (xsiTypeFilter != null) {
+                    handler = xsiTypeFilter.fork(handler);
+                }
+                final XmlHandler chunkHandler = new ChildNodeFilterHandler(namespaceRepairingFilter.fork(handler));
+                FutureTask<MemoryBlob> task = new FutureTask<MemoryBlob>(new Callable<MemoryBlob>() {
+                    @Override
+                    public MemoryBlob call() throws Exception {
+                        for (CoreChildNode node : chunk) {
+                            node.internalSerialize(chunkHandler, true);
+                        }
+                        chunkSerializer.flushBuffer();
+                        blobOut.close();
+                        return blob;
+                    }
+                });
+                tasks.add(task);
+                executor.execute(task);
+            }
+            // This closes the start tag of the parent element and flushes the serializer
+            OutputStream target = serializer.getOutputStream();
+            for (FutureTask<MemoryBlob> task : tasks) {
+                MemoryBlob blob;
+                // If the task hasn't been started yet, execute it on the current thread. This
+                // avoids a deadlock if the current thread is itself a worker of the executor and
+                // all other workers are busy (or blocked). If the task has already been started
+                // by another thread, this does nothing.
+                task.run();
+                try {
+                    blob = task.get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new StreamException(ex);
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof CoreModelException) {
+                        throw (CoreModelException)cause;
+                    } else if (cause instanceof StreamException) {
+                        throw (StreamException)cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException)cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error)cause;
+                    } else {
+                        throw new StreamException(cause);
+                    }
+                }
+                try {
+                    blob.writeTo(target);
+                } catch (IOException ex) {
+                    throw new StreamException(ex);
+                }
+                blob.release();
+            }
+        } finally {
+            for (FutureTask<MemoryBlob> task : tasks) {
+                task.cancel(false);
+            }
+        }
+    }
+}
@@ -38,6 +38,27 @@ public class XsiTypeFilterHandler extends XmlHandlerWrapper {
         this.contextElement = contextElement;
     }
 
+    private XsiTypeFilterHandler(XmlHandler parent, XsiTypeFilterHandler other) {
+        super(parent);
+        contextElement = other.contextElement;
+        prefixes = other.prefixes.clone();
+        prefixCount = other.prefixCount;
+        scopeStack = other.scopeStack.clone();
+        scopes = other.scopes;
+    }
+
+    /**
+     * Create a new handler that has the same state as this handler at the current position in the
+     * stream. See {@link org.apache.axiom.core.stream.NamespaceRepairingFilterHandler#fork(XmlHandler)}.
+     * 
+     * @param parent
+     *            the handler to send events to
+     * @return the new handler
+     */
+    public XsiTypeFilterHandler fork(XmlHandler parent) {
+        return new XsiTypeFilterHandler(parent, this);
+    }
+
     @Override
     public void startElement(String namespaceURI, String localName, String prefix) throws StreamException {
         super.startElement(namespaceURI, localName, prefix);
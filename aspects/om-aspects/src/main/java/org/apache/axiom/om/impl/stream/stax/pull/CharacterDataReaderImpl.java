@@ -45,6 +45,16 @@ final class CharacterDataReaderImpl implements CharacterDataReader {
                 Object data = reader.getCharacterData();
                 if (data instanceof CharacterData) {
                     ((CharacterData)data).writeTo(new CharacterDataSink() {
+                        @Override
+                        public void writeString(String s) throws IOException {
+                            writer.write(s);
+                        }
+
+                        @Override
+                        public void writeChars(char[] chars, int start, int length) throws IOException {
+                            writer.write(chars, start, length);
+                        }
+
                         @Override
                         public Writer getWriter() {
                             return writer;
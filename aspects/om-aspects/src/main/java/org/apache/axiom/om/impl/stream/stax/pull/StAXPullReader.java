@@ -19,6 +19,8 @@
 
 package org.apache.axiom.om.impl.stream.stax.pull;
 
+import org.apache.axiom.core.stream.BatchXmlHandler;
+import org.apache.axiom.core.stream.BatchingXmlHandler;
 import org.apache.axiom.core.stream.StreamException;
 import org.apache.axiom.core.stream.XmlHandler;
 import org.apache.axiom.core.stream.XmlReader;
@@ -74,6 +76,13 @@ public final class StAXPullReader implements XmlReader {
     private XMLStreamReader parser;
 
     private final XmlHandler handler;
+    
+    /**
+     * The handler that collects events into batches if the handler passed to the constructor
+     * accepts batches, <code>null</code> otherwise.
+     */
+    private final BatchingXmlHandler batchingHandler;
+    
     private final Closeable closeable;
     
     /**
@@ -104,7 +113,13 @@ public final class StAXPullReader implements XmlReader {
             throw new IllegalStateException("The XMLStreamReader must be positioned on a START_DOCUMENT event");
         }
         this.parser = parser;
-        this.handler = handler;
+        if (BatchingXmlHandler.acceptsBatches(handler)) {
+            batchingHandler = new BatchingXmlHandler((BatchXmlHandler)handler);
+            this.handler = batchingHandler;
+        } else {
+            batchingHandler = null;
+            this.handler = handler;
+        }
         this.closeable = closeable;
         this.autoClose = autoClose;
         dataHandlerReader = XMLStreamReaderUtils.getDataHandlerReader(parser);
@@ -186,6 +201,19 @@ public final class StAXPullReader implements XmlReader {
 
     @Override
     public boolean proceed() throws StreamException {
+        if (batchingHandler == null) {
+            return processNextEvent();
+        }
+        // Pull events from the parser until a batch has been sent to the handler (because it is
+        // full or because the end of the document has been reached).
+        boolean complete;
+        do {
+            complete = processNextEvent();
+        } while (!complete && batchingHandler.hasPendingEvents());
+        return complete;
+    }
+    
+    private boolean processNextEvent() throws StreamException {
         int token = parserNext();
         
         // Note: if autoClose is enabled, then the parser may be null at this point
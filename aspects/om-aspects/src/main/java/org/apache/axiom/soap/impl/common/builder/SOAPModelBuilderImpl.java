@@ -21,6 +21,7 @@ package org.apache.axiom.soap.impl.common.builder;
 
 import org.apache.axiom.core.impl.builder.BuilderImpl;
 import org.apache.axiom.om.OMException;
+import org.apache.axiom.om.impl.common.builder.BuilderResetter;
 import org.apache.axiom.om.impl.common.builder.Detachable;
 import org.apache.axiom.om.impl.common.builder.OMXMLParserWrapperImpl;
 import org.apache.axiom.soap.SOAPEnvelope;
@@ -35,6 +36,10 @@ public class SOAPModelBuilderImpl extends OMXMLParserWrapperImpl implements SOAP
         super(builder, detachable);
     }
     
+    public SOAPModelBuilderImpl(BuilderImpl builder, Detachable detachable, BuilderResetter resetter) {
+        super(builder, detachable, resetter);
+    }
+    
     @Override
     public SOAPEnvelope getSOAPEnvelope() throws OMException {
         return (SOAPEnvelope)getDocumentElement();
@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.stream;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlReader;
+import org.apache.axiom.core.stream.async.AsyncXmlInput;
+import org.apache.axiom.om.impl.stream.stax.pull.StAXPullInput;
+import org.apache.axiom.om.util.StAXParserConfiguration;
+import org.apache.axiom.om.util.StAXUtils;
+import org.junit.Test;
+
+/**
+ * Checks that {@link AsyncXmlInput} produces the same events as the StAX based parser
+ * ({@link StAXPullInput}), for the same documents fed in chunks of various sizes. The StAX parser
+ * is configured with {@link StAXParserConfiguration#STANDALONE} because {@link AsyncXmlInput}
+ * doesn't load external DTDs either.
+ */
+public class AsyncXmlInputConformanceTest {
+    /**
+     * Records events as strings. Consecutive character data events are merged because both parsers
+     * are free to split text at arbitrary positions.
+     */
+    private static final class EventRecorder implements XmlHandler {
+        private final List<String> events = new ArrayList<String>();
+        private StringBuilder text;
+        private boolean ignorable;
+
+        EventRecorder() {}
+
+        List<String> getEvents() {
+            return events;
+        }
+
+        private void flushText() {
+            if (text != null) {
+                events.add((ignorable ? "ignorableText: " : "text: ") + text);
+                text = null;
+            }
+        }
+
+        private void add(String event) {
+            flushText();
+            events.add(event);
+        }
+
+        @Override
+        public void startDocument(String inputEncoding, String xmlVersion, String xmlEncoding,
+                Boolean standalone) throws StreamException {
+            add("startDocument: " + xmlVersion + ", " + xmlEncoding + ", " + standalone);
+        }
+
+        @Override
+        public void startFragment() throws StreamException {
+            add("startFragment");
+        }
+
+        @Override
+        public void processDocumentTypeDeclaration(String rootName, String publicId,
+                String systemId, String internalSubset) throws StreamException {
+            add("doctype: " + rootName + ", " + publicId + ", " + systemId + ", " + internalSubset);
+        }
+
+        @Override
+        public void startElement(String namespaceURI, String localName, String prefix)
+                throws StreamException {
+            add("startElement: {" + namespaceURI + "}" + localName + ", " + prefix);
+        }
+
+        @Override
+        public void endElement() throws StreamException {
+            add("endElement");
+        }
+
+        @Override
+        public void processAttribute(String namespaceURI, String localName, String prefix,
+                String value, String type, boolean specified) throws StreamException {
+            add("attribute: {" + namespaceURI + "}" + localName + ", " + prefix + ", " + value
+                    + ", " + type + ", " + specified);
+        }
+
+        @Override
+        public void processAttribute(String name, String value, String type, boolean specified)
+                throws StreamException {
+            add("attribute: " + name + ", " + value + ", " + type + ", " + specified);
+        }
+
+        @Override
+        public void processNamespaceDeclaration(String prefix, String namespaceURI)
+                throws StreamException {
+            add("namespace: " + prefix + ", " + namespaceURI);
+        }
+
+        @Override
+        public void attributesCompleted() throws StreamException {
+            add("attributesCompleted");
+        }
+
+        @Override
+        public void processCharacterData(Object data, boolean ignorable) throws StreamException {
+            if (text != null && this.ignorable != ignorable) {
+                flushText();
+            }
+            if (text == null) {
+                text = new StringBuilder();
+                this.ignorable = ignorable;
+            }
+            text.append(data);
+        }
+
+        @Override
+        public void startProcessingInstruction(String target) throws StreamException {
+            add("startProcessingInstruction: " + target);
+        }
+
+        @Override
+        public void endProcessingInstruction() throws StreamException {
+            add("endProcessingInstruction");
+        }
+
+        @Override
+        public void startComment() throws StreamException {
+            add("startComment");
+        }
+
+        @Override
+        public void endComment() throws StreamException {
+            add("endComment");
+        }
+
+        @Override
+        public void startCDATASection() throws StreamException {
+            add("startCDATASection");
+        }
+
+        @Override
+        public void endCDATASection() throws StreamException {
+            add("endCDATASection");
+        }
+
+        @Override
+        public void processEntityReference(String name, String replacementText)
+                throws StreamException {
+            add("entityReference: " + name + ", " + replacementText);
+        }
+
+        @Override
+        public void completed() throws StreamException {
+            add("completed");
+        }
+
+        @Override
+        public boolean drain() throws StreamException {
+            return true;
+        }
+    }
+
+    private static List<String> parseWithStAX(byte[] data) throws Exception {
+        EventRecorder recorder = new EventRecorder();
+        XmlReader reader = new StAXPullInput(StAXUtils.createXMLStreamReader(
+                StAXParserConfiguration.STANDALONE, new ByteArrayInputStream(data)))
+                .createReader(recorder);
+        while (!reader.proceed()) {
+            // Just loop
+        }
+        reader.dispose();
+        return recorder.getEvents();
+    }
+
+    private static List<String> parseAsync(byte[] data, int chunkSize) throws Exception {
+        EventRecorder recorder = new EventRecorder();
+        AsyncXmlInput input = new AsyncXmlInput();
+        XmlReader reader = input.createReader(recorder);
+        boolean done = false;
+        for (int i=0; i<data.length; i+=chunkSize) {
+            input.feed(ByteBuffer.wrap(data, i, Math.min(chunkSize, data.length-i)));
+            while (!done && input.isEventAvailable()) {
+                done = reader.proceed();
+            }
+        }
+        input.endOfInput();
+        while (!done) {
+            done = reader.proceed();
+        }
+        reader.dispose();
+        return recorder.getEvents();
+    }
+
+    private static void assertConforms(byte[] data) throws Exception {
+        List<String> expected = parseWithStAX(data);
+        for (int chunkSize : new int[] { 1, 2, 3, 7, 64, 4096, data.length }) {
+            assertThat(parseAsync(data, chunkSize)).containsExactlyElementsIn(expected).inOrder();
+        }
+    }
+
+    private static void assertConforms(String xml) throws Exception {
+        assertConforms(xml.getBytes("UTF-8"));
+    }
+
+    @Test
+    public void testNamespacesAndAttributes() throws Exception {
+        assertConforms("<root xmlns='urn:a' xmlns:p=\"urn:p\" p:attr='1' attr=\"2\">"
+                + "<p:child xmlns:p='urn:q' p:attr='3'/><child xmlns=''/><p:child/></root>");
+    }
+
+    @Test
+    public void testXmlDeclaration() throws Exception {
+        assertConforms("<?xml version='1.0' encoding='UTF-8' standalone='yes'?><root/>");
+        assertConforms("<?xml version=\"1.0\"?>\n<root/>");
+    }
+
+    @Test
+    public void testReferences() throws Exception {
+        assertConforms("<root attr='&lt;&amp;&gt;&quot;&apos;&#65;&#x42;'>"
+                + "&lt;&amp;&gt;&quot;&apos;&#65;&#x42;&#x1F600;</root>");
+    }
+
+    @Test
+    public void testLineEndingsAndWhitespace() throws Exception {
+        assertConforms("<root attr='a\r\nb\tc\nd'>\r\n  <a> x\ry\r\n</a>\n</root>\r\n");
+    }
+
+    @Test
+    public void testMarkup() throws Exception {
+        assertConforms("<?pi before?><!-- comment --><root><![CDATA[<a>&amp;]]>"
+                + "<?pi data with spaces ?><!--- - -->text<![CDATA[]]></root><!-- after --><?pi?>");
+    }
+
+    @Test
+    public void testDoctype() throws Exception {
+        assertConforms("<!DOCTYPE root [<!ELEMENT root ANY>]><root/>");
+        assertConforms("<!DOCTYPE root PUBLIC '-//TEST//DTD Test//EN' 'test.dtd'><root/>");
+    }
+
+    @Test
+    public void testNonAscii() throws Exception {
+        assertConforms("<ns:élément xmlns:ns='urn:ü' ns:ä='€'>téxt €😀</ns:élément>");
+        assertConforms("<?xml version='1.0' encoding='ISO-8859-1'?><a b='é'>é</a>".getBytes("ISO-8859-1"));
+        assertConforms("<a>é😀</a>".getBytes("UTF-16"));
+    }
+
+    @Test
+    public void testLargeDocument() throws Exception {
+        StringBuilder buffer = new StringBuilder("<root xmlns='urn:test'>");
+        for (int i=0; i<2000; i++) {
+            buffer.append("<record id='").append(i).append("'><name>Name &amp; number ").append(i)
+                    .append("</name><!-- ").append(i).append(" --></record>\n");
+        }
+        buffer.append("<text>");
+        for (int i=0; i<5000; i++) {
+            buffer.append("long text ").append(i).append(' ');
+        }
+        buffer.append("</text></root>");
+        byte[] data = buffer.toString().getBytes("UTF-8");
+        List<String> expected = parseWithStAX(data);
+        for (int chunkSize : new int[] { 13, 1000, data.length }) {
+            assertThat(parseAsync(data, chunkSize)).containsExactlyElementsIn(expected).inOrder();
+        }
+    }
+}
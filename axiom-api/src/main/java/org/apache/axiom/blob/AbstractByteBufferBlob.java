@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.apache.axiom.ext.io.StreamCopyException;
+import org.apache.axiom.util.io.IOUtils;
+
+/**
+ * Partial implementation of the {@link ByteBufferBlob} interface that implements the read
+ * operations in terms of the buffers returned by {@link #getCommittedBuffers()}.
+ */
+abstract class AbstractByteBufferBlob extends AbstractWritableBlob implements ByteBufferBlob {
+    /**
+     * Get the buffers of this blob. The data is between position 0 and the limit of each buffer.
+     * The caller must not modify the returned buffers.
+     * 
+     * @return the buffers
+     * @throws IllegalStateException
+     *             if the blob is not in state COMMITTED
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    abstract ByteBuffer[] getCommittedBuffers() throws IOException;
+
+    @Override
+    public final ByteBuffer[] getByteBuffers() throws IOException {
+        ByteBuffer[] buffers = getCommittedBuffers();
+        ByteBuffer[] views = new ByteBuffer[buffers.length];
+        for (int i=0; i<buffers.length; i++) {
+            views[i] = buffers[i].asReadOnlyBuffer();
+        }
+        return views;
+    }
+
+    @Override
+    public final InputStream getInputStream() throws IOException {
+        return new ByteBufferInputStream(getByteBuffers());
+    }
+
+    @Override
+    public final long getSize() {
+        ByteBuffer[] buffers;
+        try {
+            buffers = getCommittedBuffers();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        long size = 0;
+        for (ByteBuffer buffer : buffers) {
+            size += buffer.limit();
+        }
+        return size;
+    }
+
+    @Override
+    public final long writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer[] buffers = getByteBuffers();
+        long written = 0;
+        if (channel instanceof GatheringByteChannel) {
+            GatheringByteChannel gatheringChannel = (GatheringByteChannel)channel;
+            int offset = 0;
+            while (offset < buffers.length) {
+                written += gatheringChannel.write(buffers, offset, buffers.length-offset);
+                while (offset < buffers.length && !buffers[offset].hasRemaining()) {
+                    offset++;
+                }
+            }
+        } else {
+            for (ByteBuffer buffer : buffers) {
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer);
+                }
+            }
+        }
+        return written;
+    }
+
+    @Override
+    public final void writeTo(OutputStream out) throws StreamCopyException {
+        ByteBuffer[] buffers;
+        try {
+            buffers = getByteBuffers();
+        } catch (IOException ex) {
+            throw new StreamCopyException(StreamCopyException.READ, ex);
+        }
+        try {
+            WritableByteChannel channel = IOUtils.getChannel(out);
+            if (channel == null) {
+                // The channel created by this method copies the data through a small heap
+                // buffer, unless the buffers are backed by arrays
+                channel = Channels.newChannel(out);
+            }
+            for (ByteBuffer buffer : buffers) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        } catch (IOException ex) {
+            throw new StreamCopyException(StreamCopyException.WRITE, ex);
+        }
+    }
+}
@@ -26,7 +26,9 @@ import java.io.OutputStream;
 import org.apache.axiom.ext.activation.SizeAwareDataSource;
 
 /**
- * Data source backed by a {@link Blob}.
+ * Data source backed by a {@link Blob}. Code that writes the content of a data source may use
+ * {@link #getBlob()} to take advantage of {@link Blob#writeTo(OutputStream)} (see e.g.
+ * {@link org.apache.axiom.mime.MultipartBodyWriter#writePart(javax.activation.DataHandler, String, String, java.util.List)}).
  */
 public class BlobDataSource implements SizeAwareDataSource {
     private final Blob blob;
@@ -37,6 +39,15 @@ public class BlobDataSource implements SizeAwareDataSource {
         this.contentType = contentType;
     }
 
+    /**
+     * Get the blob backing this data source.
+     * 
+     * @return the blob
+     */
+    public Blob getBlob() {
+        return blob;
+    }
+
     @Override
     public InputStream getInputStream() throws IOException {
         return blob.getInputStream();
@@ -45,6 +45,74 @@ public final class Blobs {
         return new MemoryBlobImpl();
     }
     
+    /**
+     * Create a {@link MemoryBlob} instance that allocates its buffers from the given pool. The
+     * buffers are returned to the pool when the blob is released.
+     * 
+     * @param pool
+     *            the buffer pool
+     * @return the blob
+     */
+    public static MemoryBlob createMemoryBlob(BufferPool pool) {
+        return new MemoryBlobImpl(pool);
+    }
+    
+    /**
+     * Create a {@link ByteBufferBlob} that stores its data in direct buffers of 64 KB, i.e.
+     * outside of the Java heap.
+     * 
+     * @return the blob
+     */
+    public static ByteBufferBlob createOffHeapBlob() {
+        return createOffHeapBlob(65536);
+    }
+    
+    /**
+     * Create a {@link ByteBufferBlob} that stores its data in direct buffers, i.e. outside of the
+     * Java heap. The memory is freed when the buffers are garbage collected after the blob has been
+     * released; it is subject to the limit set by <tt>-XX:MaxDirectMemorySize</tt>.
+     * 
+     * @param chunkSize
+     *            the size of the buffers to allocate
+     * @return the blob
+     */
+    public static ByteBufferBlob createOffHeapBlob(int chunkSize) {
+        return new OffHeapBlobImpl(chunkSize);
+    }
+    
+    /**
+     * Create a {@link ByteBufferBlob} that stores its data in a temporary file and that maps that
+     * file into memory to read the data. Temporary files are created using
+     * {@link File#createTempFile(String, String, File)}.
+     * 
+     * @param tempPrefix
+     *            the prefix to be used in generating the name of the temporary file
+     * @param tempSuffix
+     *            the suffix to be used in generating the name of the temporary file
+     * @param tempDirectory
+     *            the directory in which the temporary file is to be created, or <code>null</code>
+     *            if the default temporary directory is to be used
+     * @return the blob
+     */
+    public static ByteBufferBlob createMappedFileBlob(String tempPrefix, String tempSuffix,
+            File tempDirectory) {
+        return new MappedFileBlobImpl(new TempFileBlobFactory(tempPrefix, tempSuffix, tempDirectory));
+    }
+    
+    /**
+     * Create a {@link BufferPool} that recycles buffers up to a given total size. The pool
+     * manages buffers in power of two size classes and keeps a small per thread cache in front of
+     * a lock-free free list shared by all threads.
+     * 
+     * @param maxPooledBytes
+     *            the maximum number of bytes held in the shared free lists; the per thread caches
+     *            (which only hold small buffers) are not included
+     * @return the pool
+     */
+    public static BufferPool createBufferPool(long maxPooledBytes) {
+        return new SizeClassedBufferPool(maxPooledBytes);
+    }
+    
     /**
      * Create an {@link OverflowableBlob}.
      * 
@@ -55,9 +123,27 @@ public final class Blobs {
      * @return the blob
      */
     public static OverflowableBlob createOverflowableBlob(int threshold, WritableBlobFactory<?> overflowBlobFactory) {
+        return createOverflowableBlob(threshold, overflowBlobFactory, UnpooledBufferPool.INSTANCE);
+    }
+    
+    /**
+     * Create an {@link OverflowableBlob} that allocates its in-memory buffers from the given pool.
+     * The buffers are returned to the pool when the blob is released or when the data is
+     * transferred to the overflow blob.
+     * 
+     * @param threshold
+     *            the threshold above which data is transferred to the overflow blob
+     * @param overflowBlobFactory
+     *            the factory that will be used to create the overflow blob
+     * @param pool
+     *            the buffer pool
+     * @return the blob
+     */
+    public static OverflowableBlob createOverflowableBlob(int threshold,
+            WritableBlobFactory<?> overflowBlobFactory, BufferPool pool) {
         int numberOfChunks = Math.max(16, Math.min(1, threshold/4096));
         int chunkSize = threshold/numberOfChunks;
-        return new OverflowableBlobImpl(numberOfChunks, chunkSize, overflowBlobFactory);
+        return new OverflowableBlobImpl(numberOfChunks, chunkSize, overflowBlobFactory, pool);
     }
     
     /**
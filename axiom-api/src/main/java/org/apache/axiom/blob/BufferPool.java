@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+/**
+ * Supplies the byte arrays used by {@link MemoryBlob} and {@link OverflowableBlob} instances to
+ * store their data, so that these arrays can be recycled instead of being allocated for every
+ * blob. Blobs get their buffers from the pool as data is written and return them when
+ * {@link WritableBlob#release()} is called (or, for an {@link OverflowableBlob}, when the data is
+ * transferred to the overflow blob).
+ * <p>
+ * Note that a blob created with a pool must be released explicitly for its buffers to be
+ * recycled, and that input streams obtained from the blob must no longer be used after the blob
+ * has been released. This is a stronger requirement than for blobs that don't use a pool.
+ * <p>
+ * Implementations must be thread safe. Instances are created using
+ * {@link Blobs#createBufferPool(long)}.
+ */
+public interface BufferPool {
+    /**
+     * Get a buffer from the pool, or allocate a new one if no suitable buffer is available.
+     * 
+     * @param minSize
+     *            the minimum size of the buffer
+     * @return a buffer with at least the requested size; the content of the buffer is undefined
+     */
+    byte[] allocate(int minSize);
+
+    /**
+     * Return a buffer to the pool. The caller must not use the buffer after calling this method.
+     * The pool may discard the buffer, e.g. if it doesn't originate from the pool or if the pool
+     * has reached its maximum size.
+     * 
+     * @param buffer
+     *            the buffer
+     */
+    void release(byte[] buffer);
+
+    /**
+     * Get the number of bytes currently held by the pool, i.e. the total size of the buffers that
+     * have been returned to the pool and that have not been reused yet. Implementations may
+     * exclude buffers kept in thread local caches.
+     * 
+     * @return the pool occupancy in bytes
+     */
+    long getPooledBytes();
+}
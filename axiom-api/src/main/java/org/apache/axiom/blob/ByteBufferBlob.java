@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Blob that stores its data in {@link ByteBuffer}s, typically outside of the Java heap, and that
+ * gives direct access to these buffers. Since the data is written to channels directly from these
+ * buffers, no copy to an intermediate buffer on the Java heap is required. Instances are created with
+ * {@link Blobs#createOffHeapBlob()} or {@link Blobs#createMappedFileBlob(String, String, java.io.File)}.
+ * <p>
+ * As for {@link Blob#getInputStream()}, the methods defined by this interface can only be used
+ * if the blob is in state COMMITTED.
+ */
+public interface ByteBufferBlob extends WritableBlob, ChannelWritableBlob {
+    /**
+     * Get read-only views of the buffers containing the data of this blob. Each invocation returns
+     * new views, so that the position and limit of the returned buffers can be changed without
+     * affecting other callers. The views must not be used after the blob has been released.
+     * 
+     * @return the buffers, in order; the data is between the position and the limit of each
+     *         buffer
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    ByteBuffer[] getByteBuffers() throws IOException;
+}
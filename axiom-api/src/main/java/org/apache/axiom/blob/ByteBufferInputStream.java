@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Input stream that reads the data from a sequence of buffers. The stream consumes the buffers,
+ * i.e. it changes their positions.
+ */
+final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer[] buffers;
+    private int index;
+    private int markIndex;
+    private int markPosition;
+
+    ByteBufferInputStream(ByteBuffer[] buffers) {
+        this.buffers = buffers;
+    }
+
+    /**
+     * Get the current buffer, skipping buffers that have been consumed entirely.
+     * 
+     * @return the current buffer, or <code>null</code> if the end of the stream has been reached
+     */
+    private ByteBuffer getCurrentBuffer() {
+        while (index < buffers.length) {
+            ByteBuffer buffer = buffers[index];
+            if (buffer.hasRemaining()) {
+                return buffer;
+            }
+            index++;
+        }
+        return null;
+    }
+
+    @Override
+    public int read() {
+        ByteBuffer buffer = getCurrentBuffer();
+        return buffer == null ? -1 : buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        int read = 0;
+        while (len > 0) {
+            ByteBuffer buffer = getCurrentBuffer();
+            if (buffer == null) {
+                break;
+            }
+            int c = Math.min(len, buffer.remaining());
+            buffer.get(b, off, c);
+            off += c;
+            len -= c;
+            read += c;
+        }
+        return read == 0 ? -1 : read;
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = 0;
+        while (skipped < n) {
+            ByteBuffer buffer = getCurrentBuffer();
+            if (buffer == null) {
+                break;
+            }
+            int c = (int)Math.min(n-skipped, buffer.remaining());
+            ((Buffer)buffer).position(buffer.position() + c);
+            skipped += c;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        long available = 0;
+        for (int i=index; i<buffers.length; i++) {
+            available += buffers[i].remaining();
+        }
+        return (int)Math.min(available, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public void mark(int readlimit) {
+        markIndex = index;
+        markPosition = index < buffers.length ? buffers[index].position() : 0;
+    }
+
+    @Override
+    public void reset() {
+        for (int i=markIndex; i<=index && i<buffers.length; i++) {
+            ((Buffer)buffers[i]).position(i == markIndex ? markPosition : 0);
+        }
+        index = markIndex;
+    }
+}
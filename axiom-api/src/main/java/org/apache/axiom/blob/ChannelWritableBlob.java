@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Optional interface implemented by {@link Blob} implementations that can write their data to a
+ * channel more efficiently than through {@link Blob#writeTo(java.io.OutputStream)}, e.g. without
+ * copying the data to a buffer on the Java heap. Note that these implementations also use the
+ * channel returned by {@link org.apache.axiom.util.io.IOUtils#getChannel(java.io.OutputStream)}
+ * (if any) in {@link Blob#writeTo(java.io.OutputStream)}.
+ */
+public interface ChannelWritableBlob extends Blob {
+    /**
+     * Write the data to a given channel. As {@link Blob#writeTo(java.io.OutputStream)}, this
+     * method can be called multiple times.
+     * 
+     * @param channel
+     *            the channel to write the data to; this method will not close the channel
+     * @return the number of bytes written
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    long writeTo(WritableByteChannel channel) throws IOException;
+}
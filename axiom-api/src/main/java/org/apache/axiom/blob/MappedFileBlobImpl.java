@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * {@link ByteBufferBlob} implementation that stores its data in a temporary file and that reads
+ * the data by mapping that file into memory.
+ */
+final class MappedFileBlobImpl extends AbstractByteBufferBlob {
+    private static final Log log = LogFactory.getLog(MappedFileBlobImpl.class);
+    
+    private final TempFileBlobFactory factory;
+    private final Throwable trace;
+    private File file;
+    private State state = State.NEW;
+    
+    /**
+     * The mapped regions of the file; created when the data is first accessed.
+     */
+    private ByteBuffer[] buffers;
+
+    MappedFileBlobImpl(TempFileBlobFactory factory) {
+        this.factory = factory;
+        trace = log.isDebugEnabled() ? new Throwable() : null;
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        if (state != State.NEW) {
+            throw new IllegalStateException();
+        }
+        file = factory.createTempFile();
+        if (log.isDebugEnabled()) {
+            log.debug("Using temporary file " + file);
+        }
+        file.deleteOnExit();
+        OutputStream out = new FileOutputStream(file) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                state = State.COMMITTED;
+            }
+        };
+        state = State.UNCOMMITTED;
+        return out;
+    }
+
+    @Override
+    synchronized ByteBuffer[] getCommittedBuffers() throws IOException {
+        if (state != State.COMMITTED) {
+            throw new IllegalStateException();
+        }
+        if (buffers == null) {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                FileChannel channel = raf.getChannel();
+                long size = channel.size();
+                // A single mapping is limited to Integer.MAX_VALUE bytes
+                ByteBuffer[] buffers = new ByteBuffer[(int)((size + Integer.MAX_VALUE - 1) / Integer.MAX_VALUE)];
+                for (int i=0; i<buffers.length; i++) {
+                    long position = (long)i * Integer.MAX_VALUE;
+                    buffers[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                            Math.min(Integer.MAX_VALUE, size - position));
+                }
+                this.buffers = buffers;
+            } finally {
+                // The mappings remain valid after the channel is closed
+                raf.close();
+            }
+        }
+        return buffers;
+    }
+
+    @Override
+    public void release() throws IOException {
+        if (file != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Deleting temporary file " + file);
+            }
+            boolean mapped = buffers != null;
+            buffers = null;
+            if (!file.delete()) {
+                if (mapped) {
+                    // On some platforms, a file can't be deleted as long as it is mapped, and a
+                    // mapping is only removed when the buffer is garbage collected. The file
+                    // has been registered with deleteOnExit.
+                    log.debug("Failed to delete mapped file " + file);
+                } else {
+                    throw new IOException("Failed to delete " + file);
+                }
+            }
+            file = null;
+            state = State.RELEASED;
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        if (file != null) {
+            log.warn("Cleaning up unreleased temporary file " + file);
+            if (log.isDebugEnabled()) {
+                log.debug("Blob was created here", trace);
+            }
+            file.delete();
+        }
+    }
+}
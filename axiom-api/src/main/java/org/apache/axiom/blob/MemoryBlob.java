@@ -27,7 +27,9 @@ import java.io.IOException;
  * {@link IOException}. Also note that since data is stored in memory, calling
  * {@link WritableBlob#release()} is not required.
  * <p>
- * Instances are created with {@link Blobs#createMemoryBlob()} or using {@link #FACTORY}.
+ * Instances are created with {@link Blobs#createMemoryBlob()} or using {@link #FACTORY}. Blobs
+ * created with {@link Blobs#createMemoryBlob(BufferPool)} allocate their buffers from a
+ * {@link BufferPool}; they should be released explicitly so that these buffers can be recycled.
  */
 public interface MemoryBlob extends WritableBlob {
     WritableBlobFactory<MemoryBlob> FACTORY = new WritableBlobFactory<MemoryBlob>() {
@@ -25,9 +25,18 @@ import java.io.OutputStream;
 import org.apache.axiom.ext.io.StreamCopyException;
 
 final class MemoryBlobImpl implements MemoryBlob {
+    private final BufferPool pool;
     private MemoryBlobChunk firstChunk;
     private boolean committed;
     
+    MemoryBlobImpl(BufferPool pool) {
+        this.pool = pool;
+    }
+    
+    MemoryBlobImpl() {
+        this(UnpooledBufferPool.INSTANCE);
+    }
+
     @Override
     public long getSize() {
         if (firstChunk == null || !committed) {
@@ -52,10 +61,14 @@ final class MemoryBlobImpl implements MemoryBlob {
         if (firstChunk != null || committed) {
             throw new IllegalStateException();
         } else {
-            return new MemoryBlobOutputStreamImpl(this, firstChunk = new MemoryBlobChunk(4096));
+            return new MemoryBlobOutputStreamImpl(this, firstChunk = new MemoryBlobChunk(pool.allocate(4096)));
         }
     }
 
+    BufferPool getPool() {
+        return pool;
+    }
+
     void commit() {
         committed = true;
     }
@@ -111,6 +124,11 @@ final class MemoryBlobImpl implements MemoryBlob {
 
     @Override
     public void release() {
+        MemoryBlobChunk chunk = firstChunk;
         firstChunk = null;
+        while (chunk != null) {
+            pool.release(chunk.buffer);
+            chunk = chunk.nextChunk;
+        }
     }
 }
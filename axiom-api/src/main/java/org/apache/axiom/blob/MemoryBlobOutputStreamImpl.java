@@ -34,7 +34,7 @@ final class MemoryBlobOutputStreamImpl extends MemoryBlobOutputStream {
     
     private void updateChunk() {
         if (chunk.size == chunk.buffer.length) {
-            chunk = chunk.allocateNextChunk();
+            chunk = chunk.allocateNextChunk(blob.getPool());
         }
     }
     
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link ByteBufferBlob} implementation that stores its data in fixed size direct buffers.
+ */
+final class OffHeapBlobImpl extends AbstractByteBufferBlob {
+    private final class OutputStreamImpl extends OutputStream {
+        private ByteBuffer getCurrentChunk() {
+            if (state != State.UNCOMMITTED) {
+                throw new IllegalStateException();
+            }
+            if (currentChunk == null || !currentChunk.hasRemaining()) {
+                currentChunk = ByteBuffer.allocateDirect(chunkSize);
+                chunks.add(currentChunk);
+            }
+            return currentChunk;
+        }
+
+        @Override
+        public void write(int b) {
+            getCurrentChunk().put((byte)b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            while (len > 0) {
+                ByteBuffer chunk = getCurrentChunk();
+                int c = Math.min(len, chunk.remaining());
+                chunk.put(b, off, c);
+                off += c;
+                len -= c;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (state == State.UNCOMMITTED) {
+                buffers = chunks.toArray(new ByteBuffer[chunks.size()]);
+                for (ByteBuffer buffer : buffers) {
+                    ((Buffer)buffer).flip();
+                }
+                chunks = null;
+                currentChunk = null;
+                state = State.COMMITTED;
+            }
+        }
+    }
+
+    private final int chunkSize;
+    private State state = State.NEW;
+    
+    /**
+     * The chunks written so far; only used in state UNCOMMITTED.
+     */
+    private List<ByteBuffer> chunks;
+    private ByteBuffer currentChunk;
+    
+    /**
+     * The buffers holding the data; only set in state COMMITTED.
+     */
+    private ByteBuffer[] buffers;
+
+    OffHeapBlobImpl(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        if (state != State.NEW) {
+            throw new IllegalStateException();
+        }
+        chunks = new ArrayList<ByteBuffer>();
+        state = State.UNCOMMITTED;
+        return new OutputStreamImpl();
+    }
+
+    @Override
+    ByteBuffer[] getCommittedBuffers() {
+        if (state != State.COMMITTED) {
+            throw new IllegalStateException();
+        }
+        return buffers;
+    }
+
+    @Override
+    public void release() {
+        // The memory is freed when the buffers are garbage collected
+        chunks = null;
+        currentChunk = null;
+        buffers = null;
+        state = State.RELEASED;
+    }
+}
@@ -197,6 +197,11 @@ final class OverflowableBlobImpl implements OverflowableBlob {
     
     final WritableBlobFactory<?> overflowBlobFactory;
     
+    /**
+     * The pool from which chunks are allocated and to which they are returned.
+     */
+    final BufferPool pool;
+    
     /**
      * Array of <code>byte[]</code> representing the chunks of the buffer.
      * A chunk is only allocated when the first byte is written to it.
@@ -228,9 +233,11 @@ final class OverflowableBlobImpl implements OverflowableBlob {
     
     OutputStream overflowOutputStream;
     
-    OverflowableBlobImpl(int numberOfChunks, int chunkSize, WritableBlobFactory<?> overflowBlobFactory) {
+    OverflowableBlobImpl(int numberOfChunks, int chunkSize, WritableBlobFactory<?> overflowBlobFactory,
+            BufferPool pool) {
         this.chunkSize = chunkSize;
         this.overflowBlobFactory = overflowBlobFactory;
+        this.pool = pool;
         chunks = new byte[numberOfChunks][];
     }
     
@@ -241,8 +248,9 @@ final class OverflowableBlobImpl implements OverflowableBlob {
      */
     byte[] getCurrentChunk() {
         if (chunkOffset == 0) {
-            // We will write the first byte to the current chunk. Allocate it.
-            byte[] chunk = new byte[chunkSize];
+            // We will write the first byte to the current chunk. Allocate it. Note that the pool
+            // may return a chunk larger than requested.
+            byte[] chunk = pool.allocate(chunkSize);
             chunks[chunkIndex] = chunk;
             return chunk;
         } else {
@@ -263,14 +271,26 @@ final class OverflowableBlobImpl implements OverflowableBlob {
         overflowOutputStream = overflowBlob.getOutputStream();
         // Write the buffer to the temporary file.
         for (int i=0; i<chunkIndex; i++) {
-            overflowOutputStream.write(chunks[i]);
+            overflowOutputStream.write(chunks[i], 0, chunkSize);
         }
 
         if (chunkOffset > 0) {
             overflowOutputStream.write(chunks[chunkIndex], 0, chunkOffset);
         }
 
-        // Release references to the buffer so that it can be garbage collected.
+        // Return the buffer to the pool (or release references to it so that it can be garbage
+        // collected).
+        releaseChunks();
+    }
+    
+    private void releaseChunks() {
+        for (int i=0; i<chunks.length; i++) {
+            byte[] chunk = chunks[i];
+            if (chunk == null) {
+                break;
+            }
+            pool.release(chunk);
+        }
         chunks = null;
     }
     
@@ -363,7 +383,7 @@ final class OverflowableBlobImpl implements OverflowableBlob {
         } else {
             try {
                 for (int i=0; i<chunkIndex; i++) {
-                    out.write(chunks[i]);
+                    out.write(chunks[i], 0, chunkSize);
                 }
                 if (chunkOffset > 0) {
                     out.write(chunks[chunkIndex], 0, chunkOffset);
@@ -392,6 +412,9 @@ final class OverflowableBlobImpl implements OverflowableBlob {
             overflowBlob.release();
             overflowBlob = null;
         }
+        if (chunks != null) {
+            releaseChunks();
+        }
         state = State.RELEASED;
     }
 
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link BufferPool} implementation that manages buffers whose sizes are powers of two between
+ * {@value #MIN_SIZE} and {@value #MAX_SIZE} bytes. Requests are rounded up to the next size
+ * class; larger requests are not pooled. Each thread keeps one buffer per size class up to
+ * {@value #MAX_CACHED_SIZE} bytes in a thread local cache; other buffers are kept in a lock-free
+ * free list per size class shared by all threads.
+ * <p>
+ * The total size of the buffers in the shared free lists never exceeds a given limit; buffers
+ * returned to a full pool are left to the garbage collector. The thread local caches are not
+ * charged against that limit: they hold less than {@code 2*}{@value #MAX_CACHED_SIZE} bytes per
+ * thread and are reclaimed by the garbage collector together with the thread.
+ */
+final class SizeClassedBufferPool implements BufferPool {
+    private static final int MIN_SHIFT = 10;
+    private static final int MAX_SHIFT = 22;
+    static final int MIN_SIZE = 1 << MIN_SHIFT;
+    static final int MAX_SIZE = 1 << MAX_SHIFT;
+    private static final int SIZE_CLASSES = MAX_SHIFT - MIN_SHIFT + 1;
+    static final int MAX_CACHED_SIZE = 65536;
+    private static final int CACHED_SIZE_CLASSES = getSizeClass(MAX_CACHED_SIZE) + 1;
+
+    private final long maxPooledBytes;
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final Queue<byte[]>[] freeLists;
+    private final ThreadLocal<byte[][]> caches = new ThreadLocal<byte[][]>() {
+        @Override
+        protected byte[][] initialValue() {
+            return new byte[CACHED_SIZE_CLASSES][];
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    SizeClassedBufferPool(long maxPooledBytes) {
+        this.maxPooledBytes = maxPooledBytes;
+        freeLists = new Queue[SIZE_CLASSES];
+        for (int i=0; i<SIZE_CLASSES; i++) {
+            freeLists[i] = new ConcurrentLinkedQueue<byte[]>();
+        }
+    }
+
+    /**
+     * Get the size class for a buffer of the given size, i.e. the index of the smallest class
+     * containing buffers of at least that size.
+     */
+    private static int getSizeClass(int size) {
+        return size <= MIN_SIZE ? 0 : 32 - Integer.numberOfLeadingZeros(size-1) - MIN_SHIFT;
+    }
+
+    @Override
+    public byte[] allocate(int minSize) {
+        if (minSize > MAX_SIZE) {
+            return new byte[minSize];
+        }
+        int sizeClass = getSizeClass(minSize);
+        if (sizeClass < CACHED_SIZE_CLASSES) {
+            byte[][] cache = caches.get();
+            byte[] buffer = cache[sizeClass];
+            if (buffer != null) {
+                cache[sizeClass] = null;
+                return buffer;
+            }
+        }
+        byte[] buffer = freeLists[sizeClass].poll();
+        if (buffer == null) {
+            return new byte[1 << (sizeClass + MIN_SHIFT)];
+        }
+        pooledBytes.addAndGet(-buffer.length);
+        return buffer;
+    }
+
+    @Override
+    public void release(byte[] buffer) {
+        int size = buffer.length;
+        // Only accept buffers that have the exact size of one of the size classes
+        if (size < MIN_SIZE || size > MAX_SIZE || (size & (size-1)) != 0) {
+            return;
+        }
+        int sizeClass = getSizeClass(size);
+        if (sizeClass < CACHED_SIZE_CLASSES) {
+            byte[][] cache = caches.get();
+            if (cache[sizeClass] == null) {
+                cache[sizeClass] = buffer;
+                return;
+            }
+        }
+        while (true) {
+            long current = pooledBytes.get();
+            if (current + size > maxPooledBytes) {
+                return;
+            }
+            if (pooledBytes.compareAndSet(current, current + size)) {
+                break;
+            }
+        }
+        freeLists[sizeClass].offer(buffer);
+    }
+
+    @Override
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+}
@@ -19,15 +19,20 @@
 package org.apache.axiom.blob;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+
+import org.apache.axiom.ext.io.StreamCopyException;
+import org.apache.axiom.util.io.IOUtils;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-final class TempFileBlobImpl extends AbstractWritableBlob {
+final class TempFileBlobImpl extends AbstractWritableBlob implements ChannelWritableBlob {
     private static final Log log = LogFactory.getLog(TempFileBlobImpl.class);
     
     private final TempFileBlobFactory factory;
@@ -72,6 +77,40 @@ final class TempFileBlobImpl extends AbstractWritableBlob {
         return new TempFileInputStream(file);
     }
 
+    @Override
+    public long writeTo(WritableByteChannel channel) throws IOException {
+        if (state != State.COMMITTED) {
+            throw new IllegalStateException();
+        }
+        FileInputStream in = new FileInputStream(file);
+        try {
+            return IOUtils.transfer(in.getChannel(), channel);
+        } finally {
+            in.close();
+        }
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws StreamCopyException {
+        WritableByteChannel channel;
+        try {
+            channel = IOUtils.getChannel(out);
+        } catch (IOException ex) {
+            throw new StreamCopyException(StreamCopyException.WRITE, ex);
+        }
+        if (channel == null) {
+            super.writeTo(out);
+        } else {
+            try {
+                writeTo(channel);
+            } catch (IOException ex) {
+                // FileChannel#transferTo doesn't allow to distinguish between read and write
+                // errors
+                throw new StreamCopyException(StreamCopyException.WRITE, ex);
+            }
+        }
+    }
+
     @Override
     public long getSize() {
         if (state != State.COMMITTED) {
@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.mime;
+
+import java.io.IOException;
+
+/**
+ * Signals that a multipart body is malformed, e.g. because the stream ends before the close
+ * delimiter. This is an {@link IOException} so that it can be thrown by the input streams
+ * returned by {@link Part#getInputStream(boolean)}.
+ */
+public class MalformedMultipartException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public MalformedMultipartException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.mime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.james.mime4j.MimeException;
+import org.apache.james.mime4j.stream.EntityState;
+import org.apache.james.mime4j.stream.Field;
+import org.apache.james.mime4j.stream.MimeConfig;
+import org.apache.james.mime4j.stream.MimeTokenStream;
+import org.apache.james.mime4j.stream.RecursionMode;
+
+/**
+ * {@link MultipartParser} implementation that uses mime4j's {@link MimeTokenStream}.
+ */
+final class Mime4jMultipartParser extends MultipartParser {
+    private static final MimeConfig config = MimeConfig.custom().setStrictParsing(true).build();
+    
+    private final MimeTokenStream parser;
+
+    Mime4jMultipartParser(InputStream inStream, ContentType contentType) {
+        parser = new MimeTokenStream(config);
+        parser.setRecursionMode(RecursionMode.M_NO_RECURSE);
+        parser.parseHeadless(inStream, contentType.toString());
+        
+        // Move the parser to the beginning of the first part
+        while (parser.getState() != EntityState.T_START_BODYPART) {
+            next();
+        }
+    }
+
+    private EntityState next() {
+        try {
+            return parser.next();
+        } catch (IOException ex) {
+            throw new MIMEException(ex);
+        } catch (MimeException ex) {
+            throw new MIMEException(ex);
+        }
+    }
+
+    private static void checkParserState(EntityState state, EntityState expected) throws IllegalStateException {
+        if (expected != state) {
+            throw new IllegalStateException("Internal error: expected parser to be in state "
+                    + expected + ", but got " + state);
+        }
+    }
+
+    @Override
+    boolean hasNextPart() {
+        return parser.getState() != EntityState.T_END_MULTIPART;
+    }
+
+    @Override
+    List<Header> readHeaders() {
+        checkParserState(next(), EntityState.T_START_HEADER);
+        List<Header> headers = new ArrayList<Header>();
+        while (next() == EntityState.T_FIELD) {
+            Field field = parser.getField();
+            headers.add(new Header(field.getName(), field.getBody()));
+        }
+        checkParserState(next(), EntityState.T_BODY);
+        return headers;
+    }
+
+    @Override
+    InputStream getInputStream() {
+        checkParserState(parser.getState(), EntityState.T_BODY);
+        return parser.getInputStream();
+    }
+
+    @Override
+    InputStream getDecodedInputStream() {
+        checkParserState(parser.getState(), EntityState.T_BODY);
+        return parser.getDecodedInputStream();
+    }
+
+    @Override
+    void nextPart() {
+        checkParserState(parser.getState(), EntityState.T_BODY);
+        checkParserState(next(), EntityState.T_END_BODYPART);
+        EntityState state = next();
+        if (state == EntityState.T_EPILOGUE) {
+            while (next() != EntityState.T_END_MULTIPART) {
+                // Just loop
+            }
+        } else if (state != EntityState.T_START_BODYPART && state != EntityState.T_END_MULTIPART) {
+            throw new IllegalStateException("Internal error: unexpected parser state " + state);
+        }
+    }
+}
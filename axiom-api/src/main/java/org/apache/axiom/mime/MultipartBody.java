@@ -21,22 +21,16 @@ package org.apache.axiom.mime;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.ParseException;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.apache.axiom.blob.MemoryBlob;
 import org.apache.axiom.blob.WritableBlobFactory;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.james.mime4j.MimeException;
-import org.apache.james.mime4j.stream.EntityState;
-import org.apache.james.mime4j.stream.Field;
-import org.apache.james.mime4j.stream.MimeConfig;
-import org.apache.james.mime4j.stream.MimeTokenStream;
-import org.apache.james.mime4j.stream.RecursionMode;
 
 /**
  * A MIME multipart message read from a stream. This class exposes an API that represents the
@@ -54,12 +48,32 @@ public final class MultipartBody implements Iterable<Part> {
         void partCreated(Part part);
     }
 
+    /**
+     * Specifies the parser used to split the message into parts.
+     */
+    public enum Engine {
+        /**
+         * Use Apache James mime4j. This is the default.
+         */
+        MIME4J,
+        
+        /**
+         * Use Axiom's own parser. It reads the message into a large buffer and locates the MIME
+         * boundaries using a skip table search (Boyer-Moore-Horspool), which is significantly
+         * faster for messages with large parts, such as MTOM messages with binary attachments.
+         * Note that it is less strict than mime4j when checking the syntax of the message.
+         */
+        NATIVE
+    }
+
     public final static class Builder {
         private InputStream inputStream;
         private ContentType contentType;
         private WritableBlobFactory<?> attachmentBlobFactory;
         private DataHandlerFactory dataHandlerFactory;
         private PartCreationListener partCreationListener;
+        private Engine engine = Engine.MIME4J;
+        private Executor executor;
         
         Builder() {}
 
@@ -97,6 +111,43 @@ public final class MultipartBody implements Iterable<Part> {
             return this;
         }
 
+        /**
+         * Set the parser used to split the message into parts.
+         * 
+         * @param engine
+         *            the parser to use; defaults to {@link Engine#MIME4J}
+         * @return this builder
+         */
+        public Builder setEngine(Engine engine) {
+            this.engine = engine;
+            return this;
+        }
+
+        /**
+         * Set the executor used to write the content of parts to blobs. By default, when a part
+         * needs to be buffered (because the application accesses a subsequent part), decoding
+         * the content and writing it to the blob created by the attachment blob factory is done
+         * by the thread that parses the message. If an executor is set, that work is submitted
+         * as a task to the executor and the parser immediately continues with the next part.
+         * Methods that access the content of a buffered part (such as
+         * {@link Part#getDataHandler()} or {@link Part#getInputStream(boolean)}) then block
+         * until the task has completed.
+         * <p>
+         * The tasks are expected to be executed by other threads. If the executor runs a task
+         * synchronously, rejects it, or doesn't start it in time while the parser waits for the
+         * task to consume the content (e.g. because all its workers are busy), the part is
+         * processed sequentially by the parser thread instead. Methods that access the content
+         * of a part whose task has not been started yet also execute the task themselves.
+         * 
+         * @param executor
+         *            the executor, or <code>null</code> to buffer parts in the parser thread
+         * @return this builder
+         */
+        public Builder setExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
         public MultipartBody build() {
             if (inputStream == null) {
                 throw new IllegalArgumentException("inputStream is mandatory");
@@ -107,6 +158,8 @@ public final class MultipartBody implements Iterable<Part> {
             return new MultipartBody(
                     inputStream,
                     contentType,
+                    engine == null ? Engine.MIME4J : engine,
+                    executor,
                     attachmentBlobFactory == null ? MemoryBlob.FACTORY : attachmentBlobFactory,
                     dataHandlerFactory == null ? DataHandlerFactory.DEFAULT : dataHandlerFactory,
                     partCreationListener);
@@ -115,12 +168,10 @@ public final class MultipartBody implements Iterable<Part> {
 
     private static final Log log = LogFactory.getLog(MultipartBody.class);
     
-    private static final MimeConfig config = MimeConfig.custom().setStrictParsing(true).build();
-    
     /** <code>ContentType</code> of the MIME message */
     private final ContentType contentType;
     private final String rootPartContentID;
-    private final MimeTokenStream parser;
+    private final MultipartParser parser;
     
     /**
      * Stores the already parsed MIME parts by Content IDs.
@@ -140,32 +191,25 @@ public final class MultipartBody implements Iterable<Part> {
     private final WritableBlobFactory<?> attachmentBlobFactory;
     private final DataHandlerFactory dataHandlerFactory;
     private final PartCreationListener partCreationListener;
+    private final Executor executor;
     
-    MultipartBody(InputStream inStream, ContentType contentType,
+    MultipartBody(InputStream inStream, ContentType contentType, Engine engine, Executor executor,
             WritableBlobFactory<?> attachmentBlobFactory,
             DataHandlerFactory dataHandlerFactory,
             PartCreationListener partCreationListener) {
         this.attachmentBlobFactory = attachmentBlobFactory;
         this.dataHandlerFactory = dataHandlerFactory;
         this.partCreationListener = partCreationListener;
+        this.executor = executor;
         this.contentType = contentType;
 
         String start = contentType.getParameter("start");
         rootPartContentID = start == null ? null : normalizeContentID(start);
 
-        parser = new MimeTokenStream(config);
-        parser.setRecursionMode(RecursionMode.M_NO_RECURSE);
-        parser.parseHeadless(inStream, contentType.toString());
-        
-        // Move the parser to the beginning of the first part
-        while (parser.getState() != EntityState.T_START_BODYPART) {
-            try {
-                parser.next();
-            } catch (IOException ex) {
-                throw new MIMEException(ex);
-            } catch (MimeException ex) {
-                throw new MIMEException(ex);
-            }
+        if (engine == Engine.NATIVE) {
+            parser = new NativeMultipartParser(inStream, contentType);
+        } else {
+            parser = new Mime4jMultipartParser(inStream, contentType);
         }
     }
 
@@ -191,6 +235,10 @@ public final class MultipartBody implements Iterable<Part> {
         return dataHandlerFactory;
     }
 
+    Executor getExecutor() {
+        return executor;
+    }
+
     public ContentType getContentType() {
         return contentType;
     }
@@ -244,32 +292,26 @@ public final class MultipartBody implements Iterable<Part> {
         if (currentPart != null) {
             currentPart.fetch();
         }
-        if (parser.getState() == EntityState.T_END_MULTIPART) {
+        if (!parser.hasNextPart()) {
             currentPart = null;
         } else {
             String partContentID = null;
             boolean isRootPart;
 
             try {
-                checkParserState(parser.next(), EntityState.T_START_HEADER);
-                
-                List<Header> headers = new ArrayList<Header>();
-                while (parser.next() == EntityState.T_FIELD) {
-                    Field field = parser.getField();
-                    String name = field.getName();
-                    String value = field.getBody();
+                List<Header> headers = parser.readHeaders();
+                for (Header header : headers) {
+                    String name = header.getName();
+                    String value = header.getValue();
                     
                     if (log.isDebugEnabled()){
                         log.debug("addHeader: (" + name + ") value=(" + value +")");
                     }
-                    headers.add(new Header(name, value));
                     if (partContentID == null && name.equalsIgnoreCase("Content-ID")) {
                         partContentID = normalizeContentID(value);
                     }
                 }
                 
-                checkParserState(parser.next(), EntityState.T_BODY);
-                
                 if (rootPartContentID == null) {
                     isRootPart = firstPart == null;
                 } else {
@@ -285,8 +327,6 @@ public final class MultipartBody implements Iterable<Part> {
                 currentPart = part;
             } catch (IOException ex) {
                 throw new MIMEException(ex);
-            } catch (MimeException ex) {
-                throw new MIMEException(ex);
             }
 
             partCount++;
@@ -307,13 +347,6 @@ public final class MultipartBody implements Iterable<Part> {
         return currentPart;
     }
 
-    private static void checkParserState(EntityState state, EntityState expected) throws IllegalStateException {
-        if (expected != state) {
-            throw new IllegalStateException("Internal error: expected parser to be in state "
-                    + expected + ", but got " + state);
-        }
-    }
-
     @Override
     public Iterator<Part> iterator() {
         return new PartIterator(this);
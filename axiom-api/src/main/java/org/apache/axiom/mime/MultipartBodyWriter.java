@@ -18,15 +18,22 @@
  */
 package org.apache.axiom.mime;
 
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
 
 import javax.activation.DataHandler;
+import javax.activation.DataSource;
+import javax.activation.FileDataSource;
 
+import org.apache.axiom.blob.BlobDataSource;
+import org.apache.axiom.ext.io.ChannelSupport;
 import org.apache.axiom.mime.Header;
 import org.apache.axiom.util.UIDGenerator;
 import org.apache.axiom.util.base64.Base64EncodingOutputStream;
+import org.apache.axiom.util.io.IOUtils;
 
 /**
  * Writes a MIME multipart body as used by XOP/MTOM and SOAP with Attachments. MIME parts are
@@ -50,7 +57,7 @@ import org.apache.axiom.util.base64.Base64EncodingOutputStream;
  * </ul>
  */
 public final class MultipartBodyWriter {
-    class PartOutputStream extends OutputStream {
+    class PartOutputStream extends OutputStream implements ChannelSupport {
         private final OutputStream parent;
 
         public PartOutputStream(OutputStream parent) {
@@ -72,6 +79,13 @@ public final class MultipartBodyWriter {
             parent.write(b);
         }
         
+        @Override
+        public WritableByteChannel getChannel() throws IOException {
+            // The content can only be written to the channel if no content transfer encoding
+            // needs to be applied
+            return parent == out ? IOUtils.getChannel(out) : null;
+        }
+
         @Override
         public void close() throws IOException {
             if (parent instanceof Base64EncodingOutputStream) {
@@ -177,6 +191,13 @@ public final class MultipartBodyWriter {
     /**
      * Write a MIME part. The content is provided by a {@link DataHandler} object, which also
      * specifies the content type of the part.
+     * <p>
+     * If the content is backed by a file (in particular a {@link FileDataSource} or a
+     * {@link BlobDataSource} or {@link PartDataHandler} backed by a temporary file), no content
+     * transfer encoding is applied and the underlying stream gives access to a channel (see
+     * {@link IOUtils#getChannel(OutputStream)}), then the content is transferred using
+     * {@link java.nio.channels.FileChannel#transferTo(long, long, WritableByteChannel)}, i.e.
+     * without copying it through the Java heap.
      * 
      * @param dataHandler
      *            the content of the MIME part to write
@@ -193,10 +214,33 @@ public final class MultipartBodyWriter {
     public void writePart(DataHandler dataHandler, String contentTransferEncoding, String contentID, List<Header> extraHeaders)
             throws IOException {
         OutputStream partOutputStream = writePart(dataHandler.getContentType(), contentTransferEncoding, contentID, extraHeaders);
-        dataHandler.writeTo(partOutputStream);
+        writeContent(dataHandler, partOutputStream);
         partOutputStream.close();
     }
     
+    private static void writeContent(DataHandler dataHandler, OutputStream out) throws IOException {
+        // PartDataHandler#writeTo already delegates to the blob
+        if (!(dataHandler instanceof PartDataHandler)) {
+            DataSource dataSource = dataHandler.getDataSource();
+            if (dataSource instanceof BlobDataSource) {
+                ((BlobDataSource)dataSource).getBlob().writeTo(out);
+                return;
+            } else if (dataSource instanceof FileDataSource) {
+                WritableByteChannel channel = IOUtils.getChannel(out);
+                if (channel != null) {
+                    FileInputStream in = new FileInputStream(((FileDataSource)dataSource).getFile());
+                    try {
+                        IOUtils.transfer(in.getChannel(), channel);
+                    } finally {
+                        in.close();
+                    }
+                    return;
+                }
+            }
+        }
+        dataHandler.writeTo(out);
+    }
+    
     /**
      * Complete writing of the MIME multipart package. This method does <b>not</b> close the
      * underlying stream.
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.mime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.apache.james.mime4j.codec.Base64InputStream;
+import org.apache.james.mime4j.codec.QuotedPrintableInputStream;
+
+/**
+ * Splits a MIME multipart body into parts. A parser is either positioned at the start of a part
+ * (before its headers), in the body of a part (after its headers) or at the end of the
+ * multipart. After construction, the parser is positioned at the start of the first part.
+ */
+abstract class MultipartParser {
+    /**
+     * Determine if there are more parts, i.e. if the parser is not positioned at the end of the
+     * multipart. This method must not be called when the parser is positioned in the body of a
+     * part.
+     * 
+     * @return <code>true</code> if there are more parts, <code>false</code> otherwise
+     */
+    abstract boolean hasNextPart();
+
+    /**
+     * Read the headers of the current part. The parser must be positioned at the start of a
+     * part; after this method completes, the parser is positioned in the body of that part.
+     * 
+     * @return the headers of the part
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    abstract List<Header> readHeaders() throws IOException;
+
+    /**
+     * Get an input stream that reads the raw body of the current part, i.e. without decoding the
+     * content transfer encoding. The parser must be positioned in the body of a part.
+     * 
+     * @return the input stream
+     */
+    abstract InputStream getInputStream();
+
+    /**
+     * Get an input stream that reads the body of the current part, with the content transfer
+     * encoding (if any) already decoded. The parser must be positioned in the body of a part.
+     * 
+     * @return the input stream
+     */
+    abstract InputStream getDecodedInputStream();
+
+    /**
+     * Skip the remaining content of the body of the current part (if any) and move to the start
+     * of the next part or to the end of the multipart.
+     * 
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    abstract void nextPart() throws IOException;
+
+    /**
+     * Decode the given content transfer encoding.
+     * 
+     * @param in
+     *            the stream with the raw content
+     * @param contentTransferEncoding
+     *            the value of the <tt>Content-Transfer-Encoding</tt> header, or <code>null</code>
+     *            if the part has no such header
+     * @return a stream with the decoded content
+     */
+    static InputStream decode(InputStream in, String contentTransferEncoding) {
+        if (contentTransferEncoding != null) {
+            contentTransferEncoding = contentTransferEncoding.trim();
+            if (contentTransferEncoding.equalsIgnoreCase("base64")) {
+                return new Base64InputStream(in, true);
+            } else if (contentTransferEncoding.equalsIgnoreCase("quoted-printable")) {
+                return new QuotedPrintableInputStream(in, true);
+            }
+        }
+        return in;
+    }
+}
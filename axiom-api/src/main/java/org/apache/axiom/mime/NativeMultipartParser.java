@@ -0,0 +1,454 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.mime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link MultipartParser} implementation that reads the message into a large buffer and locates
+ * the MIME boundaries using the Boyer-Moore-Horspool algorithm. Since the delimiter is at least
+ * five bytes long and typically much longer (MIME boundaries generated by Axiom have more than
+ * 40 characters), the search inspects only a fraction of the bytes of the part bodies. The
+ * content of the parts is read directly from the buffer.
+ */
+final class NativeMultipartParser extends MultipartParser {
+    private static final int STATE_PART_START = 0;
+    private static final int STATE_BODY = 1;
+    private static final int STATE_END = 2;
+    
+    private static final int BUFFER_SIZE = 65536;
+    
+    final class BodyInputStream extends InputStream {
+        private final int partIndex;
+        
+        BodyInputStream() {
+            partIndex = NativeMultipartParser.this.partIndex;
+        }
+        
+        /**
+         * Get the number of bytes of the part body available in the buffer, reading more data if
+         * necessary.
+         * 
+         * @return the number of bytes available, or 0 if the end of the part body has been reached
+         */
+        private int available0() throws IOException {
+            return state == STATE_BODY && NativeMultipartParser.this.partIndex == partIndex
+                    ? scanBody() : 0;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            return available0() == 0 ? -1 : buffer[pos++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int c = available0();
+            if (c == 0) {
+                return -1;
+            }
+            c = Math.min(c, len);
+            System.arraycopy(buffer, pos, b, off, c);
+            pos += c;
+            return c;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = 0;
+            while (skipped < n) {
+                int c = available0();
+                if (c == 0) {
+                    break;
+                }
+                c = (int)Math.min(c, n-skipped);
+                pos += c;
+                skipped += c;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            if (state != STATE_BODY || NativeMultipartParser.this.partIndex != partIndex) {
+                return 0;
+            } else if (delimiterIndex != -1) {
+                return delimiterIndex - pos;
+            } else {
+                return Math.max(0, limit - pos - (delimiter.length - 1));
+            }
+        }
+    }
+    
+    private final InputStream in;
+    
+    /**
+     * The delimiter, i.e. CRLF followed by <tt>--</tt> and the boundary.
+     */
+    private final byte[] delimiter;
+    
+    /**
+     * The Boyer-Moore-Horspool shift table for {@link #delimiter}.
+     */
+    private final int[] shift = new int[256];
+    
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private boolean eof;
+    
+    /**
+     * The position in the buffer before which the delimiter can't start, i.e. the position at
+     * which the search for the delimiter resumes.
+     */
+    private int scanned;
+    
+    /**
+     * The position of the delimiter that terminates the current part body (or the preamble), or
+     * -1 if it hasn't been found yet.
+     */
+    private int delimiterIndex = -1;
+    
+    /**
+     * The length of the delimiter found at {@link #delimiterIndex}. This is shorter than the
+     * length of {@link #delimiter} if the part has an empty body and the delimiter directly
+     * follows the headers.
+     */
+    private int delimiterLength;
+    
+    private int state;
+    
+    /**
+     * Counts the parts; used to invalidate input streams of previous parts.
+     */
+    private int partIndex;
+    
+    private String contentTransferEncoding;
+
+    NativeMultipartParser(InputStream in, ContentType contentType) {
+        this.in = in;
+        String boundary = contentType.getParameter("boundary");
+        if (boundary == null) {
+            throw new MIMEException("Content type has no boundary parameter");
+        }
+        int length = boundary.length();
+        delimiter = new byte[length+4];
+        delimiter[0] = '\r';
+        delimiter[1] = '\n';
+        delimiter[2] = '-';
+        delimiter[3] = '-';
+        for (int i=0; i<length; i++) {
+            char c = boundary.charAt(i);
+            if (c >= 128) {
+                throw new MIMEException("Invalid boundary");
+            }
+            delimiter[i+4] = (byte)c;
+        }
+        int m = delimiter.length;
+        for (int i=0; i<256; i++) {
+            shift[i] = m;
+        }
+        for (int i=0; i<m-1; i++) {
+            shift[delimiter[i] & 0xFF] = m-1-i;
+        }
+        // Insert a CRLF so that a boundary at the very beginning of the stream (i.e. without
+        // preamble) is recognized as a delimiter
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        limit = 2;
+        try {
+            // Skip the preamble
+            int c;
+            while ((c = scanBody()) > 0) {
+                pos += c;
+            }
+            skipDelimiter();
+        } catch (IOException ex) {
+            throw new MIMEException(ex);
+        }
+    }
+
+    /**
+     * Read more data into the buffer, compacting or growing the buffer if necessary.
+     * 
+     * @return <code>false</code> if the end of the stream has been reached
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, limit-pos);
+            limit -= pos;
+            scanned = Math.max(0, scanned-pos);
+            if (delimiterIndex != -1) {
+                delimiterIndex -= pos;
+            }
+            pos = 0;
+        }
+        if (limit == buffer.length) {
+            // This only happens for very long header lines
+            byte[] newBuffer = new byte[buffer.length*2];
+            System.arraycopy(buffer, 0, newBuffer, 0, limit);
+            buffer = newBuffer;
+        }
+        int c = in.read(buffer, limit, buffer.length-limit);
+        if (c == -1) {
+            eof = true;
+            return false;
+        } else {
+            limit += c;
+            return true;
+        }
+    }
+
+    /**
+     * Ensure that the buffer contains at least the given number of bytes after the current
+     * position.
+     */
+    private void ensure(int count) throws IOException {
+        while (limit-pos < count) {
+            if (!fill()) {
+                throw new MalformedMultipartException("Unexpected end of stream");
+            }
+        }
+    }
+
+    /**
+     * Search the delimiter in the given region of the buffer.
+     * 
+     * @return the position of the delimiter, or -1 if the region doesn't contain the delimiter
+     */
+    private int search(int start, int end) {
+        byte[] buffer = this.buffer;
+        byte[] delimiter = this.delimiter;
+        int m = delimiter.length;
+        int last = m-1;
+        int k = start + last;
+        while (k < end) {
+            int i = last;
+            int j = k;
+            while (buffer[j] == delimiter[i]) {
+                if (i == 0) {
+                    return j;
+                }
+                i--;
+                j--;
+            }
+            k += shift[buffer[k] & 0xFF];
+        }
+        return -1;
+    }
+
+    /**
+     * Get the number of bytes of the part body (or the preamble) that are available in the buffer
+     * starting at the current position, reading more data if necessary.
+     * 
+     * @return the number of bytes available, or 0 if the current position is the start of the
+     *         delimiter
+     */
+    private int scanBody() throws IOException {
+        int m = delimiter.length;
+        while (true) {
+            if (delimiterIndex != -1) {
+                return delimiterIndex - pos;
+            }
+            int start = Math.max(pos, scanned);
+            int index = search(start, limit);
+            if (index != -1) {
+                delimiterIndex = index;
+                delimiterLength = m;
+                return index - pos;
+            }
+            scanned = Math.max(start, limit - (m-1));
+            if (scanned > pos) {
+                return scanned - pos;
+            }
+            if (!fill()) {
+                throw new MalformedMultipartException("Unexpected end of stream; missing MIME boundary");
+            }
+        }
+    }
+
+    /**
+     * Skip the delimiter at the current position and the rest of the line, or the epilogue if
+     * the delimiter is the close delimiter.
+     */
+    private void skipDelimiter() throws IOException {
+        pos = delimiterIndex + delimiterLength;
+        delimiterIndex = -1;
+        scanned = pos;
+        ensure(2);
+        if (buffer[pos] == '-' && buffer[pos+1] == '-') {
+            // Close delimiter; discard the epilogue
+            pos = limit;
+            while (fill()) {
+                pos = limit;
+            }
+            state = STATE_END;
+        } else {
+            // Skip transport padding
+            while (true) {
+                ensure(1);
+                byte b = buffer[pos];
+                if (b != ' ' && b != '\t') {
+                    break;
+                }
+                pos++;
+            }
+            skipLineEnd();
+            state = STATE_PART_START;
+        }
+        scanned = pos;
+    }
+    
+    private void skipLineEnd() throws IOException {
+        ensure(1);
+        if (buffer[pos] == '\r') {
+            pos++;
+            ensure(1);
+        }
+        if (buffer[pos] != '\n') {
+            throw new MalformedMultipartException("Invalid MIME boundary line");
+        }
+        pos++;
+    }
+
+    /**
+     * Read a header line (without the line terminator).
+     */
+    private String readLine() throws IOException {
+        int i = pos;
+        while (true) {
+            while (i < limit) {
+                if (buffer[i] == '\n') {
+                    int end = i > pos && buffer[i-1] == '\r' ? i-1 : i;
+                    String line = new String(buffer, pos, end-pos, "ISO-8859-1");
+                    pos = i+1;
+                    return line;
+                }
+                i++;
+            }
+            int offset = i - pos;
+            if (!fill()) {
+                throw new MalformedMultipartException("Unexpected end of stream while reading MIME part headers");
+            }
+            i = pos + offset;
+        }
+    }
+
+    @Override
+    boolean hasNextPart() {
+        return state != STATE_END;
+    }
+
+    @Override
+    List<Header> readHeaders() throws IOException {
+        if (state != STATE_PART_START) {
+            throw new IllegalStateException();
+        }
+        List<String> lines = new ArrayList<String>();
+        String line;
+        while ((line = readLine()).length() > 0) {
+            char c = line.charAt(0);
+            if ((c == ' ' || c == '\t') && !lines.isEmpty()) {
+                // Unfold the header
+                int last = lines.size()-1;
+                lines.set(last, lines.get(last) + line);
+            } else {
+                lines.add(line);
+            }
+        }
+        List<Header> headers = new ArrayList<Header>(lines.size());
+        contentTransferEncoding = null;
+        for (String rawHeader : lines) {
+            int idx = rawHeader.indexOf(':');
+            if (idx <= 0) {
+                throw new MalformedMultipartException("Invalid MIME part header: " + rawHeader);
+            }
+            String name = rawHeader.substring(0, idx).trim();
+            int start = idx+1;
+            if (start < rawHeader.length()) {
+                char c = rawHeader.charAt(start);
+                if (c == ' ' || c == '\t') {
+                    start++;
+                }
+            }
+            String value = rawHeader.substring(start);
+            if (contentTransferEncoding == null && name.equalsIgnoreCase("Content-Transfer-Encoding")) {
+                contentTransferEncoding = value.trim();
+            }
+            headers.add(new Header(name, value));
+        }
+        // Check for a part with an empty body where the delimiter directly follows the headers
+        // (i.e. without the CRLF that is part of the delimiter)
+        int m = delimiter.length;
+        while (limit-pos < m-2 && fill()) {
+            // Just loop
+        }
+        if (limit-pos >= m-2) {
+            boolean match = true;
+            for (int i=2; i<m; i++) {
+                if (buffer[pos+i-2] != delimiter[i]) {
+                    match = false;
+                    break;
+                }
+            }
+            if (match) {
+                delimiterIndex = pos;
+                delimiterLength = m-2;
+            }
+        }
+        scanned = pos;
+        partIndex++;
+        state = STATE_BODY;
+        return headers;
+    }
+
+    @Override
+    InputStream getInputStream() {
+        if (state != STATE_BODY) {
+            throw new IllegalStateException();
+        }
+        return new BodyInputStream();
+    }
+
+    @Override
+    InputStream getDecodedInputStream() {
+        return decode(getInputStream(), contentTransferEncoding);
+    }
+
+    @Override
+    void nextPart() throws IOException {
+        if (state != STATE_BODY) {
+            throw new IllegalStateException();
+        }
+        int c;
+        while ((c = scanBody()) > 0) {
+            pos += c;
+        }
+        skipDelimiter();
+    }
+}
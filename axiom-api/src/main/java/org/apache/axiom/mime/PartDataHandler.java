@@ -85,7 +85,8 @@ public class PartDataHandler extends DataHandler {
     public final void writeTo(OutputStream os) throws IOException {
         // The PartContent may have an implementation of writeTo that is more efficient than the default
         // DataHandler#writeTo method (which requests an input stream and then copies it to the output
-        // stream).
+        // stream). In particular, if the content has been buffered to a temporary file and the output
+        // stream gives access to a channel, the content is transferred using FileChannel#transferTo.
         part.getBlob().writeTo(os);
     }
 }
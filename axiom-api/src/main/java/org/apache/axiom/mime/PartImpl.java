@@ -26,9 +26,6 @@ import org.apache.axiom.blob.WritableBlobFactory;
 import org.apache.axiom.ext.io.StreamCopyException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.james.mime4j.MimeException;
-import org.apache.james.mime4j.stream.EntityState;
-import org.apache.james.mime4j.stream.MimeTokenStream;
 
 import javax.activation.DataHandler;
 
@@ -37,19 +34,21 @@ import java.io.InputStream;
 import java.text.ParseException;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * Actual implementation of the {@link Part} interface.
  */
 final class PartImpl implements Part {
     /**
-     * The part has not been read yet. In this case the parser is in state
-     * {@link EntityState#T_BODY}.
+     * The part has not been read yet. In this case the parser is positioned in the body of this
+     * part.
      */
     private static final int STATE_UNREAD = 0;
     
     /**
-     * The part has been read into a memory or file based buffer.
+     * The part has been read into a memory or file based buffer. If an executor is used, the
+     * buffer may still be being written by {@link #spooler}.
      */
     private static final int STATE_BUFFERED = 1;
     
@@ -80,20 +79,26 @@ final class PartImpl implements Part {
      * The MIME parser from which the content of this part is read. This is only set if the state is
      * {@link #STATE_UNREAD} or {@link #STATE_STREAMING}.
      */
-    private MimeTokenStream parser;
+    private MultipartParser parser;
     
     /**
      * The content of this part. This is only set if the state is {@link #STATE_BUFFERED}.
      */
     private WritableBlob content;
     
+    /**
+     * The task writing the content of this part, if an executor is used and the task may not
+     * have completed yet. This is only set if the state is {@link #STATE_BUFFERED}.
+     */
+    private PartSpooler spooler;
+    
     private DataHandler dataHandler;
     
     private PartInputStream partInputStream;
     
     private PartImpl nextPart;
     
-    PartImpl(MultipartBody message, WritableBlobFactory<?> blobFactory, String contentID, List<Header> headers, MimeTokenStream parser) {
+    PartImpl(MultipartBody message, WritableBlobFactory<?> blobFactory, String contentID, List<Header> headers, MultipartParser parser) {
         this.message = message;
         this.blobFactory = blobFactory;
         this.contentID = contentID;
@@ -153,6 +158,7 @@ final class PartImpl implements Part {
                 fetch();
                 // Fall through
             case STATE_BUFFERED:
+                awaitContent();
                 return content;
             default:
                 throw new IllegalStateException("The content of the MIME part has already been consumed");
@@ -171,10 +177,13 @@ final class PartImpl implements Part {
         return blob;
     }
 
-    private static void checkParserState(EntityState state, EntityState expected) throws IllegalStateException {
-        if (expected != state) {
-            throw new IllegalStateException("Internal error: expected parser to be in state "
-                    + expected + ", but got " + state);
+    private void awaitContent() {
+        if (spooler != null) {
+            try {
+                spooler.await();
+            } finally {
+                spooler = null;
+            }
         }
     }
     
@@ -189,12 +198,24 @@ final class PartImpl implements Part {
     public void fetch() {
         switch (state) {
             case STATE_UNREAD:
-                checkParserState(parser.getState(), EntityState.T_BODY);
-
                 content = blobFactory.createBlob();
                 if (log.isDebugEnabled()) {
                     log.debug("Using blob of type " + content.getClass().getName());
                 }
+                Executor executor = message.getExecutor();
+                if (executor != null) {
+                    // Let the executor decode the content and write it to the blob; we only need
+                    // to read the raw content so that the parser can move to the next part.
+                    spooler = new PartSpooler(executor, content, getHeader("content-transfer-encoding"));
+                    try {
+                        spooler.spool(parser.getInputStream());
+                    } catch (IOException ex) {
+                        throw new MIMEException("Failed to fetch the MIME part content", ex);
+                    }
+                    moveToNextPart();
+                    state = STATE_BUFFERED;
+                    break;
+                }
                 try {
                     content.readFrom(getDecodedInputStream());
                 } catch (StreamCopyException ex) {
@@ -222,19 +243,9 @@ final class PartImpl implements Part {
     
     private void moveToNextPart() {
         try {
-            checkParserState(parser.next(), EntityState.T_END_BODYPART);
-            EntityState state = parser.next();
-            if (state == EntityState.T_EPILOGUE) {
-                while (parser.next() != EntityState.T_END_MULTIPART) {
-                    // Just loop
-                }
-            } else if (state != EntityState.T_START_BODYPART && state != EntityState.T_END_MULTIPART) {
-                throw new IllegalStateException("Internal error: unexpected parser state " + state);
-            }
+            parser.nextPart();
         } catch (IOException ex) {
             throw new MIMEException(ex);
-        } catch (MimeException ex) {
-            throw new MIMEException(ex);
         }
         parser = null;
     }
@@ -242,7 +253,6 @@ final class PartImpl implements Part {
     @Override
     public InputStream getInputStream(boolean preserve) {
         if (!preserve && state == STATE_UNREAD) {
-            checkParserState(parser.getState(), EntityState.T_BODY);
             state = STATE_STREAMING;
             partInputStream = new PartInputStream(getDecodedInputStream(), blobFactory);
             return partInputStream;
@@ -265,17 +275,14 @@ final class PartImpl implements Part {
         try {
             switch (state) {
                 case STATE_UNREAD:
-                    EntityState parserState;
-                    do {
-                        parserState = parser.next();
-                    } while (parserState != EntityState.T_START_BODYPART && parserState != EntityState.T_END_MULTIPART);
+                    moveToNextPart();
                     state = STATE_DISCARDED;
                     break;
                 case STATE_BUFFERED:
+                    // If the content couldn't be written, the blob has already been released
+                    awaitContent();
                     content.release();
             }
-        } catch (MimeException ex) {
-            throw new MIMEException(ex);
         } catch (IOException ex) {
             throw new MIMEException(ex);
         }
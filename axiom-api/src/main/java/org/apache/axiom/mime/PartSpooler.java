@@ -0,0 +1,380 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.mime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.axiom.blob.WritableBlob;
+import org.apache.axiom.ext.io.StreamCopyException;
+
+/**
+ * Writes the content of a MIME part to a blob using a task submitted to an {@link Executor}. The
+ * thread that parses the message only copies the raw content of the part into memory chunks
+ * (see {@link #spool(InputStream)}) and then continues with the next part. Decoding the content
+ * transfer encoding and writing to the blob is done by the task. The number of chunks waiting to
+ * be processed by the task is bounded, so that the memory used by a large part remains limited
+ * if the parser is faster than the task.
+ * <p>
+ * The task may also be executed by the parser thread itself:
+ * <ul>
+ * <li>if the executor runs the task synchronously or rejects it;
+ * <li>if the queue is full and the executor hasn't started the task after
+ * {@value #START_TIMEOUT} milliseconds (e.g. because all its workers are busy, possibly with
+ * parsing messages themselves);
+ * <li>if the content is requested (see {@link #await()}) before the executor has started the
+ * task.
+ * </ul>
+ * In the first two cases, the parser thread decodes the remaining content directly from the
+ * message, i.e. the part is processed sequentially.
+ */
+final class PartSpooler implements Runnable {
+    private static final int CHUNK_SIZE = 65536;
+    private static final int MAX_PENDING_CHUNKS = 16;
+    private static final long START_TIMEOUT = 100;
+
+    private final Executor executor;
+    private final WritableBlob blob;
+    private final String contentTransferEncoding;
+    private final Thread parserThread;
+
+    // All the following fields are guarded by this object's monitor.
+    private final Queue<byte[]> chunks = new ArrayDeque<byte[]>();
+    /**
+     * Indicates that the task has been started by the executor.
+     */
+    private boolean started;
+    /**
+     * Indicates that the task has been claimed by another thread and must not be executed by the
+     * executor.
+     */
+    private boolean claimed;
+    /**
+     * Indicates that the parser thread is done with the raw content. If {@link #rest} is
+     * <code>null</code>, then all the content has been added to {@link #chunks}.
+     */
+    private boolean complete;
+    /**
+     * If the parser thread executes the task, the stream from which the content that has not
+     * been added to {@link #chunks} is read.
+     */
+    private InputStream rest;
+    /**
+     * Indicates that reading the raw content failed; the task must not write the (truncated)
+     * content to the blob.
+     */
+    private boolean cancelled;
+    /**
+     * Indicates that the task has finished (successfully or not).
+     */
+    private boolean finished;
+    private MIMEException failure;
+
+    PartSpooler(Executor executor, WritableBlob blob, String contentTransferEncoding) {
+        this.executor = executor;
+        this.blob = blob;
+        this.contentTransferEncoding = contentTransferEncoding;
+        parserThread = Thread.currentThread();
+    }
+
+    private static byte[] readChunk(InputStream in) throws IOException {
+        byte[] chunk = new byte[CHUNK_SIZE];
+        int len = 0;
+        int c;
+        while (len < CHUNK_SIZE && (c = in.read(chunk, len, CHUNK_SIZE-len)) != -1) {
+            len += c;
+        }
+        if (len == CHUNK_SIZE) {
+            return chunk;
+        } else if (len == 0) {
+            return null;
+        } else {
+            byte[] lastChunk = new byte[len];
+            System.arraycopy(chunk, 0, lastChunk, 0, len);
+            return lastChunk;
+        }
+    }
+
+    /**
+     * Wait until there is space in the queue. If the executor doesn't start the task in time,
+     * claim it so that it is executed by the parser thread.
+     */
+    private void waitForSpace() throws InterruptedException {
+        long remaining = START_TIMEOUT;
+        while (!claimed && !finished && chunks.size() >= MAX_PENDING_CHUNKS) {
+            if (started) {
+                wait();
+            } else if (remaining <= 0) {
+                claimed = true;
+            } else {
+                long start = System.currentTimeMillis();
+                wait(remaining);
+                remaining -= System.currentTimeMillis() - start;
+            }
+        }
+    }
+
+    /**
+     * Read the raw content of the part and pass it to the task. This method must be called by
+     * the thread that parses the message.
+     * 
+     * @param in
+     *            the stream with the raw (undecoded) content of the part
+     * @throws IOException
+     *             if an I/O error occurs when reading the content; in this case the task is
+     *             cancelled and the blob released
+     * @throws MIMEException
+     *             if the task was executed by the current thread and failed
+     */
+    void spool(InputStream in) throws IOException {
+        try {
+            executor.execute(this);
+        } catch (RejectedExecutionException ex) {
+            synchronized (this) {
+                claimed = true;
+            }
+        }
+        boolean success = false;
+        boolean runInline = false;
+        try {
+            byte[] chunk;
+            do {
+                chunk = readChunk(in);
+                synchronized (this) {
+                    if (chunk != null) {
+                        waitForSpace();
+                    }
+                    if (finished) {
+                        // The task has failed; the remaining content will be skipped by the parser
+                        break;
+                    }
+                    if (chunk != null) {
+                        chunks.add(chunk);
+                        notifyAll();
+                    }
+                    if (claimed) {
+                        runInline = true;
+                        break;
+                    }
+                }
+            } while (chunk != null && chunk.length == CHUNK_SIZE);
+            success = true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            boolean cleanup;
+            synchronized (this) {
+                if (!success) {
+                    cancelled = true;
+                } else if (runInline) {
+                    rest = in;
+                }
+                complete = true;
+                notifyAll();
+                // If the task has been claimed by this thread, nobody else will release the blob
+                cleanup = !success && claimed;
+            }
+            if (cleanup) {
+                process();
+            }
+        }
+        if (runInline) {
+            process();
+            synchronized (this) {
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        synchronized (this) {
+            if (claimed) {
+                return;
+            }
+            if (Thread.currentThread() == parserThread && !complete) {
+                // The executor runs the task synchronously
+                claimed = true;
+                return;
+            }
+            started = true;
+        }
+        Error error = process();
+        if (error != null) {
+            // Let the executor know about the error
+            throw error;
+        }
+    }
+
+    /**
+     * Decode the content and write it to the blob.
+     * 
+     * @return the error thrown by the blob, if any; it has already been recorded as the failure
+     *         reported by {@link #await()}
+     */
+    private Error process() {
+        boolean success = false;
+        Error error = null;
+        MIMEException failure = null;
+        try {
+            blob.readFrom(MultipartParser.decode(new ChunkInputStream(), contentTransferEncoding));
+            success = true;
+        } catch (StreamCopyException ex) {
+            if (ex.getOperation() == StreamCopyException.READ) {
+                failure = new MIMEException("Failed to fetch the MIME part content", ex.getCause());
+            } else {
+                failure = new MIMEException("Failed to write the MIME part content to temporary storage", ex.getCause());
+            }
+        } catch (RuntimeException ex) {
+            failure = new MIMEException(ex);
+        } catch (Error ex) {
+            failure = new MIMEException(ex);
+            error = ex;
+        } finally {
+            if (!success) {
+                if (failure == null) {
+                    failure = new MIMEException("Failed to fetch the MIME part content");
+                }
+                // Nobody will ever use the blob
+                try {
+                    blob.release();
+                } catch (IOException ex) {
+                    // Ignore; we are already reporting a failure
+                }
+            }
+            synchronized (this) {
+                this.failure = failure;
+                finished = true;
+                chunks.clear();
+                notifyAll();
+            }
+        }
+        return error;
+    }
+
+    /**
+     * Wait until the content of the part has been written to the blob. This method must only be
+     * called after {@link #spool(InputStream)} has completed. If the executor hasn't started the
+     * task yet, it is executed by the current thread.
+     * 
+     * @throws MIMEException
+     *             if the task failed or the current thread was interrupted
+     */
+    void await() {
+        boolean runNow;
+        synchronized (this) {
+            runNow = !started && !claimed;
+            if (runNow) {
+                claimed = true;
+            }
+        }
+        if (runNow) {
+            process();
+        }
+        synchronized (this) {
+            while (!finished) {
+                try {
+                    wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new MIMEException("Interrupted while waiting for the MIME part content", ex);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Input stream that reads the chunks queued by the parser thread, followed by the content
+     * that hasn't been queued (if the parser thread executes the task).
+     */
+    private final class ChunkInputStream extends InputStream {
+        private byte[] chunk;
+        private int pos;
+        private InputStream rest;
+
+        /**
+         * Get the next chunk.
+         * 
+         * @return <code>true</code> if a chunk is available, <code>false</code> if all chunks
+         *         have been consumed
+         */
+        private boolean nextChunk() throws IOException {
+            synchronized (PartSpooler.this) {
+                while (chunks.isEmpty() && !complete) {
+                    try {
+                        PartSpooler.this.wait();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
+                if (cancelled) {
+                    throw new IOException("Failed to read the MIME part content");
+                }
+                chunk = chunks.poll();
+                if (chunk == null) {
+                    rest = PartSpooler.this.rest;
+                }
+                // Wake up the parser thread if it is waiting for space in the queue
+                PartSpooler.this.notifyAll();
+            }
+            pos = 0;
+            return chunk != null;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (rest != null) {
+                return rest.read();
+            }
+            if ((chunk == null || pos == chunk.length) && !nextChunk()) {
+                return rest == null ? -1 : rest.read();
+            }
+            return chunk[pos++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (rest != null) {
+                return rest.read(b, off, len);
+            }
+            if (len == 0) {
+                return 0;
+            }
+            if ((chunk == null || pos == chunk.length) && !nextChunk()) {
+                return rest == null ? -1 : rest.read(b, off, len);
+            }
+            int c = Math.min(len, chunk.length - pos);
+            System.arraycopy(chunk, pos, b, off, c);
+            pos += c;
+            return c;
+        }
+    }
+}
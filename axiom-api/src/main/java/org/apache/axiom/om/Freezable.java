@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om;
+
+/**
+ * Optional interface implemented by {@link OMContainer} instances that can be made read-only and
+ * safe for concurrent readers. The containers created by the object model implementations shipped
+ * with Axiom implement this interface.
+ */
+public interface Freezable {
+    /**
+     * Build the tree rooted at this container completely and make it read-only. After this method
+     * returns, all nodes in the tree (including {@link OMSourcedElement} instances) are expanded
+     * and the builder is no longer needed. Methods that only read the tree (navigation, lookups,
+     * XPath evaluation and serialization) no longer modify any internal state, so that the tree
+     * may be accessed concurrently by multiple threads. Note that this requires the tree to be
+     * safely published to the other threads, e.g. through a <code>volatile</code> field or a
+     * concurrent collection.
+     * <p>
+     * Any attempt to modify a node in a frozen tree results in an
+     * {@link UnsupportedOperationException}. This includes detaching the nodes from the tree;
+     * use {@link OMElement#cloneOMElement()} to get a mutable copy. Calling this method on a tree
+     * that is already frozen has no effect.
+     * 
+     * @throws IllegalStateException
+     *             if this container is an element that has a parent; only an {@link OMDocument} or
+     *             an element without parent can be frozen
+     * @throws OMException
+     *             if an error occurs while building the tree
+     */
+    void freeze();
+    
+    /**
+     * Determine whether this container is part of a tree that has been frozen using
+     * {@link #freeze()}.
+     * 
+     * @return <code>true</code> if the container is frozen, <code>false</code> otherwise
+     */
+    boolean isFrozen();
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om;
+
+/**
+ * Optional interface implemented by {@link OMXMLParserWrapper} instances that can be fed with
+ * input instead of reading it from a stream. The builders returned by
+ * {@link OMXMLBuilderFactory#createAsyncOMBuilder()} and
+ * {@link OMXMLBuilderFactory#createAsyncSOAPModelBuilder()} implement this interface.
+ */
+public interface NonBlockingBuilder {
+    /**
+     * Get the object used to supply input to this builder.
+     * 
+     * @return the input feeder, or <code>null</code> if the builder reads its input from a stream
+     *         or other source and was not created using
+     *         {@link OMXMLBuilderFactory#createAsyncOMBuilder()} or
+     *         {@link OMXMLBuilderFactory#createAsyncSOAPModelBuilder()}
+     */
+    OMInputFeeder getInputFeeder();
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.blob.Blobs;
+import org.apache.axiom.blob.MemoryBlob;
+import org.apache.axiom.blob.WritableBlobFactory;
+
+/**
+ * Specifies the elements of an XML document that contain inline base64 encoded binary data, so
+ * that an object model builder can decode that data while parsing. The builder decodes the text
+ * chunk by chunk, as it is reported by the parser, into a blob created by a given
+ * {@link WritableBlobFactory}. The element then gets a single text node backed by a
+ * {@link javax.activation.DataHandler} (see {@link OMText#getDataHandler()}) and the text is never
+ * accumulated into a single string.
+ * <p>
+ * Elements are selected either by name (e.g. based on the schema of the message) or, if
+ * {@link #setXsiTypeDetection(boolean)} is enabled, by an <tt>xsi:type</tt> attribute that
+ * refers to <tt>xs:base64Binary</tt>. A selected element must only contain text (including CDATA
+ * sections); the builder reports an error if it contains child elements, comments, processing
+ * instructions or entity references.
+ * <p>
+ * For example, to decode the content of <tt>data</tt> elements into blobs that overflow to
+ * temporary files above 32 KB:
+ * 
+ * <pre>
+ * OMBinaryContent binaryContent = new OMBinaryContent(new WritableBlobFactory&lt;OverflowableBlob&gt;() {
+ *     public OverflowableBlob createBlob() {
+ *         return Blobs.createOverflowableBlob(32768, "axiom", null, null);
+ *     }
+ * }).addElement(new QName("urn:test", "data"));
+ * OMXMLParserWrapper builder = OMXMLBuilderFactory.createOMBuilder(
+ *         OMAbstractFactory.getOMFactory(), StAXParserConfiguration.DEFAULT, in, null, null,
+ *         binaryContent);</pre>
+ * <p>
+ * Note that to keep memory usage low, the parser should be configured so that it reports long
+ * text nodes in multiple chunks (i.e. non coalescing). Instances of this class are not thread
+ * safe while they are being configured, but may be shared by multiple builders afterwards.
+ */
+public final class OMBinaryContent {
+    private static final WritableBlobFactory<MemoryBlob> MEMORY_BLOB_FACTORY = new WritableBlobFactory<MemoryBlob>() {
+        @Override
+        public MemoryBlob createBlob() {
+            return Blobs.createMemoryBlob();
+        }
+    };
+
+    private final WritableBlobFactory<?> blobFactory;
+    private final Set<QName> elements = new HashSet<QName>();
+    private boolean xsiTypeDetection;
+
+    /**
+     * Create an instance that decodes binary data into the given type of blob.
+     * 
+     * @param blobFactory
+     *            the factory used to create the blobs that store the decoded data
+     */
+    public OMBinaryContent(WritableBlobFactory<?> blobFactory) {
+        this.blobFactory = blobFactory;
+    }
+
+    /**
+     * Create an instance that decodes binary data into {@link MemoryBlob}s.
+     */
+    public OMBinaryContent() {
+        this(MEMORY_BLOB_FACTORY);
+    }
+
+    /**
+     * Select the elements with the given name.
+     * 
+     * @param name
+     *            the name of the elements; the prefix is ignored
+     * @return this instance
+     */
+    public OMBinaryContent addElement(QName name) {
+        elements.add(new QName(name.getNamespaceURI(), name.getLocalPart()));
+        return this;
+    }
+
+    /**
+     * Specify whether elements with an <tt>xsi:type</tt> attribute that refers to
+     * <tt>xs:base64Binary</tt> should be selected.
+     * 
+     * @param xsiTypeDetection
+     *            <code>true</code> to select those elements, <code>false</code> otherwise
+     * @return this instance
+     */
+    public OMBinaryContent setXsiTypeDetection(boolean xsiTypeDetection) {
+        this.xsiTypeDetection = xsiTypeDetection;
+        return this;
+    }
+
+    public boolean isXsiTypeDetection() {
+        return xsiTypeDetection;
+    }
+
+    public WritableBlobFactory<?> getBlobFactory() {
+        return blobFactory;
+    }
+
+    /**
+     * Determine if an element has been selected by name. This method is used by object model
+     * builders.
+     * 
+     * @param namespaceURI
+     *            the namespace URI of the element; the empty string if the element has no
+     *            namespace
+     * @param localName
+     *            the local name of the element
+     * @return <code>true</code> if the element has been selected, <code>false</code> otherwise
+     */
+    public boolean isBinaryElement(String namespaceURI, String localName) {
+        return !elements.isEmpty() && elements.contains(new QName(namespaceURI, localName));
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om;
+
+import java.io.InputStream;
+import java.util.concurrent.Executor;
+
+import org.apache.axiom.om.util.StAXParserConfiguration;
+import org.xml.sax.InputSource;
+
+/**
+ * Describes the input and the parsing options of an object model builder created by an
+ * {@link OMBuilderSpecSupport} implementation. Instances are immutable; the <code>with</code>
+ * methods return a new instance.
+ * <p>
+ * For internal use only. Applications should use the methods defined by
+ * {@link OMXMLBuilderFactory}.
+ */
+public final class OMBuilderSpec {
+    private final StAXParserConfiguration configuration;
+    private final InputSource inputSource;
+    private final InputStream binaryInputStream;
+    private final OMProjection projection;
+    private final OMBinaryContent binaryContent;
+    private final boolean parallel;
+    private final Executor executor;
+    private final OMCharacterDataStorage characterDataStorage;
+
+    private OMBuilderSpec(StAXParserConfiguration configuration, InputSource inputSource,
+            InputStream binaryInputStream, OMProjection projection, OMBinaryContent binaryContent,
+            boolean parallel, Executor executor, OMCharacterDataStorage characterDataStorage) {
+        this.configuration = configuration;
+        this.inputSource = inputSource;
+        this.binaryInputStream = binaryInputStream;
+        this.projection = projection;
+        this.binaryContent = binaryContent;
+        this.parallel = parallel;
+        this.executor = executor;
+        this.characterDataStorage = characterDataStorage;
+    }
+
+    /**
+     * Create a spec for a builder that reads a plain XML document from the given input source.
+     * 
+     * @param configuration
+     *            the parser configuration to use
+     * @param is
+     *            the source of the XML document
+     * @return the spec
+     */
+    public static OMBuilderSpec from(StAXParserConfiguration configuration, InputSource is) {
+        return new OMBuilderSpec(configuration, is, null, null, null, false, null, OMCharacterDataStorage.DEFAULT);
+    }
+
+    /**
+     * Create a spec for a builder that reads a document in binary XML format (see
+     * {@link OMOutputFormat#setBinaryXML(boolean)}).
+     * 
+     * @param in
+     *            the input stream containing the binary XML data
+     * @return the spec
+     */
+    public static OMBuilderSpec fromBinaryXML(InputStream in) {
+        return new OMBuilderSpec(null, null, in, null, null, false, null, OMCharacterDataStorage.DEFAULT);
+    }
+
+    /**
+     * Create a spec for a non-blocking builder. The input is supplied using the
+     * {@link OMInputFeeder} returned by {@link NonBlockingBuilder#getInputFeeder()}.
+     * 
+     * @return the spec
+     */
+    public static OMBuilderSpec async() {
+        return new OMBuilderSpec(null, null, null, null, null, false, null, OMCharacterDataStorage.DEFAULT);
+    }
+
+    /**
+     * Create a new spec that only builds the parts of the document selected by the given
+     * projection.
+     * 
+     * @param projection
+     *            the projection, or <code>null</code> if the entire document should be built
+     * @return the new spec
+     */
+    public OMBuilderSpec withProjection(OMProjection projection) {
+        return new OMBuilderSpec(configuration, inputSource, binaryInputStream, projection,
+                binaryContent, parallel, executor, characterDataStorage);
+    }
+
+    /**
+     * Create a new spec that decodes inline base64 data in the elements selected by the given
+     * {@link OMBinaryContent} while parsing.
+     * 
+     * @param binaryContent
+     *            specifies the elements containing base64 encoded binary data, or
+     *            <code>null</code> if no data should be decoded during parsing
+     * @return the new spec
+     */
+    public OMBuilderSpec withBinaryContent(OMBinaryContent binaryContent) {
+        return new OMBuilderSpec(configuration, inputSource, binaryInputStream, projection,
+                binaryContent, parallel, executor, characterDataStorage);
+    }
+
+    /**
+     * Create a new spec that parses the document on a separate thread. This is not supported for
+     * non-blocking builders.
+     * 
+     * @param executor
+     *            the executor to run the parser, or <code>null</code> if a new thread should be
+     *            created
+     * @return the new spec
+     * @see OMXMLBuilderFactory#createParallelOMBuilder(OMFactory, StAXParserConfiguration,
+     *      InputStream, String, Executor)
+     */
+    public OMBuilderSpec withParallelParsing(Executor executor) {
+        if (isAsync()) {
+            throw new IllegalStateException("Non-blocking builders don't support parallel parsing");
+        }
+        return new OMBuilderSpec(configuration, inputSource, binaryInputStream, projection,
+                binaryContent, true, executor, characterDataStorage);
+    }
+
+    /**
+     * Create a new spec that stores character data in the given form.
+     * 
+     * @param characterDataStorage
+     *            the storage form
+     * @return the new spec
+     */
+    public OMBuilderSpec withCharacterDataStorage(OMCharacterDataStorage characterDataStorage) {
+        if (characterDataStorage == null) {
+            throw new IllegalArgumentException("characterDataStorage must not be null");
+        }
+        return new OMBuilderSpec(configuration, inputSource, binaryInputStream, projection,
+                binaryContent, parallel, executor, characterDataStorage);
+    }
+
+    /**
+     * Get the parser configuration for a spec created by
+     * {@link #from(StAXParserConfiguration, InputSource)}.
+     * 
+     * @return the parser configuration, or <code>null</code> if the input is not plain XML
+     */
+    public StAXParserConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Get the source of a plain XML document.
+     * 
+     * @return the input source, or <code>null</code> if the input is not plain XML
+     */
+    public InputSource getInputSource() {
+        return inputSource;
+    }
+
+    /**
+     * Get the stream containing a document in binary XML format.
+     * 
+     * @return the input stream, or <code>null</code> if the input is not binary XML
+     */
+    public InputStream getBinaryInputStream() {
+        return binaryInputStream;
+    }
+
+    /**
+     * Determine whether this spec describes a non-blocking builder.
+     * 
+     * @return <code>true</code> if the input is supplied using an {@link OMInputFeeder}
+     */
+    public boolean isAsync() {
+        return inputSource == null && binaryInputStream == null;
+    }
+
+    public OMProjection getProjection() {
+        return projection;
+    }
+
+    public OMBinaryContent getBinaryContent() {
+        return binaryContent;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Get the executor to run the parser if parallel parsing is enabled.
+     * 
+     * @return the executor, or <code>null</code> if a new thread should be created
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Get the form in which the builder stores character data.
+     * 
+     * @return the storage form; never <code>null</code>
+     */
+    public OMCharacterDataStorage getCharacterDataStorage() {
+        return characterDataStorage;
+    }
+}
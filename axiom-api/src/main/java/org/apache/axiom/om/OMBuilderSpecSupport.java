@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om;
+
+import org.apache.axiom.soap.SOAPModelBuilder;
+
+/**
+ * Optional interface implemented by {@link OMMetaFactorySPI} implementations that support the
+ * builder options described by {@link OMBuilderSpec}, i.e. projections, decoding of base64
+ * content, parallel and non-blocking parsing and binary XML. Implementations that don't implement
+ * this interface only support the builders defined by {@link OMMetaFactorySPI};
+ * {@link OMXMLBuilderFactory} throws {@link UnsupportedOperationException} if one of the other
+ * builders is requested from them.
+ * <p>
+ * For internal use only.
+ */
+public interface OMBuilderSpecSupport {
+    /**
+     * Create an object model builder for plain XML.
+     * 
+     * @param spec
+     *            the input and parsing options of the builder
+     * @return the builder
+     */
+    OMXMLParserWrapper createOMBuilder(OMBuilderSpec spec);
+
+    /**
+     * Create an object model builder for SOAP. The implementation will select the appropriate
+     * {@link org.apache.axiom.soap.SOAPFactory} based on the namespace URI of the SOAP envelope.
+     * Plain XML input should be parsed with
+     * {@link org.apache.axiom.om.util.StAXParserConfiguration#SOAP}.
+     * 
+     * @param spec
+     *            the input and parsing options of the builder
+     * @return the builder
+     */
+    SOAPModelBuilder createSOAPModelBuilder(OMBuilderSpec spec);
+}
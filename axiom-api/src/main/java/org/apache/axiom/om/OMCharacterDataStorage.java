@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om;
+
+/**
+ * Specifies how a builder stores the character data (text and attribute values) it reads from
+ * the parser. The stored form is transparent to the application: it only affects the memory used
+ * by the tree and the cost of building it.
+ */
+public enum OMCharacterDataStorage {
+    /**
+     * Store the character data as received from the parser. This is the default.
+     */
+    DEFAULT(false, false),
+    
+    /**
+     * Store short values that occur repeatedly in a document (e.g. whitespace used for
+     * indentation, codes and flags) as a single shared instance.
+     */
+    DEDUPLICATED(false, true),
+    
+    /**
+     * Store text that only contains ISO-8859-1 characters with one byte per character, and pack
+     * very short values into a single field.
+     */
+    COMPACT(true, false),
+    
+    /**
+     * Combines {@link #COMPACT} and {@link #DEDUPLICATED}.
+     */
+    COMPACT_DEDUPLICATED(true, true);
+    
+    private final boolean compact;
+    private final boolean deduplicated;
+
+    private OMCharacterDataStorage(boolean compact, boolean deduplicated) {
+        this.compact = compact;
+        this.deduplicated = deduplicated;
+    }
+
+    /**
+     * Determine whether text should be stored in compact form.
+     * 
+     * @return <code>true</code> for {@link #COMPACT} and {@link #COMPACT_DEDUPLICATED}
+     */
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Determine whether repeated short values should be shared.
+     * 
+     * @return <code>true</code> for {@link #DEDUPLICATED} and {@link #COMPACT_DEDUPLICATED}
+     */
+    public boolean isDeduplicated() {
+        return deduplicated;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axiom.om;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Supplies input to a non-blocking builder. Builders of this kind are created using
+ * {@link OMXMLBuilderFactory#createAsyncOMBuilder()} or
+ * {@link OMXMLBuilderFactory#createAsyncSOAPModelBuilder()} and don't read from a stream;
+ * instead the application pushes chunks of the encoded document as they become available (e.g.
+ * from a non-blocking socket channel). Each call to {@link #feed(ByteBuffer)} builds as much of
+ * the object model as the data received so far allows, and then returns without waiting for more
+ * data.
+ * <p>
+ * While the document is incomplete, the application may inspect the parts that have already been
+ * built. {@link OMContainer#isComplete()} can be used to check whether a given element has been
+ * received completely. Any attempt to access a part of the document that hasn't been received
+ * yet (e.g. the next sibling of the last element built so far) will result in an
+ * {@link OMException}; it doesn't block.
+ * <p>
+ * Instances of this interface are not thread safe.
+ */
+public interface OMInputFeeder {
+    /**
+     * Feed a chunk of input to the builder and build as much of the object model as possible.
+     * All remaining bytes of the buffer are consumed; the buffer may be reused by the caller
+     * after this method returns.
+     * 
+     * @param buffer
+     *            the data to feed
+     * @throws OMException
+     *             if the input is not well formed
+     * @throws IllegalStateException
+     *             if {@link #endOfInput()} has already been called
+     */
+    void feed(ByteBuffer buffer);
+
+    /**
+     * Signal that no more input will be fed to the builder. The builder will then complete the
+     * document, or report an error if the input fed so far doesn't contain a complete document.
+     * 
+     * @throws OMException
+     *             if the input is not well formed or is truncated
+     */
+    void endOfInput();
+
+    /**
+     * Check whether the builder needs more input to make progress.
+     * 
+     * @return <code>true</code> if the document has not been completed and
+     *         {@link #endOfInput()} has not been called yet, <code>false</code> otherwise
+     */
+    boolean isInputNeeded();
+}
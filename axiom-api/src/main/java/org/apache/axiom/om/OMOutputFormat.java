@@ -21,6 +21,7 @@ package org.apache.axiom.om;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.apache.axiom.om.impl.MTOMConstants;
 import org.apache.axiom.om.util.StAXWriterConfiguration;
@@ -71,6 +72,10 @@ public class OMOutputFormat {
     @SuppressWarnings("deprecation")
     private StAXWriterConfiguration writerConfiguration;
     
+    private Executor parallelSerializationExecutor;
+    
+    private boolean binaryXML;
+    
     // The value of this property is a Boolean.  
     // A missing value indicates the default action, which is Boolean.FALSE
     // If Boolean.TRUE, attachments that are "non textual" are written out with 
@@ -126,6 +131,8 @@ public class OMOutputFormat {
         ignoreXMLDeclaration = format.ignoreXMLDeclaration;
         autoCloseWriter = format.autoCloseWriter;
         writerConfiguration = format.writerConfiguration;
+        parallelSerializationExecutor = format.parallelSerializationExecutor;
+        binaryXML = format.binaryXML;
         if (format.map != null) {
             map = new HashMap<String,Object>(format.map);
         }
@@ -475,4 +482,64 @@ public class OMOutputFormat {
     public void setStAXWriterConfiguration(StAXWriterConfiguration writerConfiguration) {
         this.writerConfiguration = writerConfiguration;
     }
+
+    /**
+     * Get the executor used for parallel serialization.
+     * 
+     * @return the executor, or <code>null</code> if parallel serialization is disabled
+     */
+    public Executor getParallelSerializationExecutor() {
+        return parallelSerializationExecutor;
+    }
+
+    /**
+     * Enable parallel serialization. If an executor is set, then
+     * {@link OMContainer#serialize(java.io.OutputStream, OMOutputFormat)} will split the children
+     * of the element having the largest number of children (such as the body of a SOAP message
+     * containing a large number of records) into chunks and use the executor to serialize them
+     * concurrently. The output is identical to the output produced by sequential serialization. A
+     * {@link java.util.concurrent.ForkJoinPool} is a suitable executor.
+     * <p>
+     * Parallel serialization is only used if caching is enabled, the output is not XOP/MTOM
+     * encoded and the charset encoding is UTF-8, US-ASCII or ISO-8859-1. In all other cases, and
+     * for trees that are too small to benefit from it, the tree is serialized sequentially. The
+     * tree must not be modified by other threads during serialization.
+     * 
+     * @param executor
+     *            the executor, or <code>null</code> to disable parallel serialization
+     */
+    public void setParallelSerializationExecutor(Executor executor) {
+        this.parallelSerializationExecutor = executor;
+    }
+
+    /**
+     * Determine whether the output is written in binary XML format.
+     * 
+     * @return <code>true</code> if binary XML is written, <code>false</code> otherwise
+     * @see #setBinaryXML(boolean)
+     */
+    public boolean isBinaryXML() {
+        return binaryXML;
+    }
+
+    /**
+     * Select the binary XML format. If this option is enabled, then
+     * {@link OMContainer#serialize(java.io.OutputStream, OMOutputFormat)} writes the events
+     * making up the document in a compact binary encoding instead of textual XML. Element and
+     * attribute names, prefixes and namespace URIs are written only once, so that this format is
+     * both smaller and faster to parse than textual XML for documents with repetitive structures.
+     * The output can be read back using
+     * {@link OMXMLBuilderFactory#createBinaryOMBuilder(java.io.InputStream)} or
+     * {@link OMXMLBuilderFactory#createBinarySOAPModelBuilder(java.io.InputStream)}.
+     * <p>
+     * The charset encoding, the XML declaration settings and XOP/MTOM are ignored when this option
+     * is enabled, and the output is not a MIME package. Binary XML is intended for exchanges
+     * between Axiom based components that both support it; it is not an interoperable format.
+     * 
+     * @param binaryXML
+     *            <code>true</code> to write binary XML, <code>false</code> to write textual XML
+     */
+    public void setBinaryXML(boolean binaryXML) {
+        this.binaryXML = binaryXML;
+    }
 }
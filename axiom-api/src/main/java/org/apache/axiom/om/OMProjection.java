@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+
+/**
+ * Specifies the parts of an XML document for which an object model builder should create nodes.
+ * A projection is defined by a set of element paths starting at the document element. The
+ * builder creates nodes for the elements on these paths, as well as for the complete subtrees of
+ * the elements at the end of the paths. Subtrees of all other elements are skipped during parsing,
+ * i.e. no nodes are created for them. Non element nodes (text, comments, etc.) that are children
+ * of elements on the paths are preserved.
+ * <p>
+ * For example, to build only the <tt>price</tt> element of a SOAP response, use:
+ * 
+ * <pre>
+ * OMProjection projection = new OMProjection().addPath(
+ *         new QName(SOAP11Constants.SOAP_ENVELOPE_NAMESPACE_URI, "Envelope"),
+ *         new QName(SOAP11Constants.SOAP_ENVELOPE_NAMESPACE_URI, "Body"),
+ *         new QName("urn:quote", "getQuoteResponse"),
+ *         new QName("urn:quote", "price"));
+ * SOAPModelBuilder builder = OMXMLBuilderFactory.createSOAPModelBuilder(in, null, projection);</pre>
+ * <p>
+ * Note that the prefixes of the {@link QName} objects are ignored. Instances of this class are
+ * not thread safe while paths are being added, but may be shared by multiple builders once they
+ * are fully configured.
+ */
+public final class OMProjection {
+    /**
+     * Projection that selects all child elements.
+     */
+    private static final OMProjection ALL = new OMProjection(null);
+    
+    private final Map<QName,OMProjection> children;
+    
+    private OMProjection(Map<QName,OMProjection> children) {
+        this.children = children;
+    }
+    
+    /**
+     * Create an empty projection. A builder that uses an empty projection will skip the document
+     * element.
+     */
+    public OMProjection() {
+        this(new HashMap<QName,OMProjection>());
+    }
+    
+    /**
+     * Add a path to the projection.
+     * 
+     * @param path
+     *            the names of the elements on the path, starting with the document element; must
+     *            not be empty
+     * @return this projection
+     */
+    public OMProjection addPath(QName... path) {
+        if (path.length == 0) {
+            throw new IllegalArgumentException("The path must not be empty");
+        }
+        OMProjection projection = this;
+        for (int i=0; i<path.length; i++) {
+            QName name = path[i];
+            OMProjection child = projection.children.get(name);
+            if (child == ALL) {
+                // The path is a descendant of a subtree that is already selected
+                break;
+            } else if (i == path.length-1) {
+                projection.children.put(name, ALL);
+            } else {
+                if (child == null) {
+                    child = new OMProjection();
+                    projection.children.put(name, child);
+                }
+                projection = child;
+            }
+        }
+        return this;
+    }
+    
+    /**
+     * Get the projection to apply to the content of a given child element. This method is used by
+     * object model builders.
+     * 
+     * @param namespaceURI
+     *            the namespace URI of the child element; the empty string if the element has no
+     *            namespace
+     * @param localName
+     *            the local name of the child element
+     * @return the projection for the child element, or <code>null</code> if the child element
+     *         (and its subtree) is not selected
+     */
+    public OMProjection getChildProjection(String namespaceURI, String localName) {
+        return this == ALL ? ALL : children.get(new QName(namespaceURI, localName));
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.axiom.om;
 import java.io.InputStream;
 import java.io.Reader;
 import java.text.ParseException;
+import java.util.concurrent.Executor;
 
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamReader;
@@ -235,6 +236,208 @@ public class OMXMLBuilderFactory {
         return ((OMMetaFactorySPI)omFactory.getMetaFactory()).createOMBuilder(configuration, is);
     }
     
+    /**
+     * Create an object model builder that reads an XML document from the provided input stream
+     * and only builds the parts of the document selected by a given projection. The default
+     * object model factory and parser configuration are used.
+     * 
+     * @param in
+     *            the input stream representing the XML document
+     * @param projection
+     *            the projection specifying the elements to build
+     * @return the builder
+     */
+    public static OMXMLParserWrapper createOMBuilder(InputStream in, OMProjection projection) {
+        return createOMBuilder(OMAbstractFactory.getOMFactory(), StAXParserConfiguration.DEFAULT, in, null, projection);
+    }
+    
+    /**
+     * Create an object model builder that reads an XML document from the provided input stream
+     * using a specified object model factory and with a given parser configuration, and that only
+     * builds the parts of the document selected by a given projection.
+     * 
+     * @param omFactory
+     *            the object model factory to use
+     * @param configuration
+     *            the parser configuration to use
+     * @param in
+     *            the input stream representing the XML document
+     * @param encoding
+     *            the charset encoding of the XML document or <code>null</code> if the parser should
+     *            determine the charset encoding
+     * @param projection
+     *            the projection specifying the elements to build
+     * @return the builder
+     */
+    public static OMXMLParserWrapper createOMBuilder(OMFactory omFactory, StAXParserConfiguration configuration, InputStream in, String encoding, OMProjection projection) {
+        InputSource is = new InputSource(in);
+        is.setEncoding(encoding);
+        return createOMBuilder(omFactory.getMetaFactory(), OMBuilderSpec.from(configuration, is).withProjection(projection));
+    }
+    
+    /**
+     * Create an object model builder that reads an XML document from the provided input stream
+     * using a specified object model factory and with a given parser configuration, and that
+     * decodes inline base64 data in the elements selected by a given {@link OMBinaryContent}
+     * while parsing.
+     * 
+     * @param omFactory
+     *            the object model factory to use
+     * @param configuration
+     *            the parser configuration to use
+     * @param in
+     *            the input stream representing the XML document
+     * @param encoding
+     *            the charset encoding of the XML document or <code>null</code> if the parser should
+     *            determine the charset encoding
+     * @param projection
+     *            the projection specifying the elements to build, or <code>null</code> if the
+     *            entire document should be built
+     * @param binaryContent
+     *            specifies the elements containing base64 encoded binary data
+     * @return the builder
+     */
+    public static OMXMLParserWrapper createOMBuilder(OMFactory omFactory, StAXParserConfiguration configuration, InputStream in, String encoding, OMProjection projection, OMBinaryContent binaryContent) {
+        InputSource is = new InputSource(in);
+        is.setEncoding(encoding);
+        return createOMBuilder(omFactory.getMetaFactory(), OMBuilderSpec.from(configuration, is).withProjection(projection).withBinaryContent(binaryContent));
+    }
+    
+    /**
+     * Create an object model builder that reads an XML document from the provided input stream
+     * using a specified object model factory and with a given parser configuration, and that
+     * stores character data in a given form. This is mainly useful to reduce the memory used by
+     * trees built from large, data heavy documents.
+     * 
+     * @param omFactory
+     *            the object model factory to use
+     * @param configuration
+     *            the parser configuration to use
+     * @param in
+     *            the input stream representing the XML document
+     * @param encoding
+     *            the charset encoding of the XML document or <code>null</code> if the parser should
+     *            determine the charset encoding
+     * @param projection
+     *            the projection specifying the elements to build, or <code>null</code> if the
+     *            entire document should be built
+     * @param binaryContent
+     *            specifies the elements containing base64 encoded binary data, or
+     *            <code>null</code> if no data should be decoded during parsing
+     * @param characterDataStorage
+     *            the form in which character data is stored
+     * @return the builder
+     */
+    public static OMXMLParserWrapper createOMBuilder(OMFactory omFactory, StAXParserConfiguration configuration, InputStream in, String encoding, OMProjection projection, OMBinaryContent binaryContent, OMCharacterDataStorage characterDataStorage) {
+        InputSource is = new InputSource(in);
+        is.setEncoding(encoding);
+        return createOMBuilder(omFactory.getMetaFactory(), OMBuilderSpec.from(configuration, is).withProjection(projection).withBinaryContent(binaryContent).withCharacterDataStorage(characterDataStorage));
+    }
+    
+    /**
+     * Create an object model builder that parses an XML document from the provided input stream on
+     * a separate thread. The default object model factory and parser configuration are used.
+     * 
+     * @param in
+     *            the input stream representing the XML document
+     * @param executor
+     *            the executor to run the parser, or <code>null</code> if a new thread should be
+     *            created
+     * @return the builder
+     * @see #createParallelOMBuilder(OMFactory, StAXParserConfiguration, InputStream, String,
+     *      Executor)
+     */
+    public static OMXMLParserWrapper createParallelOMBuilder(InputStream in, Executor executor) {
+        return createParallelOMBuilder(OMAbstractFactory.getOMFactory(), StAXParserConfiguration.DEFAULT, in, null, executor);
+    }
+    
+    /**
+     * Create an object model builder that parses an XML document from the provided input stream on
+     * a separate thread. The parser reads ahead of the application into a bounded buffer, so that
+     * I/O and parsing overlap with the application's processing of the parts of the tree that
+     * have already been built; the application only waits if it gets ahead of the parser. This is
+     * mainly useful for large documents received over the network. For small documents, the
+     * overhead of handing over the parsed events to the application thread outweighs the gain.
+     * <p>
+     * Note that the input stream is read by the parser thread, and that it may still be accessed
+     * by that thread for a short time after the builder has been closed. As with a synchronous
+     * builder, {@link OMXMLParserWrapper#detach()} can be used to read the part of the stream
+     * that the parser thread hasn't consumed yet into memory. On Java versions that
+     * support virtual threads, the application would typically pass an executor that creates a
+     * virtual thread per task.
+     * 
+     * @param omFactory
+     *            the object model factory to use
+     * @param configuration
+     *            the parser configuration to use
+     * @param in
+     *            the input stream representing the XML document
+     * @param encoding
+     *            the charset encoding of the XML document or <code>null</code> if the parser should
+     *            determine the charset encoding
+     * @param executor
+     *            the executor to run the parser, or <code>null</code> if a new thread should be
+     *            created
+     * @return the builder
+     */
+    public static OMXMLParserWrapper createParallelOMBuilder(OMFactory omFactory, StAXParserConfiguration configuration, InputStream in, String encoding, Executor executor) {
+        InputSource is = new InputSource(in);
+        is.setEncoding(encoding);
+        return createOMBuilder(omFactory.getMetaFactory(), OMBuilderSpec.from(configuration, is).withParallelParsing(executor));
+    }
+    
+    /**
+     * Create a non-blocking object model builder that uses the default object model factory. The
+     * builder doesn't read its input from a stream; instead the application supplies the document
+     * in chunks using the {@link OMInputFeeder} returned by
+     * {@link NonBlockingBuilder#getInputFeeder()}.
+     * 
+     * @return the builder; it implements {@link NonBlockingBuilder}
+     */
+    public static OMXMLParserWrapper createAsyncOMBuilder() {
+        return createAsyncOMBuilder(OMAbstractFactory.getOMFactory());
+    }
+    
+    /**
+     * Create a non-blocking object model builder that uses a specified object model factory.
+     * 
+     * @param omFactory
+     *            the object model factory to use
+     * @return the builder
+     * @see #createAsyncOMBuilder()
+     */
+    public static OMXMLParserWrapper createAsyncOMBuilder(OMFactory omFactory) {
+        return createOMBuilder(omFactory.getMetaFactory(), OMBuilderSpec.async());
+    }
+    
+    /**
+     * Create an object model builder that reads a document in binary XML format (see
+     * {@link OMOutputFormat#setBinaryXML(boolean)}) and that uses the default object model
+     * factory. The caller is responsible for closing the stream.
+     * 
+     * @param in
+     *            the input stream containing the binary XML data
+     * @return the builder
+     */
+    public static OMXMLParserWrapper createBinaryOMBuilder(InputStream in) {
+        return createBinaryOMBuilder(OMAbstractFactory.getOMFactory(), in);
+    }
+    
+    /**
+     * Create an object model builder that reads a document in binary XML format and that uses a
+     * specified object model factory.
+     * 
+     * @param omFactory
+     *            the object model factory to use
+     * @param in
+     *            the input stream containing the binary XML data
+     * @return the builder
+     * @see #createBinaryOMBuilder(InputStream)
+     */
+    public static OMXMLParserWrapper createBinaryOMBuilder(OMFactory omFactory, InputStream in) {
+        return createOMBuilder(omFactory.getMetaFactory(), OMBuilderSpec.fromBinaryXML(in));
+    }
+    
     /**
      * Create an object model builder that reads a plain XML document from the provided character
      * stream with the default parser configuration defined by
@@ -585,6 +788,177 @@ public class OMXMLBuilderFactory {
         return ((OMMetaFactorySPI)metaFactory).createSOAPModelBuilder(is);
     }
     
+    /**
+     * Create an object model builder for SOAP that reads a message from the provided input stream
+     * and only builds the parts of the message selected by a given projection. The default Axiom
+     * implementation is used.
+     * 
+     * @param in
+     *            the input stream containing the SOAP message
+     * @param encoding
+     *            the charset encoding of the SOAP message or <code>null</code> if the parser should
+     *            determine the charset encoding
+     * @param projection
+     *            the projection specifying the elements to build
+     * @return the builder
+     */
+    public static SOAPModelBuilder createSOAPModelBuilder(InputStream in, String encoding, OMProjection projection) {
+        return createSOAPModelBuilder(OMAbstractFactory.getMetaFactory(), in, encoding, projection);
+    }
+    
+    /**
+     * Create an object model builder for SOAP that reads a message from the provided input stream,
+     * using a particular Axiom implementation, and that only builds the parts of the message
+     * selected by a given projection.
+     * 
+     * @param metaFactory
+     *            the meta factory for the Axiom implementation to use
+     * @param in
+     *            the input stream containing the SOAP message
+     * @param encoding
+     *            the charset encoding of the SOAP message or <code>null</code> if the parser should
+     *            determine the charset encoding
+     * @param projection
+     *            the projection specifying the elements to build
+     * @return the builder
+     */
+    public static SOAPModelBuilder createSOAPModelBuilder(OMMetaFactory metaFactory, InputStream in, String encoding, OMProjection projection) {
+        InputSource is = new InputSource(in);
+        is.setEncoding(encoding);
+        return createSOAPModelBuilder(metaFactory, OMBuilderSpec.from(StAXParserConfiguration.SOAP, is).withProjection(projection));
+    }
+    
+    /**
+     * Create an object model builder for SOAP that reads a message from the provided input stream,
+     * using a particular Axiom implementation, and that decodes inline base64 data in the
+     * elements selected by a given {@link OMBinaryContent} while parsing.
+     * 
+     * @param metaFactory
+     *            the meta factory for the Axiom implementation to use
+     * @param in
+     *            the input stream containing the SOAP message
+     * @param encoding
+     *            the charset encoding of the SOAP message or <code>null</code> if the parser should
+     *            determine the charset encoding
+     * @param projection
+     *            the projection specifying the elements to build, or <code>null</code> if the
+     *            entire message should be built
+     * @param binaryContent
+     *            specifies the elements containing base64 encoded binary data
+     * @return the builder
+     */
+    public static SOAPModelBuilder createSOAPModelBuilder(OMMetaFactory metaFactory, InputStream in, String encoding, OMProjection projection, OMBinaryContent binaryContent) {
+        InputSource is = new InputSource(in);
+        is.setEncoding(encoding);
+        return createSOAPModelBuilder(metaFactory, OMBuilderSpec.from(StAXParserConfiguration.SOAP, is).withProjection(projection).withBinaryContent(binaryContent));
+    }
+    
+    /**
+     * Create an object model builder for SOAP that reads a message from the provided input stream,
+     * using a particular Axiom implementation, and that stores character data in a given form.
+     * 
+     * @param metaFactory
+     *            the meta factory for the Axiom implementation to use
+     * @param in
+     *            the input stream containing the SOAP message
+     * @param encoding
+     *            the charset encoding of the SOAP message or <code>null</code> if the parser should
+     *            determine the charset encoding
+     * @param projection
+     *            the projection specifying the elements to build, or <code>null</code> if the
+     *            entire message should be built
+     * @param binaryContent
+     *            specifies the elements containing base64 encoded binary data, or
+     *            <code>null</code> if no data should be decoded during parsing
+     * @param characterDataStorage
+     *            the form in which character data is stored
+     * @return the builder
+     * @see #createOMBuilder(OMFactory, StAXParserConfiguration, InputStream, String, OMProjection,
+     *      OMBinaryContent, OMCharacterDataStorage)
+     */
+    public static SOAPModelBuilder createSOAPModelBuilder(OMMetaFactory metaFactory, InputStream in, String encoding, OMProjection projection, OMBinaryContent binaryContent, OMCharacterDataStorage characterDataStorage) {
+        InputSource is = new InputSource(in);
+        is.setEncoding(encoding);
+        return createSOAPModelBuilder(metaFactory, OMBuilderSpec.from(StAXParserConfiguration.SOAP, is).withProjection(projection).withBinaryContent(binaryContent).withCharacterDataStorage(characterDataStorage));
+    }
+    
+    /**
+     * Create an object model builder for SOAP that parses a message from the provided input stream
+     * on a separate thread, using a particular Axiom implementation. See
+     * {@link #createParallelOMBuilder(OMFactory, StAXParserConfiguration, InputStream, String, Executor)}
+     * for more information about parallel builders.
+     * 
+     * @param metaFactory
+     *            the meta factory for the Axiom implementation to use
+     * @param in
+     *            the input stream containing the SOAP message
+     * @param encoding
+     *            the charset encoding of the SOAP message or <code>null</code> if the parser should
+     *            determine the charset encoding
+     * @param executor
+     *            the executor to run the parser, or <code>null</code> if a new thread should be
+     *            created
+     * @return the builder
+     */
+    public static SOAPModelBuilder createParallelSOAPModelBuilder(OMMetaFactory metaFactory, InputStream in, String encoding, Executor executor) {
+        InputSource is = new InputSource(in);
+        is.setEncoding(encoding);
+        return createSOAPModelBuilder(metaFactory, OMBuilderSpec.from(StAXParserConfiguration.SOAP, is).withParallelParsing(executor));
+    }
+    
+    /**
+     * Create a non-blocking object model builder for SOAP. The default Axiom implementation is
+     * used. The application supplies the message in chunks using the {@link OMInputFeeder}
+     * returned by {@link NonBlockingBuilder#getInputFeeder()}. The method will select the
+     * appropriate {@link SOAPFactory} based on the namespace URI of the SOAP envelope.
+     * 
+     * @return the builder; it implements {@link NonBlockingBuilder}
+     */
+    public static SOAPModelBuilder createAsyncSOAPModelBuilder() {
+        return createAsyncSOAPModelBuilder(OMAbstractFactory.getMetaFactory());
+    }
+    
+    /**
+     * Create a non-blocking object model builder for SOAP using a particular Axiom implementation.
+     * 
+     * @param metaFactory
+     *            the meta factory for the Axiom implementation to use
+     * @return the builder
+     * @see #createAsyncSOAPModelBuilder()
+     */
+    public static SOAPModelBuilder createAsyncSOAPModelBuilder(OMMetaFactory metaFactory) {
+        return createSOAPModelBuilder(metaFactory, OMBuilderSpec.async());
+    }
+    
+    /**
+     * Create an object model builder for SOAP that reads a message in binary XML format (see
+     * {@link OMOutputFormat#setBinaryXML(boolean)}). The default Axiom implementation is used.
+     * The method will select the appropriate {@link SOAPFactory} based on the namespace URI of the
+     * SOAP envelope. The caller is responsible for closing the stream.
+     * 
+     * @param in
+     *            the input stream containing the binary XML data
+     * @return the builder
+     */
+    public static SOAPModelBuilder createBinarySOAPModelBuilder(InputStream in) {
+        return createBinarySOAPModelBuilder(OMAbstractFactory.getMetaFactory(), in);
+    }
+    
+    /**
+     * Create an object model builder for SOAP that reads a message in binary XML format using a
+     * particular Axiom implementation.
+     * 
+     * @param metaFactory
+     *            the meta factory for the Axiom implementation to use
+     * @param in
+     *            the input stream containing the binary XML data
+     * @return the builder
+     * @see #createBinarySOAPModelBuilder(InputStream)
+     */
+    public static SOAPModelBuilder createBinarySOAPModelBuilder(OMMetaFactory metaFactory, InputStream in) {
+        return createSOAPModelBuilder(metaFactory, OMBuilderSpec.fromBinaryXML(in));
+    }
+    
     /**
      * Create an object model builder for SOAP that reads a message from the provided character
      * stream. The method will select the appropriate {@link SOAPFactory} based on the namespace URI
@@ -744,4 +1118,20 @@ public class OMXMLBuilderFactory {
             Source rootPart, OMAttachmentAccessor attachmentAccessor) {
         return ((OMMetaFactorySPI)metaFactory).createSOAPModelBuilder(rootPart, attachmentAccessor);
     }
+
+    private static OMBuilderSpecSupport getBuilderSpecSupport(OMMetaFactory metaFactory) {
+        if (metaFactory instanceof OMBuilderSpecSupport) {
+            return (OMBuilderSpecSupport)metaFactory;
+        } else {
+            throw new UnsupportedOperationException("The Axiom implementation doesn't support this type of builder");
+        }
+    }
+    
+    private static OMXMLParserWrapper createOMBuilder(OMMetaFactory metaFactory, OMBuilderSpec spec) {
+        return getBuilderSpecSupport(metaFactory).createOMBuilder(spec);
+    }
+    
+    private static SOAPModelBuilder createSOAPModelBuilder(OMMetaFactory metaFactory, OMBuilderSpec spec) {
+        return getBuilderSpecSupport(metaFactory).createSOAPModelBuilder(spec);
+    }
 }
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om;
+
+import java.io.InputStream;
+
+/**
+ * Optional interface implemented by {@link OMXMLParserWrapper} instances that can be reused to
+ * build a new document from another stream. This avoids the cost of creating a new builder for
+ * each message in applications that parse large numbers of small documents, e.g. by keeping one
+ * builder per thread in a {@link ThreadLocal}. Builders created by {@link OMXMLBuilderFactory} from
+ * an {@link InputStream}, {@link java.io.Reader} or system ID implement this interface.
+ */
+public interface ResettableBuilder {
+    /**
+     * Reset this builder so that it can be reused to build a new document from the given stream.
+     * The configuration of the builder (parser configuration, projection, registered custom
+     * builders, etc.) is retained.
+     * <p>
+     * A builder can only be reset after it has completed the current document (see
+     * {@link OMXMLParserWrapper#isCompleted()}). At that point the tree it has produced is no
+     * longer linked to the builder, and the application remains the owner of that tree: parsing
+     * the new stream will never modify or reference it. The application should not call
+     * {@link OMXMLParserWrapper#getDocument()} on the builder to access the old document after the
+     * reset; it will return the new document instead.
+     * <p>
+     * As with the original input, this method doesn't close the stream passed to the previous
+     * invocation (or to {@link OMXMLBuilderFactory}); this is the responsibility of the caller.
+     * 
+     * @param in
+     *            the stream to read the new document from
+     * @throws IllegalStateException
+     *             if the builder has not completed the current document
+     * @throws UnsupportedOperationException
+     *             if the builder doesn't support being reset; this is the case for builders that
+     *             have not been created from an {@link InputStream}, {@link java.io.Reader} or
+     *             system ID
+     */
+    void reset(InputStream in);
+}
@@ -19,10 +19,16 @@
 package org.apache.axiom.util.io;
 
 import java.io.Closeable;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 
+import org.apache.axiom.ext.io.ChannelSupport;
 import org.apache.axiom.ext.io.ReadFromSupport;
 import org.apache.axiom.ext.io.StreamCopyException;
 
@@ -71,4 +77,79 @@ public final class IOUtils {
             return read;
         }
     }
+    
+    /**
+     * Get the channel an output stream writes to, if that channel is accessible. This method
+     * supports {@link FileOutputStream} and the {@link ChannelSupport} interface.
+     * 
+     * @param out
+     *            the output stream
+     * @return the channel, or <code>null</code> if the output stream doesn't give access to the
+     *         underlying channel
+     * @throws IOException
+     *             if an I/O error occurs while flushing the stream
+     */
+    public static WritableByteChannel getChannel(OutputStream out) throws IOException {
+        if (out instanceof ChannelSupport) {
+            return ((ChannelSupport)out).getChannel();
+        } else if (out instanceof FileOutputStream) {
+            // Note that the stream returned by Socket#getOutputStream() may be a subclass of
+            // FileOutputStream that returns null.
+            return ((FileOutputStream)out).getChannel();
+        } else {
+            return null;
+        }
+    }
+    
+    /**
+     * Transfer the content of a file to a channel using
+     * {@link FileChannel#transferTo(long, long, WritableByteChannel)}. Depending on the operating
+     * system and the type of target channel, this may avoid copying the data through user space.
+     * If {@link FileChannel#transferTo(long, long, WritableByteChannel)} makes no progress (e.g.
+     * because the file has been truncated), the remaining data is copied through a buffer.
+     * 
+     * @param in
+     *            the channel of the file to read from; the data is transferred starting at
+     *            position 0, and the position of the channel is not modified
+     * @param out
+     *            the channel to write to
+     * @return the number of bytes transferred
+     * @throws IOException
+     *             if an I/O error occurs, or if the target channel doesn't accept any data (which
+     *             may happen with a non-blocking channel)
+     */
+    public static long transfer(FileChannel in, WritableByteChannel out) throws IOException {
+        long size = in.size();
+        long position = 0;
+        while (position < size) {
+            long c = in.transferTo(position, size-position, out);
+            if (c == 0) {
+                return copy(in, position, size, out);
+            }
+            position += c;
+        }
+        return position;
+    }
+
+    private static long copy(FileChannel in, long position, long size, WritableByteChannel out)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (position < size) {
+            ((Buffer)buffer).limit((int)Math.min(buffer.capacity(), size-position));
+            int c = in.read(buffer, position);
+            if (c == -1) {
+                // The file has been truncated
+                break;
+            }
+            ((Buffer)buffer).flip();
+            while (buffer.hasRemaining()) {
+                if (out.write(buffer) == 0) {
+                    throw new IOException("The target channel doesn't accept any data");
+                }
+            }
+            ((Buffer)buffer).clear();
+            position += c;
+        }
+        return position;
+    }
 }
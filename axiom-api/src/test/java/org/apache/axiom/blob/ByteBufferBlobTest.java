@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class ByteBufferBlobTest extends TestCase {
+    private static byte[] fill(ByteBufferBlob blob, int size) throws Exception {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        OutputStream out = blob.getOutputStream();
+        out.write(data);
+        out.close();
+        return data;
+    }
+
+    private static void testWriteToChannel(ByteBufferBlob blob) throws Exception {
+        try {
+            byte[] data = fill(blob, 10000);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            assertEquals(10000, blob.writeTo(Channels.newChannel(baos)));
+            assertTrue(Arrays.equals(data, baos.toByteArray()));
+        } finally {
+            blob.release();
+        }
+    }
+
+    public void testWriteToChannelOffHeap() throws Exception {
+        testWriteToChannel(Blobs.createOffHeapBlob(4096));
+    }
+
+    public void testWriteToChannelMappedFile() throws Exception {
+        testWriteToChannel(Blobs.createMappedFileBlob("test", ".dat", null));
+    }
+
+    public void testGetByteBuffers() throws Exception {
+        ByteBufferBlob blob = Blobs.createOffHeapBlob(4096);
+        byte[] data = fill(blob, 10000);
+        ByteBuffer[] buffers = blob.getByteBuffers();
+        assertEquals(3, buffers.length);
+        assertTrue(buffers[0].isDirect());
+        assertTrue(buffers[0].isReadOnly());
+        byte[] content = new byte[10000];
+        int offset = 0;
+        for (ByteBuffer buffer : buffers) {
+            int len = buffer.remaining();
+            buffer.get(content, offset, len);
+            offset += len;
+        }
+        assertEquals(10000, offset);
+        assertTrue(Arrays.equals(data, content));
+        // The views are independent of each other
+        assertEquals(4096, blob.getByteBuffers()[0].remaining());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import junit.framework.TestCase;
+
+public class SizeClassedBufferPoolTest extends TestCase {
+    public void testAllocateRoundsUpToSizeClass() {
+        BufferPool pool = new SizeClassedBufferPool(1024*1024);
+        assertEquals(SizeClassedBufferPool.MIN_SIZE, pool.allocate(1).length);
+        assertEquals(4096, pool.allocate(4096).length);
+        assertEquals(8192, pool.allocate(4097).length);
+        assertEquals(SizeClassedBufferPool.MAX_SIZE+1, pool.allocate(SizeClassedBufferPool.MAX_SIZE+1).length);
+    }
+
+    public void testReuse() {
+        BufferPool pool = new SizeClassedBufferPool(1024*1024);
+        byte[] buffer1 = pool.allocate(4096);
+        byte[] buffer2 = pool.allocate(4096);
+        pool.release(buffer1);
+        pool.release(buffer2);
+        // One buffer is kept in the thread local cache, which is not included
+        assertEquals(4096, pool.getPooledBytes());
+        byte[] buffer3 = pool.allocate(3000);
+        byte[] buffer4 = pool.allocate(3000);
+        assertTrue(buffer3 == buffer1 && buffer4 == buffer2 || buffer3 == buffer2 && buffer4 == buffer1);
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    public void testReuseAcrossThreads() throws Exception {
+        final BufferPool pool = new SizeClassedBufferPool(1024*1024);
+        final byte[][] buffers = new byte[2][];
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                buffers[0] = pool.allocate(4096);
+                buffers[1] = pool.allocate(4096);
+                pool.release(buffers[0]);
+                pool.release(buffers[1]);
+            }
+        };
+        thread.start();
+        thread.join();
+        // One buffer stays in the cache of the other thread; the other one is in the shared
+        // free list
+        byte[] buffer = pool.allocate(4096);
+        assertTrue(buffer == buffers[0] || buffer == buffers[1]);
+    }
+
+    public void testMaxPooledBytes() {
+        // Use buffers that are too large for the thread local cache
+        BufferPool pool = new SizeClassedBufferPool(200000);
+        byte[] buffer1 = pool.allocate(131072);
+        byte[] buffer2 = pool.allocate(131072);
+        pool.release(buffer1);
+        pool.release(buffer2);
+        assertEquals(131072, pool.getPooledBytes());
+        assertSame(buffer1, pool.allocate(131072));
+        assertNotSame(buffer2, pool.allocate(131072));
+    }
+
+    public void testTerminatedThreadsDontExhaustPool() throws Exception {
+        final BufferPool pool = new SizeClassedBufferPool(200000);
+        for (int i=0; i<100; i++) {
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    pool.release(pool.allocate(4096));
+                }
+            };
+            thread.start();
+            thread.join();
+        }
+        assertEquals(0, pool.getPooledBytes());
+        byte[] buffer = pool.allocate(131072);
+        pool.release(buffer);
+        assertEquals(131072, pool.getPooledBytes());
+        assertSame(buffer, pool.allocate(131072));
+    }
+
+    public void testReleaseForeignBuffer() {
+        BufferPool pool = new SizeClassedBufferPool(1024*1024);
+        pool.release(new byte[5000]);
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    public void testMemoryBlobReturnsBuffers() {
+        BufferPool pool = new SizeClassedBufferPool(1024*1024);
+        MemoryBlob blob = Blobs.createMemoryBlob(pool);
+        MemoryBlobOutputStream out = blob.getOutputStream();
+        // Chunks: 4096, 8192, ..., 131072 bytes
+        out.write(new byte[200000]);
+        out.close();
+        assertEquals(0, pool.getPooledBytes());
+        blob.release();
+        // Chunks up to 64 KB go to the thread local cache
+        assertEquals(131072, pool.getPooledBytes());
+    }
+}
@@ -0,0 +1,422 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.mime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.axiom.blob.Blobs;
+import org.apache.axiom.blob.MemoryBlob;
+import org.apache.axiom.blob.WritableBlob;
+import org.apache.axiom.blob.WritableBlobFactory;
+import org.apache.axiom.ext.io.StreamCopyException;
+import org.apache.axiom.ts.soap.MTOMSample;
+import org.apache.commons.io.IOUtils;
+
+import junit.framework.TestCase;
+
+public class MultipartBodyTest extends TestCase {
+    private static MultipartBody createMultipartBody(MTOMSample sample, MultipartBody.Engine engine) {
+        return MultipartBody.builder()
+                .setInputStream(sample.getInputStream())
+                .setContentType(sample.getContentType())
+                .setEngine(engine)
+                .build();
+    }
+
+    private static void testExecutor(MTOMSample sample, Executor executor) throws Exception {
+        MultipartBody mb = MultipartBody.builder()
+                .setInputStream(sample.getInputStream())
+                .setContentType(sample.getContentType())
+                .setExecutor(executor)
+                .build();
+        // Force all parts to be buffered before accessing their content
+        int partCount = mb.getPartCount();
+        int i = 0;
+        for (Part part : mb) {
+            assertTrue(Arrays.equals(IOUtils.toByteArray(sample.getPart(i++)),
+                    IOUtils.toByteArray(part.getInputStream(false))));
+        }
+        assertEquals(partCount, i);
+    }
+
+    public void testExecutor() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            testExecutor(MTOMSample.SAMPLE1, executor);
+            testExecutor(MTOMSample.QUOTED_PRINTABLE, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static final String BOUNDARY = "MIMEBoundary_0123456789abcdef";
+
+    private static byte[][] createParts(int count, int size) {
+        Random random = new Random(count);
+        byte[][] parts = new byte[count][size];
+        for (byte[] part : parts) {
+            random.nextBytes(part);
+        }
+        return parts;
+    }
+
+    private static byte[] createMessage(byte[][] parts) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i=0; i<parts.length; i++) {
+            out.write(("--" + BOUNDARY + "\r\nContent-Type: application/octet-stream\r\n"
+                    + "Content-ID: <part" + i + "@example.org>\r\n\r\n").getBytes("ascii"));
+            out.write(parts[i]);
+            out.write("\r\n".getBytes("ascii"));
+        }
+        out.write(("--" + BOUNDARY + "--\r\n").getBytes("ascii"));
+        return out.toByteArray();
+    }
+
+    private static MultipartBody createMultipartBody(byte[] message, Executor executor,
+            WritableBlobFactory<?> blobFactory) {
+        return MultipartBody.builder()
+                .setInputStream(new ByteArrayInputStream(message))
+                .setContentType("multipart/related; boundary=\"" + BOUNDARY + "\"")
+                .setExecutor(executor)
+                .setAttachmentBlobFactory(blobFactory)
+                .build();
+    }
+
+    private static void checkParts(MultipartBody mb, byte[][] parts) throws IOException {
+        assertEquals(parts.length, mb.getPartCount());
+        int i = 0;
+        for (Part part : mb) {
+            assertTrue(Arrays.equals(parts[i++], IOUtils.toByteArray(part.getInputStream(false))));
+        }
+    }
+
+    /**
+     * Blob factory that tracks the number of blobs that have been created but not released.
+     */
+    private static final class TrackingBlobFactory implements WritableBlobFactory<WritableBlob> {
+        final AtomicInteger unreleased = new AtomicInteger();
+        final boolean fail;
+
+        TrackingBlobFactory(boolean fail) {
+            this.fail = fail;
+        }
+
+        @Override
+        public WritableBlob createBlob() {
+            unreleased.incrementAndGet();
+            final MemoryBlob blob = Blobs.createMemoryBlob();
+            return new WritableBlob() {
+                @Override
+                public OutputStream getOutputStream() {
+                    return blob.getOutputStream();
+                }
+
+                @Override
+                public long readFrom(InputStream in) throws StreamCopyException {
+                    if (fail) {
+                        throw new OutOfMemoryError("Simulated failure");
+                    }
+                    return blob.readFrom(in);
+                }
+
+                @Override
+                public InputStream getInputStream() {
+                    return blob.getInputStream();
+                }
+
+                @Override
+                public void writeTo(OutputStream out) throws StreamCopyException {
+                    blob.writeTo(out);
+                }
+
+                @Override
+                public long getSize() {
+                    return blob.getSize();
+                }
+
+                @Override
+                public void release() {
+                    unreleased.decrementAndGet();
+                    blob.release();
+                }
+            };
+        }
+    }
+
+    public void testExecutorLargeParts() throws Exception {
+        byte[][] parts = createParts(4, 3*1024*1024);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            checkParts(createMultipartBody(createMessage(parts), executor, null), parts);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Tests that the parser doesn't block forever if it runs on the only worker of the executor.
+     */
+    public void testExecutorSaturated() throws Exception {
+        final byte[][] parts = createParts(3, 3*1024*1024);
+        final byte[] message = createMessage(parts);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    checkParts(createMultipartBody(message, executor, null), parts);
+                    return null;
+                }
+            }).get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testExecutorError() throws Exception {
+        byte[][] parts = createParts(3, 3*1024*1024);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            TrackingBlobFactory blobFactory = new TrackingBlobFactory(true);
+            MultipartBody mb = createMultipartBody(createMessage(parts), executor, blobFactory);
+            mb.getPartCount();
+            try {
+                mb.getPart("part1@example.org").getInputStream(true);
+                fail("Expected MIMEException");
+            } catch (MIMEException ex) {
+                // Expected
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+            assertEquals(0, blobFactory.unreleased.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testExecutorTruncatedMessage() throws Exception {
+        byte[][] parts = createParts(3, 3*1024*1024);
+        byte[] message = createMessage(parts);
+        byte[] truncatedMessage = new byte[message.length - 1024*1024];
+        System.arraycopy(message, 0, truncatedMessage, 0, truncatedMessage.length);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            TrackingBlobFactory blobFactory = new TrackingBlobFactory(false);
+            MultipartBody mb = createMultipartBody(truncatedMessage, executor, blobFactory);
+            try {
+                mb.getPartCount();
+                fail("Expected MIMEException");
+            } catch (MIMEException ex) {
+                // Expected
+            }
+            // Wait for the content of the second part (the first attachment) and discard it
+            mb.getPart("part1@example.org").discard();
+            // The blob for the truncated part must have been released
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+            assertEquals(0, blobFactory.unreleased.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testSynchronousExecutor() throws Exception {
+        testExecutor(MTOMSample.SAMPLE1, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+    }
+
+    /**
+     * Checks that the native parser produces the same parts as mime4j.
+     */
+    private static void testNativeEngine(MTOMSample sample, boolean preserve) throws Exception {
+        List<Part> expectedParts = new ArrayList<Part>();
+        for (Part part : createMultipartBody(sample, MultipartBody.Engine.MIME4J)) {
+            expectedParts.add(part);
+        }
+        MultipartBody mb = createMultipartBody(sample, MultipartBody.Engine.NATIVE);
+        Iterator<Part> it = mb.iterator();
+        for (Part expectedPart : expectedParts) {
+            assertTrue(it.hasNext());
+            Part part = it.next();
+            assertEquals(expectedPart.getContentID(), part.getContentID());
+            List<Header> expectedHeaders = expectedPart.getHeaders();
+            List<Header> headers = part.getHeaders();
+            assertEquals(expectedHeaders.size(), headers.size());
+            for (int i=0; i<headers.size(); i++) {
+                assertEquals(expectedHeaders.get(i).getName(), headers.get(i).getName());
+                assertEquals(expectedHeaders.get(i).getValue(), headers.get(i).getValue());
+            }
+            assertTrue(Arrays.equals(IOUtils.toByteArray(expectedPart.getInputStream(true)),
+                    IOUtils.toByteArray(part.getInputStream(preserve))));
+        }
+        assertFalse(it.hasNext());
+        assertEquals(expectedParts.size(), mb.getPartCount());
+    }
+
+    public void testNativeEngineSample1() throws Exception {
+        testNativeEngine(MTOMSample.SAMPLE1, true);
+    }
+
+    public void testNativeEngineSample2Streaming() throws Exception {
+        testNativeEngine(MTOMSample.SAMPLE2, false);
+    }
+
+    public void testNativeEngineQuotedPrintable() throws Exception {
+        testNativeEngine(MTOMSample.QUOTED_PRINTABLE, true);
+    }
+
+    public void testNativeEngineLookupByContentID() throws Exception {
+        MultipartBody mb = createMultipartBody(MTOMSample.SAMPLE1, MultipartBody.Engine.NATIVE);
+        String lastContentID = null;
+        for (Part part : createMultipartBody(MTOMSample.SAMPLE1, MultipartBody.Engine.MIME4J)) {
+            lastContentID = part.getContentID();
+        }
+        // This skips the content of the other parts
+        Part part = mb.getPart(lastContentID);
+        assertNotNull(part);
+        assertTrue(Arrays.equals(IOUtils.toByteArray(MTOMSample.SAMPLE1.getPart(2)),
+                IOUtils.toByteArray(part.getInputStream(false))));
+    }
+
+    /**
+     * Input stream that returns at most one byte per read operation, so that the delimiter is
+     * split across several calls to {@link InputStream#read(byte[], int, int)}.
+     */
+    private static final class OneByteAtATimeInputStream extends FilterInputStream {
+        OneByteAtATimeInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, 1));
+        }
+    }
+
+    private static MultipartBody createNativeMultipartBody(InputStream in) {
+        return MultipartBody.builder()
+                .setInputStream(in)
+                .setContentType("multipart/related; boundary=\"" + BOUNDARY + "\"")
+                .setEngine(MultipartBody.Engine.NATIVE)
+                .build();
+    }
+
+    private static MultipartBody createNativeMultipartBody(String message) throws IOException {
+        return createNativeMultipartBody(new ByteArrayInputStream(message.getBytes("ascii")));
+    }
+
+    public void testNativeEngineOneByteAtATime() throws Exception {
+        byte[][] parts = createParts(3, 1000);
+        checkParts(createNativeMultipartBody(new OneByteAtATimeInputStream(
+                new ByteArrayInputStream(createMessage(parts)))), parts);
+    }
+
+    public void testNativeEngineNoPreamble() throws Exception {
+        MultipartBody mb = createNativeMultipartBody("--" + BOUNDARY + "\r\n"
+                + "Content-ID: <part0@example.org>\r\n\r\ncontent\r\n--" + BOUNDARY + "--\r\n");
+        assertEquals(1, mb.getPartCount());
+        assertEquals("content", IOUtils.toString(mb.getPart("part0@example.org").getInputStream(false), "ascii"));
+    }
+
+    public void testNativeEnginePreamble() throws Exception {
+        MultipartBody mb = createNativeMultipartBody("preamble\r\n--" + BOUNDARY + "\r\n"
+                + "Content-ID: <part0@example.org>\r\n\r\ncontent\r\n--" + BOUNDARY + "--\r\n");
+        assertEquals(1, mb.getPartCount());
+        assertEquals("content", IOUtils.toString(mb.getPart("part0@example.org").getInputStream(false), "ascii"));
+    }
+
+    public void testNativeEngineEmptyBody() throws Exception {
+        byte[][] parts = { new byte[0], "content".getBytes("ascii"), new byte[0] };
+        checkParts(createNativeMultipartBody(new ByteArrayInputStream(createMessage(parts))), parts);
+    }
+
+    /**
+     * Tests a part with an empty body where the delimiter directly follows the blank line that
+     * terminates the headers, i.e. where the CRLF of the delimiter is shared with that line.
+     */
+    public void testNativeEngineEmptyBodyWithoutCRLF() throws Exception {
+        String message = "--" + BOUNDARY + "\r\nContent-ID: <part0@example.org>\r\n\r\n"
+                + "--" + BOUNDARY + "\r\nContent-ID: <part1@example.org>\r\n\r\n"
+                + "content\r\n--" + BOUNDARY + "--\r\n";
+        for (int i=0; i<2; i++) {
+            MultipartBody mb = i == 0 ? createNativeMultipartBody(message)
+                    : createNativeMultipartBody(new OneByteAtATimeInputStream(
+                            new ByteArrayInputStream(message.getBytes("ascii"))));
+            assertEquals(2, mb.getPartCount());
+            assertEquals(0, IOUtils.toByteArray(mb.getPart("part0@example.org").getInputStream(false)).length);
+            assertEquals("content", IOUtils.toString(mb.getPart("part1@example.org").getInputStream(false), "ascii"));
+        }
+    }
+
+    public void testNativeEngineTransportPadding() throws Exception {
+        MultipartBody mb = createNativeMultipartBody("--" + BOUNDARY + " \t \r\n"
+                + "Content-ID: <part0@example.org>\r\n\r\ncontent0\r\n--" + BOUNDARY + "\t\r\n"
+                + "Content-ID: <part1@example.org>\r\n\r\ncontent1\r\n--" + BOUNDARY + "--  \r\n");
+        assertEquals(2, mb.getPartCount());
+        assertEquals("content0", IOUtils.toString(mb.getPart("part0@example.org").getInputStream(false), "ascii"));
+        assertEquals("content1", IOUtils.toString(mb.getPart("part1@example.org").getInputStream(false), "ascii"));
+    }
+
+    /**
+     * Tests that reading the body of a truncated part fails with an {@link IOException} and not a
+     * runtime exception.
+     */
+    public void testNativeEngineTruncatedBody() throws Exception {
+        MultipartBody mb = createNativeMultipartBody("--" + BOUNDARY + "\r\n"
+                + "Content-ID: <part0@example.org>\r\n\r\ntruncated content");
+        InputStream in = mb.getRootPart().getInputStream(false);
+        try {
+            IOUtils.toByteArray(in);
+            fail("Expected MalformedMultipartException");
+        } catch (MalformedMultipartException ex) {
+            // Expected
+        }
+    }
+
+    public void testNativeEngineTruncatedHeaders() throws Exception {
+        MultipartBody mb = createNativeMultipartBody("--" + BOUNDARY + "\r\n"
+                + "Content-ID: <part0@example.org>\r\nContent-Type: text/pl");
+        try {
+            mb.getRootPart();
+            fail("Expected MIMEException");
+        } catch (MIMEException ex) {
+            assertTrue(ex.getCause() instanceof MalformedMultipartException);
+        }
+    }
+}
@@ -19,15 +19,23 @@
 package org.apache.axiom.mime;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Random;
 
+import javax.activation.DataHandler;
+import javax.activation.FileDataSource;
 import javax.mail.internet.MimeBodyPart;
 import javax.mail.internet.MimeMultipart;
 
 import org.apache.axiom.attachments.ByteArrayDataSource;
+import org.apache.axiom.blob.BlobDataSource;
+import org.apache.axiom.blob.Blobs;
+import org.apache.axiom.blob.OverflowableBlob;
 import org.apache.axiom.util.UIDGenerator;
+import org.apache.commons.io.FileUtils;
 
 import junit.framework.TestCase;
 
@@ -59,4 +67,45 @@ public class MultipartBodyWriterTest extends TestCase {
     public void testBase64() throws Exception {
         test("base64");
     }
+    
+    public void testFileBackedContentToFileOutputStream() throws Exception {
+        Random random = new Random();
+        byte[] content1 = new byte[100000];
+        random.nextBytes(content1);
+        byte[] content2 = new byte[100000];
+        random.nextBytes(content2);
+        File contentFile = File.createTempFile("test", ".dat");
+        File outFile = File.createTempFile("test", ".dat");
+        OverflowableBlob blob = Blobs.createOverflowableBlob(1024, "test", ".dat", null);
+        try {
+            FileUtils.writeByteArrayToFile(contentFile, content1);
+            OutputStream blobOut = blob.getOutputStream();
+            blobOut.write(content2);
+            blobOut.close();
+            assertNotNull(blob.getOverflowBlob());
+            FileOutputStream out = new FileOutputStream(outFile);
+            try {
+                MultipartBodyWriter mpw = new MultipartBodyWriter(out, UIDGenerator.generateMimeBoundary());
+                mpw.writePart(new DataHandler(new FileDataSource(contentFile)), "binary",
+                        UIDGenerator.generateContentId(), null);
+                mpw.writePart(new DataHandler(new BlobDataSource(blob, "application/octet-stream")),
+                        "binary", UIDGenerator.generateContentId(), null);
+                mpw.complete();
+            } finally {
+                out.close();
+            }
+            MimeMultipart mp = new MimeMultipart(new ByteArrayDataSource(FileUtils.readFileToByteArray(outFile)));
+            assertEquals(2, mp.getCount());
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            mp.getBodyPart(0).getDataHandler().writeTo(baos);
+            assertTrue(Arrays.equals(content1, baos.toByteArray()));
+            baos.reset();
+            mp.getBodyPart(1).getDataHandler().writeTo(baos);
+            assertTrue(Arrays.equals(content2, baos.toByteArray()));
+        } finally {
+            blob.release();
+            contentFile.delete();
+            outFile.delete();
+        }
+    }
 }
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.util.io;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class IOUtilsTest extends TestCase {
+    /**
+     * Channel that behaves like a non-blocking channel: it doesn't accept any data on the first
+     * <i>n</i> calls to {@link #write(ByteBuffer)}.
+     */
+    private static class SlowChannel implements WritableByteChannel {
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        private int rejectedWrites;
+
+        SlowChannel(int rejectedWrites) {
+            this.rejectedWrites = rejectedWrites;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (rejectedWrites > 0) {
+                rejectedWrites--;
+                return 0;
+            }
+            int c = src.remaining();
+            while (src.hasRemaining()) {
+                content.write(src.get());
+            }
+            return c;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+
+    private static void transfer(byte[] data, WritableByteChannel out) throws IOException {
+        File file = File.createTempFile("test", ".bin");
+        try {
+            FileOutputStream fos = new FileOutputStream(file);
+            try {
+                fos.write(data);
+            } finally {
+                fos.close();
+            }
+            FileInputStream in = new FileInputStream(file);
+            try {
+                assertThat(IOUtils.transfer(in.getChannel(), out)).isEqualTo(data.length);
+            } finally {
+                in.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testTransferWithoutProgress() throws IOException {
+        byte[] data = new byte[20000];
+        new Random(1234).nextBytes(data);
+        SlowChannel out = new SlowChannel(1);
+        transfer(data, out);
+        assertThat(out.content.toByteArray()).isEqualTo(data);
+    }
+
+    public void testTransferToChannelNotAcceptingData() throws IOException {
+        try {
+            transfer(new byte[1000], new SlowChannel(Integer.MAX_VALUE));
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // Expected
+        }
+    }
+}
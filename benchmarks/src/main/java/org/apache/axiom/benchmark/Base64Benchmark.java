@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.benchmark;
+
+import java.util.Random;
+
+import org.apache.axiom.util.base64.Base64Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link Base64Utils}.
+ */
+@State(Scope.Benchmark)
+public class Base64Benchmark {
+    @Param({"1024", "1048576"})
+    public int size;
+
+    private byte[] data;
+    private String encoded;
+
+    @Setup
+    public void setUp() {
+        data = new byte[size];
+        new Random(1234).nextBytes(data);
+        encoded = Base64Utils.encode(data);
+    }
+
+    @Benchmark
+    public String encode() {
+        return Base64Utils.encode(data);
+    }
+
+    @Benchmark
+    public byte[] decode() {
+        return Base64Utils.decode(encoded);
+    }
+}
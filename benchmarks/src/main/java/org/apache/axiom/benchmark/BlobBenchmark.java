@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import org.apache.axiom.blob.Blobs;
+import org.apache.axiom.blob.MemoryBlob;
+import org.apache.axiom.blob.WritableBlob;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures writing data to and reading data from {@link MemoryBlob} and
+ * {@link org.apache.axiom.blob.OverflowableBlob} instances.
+ */
+@State(Scope.Benchmark)
+public class BlobBenchmark {
+    @Param({"memory", "overflowable"})
+    public String type;
+
+    @Param({"4096", "1048576", "16777216"})
+    public int size;
+
+    private byte[] data;
+    private final byte[] buffer = new byte[4096];
+
+    @Setup
+    public void setUp() {
+        data = new byte[size];
+        new Random(1234).nextBytes(data);
+    }
+
+    private WritableBlob createBlob() {
+        if (type.equals("memory")) {
+            return Blobs.createMemoryBlob();
+        } else {
+            // Use a threshold large enough to keep the data in memory
+            return Blobs.createOverflowableBlob(size, "tmp", ".dat", null);
+        }
+    }
+
+    private WritableBlob write() throws IOException {
+        WritableBlob blob = createBlob();
+        OutputStream out = blob.getOutputStream();
+        for (int off=0; off<size; off+=buffer.length) {
+            out.write(data, off, Math.min(buffer.length, size-off));
+        }
+        out.close();
+        return blob;
+    }
+
+    @Benchmark
+    public long writeAndRelease() throws IOException {
+        WritableBlob blob = write();
+        long size = blob.getSize();
+        blob.release();
+        return size;
+    }
+
+    @Benchmark
+    public long writeAndRead() throws IOException {
+        WritableBlob blob = write();
+        InputStream in = blob.getInputStream();
+        long total = 0;
+        int c;
+        while ((c = in.read(buffer)) != -1) {
+            total += c;
+        }
+        in.close();
+        blob.release();
+        return total;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.OMXMLParserWrapper;
+import org.apache.axiom.om.ResettableBuilder;
+import org.apache.axiom.om.util.StAXParserConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures {@link OMXMLBuilderFactory#createOMBuilder(OMFactory, java.io.InputStream)} with
+ * different access patterns. With {@code parallel=true}, the same access patterns are measured
+ * with a builder that parses on a separate thread.
+ */
+@State(Scope.Benchmark)
+public class BuilderBenchmark {
+    @Param({"llom", "doom"})
+    public String implementation;
+
+    @Param({"soap-small", "records-1m", "records-100m"})
+    public String corpus;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private OMFactory factory;
+    private byte[] data;
+    private ExecutorService executor;
+    private OMXMLParserWrapper reusedBuilder;
+
+    @Setup
+    public void setUp() {
+        factory = Implementations.getMetaFactory(implementation).getOMFactory();
+        data = Corpus.get(corpus);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (reusedBuilder != null) {
+            reusedBuilder.close();
+            reusedBuilder = null;
+        }
+        executor.shutdownNow();
+    }
+
+    private OMXMLParserWrapper createBuilder() {
+        if (parallel) {
+            return OMXMLBuilderFactory.createParallelOMBuilder(factory,
+                    StAXParserConfiguration.DEFAULT, new ByteArrayInputStream(data), null, executor);
+        } else {
+            return OMXMLBuilderFactory.createOMBuilder(factory, new ByteArrayInputStream(data));
+        }
+    }
+
+    /**
+     * Build the entire tree.
+     */
+    @Benchmark
+    public OMElement fullBuild() {
+        OMXMLParserWrapper builder = createBuilder();
+        OMElement element = builder.getDocumentElement();
+        element.build();
+        builder.close();
+        return element;
+    }
+
+    /**
+     * Build the entire tree with a single builder that is {@link ResettableBuilder#reset(
+     * java.io.InputStream) reset} for every message instead of creating a new one. Compare with
+     * {@link #fullBuild()}.
+     */
+    @Benchmark
+    public OMElement fullBuildWithReset() {
+        OMXMLParserWrapper builder = reusedBuilder;
+        if (builder == null) {
+            builder = reusedBuilder = createBuilder();
+        } else {
+            ((ResettableBuilder)builder).reset(new ByteArrayInputStream(data));
+        }
+        OMElement element = builder.getDocumentElement();
+        builder.getDocument().build();
+        return element;
+    }
+
+    /**
+     * Build only the SOAP header, as a SOAP stack would do to process header blocks before
+     * dispatching the message.
+     */
+    @Benchmark
+    public OMElement partialBuild() {
+        OMXMLParserWrapper builder = createBuilder();
+        OMElement header = builder.getDocumentElement().getFirstElement();
+        header.build();
+        builder.close();
+        return header;
+    }
+
+    /**
+     * Navigate to the last child of the payload element using
+     * {@link OMElement#getFirstChildWithName(javax.xml.namespace.QName)}.
+     */
+    @Benchmark
+    public OMElement getFirstChildWithName() {
+        OMXMLParserWrapper builder = createBuilder();
+        OMElement summary = builder.getDocumentElement()
+                .getFirstChildWithName(Corpus.BODY)
+                .getFirstElement()
+                .getFirstChildWithName(Corpus.SUMMARY);
+        builder.close();
+        return summary;
+    }
+}
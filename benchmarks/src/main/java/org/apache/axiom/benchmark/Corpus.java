@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+
+/**
+ * Generates the XML documents used by the benchmarks. All documents are SOAP 1.1 envelopes with a
+ * body containing a sequence of records followed by a summary element, so that a lookup of the
+ * summary element requires the entire body to be built.
+ */
+final class Corpus {
+    static final String NS = "urn:axiom:benchmark";
+    static final QName BODY = new QName("http://schemas.xmlsoap.org/soap/envelope/", "Body");
+    static final QName RECORD = new QName(NS, "record");
+    static final QName SUMMARY = new QName(NS, "summary");
+
+    private static final Map<String,byte[]> cache = new HashMap<String,byte[]>();
+
+    private Corpus() {}
+
+    /**
+     * Get the document with the given name. Supported names are {@code soap-small} (a SOAP
+     * envelope of about 1 KB), {@code records-1m} (about 1 MB) and {@code records-100m} (about
+     * 100 MB).
+     * 
+     * @param name
+     *            the name of the document
+     * @return the UTF-8 encoded document
+     */
+    static synchronized byte[] get(String name) {
+        byte[] data = cache.get(name);
+        if (data == null) {
+            int targetSize;
+            if (name.equals("soap-small")) {
+                targetSize = 1024;
+            } else if (name.equals("records-1m")) {
+                targetSize = 1024*1024;
+            } else if (name.equals("records-100m")) {
+                targetSize = 100*1024*1024;
+            } else {
+                throw new IllegalArgumentException("Unknown corpus " + name);
+            }
+            try {
+                data = generate(targetSize);
+            } catch (IOException ex) {
+                throw new Error(ex);
+            }
+            cache.put(name, data);
+        }
+        return data;
+    }
+
+    private static byte[] generate(int targetSize) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(targetSize + 4096);
+        Writer out = new OutputStreamWriter(baos, "UTF-8");
+        out.write("<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>");
+        out.write("<soapenv:Header><wsa:To xmlns:wsa='http://www.w3.org/2005/08/addressing'>");
+        out.write("http://example.org/service</wsa:To></soapenv:Header>");
+        out.write("<soapenv:Body><ns:response xmlns:ns='" + NS + "'>");
+        int count = 0;
+        do {
+            out.write("<ns:record id='");
+            out.write(String.valueOf(count));
+            out.write("' status='active'><ns:code>C");
+            out.write(String.valueOf(1000000 + count));
+            out.write("</ns:code><ns:amount>");
+            out.write(String.valueOf(count % 10000));
+            out.write(".50</ns:amount><ns:description>Record ");
+            out.write(String.valueOf(count));
+            out.write(" &amp; some text with non ASCII characters: \u00e9\u00e8\u00e0</ns:description></ns:record>");
+            count++;
+            // Flush regularly so that we can use the size of the output stream
+            out.flush();
+        } while (baos.size() < targetSize - 200);
+        out.write("<ns:summary count='");
+        out.write(String.valueOf(count));
+        out.write("'/></ns:response></soapenv:Body></soapenv:Envelope>");
+        out.close();
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.benchmark;
+
+import java.io.ByteArrayInputStream;
+
+import javax.activation.DataHandler;
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.axiom.core.stream.FilteredXmlInput;
+import org.apache.axiom.core.stream.NamespaceRepairingFilter;
+import org.apache.axiom.core.stream.NullXmlHandler;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.XmlReader;
+import org.apache.axiom.om.OMAttachmentAccessor;
+import org.apache.axiom.om.impl.stream.stax.pull.StAXPullInput;
+import org.apache.axiom.om.impl.stream.xop.XOPDecodingFilter;
+import org.apache.axiom.om.util.StAXUtils;
+import org.apache.axiom.soap.impl.common.builder.SOAPFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the cost of the filter chains that the builders actually set up, by parsing into a
+ * handler that discards all events. {@code chain=none} is the parser alone; the difference to the
+ * other chains is the per-event cost of the filters, i.e. the upper bound of what fusing them
+ * into a single handler could save.
+ */
+@State(Scope.Benchmark)
+public class FilterChainBenchmark {
+    private static final OMAttachmentAccessor NO_ATTACHMENTS = new OMAttachmentAccessor() {
+        @Override
+        public DataHandler getDataHandler(String contentID) {
+            return null;
+        }
+    };
+
+    @Param({"soap-small", "records-1m"})
+    public String corpus;
+
+    /**
+     * The filter chain. {@code soap} is used by SOAP builders on a stream, {@code xop-soap} by
+     * SOAP builders on an MTOM message and {@code repair-xop} by builders reading XOP encoded
+     * content from a SAX, DOM or StAX source.
+     */
+    @Param({"none", "soap", "xop-soap", "repair-xop"})
+    public String chain;
+
+    private byte[] data;
+
+    @Setup
+    public void setUp() {
+        data = Corpus.get(corpus);
+    }
+
+    @Benchmark
+    public void parse() throws XMLStreamException, StreamException {
+        XmlInput input = new StAXPullInput(
+                StAXUtils.createXMLStreamReader(new ByteArrayInputStream(data)), true, null);
+        if (chain.equals("soap")) {
+            input = new FilteredXmlInput(input, SOAPFilter.INSTANCE);
+        } else if (chain.equals("xop-soap")) {
+            input = new FilteredXmlInput(
+                    new FilteredXmlInput(input, new XOPDecodingFilter(NO_ATTACHMENTS)),
+                    SOAPFilter.INSTANCE);
+        } else if (chain.equals("repair-xop")) {
+            input = new FilteredXmlInput(
+                    new FilteredXmlInput(input, NamespaceRepairingFilter.DEFAULT),
+                    new XOPDecodingFilter(NO_ATTACHMENTS));
+        }
+        XmlReader reader = input.createReader(NullXmlHandler.INSTANCE);
+        while (!reader.proceed()) {
+            // Just loop
+        }
+        reader.dispose();
+    }
+}
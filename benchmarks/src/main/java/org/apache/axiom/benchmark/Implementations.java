@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.benchmark;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMMetaFactory;
+
+/**
+ * Maps the values of the {@code implementation} benchmark parameter to Axiom implementations.
+ */
+final class Implementations {
+    private Implementations() {}
+
+    static OMMetaFactory getMetaFactory(String implementation) {
+        if (implementation.equals("llom")) {
+            return OMAbstractFactory.getMetaFactory(OMAbstractFactory.FEATURE_DEFAULT);
+        } else if (implementation.equals("doom")) {
+            return OMAbstractFactory.getMetaFactory(OMAbstractFactory.FEATURE_DOM);
+        } else {
+            throw new IllegalArgumentException("Unknown implementation " + implementation);
+        }
+    }
+}
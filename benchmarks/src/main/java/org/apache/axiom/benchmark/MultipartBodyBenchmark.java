@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import org.apache.axiom.mime.MultipartBody;
+import org.apache.axiom.mime.MultipartBodyWriter;
+import org.apache.axiom.mime.Part;
+import org.apache.axiom.util.UIDGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures parsing of MIME multipart messages with {@link MultipartBody}.
+ */
+@State(Scope.Benchmark)
+public class MultipartBodyBenchmark {
+    @Param({"1", "10", "100", "500"})
+    public int parts;
+
+    @Param({"1024", "65536"})
+    public int partSize;
+
+    private String contentType;
+    private byte[] message;
+    private final byte[] buffer = new byte[4096];
+
+    @Setup
+    public void setUp() throws IOException {
+        String boundary = UIDGenerator.generateMimeBoundary();
+        contentType = "multipart/related; boundary=\"" + boundary + "\"; type=\"text/xml\"";
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        MultipartBodyWriter writer = new MultipartBodyWriter(baos, boundary);
+        Random random = new Random(1234);
+        byte[] content = new byte[partSize];
+        for (int i=0; i<parts; i++) {
+            random.nextBytes(content);
+            OutputStream out = writer.writePart("application/octet-stream", "binary",
+                    UIDGenerator.generateContentId(), null);
+            out.write(content);
+            out.close();
+        }
+        writer.complete();
+        message = baos.toByteArray();
+    }
+
+    private MultipartBody createMultipartBody() {
+        return MultipartBody.builder()
+                .setInputStream(new ByteArrayInputStream(message))
+                .setContentType(contentType)
+                .build();
+    }
+
+    /**
+     * Stream the content of every part, in order.
+     */
+    @Benchmark
+    public long streamParts() throws IOException {
+        long total = 0;
+        for (Part part : createMultipartBody()) {
+            InputStream in = part.getInputStream(false);
+            int c;
+            while ((c = in.read(buffer)) != -1) {
+                total += c;
+            }
+            in.close();
+        }
+        return total;
+    }
+
+    /**
+     * Access the last part directly, forcing all preceding parts to be buffered.
+     */
+    @Benchmark
+    public long bufferParts() {
+        MultipartBody mb = createMultipartBody();
+        mb.detach();
+        long total = 0;
+        for (Part part : mb) {
+            total += part.getBlob().getSize();
+        }
+        return total;
+    }
+}
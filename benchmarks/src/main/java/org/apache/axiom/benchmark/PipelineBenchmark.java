@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.benchmark;
+
+import java.io.ByteArrayInputStream;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.axiom.core.stream.NamespaceRepairingFilterHandler;
+import org.apache.axiom.core.stream.NamespaceURIInterningFilterHandler;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlReader;
+import org.apache.axiom.core.stream.serializer.Serializer;
+import org.apache.axiom.om.impl.stream.stax.pull.StAXPullInput;
+import org.apache.axiom.om.util.StAXUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures a parse-then-serialize pipeline without object model, with per-event and batched
+ * dispatch between the parser and the serializer. With {@code dispatch=per-event}, the
+ * {@link Serializer} is hidden behind a handler that only supports per-event dispatch, so that the
+ * reader falls back to one {@link XmlHandler} call per event. With {@code dispatch=batched}, the
+ * reader detects that it is connected to a {@link org.apache.axiom.core.stream.BatchXmlHandler}
+ * and passes the events in blocks. With {@code filters=true}, a chain of two filters is inserted
+ * in front of the serializer; filters process events one by one, so that the reader uses
+ * per-event dispatch in that case.
+ */
+@State(Scope.Benchmark)
+public class PipelineBenchmark {
+    @Param({"soap-small", "records-1m", "records-100m"})
+    public String corpus;
+
+    @Param({"per-event", "batched"})
+    public String dispatch;
+
+    @Param({"false", "true"})
+    public boolean filters;
+
+    private byte[] data;
+
+    @Setup
+    public void setUp() {
+        data = Corpus.get(corpus);
+    }
+
+    @Benchmark
+    public long parseAndSerialize() throws XMLStreamException, StreamException {
+        NullOutputStream out = new NullOutputStream();
+        XmlHandler handler = new Serializer(out, "UTF-8");
+        if (dispatch.equals("per-event")) {
+            handler = new PerEventHandler(handler);
+        }
+        if (filters) {
+            handler = new NamespaceRepairingFilterHandler(
+                    new NamespaceURIInterningFilterHandler(handler), null, false);
+        }
+        XmlReader reader = new StAXPullInput(
+                StAXUtils.createXMLStreamReader(new ByteArrayInputStream(data)), true, null)
+                .createReader(handler);
+        while (!reader.proceed()) {
+            // Just loop
+        }
+        reader.dispose();
+        return out.count;
+    }
+
+    /**
+     * Forwards events one by one. Unlike {@link Serializer}, this class doesn't accept batches.
+     */
+    private static final class PerEventHandler implements XmlHandler {
+        private final XmlHandler parent;
+
+        PerEventHandler(XmlHandler parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public void startDocument(String inputEncoding, String xmlVersion, String xmlEncoding,
+                Boolean standalone) throws StreamException {
+            parent.startDocument(inputEncoding, xmlVersion, xmlEncoding, standalone);
+        }
+
+        @Override
+        public void startFragment() throws StreamException {
+            parent.startFragment();
+        }
+
+        @Override
+        public void processDocumentTypeDeclaration(String rootName, String publicId,
+                String systemId, String internalSubset) throws StreamException {
+            parent.processDocumentTypeDeclaration(rootName, publicId, systemId, internalSubset);
+        }
+
+        @Override
+        public void startElement(String namespaceURI, String localName, String prefix)
+                throws StreamException {
+            parent.startElement(namespaceURI, localName, prefix);
+        }
+
+        @Override
+        public void endElement() throws StreamException {
+            parent.endElement();
+        }
+
+        @Override
+        public void processAttribute(String namespaceURI, String localName, String prefix,
+                String value, String type, boolean specified) throws StreamException {
+            parent.processAttribute(namespaceURI, localName, prefix, value, type, specified);
+        }
+
+        @Override
+        public void processAttribute(String name, String value, String type, boolean specified)
+                throws StreamException {
+            parent.processAttribute(name, value, type, specified);
+        }
+
+        @Override
+        public void processNamespaceDeclaration(String prefix, String namespaceURI)
+                throws StreamException {
+            parent.processNamespaceDeclaration(prefix, namespaceURI);
+        }
+
+        @Override
+        public void attributesCompleted() throws StreamException {
+            parent.attributesCompleted();
+        }
+
+        @Override
+        public void processCharacterData(Object data, boolean ignorable) throws StreamException {
+            parent.processCharacterData(data, ignorable);
+        }
+
+        @Override
+        public void startProcessingInstruction(String target) throws StreamException {
+            parent.startProcessingInstruction(target);
+        }
+
+        @Override
+        public void endProcessingInstruction() throws StreamException {
+            parent.endProcessingInstruction();
+        }
+
+        @Override
+        public void startComment() throws StreamException {
+            parent.startComment();
+        }
+
+        @Override
+        public void endComment() throws StreamException {
+            parent.endComment();
+        }
+
+        @Override
+        public void startCDATASection() throws StreamException {
+            parent.startCDATASection();
+        }
+
+        @Override
+        public void endCDATASection() throws StreamException {
+            parent.endCDATASection();
+        }
+
+        @Override
+        public void processEntityReference(String name, String replacementText)
+                throws StreamException {
+            parent.processEntityReference(name, replacementText);
+        }
+
+        @Override
+        public void completed() throws StreamException {
+            parent.completed();
+        }
+
+        @Override
+        public boolean drain() throws StreamException {
+            return parent.drain();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.benchmark;
+
+import java.io.ByteArrayInputStream;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.serializer.Serializer;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMOutputFormat;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link Serializer} with each of the available {@code XmlWriter} implementations:
+ * {@code UTF-8} selects {@code UTF8XmlWriter}, {@code ISO-8859-1} selects {@code Latin1XmlWriter}
+ * and {@code UTF-16} selects the generic {@code OutputStreamXmlWriter}.
+ */
+@State(Scope.Benchmark)
+public class SerializerBenchmark {
+    @Param({"llom", "doom"})
+    public String implementation;
+
+    @Param({"soap-small", "records-1m", "records-100m"})
+    public String corpus;
+
+    @Param({"UTF-8", "ISO-8859-1", "UTF-16"})
+    public String encoding;
+
+    private OMElement element;
+    private int recordCount;
+
+    @Setup
+    public void setUp() {
+        element = OMXMLBuilderFactory.createOMBuilder(
+                Implementations.getMetaFactory(implementation).getOMFactory(),
+                new ByteArrayInputStream(Corpus.get(corpus))).getDocumentElement();
+        element.build();
+        recordCount = Integer.parseInt(element.getFirstChildWithName(Corpus.BODY)
+                .getFirstElement().getFirstChildWithName(Corpus.SUMMARY).getAttributeValue(
+                        new QName("count")));
+    }
+
+    /**
+     * Serialize a fully built tree.
+     */
+    @Benchmark
+    public long serializeTree() throws XMLStreamException {
+        NullOutputStream out = new NullOutputStream();
+        OMOutputFormat format = new OMOutputFormat();
+        format.setCharSetEncoding(encoding);
+        element.serialize(out, format);
+        return out.count;
+    }
+
+    /**
+     * Send events directly to a {@link Serializer}, bypassing the object model. This isolates the
+     * cost of escaping and encoding.
+     */
+    @Benchmark
+    public long serializeEvents() throws StreamException {
+        NullOutputStream out = new NullOutputStream();
+        XmlHandler handler = new Serializer(out, encoding);
+        handler.startFragment();
+        handler.startElement(Corpus.NS, "response", "ns");
+        handler.processNamespaceDeclaration("ns", Corpus.NS);
+        handler.attributesCompleted();
+        for (int i=0; i<recordCount; i++) {
+            handler.startElement(Corpus.NS, "record", "ns");
+            handler.processAttribute("", "id", "", String.valueOf(i), "CDATA", true);
+            handler.processAttribute("", "status", "", "active", "CDATA", true);
+            handler.attributesCompleted();
+            handler.startElement(Corpus.NS, "code", "ns");
+            handler.attributesCompleted();
+            handler.processCharacterData("C1000000", false);
+            handler.endElement();
+            handler.startElement(Corpus.NS, "amount", "ns");
+            handler.attributesCompleted();
+            handler.processCharacterData("1234.50", false);
+            handler.endElement();
+            handler.startElement(Corpus.NS, "description", "ns");
+            handler.attributesCompleted();
+            handler.processCharacterData("Record & some text with non ASCII characters: \u00e9\u00e8\u00e0", false);
+            handler.endElement();
+            handler.endElement();
+        }
+        handler.endElement();
+        handler.completed();
+        return out.count;
+    }
+}
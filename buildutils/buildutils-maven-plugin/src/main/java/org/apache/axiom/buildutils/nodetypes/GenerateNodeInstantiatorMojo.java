@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.buildutils.nodetypes;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Generates a <code>NodeInstantiator</code> subclass for the node implementation classes listed in
+ * the <code>nodetypes.index</code> files of a set of packages. The generated class creates nodes
+ * using plain constructor invocations, so that <code>NodeFactoryImpl</code> doesn't need to
+ * discover the implementation classes and use reflection at runtime. The mapping from node types
+ * to implementation classes is the same as the one computed by the reflective fallback in
+ * <code>ReflectiveNodeInstantiator</code>.
+ */
+@Mojo(name="generate-node-instantiator", defaultPhase=LifecyclePhase.PROCESS_CLASSES, requiresDependencyResolution=ResolutionScope.COMPILE)
+public class GenerateNodeInstantiatorMojo extends AbstractMojo {
+    private static final String NODE_INSTANTIATOR = "org/apache/axiom/core/NodeInstantiator";
+    private static final String CORE_NODE = "org/apache/axiom/core/CoreNode";
+
+    @Parameter(defaultValue="${project.build.outputDirectory}", required=true, readonly=true)
+    private File classesDir;
+
+    @Parameter(defaultValue="${project.compileClasspathElements}", required=true, readonly=true)
+    private List<String> classpathElements;
+
+    /**
+     * The fully qualified name of the class to generate.
+     */
+    @Parameter(required=true)
+    private String className;
+
+    /**
+     * The packages containing the node implementation classes. If not specified, all packages
+     * in the output directory that have a <code>nodetypes.index</code> file are used.
+     */
+    @Parameter
+    private String[] packages;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        List<URL> urls = new ArrayList<>();
+        try {
+            urls.add(classesDir.toURI().toURL());
+            for (String element : classpathElements) {
+                urls.add(new File(element).toURI().toURL());
+            }
+        } catch (MalformedURLException ex) {
+            throw new MojoExecutionException("Unexpected exception", ex);
+        }
+        Map<Class<?>,Class<?>> typeMap;
+        try (URLClassLoader cl = new URLClassLoader(urls.toArray(new URL[urls.size()]), null)) {
+            typeMap = computeTypeMap(loadImplementations(cl));
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Failed to load node types: " + ex.getMessage(), ex);
+        }
+        File file = new File(classesDir, className.replace('.', '/') + ".class");
+        file.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(generate(typeMap));
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Failed to write " + file + ": " + ex.getMessage(), ex);
+        }
+        getLog().info("Generated " + className + " supporting " + typeMap.size() + " node types");
+    }
+
+    private static void findPackages(File dir, String pkg, List<String> packages) {
+        if (new File(dir, "nodetypes.index").exists()) {
+            packages.add(pkg);
+        }
+        File[] children = dir.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    findPackages(child, pkg.isEmpty() ? child.getName() : pkg + "." + child.getName(), packages);
+                }
+            }
+        }
+    }
+
+    private List<Class<?>> loadImplementations(ClassLoader cl) throws IOException, MojoExecutionException {
+        List<String> packages = new ArrayList<>();
+        if (this.packages == null) {
+            findPackages(classesDir, "", packages);
+            Collections.sort(packages);
+            if (packages.isEmpty()) {
+                throw new MojoExecutionException("No nodetypes.index files found in " + classesDir);
+            }
+        } else {
+            packages.addAll(Arrays.asList(this.packages));
+        }
+        List<Class<?>> implementations = new ArrayList<>();
+        for (String pkg : packages) {
+            String resource = pkg.replace('.', '/') + "/nodetypes.index";
+            InputStream in = cl.getResourceAsStream(resource);
+            if (in == null) {
+                throw new MojoExecutionException(resource + " not found");
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("#")) {
+                        continue;
+                    }
+                    String name = pkg + "." + line;
+                    try {
+                        implementations.add(Class.forName(name, false, cl));
+                    } catch (ClassNotFoundException ex) {
+                        throw new MojoExecutionException("Failed to load class " + name, ex);
+                    }
+                }
+            }
+        }
+        return implementations;
+    }
+
+    /**
+     * Compute the mapping from node types to implementation classes. An interface is mapped to an
+     * implementation class if that class is a superclass of (or equal to) all other
+     * implementation classes implementing the interface; otherwise the interface is ambiguous and
+     * not mapped. In addition, each implementation class is mapped to itself.
+     */
+    private static Map<Class<?>,Class<?>> computeTypeMap(List<Class<?>> implementations) {
+        Map<Class<?>,List<Class<?>>> candidates = new LinkedHashMap<>();
+        for (Class<?> implementation : implementations) {
+            Set<Class<?>> interfaces = new HashSet<>();
+            collectInterfaces(implementation, interfaces);
+            for (Class<?> iface : interfaces) {
+                List<Class<?>> list = candidates.get(iface);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    candidates.put(iface, list);
+                }
+                list.add(implementation);
+            }
+        }
+        // Sort by name so that the generated class is reproducible
+        Map<Class<?>,Class<?>> typeMap = new TreeMap<>(new Comparator<Class<?>>() {
+            @Override
+            public int compare(Class<?> o1, Class<?> o2) {
+                return o1.getName().compareTo(o2.getName());
+            }
+        });
+        for (Map.Entry<Class<?>,List<Class<?>>> entry : candidates.entrySet()) {
+            Class<?> implementation = findCommonSuperclass(entry.getValue());
+            if (implementation != null) {
+                typeMap.put(entry.getKey(), implementation);
+            }
+        }
+        for (Class<?> implementation : implementations) {
+            typeMap.put(implementation, implementation);
+        }
+        return typeMap;
+    }
+
+    private static Class<?> findCommonSuperclass(List<Class<?>> classes) {
+        outer: for (Class<?> candidate : classes) {
+            for (Class<?> clazz : classes) {
+                if (!candidate.isAssignableFrom(clazz)) {
+                    continue outer;
+                }
+            }
+            return candidate;
+        }
+        return null;
+    }
+
+    private static void collectInterfaces(Class<?> clazz, Set<Class<?>> interfaces) {
+        for (Class<?> iface : clazz.getInterfaces()) {
+            if (interfaces.add(iface)) {
+                collectInterfaces(iface, interfaces);
+            }
+        }
+        Class<?> superclass = clazz.getSuperclass();
+        if (superclass != null) {
+            collectInterfaces(superclass, interfaces);
+        }
+    }
+
+    private byte[] generate(Map<Class<?>,Class<?>> typeMap) {
+        List<Class<?>> types = new ArrayList<>(typeMap.keySet());
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_7, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER,
+                className.replace('.', '/'), null, NODE_INSTANTIATOR, null);
+
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, NODE_INSTANTIATOR, "<init>", "()V", false);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "getTypes", "()[Ljava/lang/Class;", "()[Ljava/lang/Class<*>;", null);
+        mv.visitCode();
+        mv.visitLdcInsn(types.size());
+        mv.visitTypeInsn(Opcodes.ANEWARRAY, "java/lang/Class");
+        for (int i=0; i<types.size(); i++) {
+            mv.visitInsn(Opcodes.DUP);
+            mv.visitLdcInsn(i);
+            mv.visitLdcInsn(Type.getType(types.get(i)));
+            mv.visitInsn(Opcodes.AASTORE);
+        }
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        // Use a single table switch; types mapped to the same implementation share a label
+        mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "newInstance", "(I)L" + CORE_NODE + ";", null, null);
+        mv.visitCode();
+        Map<Class<?>,Label> implementationLabels = new LinkedHashMap<>();
+        Label[] labels = new Label[types.size()];
+        for (int i=0; i<types.size(); i++) {
+            Class<?> implementation = typeMap.get(types.get(i));
+            Label label = implementationLabels.get(implementation);
+            if (label == null) {
+                label = new Label();
+                implementationLabels.put(implementation, label);
+            }
+            labels[i] = label;
+        }
+        Label defaultLabel = new Label();
+        mv.visitVarInsn(Opcodes.ILOAD, 1);
+        mv.visitTableSwitchInsn(0, types.size()-1, defaultLabel, labels);
+        for (Map.Entry<Class<?>,Label> entry : implementationLabels.entrySet()) {
+            String internalName = Type.getInternalName(entry.getKey());
+            mv.visitLabel(entry.getValue());
+            mv.visitTypeInsn(Opcodes.NEW, internalName);
+            mv.visitInsn(Opcodes.DUP);
+            mv.visitMethodInsn(Opcodes.INVOKESPECIAL, internalName, "<init>", "()V", false);
+            mv.visitInsn(Opcodes.ARETURN);
+        }
+        mv.visitLabel(defaultLabel);
+        mv.visitTypeInsn(Opcodes.NEW, "java/lang/IllegalArgumentException");
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "()V", false);
+        mv.visitInsn(Opcodes.ATHROW);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+}
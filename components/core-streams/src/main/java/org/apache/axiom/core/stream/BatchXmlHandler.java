@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream;
+
+/**
+ * Handler that receives events in blocks instead of one by one. Compared to {@link XmlHandler},
+ * this replaces one interface call per event by one interface call per batch, and lets the
+ * handler process the events in a tight loop.
+ * <p>
+ * Producers that support this interface natively check whether the handler they are given
+ * accepts batches (see {@link BatchingXmlHandler#acceptsBatches(XmlHandler)}); other producers
+ * can be connected to a batch handler using {@link BatchingXmlHandler}. Conversely,
+ * {@link BatchDispatcher} connects a batch producer to an ordinary {@link XmlHandler}.
+ */
+public interface BatchXmlHandler {
+    /**
+     * Process a batch of events. The last batch of a document or fragment ends with a
+     * {@link XmlEventBatch#COMPLETED} event.
+     * 
+     * @param batch
+     *            the events; unless the caller specifies otherwise, the batch is reused by the
+     *            caller and must not be referenced after this method returns
+     * @throws StreamException
+     *             if an error occurs when processing the events
+     */
+    void processEvents(XmlEventBatch batch) throws StreamException;
+}
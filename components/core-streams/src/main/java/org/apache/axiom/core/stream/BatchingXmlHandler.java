@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream;
+
+/**
+ * {@link XmlHandler} that collects events into batches and sends them to a
+ * {@link BatchXmlHandler}. A batch is sent when it is full, when the document or fragment is
+ * completed, and when the pipeline is drained.
+ */
+public final class BatchingXmlHandler implements XmlHandler {
+    /**
+     * The default number of events in a batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final BatchXmlHandler target;
+    private final int batchSize;
+    private final boolean reuseBatches;
+    private XmlEventBatch batch;
+
+    /**
+     * Constructor.
+     * 
+     * @param target
+     *            the handler to send the batches to
+     * @param batchSize
+     *            the maximum number of events in a batch
+     * @param reuseBatches
+     *            {@code true} if the same {@link XmlEventBatch} instance should be used for all
+     *            batches; {@code false} if a new instance should be used for every batch, in
+     *            which case the target takes ownership of the batches it receives and may keep
+     *            them after {@link BatchXmlHandler#processEvents(XmlEventBatch)} returns (e.g. to
+     *            hand them over to another thread)
+     */
+    public BatchingXmlHandler(BatchXmlHandler target, int batchSize, boolean reuseBatches) {
+        this.target = target;
+        this.batchSize = batchSize;
+        this.reuseBatches = reuseBatches;
+        batch = new XmlEventBatch(batchSize);
+    }
+
+    public BatchingXmlHandler(BatchXmlHandler target, int batchSize) {
+        this(target, batchSize, true);
+    }
+
+    public BatchingXmlHandler(BatchXmlHandler target) {
+        this(target, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Determine if the given handler accepts batches of events. Filters don't (they process
+     * events one by one), so that batched dispatch is only used when a producer is connected
+     * directly to a {@link BatchXmlHandler}, e.g. a parser writing to the serializer.
+     * 
+     * @param handler
+     *            the handler
+     * @return {@code true} if the handler accepts batches, {@code false} otherwise
+     */
+    public static boolean acceptsBatches(XmlHandler handler) {
+        return handler instanceof BatchXmlHandler;
+    }
+
+    /**
+     * Determine if there are events that have not been sent to the target yet.
+     * 
+     * @return {@code true} if there are pending events, {@code false} otherwise
+     */
+    public boolean hasPendingEvents() {
+        return !batch.isEmpty();
+    }
+
+    /**
+     * Send the pending events (if any) to the target.
+     * 
+     * @throws StreamException
+     *             if the target throws an exception
+     */
+    public void flush() throws StreamException {
+        if (!batch.isEmpty()) {
+            if (reuseBatches) {
+                try {
+                    target.processEvents(batch);
+                } finally {
+                    batch.clear();
+                }
+            } else {
+                XmlEventBatch batch = this.batch;
+                this.batch = new XmlEventBatch(batchSize);
+                target.processEvents(batch);
+            }
+        }
+    }
+
+    private void added() throws StreamException {
+        if (batch.isFull()) {
+            flush();
+        }
+    }
+
+    @Override
+    public void startDocument(String inputEncoding, String xmlVersion, String xmlEncoding,
+            Boolean standalone) throws StreamException {
+        batch.add(XmlEventBatch.START_DOCUMENT, inputEncoding, xmlVersion, xmlEncoding, standalone);
+        added();
+    }
+
+    @Override
+    public void startFragment() throws StreamException {
+        batch.add(XmlEventBatch.START_FRAGMENT);
+        added();
+    }
+
+    @Override
+    public void processDocumentTypeDeclaration(String rootName, String publicId, String systemId,
+            String internalSubset) throws StreamException {
+        batch.add(XmlEventBatch.DOCUMENT_TYPE_DECLARATION, rootName, publicId, systemId, internalSubset);
+        added();
+    }
+
+    @Override
+    public void startElement(String namespaceURI, String localName, String prefix)
+            throws StreamException {
+        batch.add(XmlEventBatch.START_ELEMENT, namespaceURI, localName, prefix);
+        added();
+    }
+
+    @Override
+    public void endElement() throws StreamException {
+        batch.add(XmlEventBatch.END_ELEMENT);
+        added();
+    }
+
+    @Override
+    public void processAttribute(String namespaceURI, String localName, String prefix,
+            String value, String type, boolean specified) throws StreamException {
+        batch.add(XmlEventBatch.NS_AWARE_ATTRIBUTE, namespaceURI, localName, prefix, value, type,
+                Boolean.valueOf(specified));
+        added();
+    }
+
+    @Override
+    public void processAttribute(String name, String value, String type, boolean specified)
+            throws StreamException {
+        batch.add(XmlEventBatch.NS_UNAWARE_ATTRIBUTE, name, value, type, Boolean.valueOf(specified));
+        added();
+    }
+
+    @Override
+    public void processNamespaceDeclaration(String prefix, String namespaceURI)
+            throws StreamException {
+        batch.add(XmlEventBatch.NAMESPACE_DECLARATION, prefix, namespaceURI);
+        added();
+    }
+
+    @Override
+    public void attributesCompleted() throws StreamException {
+        batch.add(XmlEventBatch.ATTRIBUTES_COMPLETED);
+        added();
+    }
+
+    @Override
+    public void processCharacterData(Object data, boolean ignorable) throws StreamException {
+        batch.add(XmlEventBatch.CHARACTER_DATA, data, Boolean.valueOf(ignorable));
+        added();
+    }
+
+    @Override
+    public void startProcessingInstruction(String target) throws StreamException {
+        batch.add(XmlEventBatch.START_PROCESSING_INSTRUCTION, target);
+        added();
+    }
+
+    @Override
+    public void endProcessingInstruction() throws StreamException {
+        batch.add(XmlEventBatch.END_PROCESSING_INSTRUCTION);
+        added();
+    }
+
+    @Override
+    public void startComment() throws StreamException {
+        batch.add(XmlEventBatch.START_COMMENT);
+        added();
+    }
+
+    @Override
+    public void endComment() throws StreamException {
+        batch.add(XmlEventBatch.END_COMMENT);
+        added();
+    }
+
+    @Override
+    public void startCDATASection() throws StreamException {
+        batch.add(XmlEventBatch.START_CDATA_SECTION);
+        added();
+    }
+
+    @Override
+    public void endCDATASection() throws StreamException {
+        batch.add(XmlEventBatch.END_CDATA_SECTION);
+        added();
+    }
+
+    @Override
+    public void processEntityReference(String name, String replacementText)
+            throws StreamException {
+        batch.add(XmlEventBatch.ENTITY_REFERENCE, name, replacementText);
+        added();
+    }
+
+    @Override
+    public void completed() throws StreamException {
+        batch.add(XmlEventBatch.COMPLETED);
+        flush();
+    }
+
+    @Override
+    public boolean drain() throws StreamException {
+        if (batch.isEmpty()) {
+            return true;
+        } else {
+            flush();
+            return false;
+        }
+    }
+}
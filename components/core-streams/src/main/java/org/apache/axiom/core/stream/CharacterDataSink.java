@@ -18,11 +18,36 @@
  */
 package org.apache.axiom.core.stream;
 
+import java.io.IOException;
 import java.io.Writer;
 
 import org.apache.axiom.util.base64.AbstractBase64EncodingOutputStream;
 
 public interface CharacterDataSink {
+    /**
+     * Write the given string as character data. Implementations are expected to process the
+     * string directly, i.e. without going through the {@link Writer} returned by
+     * {@link #getWriter()}.
+     * 
+     * @param s
+     *            the string to write
+     * @throws IOException
+     */
+    void writeString(String s) throws IOException;
+
+    /**
+     * Write the given characters as character data.
+     * 
+     * @param chars
+     *            the array containing the characters to write
+     * @param start
+     *            the index of the first character to write
+     * @param length
+     *            the number of characters to write
+     * @throws IOException
+     */
+    void writeChars(char[] chars, int start, int length) throws IOException;
+
     Writer getWriter();
     AbstractBase64EncodingOutputStream getBase64EncodingOutputStream();
 }
@@ -34,6 +34,30 @@ public final class NamespaceRepairingFilterHandler extends XmlHandlerWrapper {
         this.removeRedundantDeclarations = removeRedundantDeclarations;
     }
 
+    private NamespaceRepairingFilterHandler(XmlHandler parent, NamespaceRepairingFilterHandler other) {
+        super(parent);
+        parentNamespaceContext = other.parentNamespaceContext;
+        removeRedundantDeclarations = other.removeRedundantDeclarations;
+        namespaceStack = other.namespaceStack.clone();
+        bindings = other.bindings;
+        scopeStack = other.scopeStack.clone();
+        scopes = other.scopes;
+    }
+
+    /**
+     * Create a new handler that has the same configuration and namespace context as this handler
+     * at the current position in the stream. This allows to process sibling nodes independently
+     * (e.g. on different threads) and to get the same result as if they had been processed by
+     * this handler.
+     * 
+     * @param parent
+     *            the handler to send events to
+     * @return the new handler
+     */
+    public NamespaceRepairingFilterHandler fork(XmlHandler parent) {
+        return new NamespaceRepairingFilterHandler(parent, this);
+    }
+
     private void setPrefix(String prefix, String namespaceURI) {
         if (bindings*2 == namespaceStack.length) {
             int len = namespaceStack.length;
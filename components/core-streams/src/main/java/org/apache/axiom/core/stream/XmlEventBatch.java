@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream;
+
+/**
+ * A block of events passed to a {@link BatchXmlHandler}. Events are stored in two arrays: an
+ * array of type codes (see the constants in this class) and an array containing the arguments of
+ * all events, in the order in which they appear in the corresponding {@link XmlHandler} methods.
+ * Boolean arguments are stored as {@link Boolean} instances. The number of arguments is fixed for
+ * each event type, so that a consumer can iterate over both arrays in a single loop without any
+ * additional bookkeeping:
+ * 
+ * <pre>
+ * byte[] types = batch.getTypes();
+ * Object[] args = batch.getArguments();
+ * int argIndex = 0;
+ * for (int i=0, size=batch.size(); i&lt;size; i++) {
+ *     switch (types[i]) {
+ *         case XmlEventBatch.START_ELEMENT:
+ *             startElement((String)args[argIndex++], (String)args[argIndex++], (String)args[argIndex++]);
+ *             break;
+ *         ...
+ *     }
+ * }</pre>
+ * <p>
+ * Alternatively, {@link #replayNext(XmlHandler)} and {@link #replay(XmlHandler)} send the events
+ * to an {@link XmlHandler}. They keep track of the events that have already been replayed, so
+ * that a consumer may replay a batch incrementally.
+ * <p>
+ * Batches are normally reused by their producer. A consumer must therefore not keep a reference
+ * to a batch (or its arrays) after {@link BatchXmlHandler#processEvents(XmlEventBatch)} returns,
+ * unless the producer specifies otherwise (see
+ * {@link BatchingXmlHandler#BatchingXmlHandler(BatchXmlHandler, int, boolean)}).
+ */
+public final class XmlEventBatch {
+    /** {@link XmlHandler#startDocument(String, String, String, Boolean)}; 4 arguments. */
+    public static final byte START_DOCUMENT = 1;
+    /** {@link XmlHandler#startFragment()}; no arguments. */
+    public static final byte START_FRAGMENT = 2;
+    /** {@link XmlHandler#processDocumentTypeDeclaration(String, String, String, String)}; 4 arguments. */
+    public static final byte DOCUMENT_TYPE_DECLARATION = 3;
+    /** {@link XmlHandler#startElement(String, String, String)}; 3 arguments. */
+    public static final byte START_ELEMENT = 4;
+    /** {@link XmlHandler#endElement()}; no arguments. */
+    public static final byte END_ELEMENT = 5;
+    /** {@link XmlHandler#processAttribute(String, String, String, String, String, boolean)}; 6 arguments. */
+    public static final byte NS_AWARE_ATTRIBUTE = 6;
+    /** {@link XmlHandler#processAttribute(String, String, String, boolean)}; 4 arguments. */
+    public static final byte NS_UNAWARE_ATTRIBUTE = 7;
+    /** {@link XmlHandler#processNamespaceDeclaration(String, String)}; 2 arguments. */
+    public static final byte NAMESPACE_DECLARATION = 8;
+    /** {@link XmlHandler#attributesCompleted()}; no arguments. */
+    public static final byte ATTRIBUTES_COMPLETED = 9;
+    /** {@link XmlHandler#processCharacterData(Object, boolean)}; 2 arguments. */
+    public static final byte CHARACTER_DATA = 10;
+    /** {@link XmlHandler#startProcessingInstruction(String)}; 1 argument. */
+    public static final byte START_PROCESSING_INSTRUCTION = 11;
+    /** {@link XmlHandler#endProcessingInstruction()}; no arguments. */
+    public static final byte END_PROCESSING_INSTRUCTION = 12;
+    /** {@link XmlHandler#startComment()}; no arguments. */
+    public static final byte START_COMMENT = 13;
+    /** {@link XmlHandler#endComment()}; no arguments. */
+    public static final byte END_COMMENT = 14;
+    /** {@link XmlHandler#startCDATASection()}; no arguments. */
+    public static final byte START_CDATA_SECTION = 15;
+    /** {@link XmlHandler#endCDATASection()}; no arguments. */
+    public static final byte END_CDATA_SECTION = 16;
+    /** {@link XmlHandler#processEntityReference(String, String)}; 2 arguments. */
+    public static final byte ENTITY_REFERENCE = 17;
+    /** {@link XmlHandler#completed()}; no arguments. This is always the last event in a batch. */
+    public static final byte COMPLETED = 18;
+
+    private final byte[] types;
+    private final Object[] args;
+    private int size;
+    private int argCount;
+    private int readIndex;
+    private int argReadIndex;
+
+    XmlEventBatch(int capacity) {
+        types = new byte[capacity];
+        args = new Object[capacity*6];
+    }
+
+    /**
+     * Get the number of events in this batch.
+     * 
+     * @return the number of events
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the type codes of the events in this batch. Only the first {@link #size()} elements of
+     * the array are meaningful.
+     * 
+     * @return the type codes; must not be modified
+     */
+    public byte[] getTypes() {
+        return types;
+    }
+
+    /**
+     * Get the arguments of the events in this batch. The arguments of events that have already
+     * been replayed are set to <code>null</code>.
+     * 
+     * @return the arguments; must not be modified
+     */
+    public Object[] getArguments() {
+        return args;
+    }
+
+    boolean isFull() {
+        return size == types.length;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        // Release references to character data and strings
+        for (int i=0; i<argCount; i++) {
+            args[i] = null;
+        }
+        size = 0;
+        argCount = 0;
+        readIndex = 0;
+        argReadIndex = 0;
+    }
+
+    void add(byte type) {
+        types[size++] = type;
+    }
+
+    void add(byte type, Object arg) {
+        args[argCount++] = arg;
+        types[size++] = type;
+    }
+
+    void add(byte type, Object arg1, Object arg2) {
+        args[argCount++] = arg1;
+        add(type, arg2);
+    }
+
+    void add(byte type, Object arg1, Object arg2, Object arg3) {
+        args[argCount++] = arg1;
+        add(type, arg2, arg3);
+    }
+
+    void add(byte type, Object arg1, Object arg2, Object arg3, Object arg4) {
+        args[argCount++] = arg1;
+        add(type, arg2, arg3, arg4);
+    }
+
+    void add(byte type, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5, Object arg6) {
+        args[argCount++] = arg1;
+        args[argCount++] = arg2;
+        add(type, arg3, arg4, arg5, arg6);
+    }
+
+    /**
+     * Determine if there are events that have not been replayed yet.
+     * 
+     * @return {@code true} if there are remaining events, {@code false} if all events have been
+     *         replayed
+     */
+    public boolean hasRemaining() {
+        return readIndex < size;
+    }
+
+    /**
+     * Get the type code of the next event that has not been replayed yet. Must only be called if
+     * {@link #hasRemaining()} returns {@code true}.
+     * 
+     * @return the type code of the event that the next call to {@link #replayNext(XmlHandler)}
+     *         will replay
+     */
+    public byte nextType() {
+        return types[readIndex];
+    }
+
+    private Object nextArg() {
+        Object arg = args[argReadIndex];
+        // Release the reference early so that large character data can be garbage collected
+        args[argReadIndex++] = null;
+        return arg;
+    }
+
+    private String nextString() {
+        return (String)nextArg();
+    }
+
+    /**
+     * Send the next event that has not been replayed yet to the given handler.
+     * 
+     * @param handler
+     *            the handler
+     * @return {@code true} if the event was {@link XmlHandler#completed()}, {@code false}
+     *         otherwise
+     * @throws StreamException
+     *             if the handler throws an exception
+     */
+    public boolean replayNext(XmlHandler handler) throws StreamException {
+        switch (types[readIndex++]) {
+            case START_DOCUMENT:
+                handler.startDocument(nextString(), nextString(), nextString(), (Boolean)nextArg());
+                break;
+            case START_FRAGMENT:
+                handler.startFragment();
+                break;
+            case DOCUMENT_TYPE_DECLARATION:
+                handler.processDocumentTypeDeclaration(nextString(), nextString(), nextString(), nextString());
+                break;
+            case START_ELEMENT:
+                handler.startElement(nextString(), nextString(), nextString());
+                break;
+            case END_ELEMENT:
+                handler.endElement();
+                break;
+            case NS_AWARE_ATTRIBUTE:
+                handler.processAttribute(nextString(), nextString(), nextString(), nextString(), nextString(), (Boolean)nextArg());
+                break;
+            case NS_UNAWARE_ATTRIBUTE:
+                handler.processAttribute(nextString(), nextString(), nextString(), (Boolean)nextArg());
+                break;
+            case NAMESPACE_DECLARATION:
+                handler.processNamespaceDeclaration(nextString(), nextString());
+                break;
+            case ATTRIBUTES_COMPLETED:
+                handler.attributesCompleted();
+                break;
+            case CHARACTER_DATA:
+                handler.processCharacterData(nextArg(), (Boolean)nextArg());
+                break;
+            case START_PROCESSING_INSTRUCTION:
+                handler.startProcessingInstruction(nextString());
+                break;
+            case END_PROCESSING_INSTRUCTION:
+                handler.endProcessingInstruction();
+                break;
+            case START_COMMENT:
+                handler.startComment();
+                break;
+            case END_COMMENT:
+                handler.endComment();
+                break;
+            case START_CDATA_SECTION:
+                handler.startCDATASection();
+                break;
+            case END_CDATA_SECTION:
+                handler.endCDATASection();
+                break;
+            case ENTITY_REFERENCE:
+                handler.processEntityReference(nextString(), nextString());
+                break;
+            case COMPLETED:
+                handler.completed();
+                return true;
+            default:
+                throw new IllegalStateException();
+        }
+        return false;
+    }
+
+    /**
+     * Send the events in this batch that have not been replayed yet to the given handler, one by
+     * one.
+     * 
+     * @param handler
+     *            the handler
+     * @throws StreamException
+     *             if the handler throws an exception
+     */
+    public void replay(XmlHandler handler) throws StreamException {
+        while (readIndex < size) {
+            replayNext(handler);
+        }
+    }
+}
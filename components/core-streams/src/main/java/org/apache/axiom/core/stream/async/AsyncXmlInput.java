@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.async;
+
+import java.nio.ByteBuffer;
+
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.XmlReader;
+
+/**
+ * {@link XmlInput} implementation that parses an XML document from chunks of bytes fed by the
+ * application, without ever blocking. This allows to parse documents received by non-blocking I/O
+ * frameworks without tying up a thread while waiting for the network.
+ * <p>
+ * The {@link XmlReader} created by this input produces an event each time
+ * {@link XmlReader#proceed()} is called, provided that enough data has been fed; otherwise it
+ * throws an {@link InputNotAvailableException}. Use {@link #isEventAvailable()} to determine if
+ * {@link XmlReader#proceed()} can be called without hitting that condition.
+ * <p>
+ * The parser detects the charset encoding from the byte order mark or the XML declaration and
+ * defaults to UTF-8. It doesn't process DTDs (the internal subset is reported as is) and
+ * therefore only supports the predefined entities and character references. Instances are not
+ * thread safe.
+ */
+public final class AsyncXmlInput implements XmlInput {
+    private final AsyncXmlReader reader = new AsyncXmlReader();
+
+    /**
+     * Feed data to the parser. All remaining bytes in the buffer are consumed (i.e. the position of
+     * the buffer is set to its limit), and the buffer may be reused by the caller after this method
+     * returns.
+     * 
+     * @param buffer
+     *            the data to feed
+     * @throws IllegalStateException
+     *             if {@link #endOfInput()} has already been called
+     */
+    public void feed(ByteBuffer buffer) {
+        reader.feed(buffer);
+    }
+
+    /**
+     * Signal that all data has been fed to the parser.
+     */
+    public void endOfInput() {
+        reader.endOfInput();
+    }
+    
+    /**
+     * Check if all data has been fed to the parser.
+     * 
+     * @return <code>true</code> if {@link #endOfInput()} has been called, <code>false</code>
+     *         otherwise
+     */
+    public boolean isEndOfInput() {
+        return reader.isEndOfInput();
+    }
+
+    /**
+     * Determine whether the {@link XmlReader} created by this input can proceed without throwing an
+     * {@link InputNotAvailableException}. Note that this may return <code>true</code> if the
+     * data fed so far contains an error, in which case {@link XmlReader#proceed()} will report
+     * that error.
+     * 
+     * @return <code>true</code> if the next call to {@link XmlReader#proceed()} doesn't require
+     *         more input, <code>false</code> otherwise
+     */
+    public boolean isEventAvailable() {
+        return reader.isEventAvailable();
+    }
+
+    @Override
+    public XmlReader createReader(XmlHandler handler) {
+        reader.connect(handler);
+        return reader;
+    }
+}
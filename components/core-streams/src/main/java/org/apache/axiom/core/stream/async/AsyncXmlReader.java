@@ -0,0 +1,1060 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.async;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+import javax.xml.XMLConstants;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlReader;
+
+/**
+ * Non-blocking XML tokenizer. Fed bytes are only decoded into the character buffer when the
+ * tokenizer needs more characters, so that the character buffer holds the current token and at
+ * most one chunk of decoded data, regardless of how much input has been fed ahead. Each call to
+ * {@link #proceed()} locates the end of the next token and only processes it once it is complete.
+ * The scanner state is retained between calls so that data is not rescanned when a token spans
+ * several chunks.
+ */
+final class AsyncXmlReader implements XmlReader {
+    /**
+     * Indicates that {@link XmlHandler#startDocument(String, String, String, Boolean)} has not been
+     * emitted yet.
+     */
+    private static final int START = 0;
+    private static final int PROLOG = 1;
+    private static final int CONTENT = 2;
+    private static final int EPILOG = 3;
+    private static final int COMPLETE = 4;
+    
+    /**
+     * The number of pending characters beyond which text is reported even if the end of the text
+     * hasn't been received yet. This avoids buffering and rescanning large text nodes.
+     */
+    private static final int TEXT_CHUNK_SIZE = 8192;
+    
+    /**
+     * The maximum number of characters decoded at once.
+     */
+    private static final int DECODE_CHUNK_SIZE = 4096;
+    
+    /**
+     * The maximum number of bytes to look at when searching for the encoding declaration.
+     */
+    private static final int MAX_XML_DECL_SIZE = 1024;
+    
+    private static final String XML_DECL_START = "<?xml";
+    
+    private XmlHandler handler;
+    private int state = START;
+    private boolean endOfInput;
+    
+    /**
+     * Indicates that the end of the input has been reached and that all bytes have been decoded.
+     */
+    private boolean inputExhausted;
+    
+    /**
+     * An error detected while processing the input. Once set, the same exception is thrown by all
+     * subsequent calls to {@link #proceed()}.
+     */
+    private StreamException error;
+    
+    /**
+     * An error detected while decoding the input. It is only reported once all characters decoded
+     * before the error have been processed.
+     */
+    private StreamException inputError;
+    
+    /**
+     * Bytes that have been fed but not decoded yet (in read mode).
+     */
+    private ByteBuffer bytes = ByteBuffer.allocate(256);
+    private String encoding;
+    private CharsetDecoder decoder;
+    private CharBuffer decoded;
+    
+    /**
+     * Indicates that all bytes have been passed to the decoder and that it is being flushed.
+     */
+    private boolean flushing;
+    
+    /**
+     * Indicates that the last decoded character was a carriage return, so that a following line
+     * feed needs to be dropped.
+     */
+    private boolean skipLF;
+    
+    private char[] buffer = new char[4096];
+    private int pos;
+    private int limit;
+    
+    /**
+     * The end of the token starting at {@link #pos}, or -1 if the end of the token hasn't been
+     * found yet.
+     */
+    private int tokenEnd = -1;
+    
+    /**
+     * The position up to which the token starting at {@link #pos} has already been scanned, or -1
+     * if scanning of that token hasn't started yet.
+     */
+    private int scanPos = -1;
+    
+    /**
+     * The string that terminates the current token, or <code>null</code> if the token is a tag or
+     * declaration terminated by a <tt>&gt;</tt> that is not quoted.
+     */
+    private String terminator;
+    private char quote;
+    private boolean inSubset;
+    
+    private boolean seenDoctype;
+    private String[] elementNames = new String[16];
+    private int depth;
+    
+    /**
+     * The namespace bindings in scope, stored as prefix/URI pairs.
+     */
+    private String[] namespaces = new String[32];
+    private int namespaceCount;
+    private int[] namespaceScopes = new int[16];
+    
+    /**
+     * Temporary storage for the attributes of the start tag being processed (name/value pairs).
+     */
+    private String[] attributes = new String[16];
+    
+    AsyncXmlReader() {
+        ((Buffer)bytes).flip();
+    }
+    
+    void connect(XmlHandler handler) {
+        if (this.handler != null) {
+            throw new IllegalStateException("A reader has already been created for this input");
+        }
+        this.handler = handler;
+    }
+    
+    void feed(ByteBuffer src) {
+        if (endOfInput) {
+            throw new IllegalStateException("The end of the input has already been reached");
+        }
+        bytes.compact();
+        if (bytes.remaining() < src.remaining()) {
+            ByteBuffer newBytes = ByteBuffer.allocate(Math.max(bytes.capacity()*2, bytes.position() + src.remaining()));
+            ((Buffer)bytes).flip();
+            newBytes.put(bytes);
+            bytes = newBytes;
+        }
+        bytes.put(src);
+        ((Buffer)bytes).flip();
+    }
+    
+    void endOfInput() {
+        endOfInput = true;
+    }
+    
+    boolean isEndOfInput() {
+        return endOfInput;
+    }
+    
+    boolean isEventAvailable() {
+        if (error != null) {
+            return true;
+        }
+        switch (state) {
+            case START:
+                return findXmlDeclEnd() != -1 || inputExhausted || inputError != null;
+            case COMPLETE:
+                return false;
+            default:
+                return findTokenEnd() != -1 || inputExhausted || inputError != null;
+        }
+    }
+    
+    /**
+     * Decode the next chunk of the fed bytes and append it to the character buffer.
+     * 
+     * @return <code>true</code> if some progress has been made, i.e. characters have been appended,
+     *         the end of the input has been reached or a decoding error has been detected;
+     *         <code>false</code> if more input is needed
+     */
+    private boolean decode() {
+        if (inputError != null || inputExhausted || decoder == null && !detectEncoding()) {
+            return false;
+        }
+        if (decoded == null) {
+            decoded = CharBuffer.allocate(DECODE_CHUNK_SIZE);
+        }
+        if (!flushing) {
+            CoderResult result = decoder.decode(bytes, decoded, endOfInput);
+            if (result.isError()) {
+                appendDecoded();
+                inputError = new StreamException("Invalid byte sequence for encoding " + encoding);
+                return true;
+            }
+            flushing = result.isUnderflow() && endOfInput;
+        }
+        if (flushing && decoder.flush(decoded).isUnderflow()) {
+            inputExhausted = true;
+        }
+        return appendDecoded() || inputExhausted;
+    }
+    
+    private boolean detectEncoding() {
+        int n = bytes.remaining();
+        if (n < 4 && !endOfInput) {
+            return false;
+        }
+        int p = bytes.position();
+        int b0 = n > 0 ? bytes.get(p) & 0xFF : -1;
+        int b1 = n > 1 ? bytes.get(p+1) & 0xFF : -1;
+        int b2 = n > 2 ? bytes.get(p+2) & 0xFF : -1;
+        int b3 = n > 3 ? bytes.get(p+3) & 0xFF : -1;
+        String charset;
+        int bomLength = 0;
+        if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+            charset = "UTF-8";
+            bomLength = 3;
+        } else if (b0 == 0xFE && b1 == 0xFF) {
+            charset = "UTF-16BE";
+            bomLength = 2;
+        } else if (b0 == 0xFF && b1 == 0xFE) {
+            charset = "UTF-16LE";
+            bomLength = 2;
+        } else if (b0 == 0 && b1 == '<' && b2 == 0 && b3 == '?') {
+            charset = "UTF-16BE";
+        } else if (b0 == '<' && b1 == 0 && b2 == '?' && b3 == 0) {
+            charset = "UTF-16LE";
+        } else if (b0 == '<' && b1 == '?' && b2 == 'x' && b3 == 'm') {
+            // ASCII compatible encoding with an XML declaration; look for the encoding pseudo attribute
+            int end = -1;
+            for (int i=p+4; i<p+n-1; i++) {
+                if (bytes.get(i) == '?' && bytes.get(i+1) == '>') {
+                    end = i;
+                    break;
+                }
+            }
+            if (end == -1) {
+                if (!endOfInput && n < MAX_XML_DECL_SIZE) {
+                    return false;
+                }
+                charset = "UTF-8";
+            } else {
+                StringBuilder decl = new StringBuilder(end-p);
+                for (int i=p; i<end; i++) {
+                    decl.append((char)(bytes.get(i) & 0xFF));
+                }
+                charset = getPseudoAttribute(decl.toString(), "encoding");
+                if (charset == null) {
+                    charset = "UTF-8";
+                }
+            }
+        } else {
+            charset = "UTF-8";
+        }
+        try {
+            decoder = Charset.forName(charset).newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT);
+        } catch (IllegalArgumentException ex) {
+            inputError = new StreamException("Unsupported encoding " + charset, ex);
+            return false;
+        }
+        encoding = charset;
+        ((Buffer)bytes).position(p + bomLength);
+        return true;
+    }
+    
+    /**
+     * Append the content of {@link #decoded} to the character buffer, normalizing line endings.
+     * 
+     * @return <code>true</code> if there was any content to append
+     */
+    private boolean appendDecoded() {
+        int n = decoded.position();
+        if (n == 0) {
+            return false;
+        }
+        ensureCapacity(n);
+        char[] src = decoded.array();
+        char[] buffer = this.buffer;
+        int limit = this.limit;
+        boolean skipLF = this.skipLF;
+        for (int i=0; i<n; i++) {
+            char c = src[i];
+            if (skipLF) {
+                skipLF = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+            if (c == '\r') {
+                c = '\n';
+                skipLF = true;
+            }
+            buffer[limit++] = c;
+        }
+        this.limit = limit;
+        this.skipLF = skipLF;
+        ((Buffer)decoded).clear();
+        return true;
+    }
+    
+    private void ensureCapacity(int n) {
+        if (limit + n <= buffer.length) {
+            return;
+        }
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, limit-pos);
+            if (scanPos != -1) {
+                scanPos -= pos;
+            }
+            if (tokenEnd != -1) {
+                tokenEnd -= pos;
+            }
+            limit -= pos;
+            pos = 0;
+        }
+        if (limit + n > buffer.length) {
+            char[] newBuffer = new char[Math.max(buffer.length*2, limit + n)];
+            System.arraycopy(buffer, 0, newBuffer, 0, limit);
+            buffer = newBuffer;
+        }
+    }
+    
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+    
+    private static String getPseudoAttribute(String decl, String name) {
+        int idx = decl.indexOf(name);
+        while (idx != -1) {
+            int p = idx + name.length();
+            int len = decl.length();
+            while (p < len && isWhitespace(decl.charAt(p))) {
+                p++;
+            }
+            if (p < len && decl.charAt(p) == '=') {
+                p++;
+                while (p < len && isWhitespace(decl.charAt(p))) {
+                    p++;
+                }
+                if (p < len) {
+                    char q = decl.charAt(p);
+                    if (q == '"' || q == '\'') {
+                        int end = decl.indexOf(q, p+1);
+                        if (end != -1) {
+                            return decl.substring(p+1, end);
+                        }
+                    }
+                }
+            }
+            idx = decl.indexOf(name, idx+1);
+        }
+        return null;
+    }
+    
+    private int indexOf(char c, int from, int to) {
+        for (int i=from; i<to; i++) {
+            if (buffer[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private int indexOf(String s, int from) {
+        char first = s.charAt(0);
+        int last = limit - s.length();
+        outer: for (int i=from; i<=last; i++) {
+            if (buffer[i] == first) {
+                for (int j=1; j<s.length(); j++) {
+                    if (buffer[i+j] != s.charAt(j)) {
+                        continue outer;
+                    }
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private boolean startsWith(int index, String s) {
+        if (index + s.length() > limit) {
+            return false;
+        }
+        for (int i=0; i<s.length(); i++) {
+            if (buffer[index+i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private int skipWhitespace(int index, int end) {
+        while (index < end && isWhitespace(buffer[index])) {
+            index++;
+        }
+        return index;
+    }
+    
+    /**
+     * Determine the end of the XML declaration, decoding more input as needed.
+     * 
+     * @return the position following the XML declaration, -2 if the document has no XML
+     *         declaration or -1 if more input is needed
+     */
+    private int findXmlDeclEnd() {
+        int end;
+        while ((end = scanXmlDeclEnd()) == -1 && decode()) {
+            // Try again with the newly decoded characters
+        }
+        return end;
+    }
+    
+    private int scanXmlDeclEnd() {
+        if (decoder == null) {
+            return -1;
+        }
+        int n = limit - pos;
+        for (int i=0; i<=XML_DECL_START.length(); i++) {
+            if (i == n) {
+                return inputExhausted ? -2 : -1;
+            }
+            char c = buffer[pos+i];
+            if (i < XML_DECL_START.length() ? c != XML_DECL_START.charAt(i) : !isWhitespace(c)) {
+                return -2;
+            }
+        }
+        int idx = indexOf("?>", pos + XML_DECL_START.length());
+        return idx == -1 ? -1 : idx + 2;
+    }
+    
+    /**
+     * Determine the end of the token starting at the current position, decoding more input as
+     * needed.
+     * 
+     * @return the end of the token, or -1 if more input is needed
+     */
+    private int findTokenEnd() {
+        int end;
+        while ((end = scanTokenEnd()) == -1 && decode()) {
+            // Try again with the newly decoded characters
+        }
+        return end;
+    }
+    
+    private int scanTokenEnd() {
+        if (tokenEnd != -1) {
+            return tokenEnd;
+        }
+        int n = limit - pos;
+        if (n == 0) {
+            return -1;
+        }
+        if (buffer[pos] != '<') {
+            int idx = indexOf('<', scanPos == -1 ? pos : scanPos, limit);
+            if (idx != -1) {
+                return tokenEnd = idx;
+            }
+            scanPos = limit;
+            if (inputExhausted) {
+                return tokenEnd = limit;
+            } else if (n >= TEXT_CHUNK_SIZE) {
+                // Report the text received so far, but don't split a reference or surrogate pair
+                int end = limit;
+                for (int i=limit-1; i>=pos && i>=limit-32; i--) {
+                    char c = buffer[i];
+                    if (c == ';') {
+                        break;
+                    } else if (c == '&') {
+                        end = i;
+                        break;
+                    }
+                }
+                if (end > pos && Character.isHighSurrogate(buffer[end-1])) {
+                    end--;
+                }
+                // Don't split a "]]>" sequence either, so that processText can detect it
+                for (int i=0; i<2 && end > pos && buffer[end-1] == ']'; i++) {
+                    end--;
+                }
+                return end > pos ? end : -1;
+            } else {
+                return -1;
+            }
+        }
+        if (scanPos == -1) {
+            // Determine the type of markup
+            if (n < 2) {
+                return -1;
+            }
+            if (buffer[pos+1] == '?') {
+                terminator = "?>";
+                scanPos = pos + 2;
+            } else if (buffer[pos+1] == '!') {
+                if (n < 4) {
+                    return -1;
+                }
+                if (startsWith(pos, "<!--")) {
+                    terminator = "-->";
+                    scanPos = pos + 4;
+                } else if (n < 9) {
+                    return -1;
+                } else if (startsWith(pos, "<![CDATA[")) {
+                    terminator = "]]>";
+                    scanPos = pos + 9;
+                } else {
+                    terminator = null;
+                    scanPos = pos + 2;
+                }
+            } else {
+                terminator = null;
+                scanPos = pos + 1;
+            }
+        }
+        if (terminator != null) {
+            int idx = indexOf(terminator, scanPos);
+            if (idx == -1) {
+                scanPos = Math.max(scanPos, limit - terminator.length() + 1);
+                return -1;
+            } else {
+                return tokenEnd = idx + terminator.length();
+            }
+        } else {
+            boolean declaration = buffer[pos+1] == '!';
+            for (int i=scanPos; i<limit; i++) {
+                char c = buffer[i];
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '"' || c == '\'') {
+                    quote = c;
+                } else if (declaration && c == '[') {
+                    inSubset = true;
+                } else if (declaration && c == ']') {
+                    inSubset = false;
+                } else if (c == '>' && !inSubset) {
+                    return tokenEnd = i + 1;
+                }
+            }
+            scanPos = limit;
+            return -1;
+        }
+    }
+    
+    @Override
+    public boolean proceed() throws StreamException {
+        if (error != null) {
+            throw error;
+        }
+        boolean produced;
+        try {
+            produced = next();
+        } catch (StreamException ex) {
+            error = ex;
+            throw ex;
+        }
+        if (!produced) {
+            if (inputError != null) {
+                error = inputError;
+                throw error;
+            } else if (inputExhausted) {
+                error = new StreamException("Unexpected end of input");
+                throw error;
+            } else {
+                throw new InputNotAvailableException();
+            }
+        }
+        return state == COMPLETE;
+    }
+    
+    /**
+     * Process the next token if it is available.
+     * 
+     * @return <code>true</code> if a token has been processed, <code>false</code> if more input
+     *         is needed
+     */
+    private boolean next() throws StreamException {
+        if (state == START) {
+            int end = findXmlDeclEnd();
+            if (end == -1) {
+                return false;
+            }
+            String version = null;
+            String xmlEncoding = null;
+            Boolean standalone = null;
+            if (end != -2) {
+                String decl = new String(buffer, pos + XML_DECL_START.length(), end - 2 - pos - XML_DECL_START.length());
+                version = getPseudoAttribute(decl, "version");
+                xmlEncoding = getPseudoAttribute(decl, "encoding");
+                String s = getPseudoAttribute(decl, "standalone");
+                if (s != null) {
+                    standalone = "yes".equals(s);
+                }
+                pos = end;
+            }
+            state = PROLOG;
+            handler.startDocument(encoding, version, xmlEncoding, standalone);
+            return true;
+        } else if (state == COMPLETE) {
+            throw new IllegalStateException();
+        }
+        int end = findTokenEnd();
+        if (end == -1) {
+            if (pos == limit && inputExhausted && inputError == null && state == EPILOG) {
+                state = COMPLETE;
+                handler.completed();
+                return true;
+            } else {
+                return false;
+            }
+        }
+        int start = pos;
+        pos = end;
+        tokenEnd = -1;
+        scanPos = -1;
+        terminator = null;
+        quote = 0;
+        inSubset = false;
+        processToken(start, end);
+        return true;
+    }
+    
+    private void processToken(int start, int end) throws StreamException {
+        if (buffer[start] != '<') {
+            processText(start, end);
+        } else if (buffer[start+1] == '?') {
+            processProcessingInstruction(start + 2, end - 2);
+        } else if (buffer[start+1] == '!') {
+            if (startsWith(start, "<!--")) {
+                processComment(start + 4, end - 3);
+            } else if (startsWith(start, "<![CDATA[")) {
+                if (state != CONTENT) {
+                    throw new StreamException("CDATA sections are only allowed in the document element");
+                }
+                handler.startCDATASection();
+                handler.processCharacterData(new String(buffer, start + 9, end - start - 12), false);
+                handler.endCDATASection();
+            } else if (startsWith(start, "<!DOCTYPE")) {
+                processDocumentTypeDeclaration(start + 9, end - 1);
+            } else {
+                throw new StreamException("Unexpected markup");
+            }
+        } else if (buffer[start+1] == '/') {
+            processEndTag(start + 2, end - 1);
+        } else {
+            processStartTag(start + 1, end - 1);
+        }
+    }
+    
+    private void processComment(int start, int end) throws StreamException {
+        for (int i=start; i<end; i++) {
+            if (buffer[i] == '-' && (i == end-1 || buffer[i+1] == '-')) {
+                throw new StreamException("The string \"--\" is not allowed in comments");
+            }
+        }
+        handler.startComment();
+        handler.processCharacterData(new String(buffer, start, end - start), false);
+        handler.endComment();
+    }
+    
+    private void processText(int start, int end) throws StreamException {
+        if (state == CONTENT) {
+            for (int i=start; i<end-2; i++) {
+                if (buffer[i] == ']' && buffer[i+1] == ']' && buffer[i+2] == '>') {
+                    throw new StreamException("The character sequence \"]]>\" is not allowed in content");
+                }
+            }
+            handler.processCharacterData(decodeReferences(start, end, false), false);
+        } else {
+            for (int i=start; i<end; i++) {
+                if (!isWhitespace(buffer[i])) {
+                    throw new StreamException(state == EPILOG
+                            ? "Content is not allowed after the document element"
+                            : "Content is not allowed in the prolog");
+                }
+            }
+            // Report whitespace outside of the document element as ignorable, as StAX parsers do
+            handler.processCharacterData(new String(buffer, start, end - start), true);
+        }
+    }
+    
+    private String decodeReferences(int start, int end, boolean attribute) throws StreamException {
+        int i = start;
+        while (i < end) {
+            char c = buffer[i];
+            if (c == '&' || attribute && (c == '\n' || c == '\t' || c == '<')) {
+                break;
+            }
+            i++;
+        }
+        if (i == end) {
+            return new String(buffer, start, end - start);
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        sb.append(buffer, start, i - start);
+        while (i < end) {
+            char c = buffer[i];
+            if (c == '&') {
+                int semicolon = indexOf(';', i + 1, end);
+                if (semicolon == -1) {
+                    throw new StreamException("Unterminated entity or character reference");
+                }
+                appendReference(sb, i + 1, semicolon);
+                i = semicolon + 1;
+            } else {
+                if (attribute) {
+                    if (c == '<') {
+                        throw new StreamException("The '<' character is not allowed in attribute values");
+                    } else if (c == '\n' || c == '\t') {
+                        c = ' ';
+                    }
+                }
+                sb.append(c);
+                i++;
+            }
+        }
+        return sb.toString();
+    }
+    
+    private void appendReference(StringBuilder sb, int start, int end) throws StreamException {
+        String name = new String(buffer, start, end - start);
+        if (name.length() > 1 && name.charAt(0) == '#') {
+            boolean hex = name.charAt(1) == 'x';
+            int radix = hex ? 16 : 10;
+            int first = hex ? 2 : 1;
+            int codePoint = first == name.length() ? -1 : 0;
+            for (int i=first; i<name.length() && codePoint != -1; i++) {
+                int digit = Character.digit(name.charAt(i), radix);
+                // Only ASCII digits are allowed, and stop before the value overflows
+                codePoint = digit == -1 || name.charAt(i) >= 128 || codePoint > Character.MAX_CODE_POINT
+                        ? -1 : codePoint*radix + digit;
+            }
+            if (!isChar(codePoint)) {
+                throw new StreamException("Invalid character reference &" + name + ";");
+            }
+            sb.appendCodePoint(codePoint);
+        } else if (name.equals("lt")) {
+            sb.append('<');
+        } else if (name.equals("gt")) {
+            sb.append('>');
+        } else if (name.equals("amp")) {
+            sb.append('&');
+        } else if (name.equals("apos")) {
+            sb.append('\'');
+        } else if (name.equals("quot")) {
+            sb.append('"');
+        } else {
+            throw new StreamException("Undeclared entity '" + name + "'");
+        }
+    }
+    
+    /**
+     * Determine if the given code point matches the <tt>Char</tt> production of the XML
+     * specification.
+     */
+    private static boolean isChar(int c) {
+        return c == 0x9 || c == 0xA || c == 0xD
+                || c >= 0x20 && c <= 0xD7FF
+                || c >= 0xE000 && c <= 0xFFFD
+                || c >= 0x10000 && c <= Character.MAX_CODE_POINT;
+    }
+    
+    private void processProcessingInstruction(int start, int end) throws StreamException {
+        int i = start;
+        while (i < end && !isWhitespace(buffer[i])) {
+            i++;
+        }
+        if (i == start) {
+            throw new StreamException("Missing processing instruction target");
+        }
+        String target = new String(buffer, start, i - start);
+        if (target.equalsIgnoreCase("xml")) {
+            throw new StreamException("The XML declaration is only allowed at the start of the document");
+        }
+        i = skipWhitespace(i, end);
+        handler.startProcessingInstruction(target);
+        handler.processCharacterData(new String(buffer, i, end - i), false);
+        handler.endProcessingInstruction();
+    }
+    
+    /**
+     * Get the end of a quoted string.
+     * 
+     * @param start
+     *            the position of the opening quote
+     * @param end
+     *            the position at which the search for the closing quote stops
+     * @return the position of the closing quote
+     */
+    private int getQuotedEnd(int start, int end) throws StreamException {
+        if (start < end) {
+            char q = buffer[start];
+            if (q == '"' || q == '\'') {
+                int idx = indexOf(q, start + 1, end);
+                if (idx != -1) {
+                    return idx;
+                }
+            }
+        }
+        throw new StreamException("Expected quoted string");
+    }
+    
+    private void processDocumentTypeDeclaration(int start, int end) throws StreamException {
+        if (state != PROLOG || seenDoctype) {
+            throw new StreamException("Unexpected document type declaration");
+        }
+        seenDoctype = true;
+        int i = skipWhitespace(start, end);
+        int nameStart = i;
+        while (i < end && !isWhitespace(buffer[i]) && buffer[i] != '[') {
+            i++;
+        }
+        if (i == nameStart) {
+            throw new StreamException("Missing root element name in document type declaration");
+        }
+        String rootName = new String(buffer, nameStart, i - nameStart);
+        i = skipWhitespace(i, end);
+        String publicId = null;
+        String systemId = null;
+        if (startsWith(i, "PUBLIC")) {
+            i = skipWhitespace(i + 6, end);
+            int q = getQuotedEnd(i, end);
+            publicId = new String(buffer, i + 1, q - i - 1);
+            i = skipWhitespace(q + 1, end);
+            q = getQuotedEnd(i, end);
+            systemId = new String(buffer, i + 1, q - i - 1);
+            i = skipWhitespace(q + 1, end);
+        } else if (startsWith(i, "SYSTEM")) {
+            i = skipWhitespace(i + 6, end);
+            int q = getQuotedEnd(i, end);
+            systemId = new String(buffer, i + 1, q - i - 1);
+            i = skipWhitespace(q + 1, end);
+        }
+        String internalSubset = null;
+        if (i < end && buffer[i] == '[') {
+            int close = end - 1;
+            while (close > i && buffer[close] != ']') {
+                close--;
+            }
+            if (close == i) {
+                throw new StreamException("Unterminated internal subset");
+            }
+            internalSubset = new String(buffer, i + 1, close - i - 1);
+            i = skipWhitespace(close + 1, end);
+        }
+        if (i != end) {
+            throw new StreamException("Malformed document type declaration");
+        }
+        handler.processDocumentTypeDeclaration(rootName, publicId, systemId, internalSubset);
+    }
+    
+    private String getNamespaceURI(String prefix) throws StreamException {
+        for (int i=namespaceCount-1; i>=0; i--) {
+            if (namespaces[2*i].equals(prefix)) {
+                return namespaces[2*i+1];
+            }
+        }
+        if (prefix.length() == 0) {
+            return "";
+        } else if (prefix.equals(XMLConstants.XML_NS_PREFIX)) {
+            return XMLConstants.XML_NS_URI;
+        } else {
+            throw new StreamException("Unbound namespace prefix '" + prefix + "'");
+        }
+    }
+    
+    private void processStartTag(int start, int end) throws StreamException {
+        if (state == EPILOG) {
+            throw new StreamException("Only one document element is allowed");
+        }
+        boolean empty = end > start && buffer[end-1] == '/';
+        if (empty) {
+            end--;
+        }
+        int i = start;
+        while (i < end && !isWhitespace(buffer[i])) {
+            i++;
+        }
+        if (i == start) {
+            throw new StreamException("Missing element name");
+        }
+        String qname = new String(buffer, start, i - start);
+        int scope = namespaceCount;
+        int attributeCount = 0;
+        while (true) {
+            i = skipWhitespace(i, end);
+            if (i == end) {
+                break;
+            }
+            int nameStart = i;
+            while (i < end && buffer[i] != '=' && !isWhitespace(buffer[i])) {
+                i++;
+            }
+            String name = new String(buffer, nameStart, i - nameStart);
+            i = skipWhitespace(i, end);
+            if (i == end || buffer[i] != '=') {
+                throw new StreamException("Missing value for attribute '" + name + "'");
+            }
+            i = skipWhitespace(i + 1, end);
+            int valueEnd = getQuotedEnd(i, end);
+            String value = decodeReferences(i + 1, valueEnd, true);
+            i = valueEnd + 1;
+            if (name.startsWith(XMLConstants.XMLNS_ATTRIBUTE)
+                    && (name.length() == 5 || name.charAt(5) == ':')) {
+                String declaredPrefix = name.length() == 5 ? "" : name.substring(6);
+                for (int j=scope; j<namespaceCount; j++) {
+                    if (namespaces[2*j].equals(declaredPrefix)) {
+                        throw new StreamException("Duplicate attribute '" + name + "'");
+                    }
+                }
+                if (2*namespaceCount == namespaces.length) {
+                    String[] newNamespaces = new String[namespaces.length*2];
+                    System.arraycopy(namespaces, 0, newNamespaces, 0, namespaces.length);
+                    namespaces = newNamespaces;
+                }
+                namespaces[2*namespaceCount] = declaredPrefix;
+                namespaces[2*namespaceCount+1] = value;
+                namespaceCount++;
+            } else {
+                for (int j=0; j<attributeCount; j++) {
+                    if (attributes[2*j].equals(name)) {
+                        throw new StreamException("Duplicate attribute '" + name + "'");
+                    }
+                }
+                if (2*attributeCount == attributes.length) {
+                    String[] newAttributes = new String[attributes.length*2];
+                    System.arraycopy(attributes, 0, newAttributes, 0, attributes.length);
+                    attributes = newAttributes;
+                }
+                attributes[2*attributeCount] = name;
+                attributes[2*attributeCount+1] = value;
+                attributeCount++;
+            }
+        }
+        // Attributes with different prefixes bound to the same namespace URI may still have the
+        // same expanded name
+        for (int j=1; j<attributeCount; j++) {
+            String name = attributes[2*j];
+            int colon = name.indexOf(':');
+            if (colon == -1) {
+                continue;
+            }
+            for (int k=0; k<j; k++) {
+                String otherName = attributes[2*k];
+                int otherColon = otherName.indexOf(':');
+                if (otherColon != -1 && name.regionMatches(colon, otherName, otherColon, name.length() - colon)
+                        && otherName.length() - otherColon == name.length() - colon
+                        && getNamespaceURI(name.substring(0, colon)).equals(getNamespaceURI(otherName.substring(0, otherColon)))) {
+                    throw new StreamException("Attributes '" + otherName + "' and '" + name + "' have the same expanded name");
+                }
+            }
+        }
+        if (depth == elementNames.length) {
+            String[] newElementNames = new String[depth*2];
+            System.arraycopy(elementNames, 0, newElementNames, 0, depth);
+            elementNames = newElementNames;
+            int[] newNamespaceScopes = new int[depth*2];
+            System.arraycopy(namespaceScopes, 0, newNamespaceScopes, 0, depth);
+            namespaceScopes = newNamespaceScopes;
+        }
+        elementNames[depth] = qname;
+        namespaceScopes[depth] = scope;
+        depth++;
+        state = CONTENT;
+        int colon = qname.indexOf(':');
+        String prefix = colon == -1 ? "" : qname.substring(0, colon);
+        handler.startElement(getNamespaceURI(prefix), qname.substring(colon + 1), prefix);
+        for (int j=scope; j<namespaceCount; j++) {
+            handler.processNamespaceDeclaration(namespaces[2*j], namespaces[2*j+1]);
+        }
+        for (int j=0; j<attributeCount; j++) {
+            String name = attributes[2*j];
+            colon = name.indexOf(':');
+            if (colon == -1) {
+                handler.processAttribute("", name, "", attributes[2*j+1], "CDATA", true);
+            } else {
+                prefix = name.substring(0, colon);
+                handler.processAttribute(getNamespaceURI(prefix), name.substring(colon + 1), prefix, attributes[2*j+1], "CDATA", true);
+            }
+            attributes[2*j] = null;
+            attributes[2*j+1] = null;
+        }
+        handler.attributesCompleted();
+        if (empty) {
+            handler.endElement();
+            popElement();
+        }
+    }
+    
+    private void processEndTag(int start, int end) throws StreamException {
+        while (end > start && isWhitespace(buffer[end-1])) {
+            end--;
+        }
+        if (depth == 0) {
+            throw new StreamException("Unexpected end tag");
+        }
+        String name = elementNames[depth-1];
+        boolean matches = end - start == name.length();
+        for (int i=0; matches && i<name.length(); i++) {
+            matches = buffer[start+i] == name.charAt(i);
+        }
+        if (!matches) {
+            throw new StreamException("The end tag doesn't match the start tag '" + name + "'");
+        }
+        handler.endElement();
+        popElement();
+    }
+    
+    private void popElement() {
+        depth--;
+        elementNames[depth] = null;
+        for (int i=2*namespaceScopes[depth]; i<2*namespaceCount; i++) {
+            namespaces[i] = null;
+        }
+        namespaceCount = namespaceScopes[depth];
+        if (depth == 0) {
+            state = EPILOG;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        state = COMPLETE;
+        endOfInput = true;
+        inputExhausted = true;
+        buffer = new char[0];
+        pos = 0;
+        limit = 0;
+        bytes = ByteBuffer.allocate(0);
+        decoded = null;
+    }
+}
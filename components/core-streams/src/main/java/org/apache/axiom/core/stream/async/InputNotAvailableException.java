@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.async;
+
+import org.apache.axiom.core.stream.StreamException;
+
+/**
+ * Indicates that the next event can't be produced because the input fed into an
+ * {@link AsyncXmlInput} so far doesn't contain enough data. Unlike other {@link StreamException}s,
+ * this is not a fatal error: parsing can continue once more data has been fed.
+ */
+public class InputNotAvailableException extends StreamException {
+    private static final long serialVersionUID = 1L;
+
+    public InputNotAvailableException() {
+        super("Not enough input available; more data needs to be fed to the parser");
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.eventlog;
+
+import java.io.InputStream;
+
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.XmlReader;
+
+/**
+ * {@link XmlInput} implementation that reads events serialized by {@link BinaryXmlSerializer}.
+ * The stream is not closed by the reader.
+ */
+public final class BinaryXmlInput implements XmlInput {
+    private final InputStream in;
+
+    public BinaryXmlInput(InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public XmlReader createReader(XmlHandler handler) {
+        return new BinaryXmlReader(in, handler);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.eventlog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+
+final class BinaryXmlReader extends EventDecoder {
+    private final InputStream in;
+    private final byte[] buffer = new byte[EventLog.PAGE_SIZE];
+    private boolean headerRead;
+
+    BinaryXmlReader(InputStream in, XmlHandler handler) {
+        super(handler);
+        this.in = in;
+    }
+
+    private int read(int length) throws StreamException {
+        try {
+            return in.read(buffer, 0, length);
+        } catch (IOException ex) {
+            throw new StreamException(ex);
+        }
+    }
+
+    private void readHeader() throws StreamException {
+        int headerLength = BinaryXmlSerializer.SIGNATURE.length + 1;
+        int length = 0;
+        while (length < headerLength) {
+            int c;
+            try {
+                c = in.read(buffer, length, headerLength-length);
+            } catch (IOException ex) {
+                throw new StreamException(ex);
+            }
+            if (c == -1) {
+                throw new StreamException("Not a binary XML stream");
+            }
+            length += c;
+        }
+        for (int i=0; i<BinaryXmlSerializer.SIGNATURE.length; i++) {
+            if (buffer[i] != BinaryXmlSerializer.SIGNATURE[i]) {
+                throw new StreamException("Not a binary XML stream");
+            }
+        }
+        if (buffer[headerLength-1] != BinaryXmlSerializer.VERSION) {
+            throw new StreamException("Unsupported binary XML version " + buffer[headerLength-1]);
+        }
+    }
+
+    @Override
+    ByteBuffer nextBuffer() throws StreamException {
+        if (!headerRead) {
+            readHeader();
+            headerRead = true;
+        }
+        int length = read(buffer.length);
+        return length == -1 ? null : ByteBuffer.wrap(buffer, 0, length);
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
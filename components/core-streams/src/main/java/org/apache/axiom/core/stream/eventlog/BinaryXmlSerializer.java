@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.eventlog;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+
+/**
+ * {@link XmlHandler} implementation that serializes events to a stream in a binary format that
+ * can be read using {@link BinaryXmlInput}. The stream starts with the 4 byte signature
+ * {@link #SIGNATURE}, followed by a format version byte ({@link #VERSION}), followed by the
+ * events encoded as described in {@link EventLog}. Compared to textual XML, the binary format
+ * avoids escaping and tokenizing and stores each name and namespace URI only once.
+ * <p>
+ * Character data that is not a {@link String} is serialized using its
+ * {@link Object#toString()} representation. {@link #completed()} writes any buffered data to the
+ * stream, but doesn't flush or close the stream.
+ */
+public final class BinaryXmlSerializer extends EventEncoder {
+    /**
+     * The signature at the start of a binary XML stream.
+     */
+    static final byte[] SIGNATURE = { (byte)0xAB, 'A', 'X', 'B' };
+
+    /**
+     * The version of the format.
+     */
+    static final int VERSION = 2;
+
+    private final OutputStream out;
+
+    public BinaryXmlSerializer(OutputStream out) {
+        this.out = out;
+    }
+
+    private void write(ByteBuffer buffer) throws StreamException {
+        try {
+            out.write(buffer.array(), buffer.arrayOffset(), buffer.position());
+        } catch (IOException ex) {
+            throw new StreamException(ex);
+        }
+        ((Buffer)buffer).clear();
+    }
+
+    @Override
+    ByteBuffer bufferFull(ByteBuffer buffer) throws StreamException {
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(EventLog.PAGE_SIZE);
+            buffer.put(SIGNATURE);
+            buffer.put((byte)VERSION);
+        } else {
+            write(buffer);
+        }
+        return buffer;
+    }
+
+    @Override
+    void encodingCompleted(ByteBuffer buffer) throws StreamException {
+        write(buffer);
+    }
+}
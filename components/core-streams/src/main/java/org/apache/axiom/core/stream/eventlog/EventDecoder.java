@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.eventlog;
+
+import java.nio.ByteBuffer;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlReader;
+
+/**
+ * Decodes events encoded in the format described in {@link EventLog}. Subclasses supply the
+ * buffers containing the encoded data.
+ */
+abstract class EventDecoder implements XmlReader {
+    private final XmlHandler handler;
+    private ByteBuffer buffer;
+    private String[] symbols = new String[32];
+    private int symbolCount;
+    private char[] chars = new char[64];
+
+    EventDecoder(XmlHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Get the next buffer containing encoded data.
+     * 
+     * @return the buffer, or <code>null</code> if the end of the data has been reached
+     * @throws StreamException
+     */
+    abstract ByteBuffer nextBuffer() throws StreamException;
+
+    private int readByte() throws StreamException {
+        while (buffer == null || !buffer.hasRemaining()) {
+            buffer = nextBuffer();
+            if (buffer == null) {
+                throw new StreamException("Unexpected end of event data");
+            }
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Read a non negative integer.
+     */
+    private int readInt() throws StreamException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift == 35) {
+                throw new StreamException("Corrupt event log: integer too large");
+            }
+            b = readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        // The fifth byte only contributes 4 bits; anything else would overflow
+        if (shift == 35 && (b & 0x78) != 0) {
+            throw new StreamException("Corrupt event log: integer too large");
+        }
+        return value;
+    }
+
+    private String readChars() throws StreamException {
+        int length = readInt();
+        // Don't trust the length to allocate the buffer: grow it as the characters are actually
+        // read, so that a corrupt length fails with an exception instead of exhausting memory.
+        char[] chars = this.chars;
+        for (int i=0; i<length; i++) {
+            if (i == chars.length) {
+                char[] newChars = new char[(int)Math.min((long)length, chars.length*2L)];
+                System.arraycopy(chars, 0, newChars, 0, i);
+                this.chars = chars = newChars;
+            }
+            int c = readInt();
+            if (c > Character.MAX_VALUE) {
+                throw new StreamException("Corrupt event log: invalid character");
+            }
+            chars[i] = (char)c;
+        }
+        return new String(chars, 0, length);
+    }
+
+    private String readSymbol() throws StreamException {
+        int code = readInt();
+        switch (code) {
+            case EventLog.SYMBOL_NULL:
+                return null;
+            case EventLog.SYMBOL_LITERAL:
+                return readChars();
+            case EventLog.SYMBOL_NEW: {
+                String symbol = readChars();
+                if (symbolCount == EventLog.MAX_SYMBOLS) {
+                    throw new StreamException("Corrupt event log: too many symbols");
+                }
+                if (symbolCount == symbols.length) {
+                    String[] newSymbols = new String[symbols.length*2];
+                    System.arraycopy(symbols, 0, newSymbols, 0, symbolCount);
+                    symbols = newSymbols;
+                }
+                symbols[symbolCount++] = symbol;
+                return symbol;
+            }
+            default: {
+                int index = code - EventLog.SYMBOL_INDEX_BASE;
+                if (index >= symbolCount) {
+                    throw new StreamException("Corrupt event log: invalid symbol index");
+                }
+                return symbols[index];
+            }
+        }
+    }
+
+    private String readString() throws StreamException {
+        return readByte() == 0 ? null : readChars();
+    }
+
+    private boolean readBoolean() throws StreamException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public final boolean proceed() throws StreamException {
+        int type = decodeEvent();
+        if (type == EventLog.START_ELEMENT) {
+            // Like the other XmlReader implementations, deliver the start tag as a whole: the
+            // builder makes an element visible before its attributes have been added.
+            while (decodeEvent() != EventLog.ATTRIBUTES_COMPLETED) {
+                // Just loop
+            }
+        }
+        return type == EventLog.COMPLETED;
+    }
+
+    /**
+     * Decode the next event and send it to the handler.
+     * 
+     * @return the type of the event
+     * @throws StreamException
+     */
+    private int decodeEvent() throws StreamException {
+        int type = readByte();
+        switch (type) {
+            case EventLog.START_DOCUMENT: {
+                String inputEncoding = readSymbol();
+                String xmlVersion = readSymbol();
+                String xmlEncoding = readSymbol();
+                int standalone = readByte();
+                handler.startDocument(inputEncoding, xmlVersion, xmlEncoding,
+                        standalone == 0 ? null : Boolean.valueOf(standalone == 1));
+                break;
+            }
+            case EventLog.START_FRAGMENT:
+                handler.startFragment();
+                break;
+            case EventLog.DOCUMENT_TYPE_DECLARATION: {
+                String rootName = readSymbol();
+                String publicId = readString();
+                String systemId = readString();
+                handler.processDocumentTypeDeclaration(rootName, publicId, systemId, readString());
+                break;
+            }
+            case EventLog.START_ELEMENT: {
+                String namespaceURI = readSymbol();
+                String localName = readSymbol();
+                handler.startElement(namespaceURI, localName, readSymbol());
+                break;
+            }
+            case EventLog.END_ELEMENT:
+                handler.endElement();
+                break;
+            case EventLog.NS_AWARE_ATTRIBUTE: {
+                String namespaceURI = readSymbol();
+                String localName = readSymbol();
+                String prefix = readSymbol();
+                String value = readString();
+                String attributeType = readSymbol();
+                handler.processAttribute(namespaceURI, localName, prefix, value, attributeType, readBoolean());
+                break;
+            }
+            case EventLog.NS_UNAWARE_ATTRIBUTE: {
+                String name = readSymbol();
+                String value = readString();
+                String attributeType = readSymbol();
+                handler.processAttribute(name, value, attributeType, readBoolean());
+                break;
+            }
+            case EventLog.NAMESPACE_DECLARATION: {
+                String prefix = readSymbol();
+                handler.processNamespaceDeclaration(prefix, readSymbol());
+                break;
+            }
+            case EventLog.ATTRIBUTES_COMPLETED:
+                handler.attributesCompleted();
+                break;
+            case EventLog.CHARACTER_DATA:
+                handler.processCharacterData(readChars(), false);
+                break;
+            case EventLog.IGNORABLE_CHARACTER_DATA:
+                handler.processCharacterData(readChars(), true);
+                break;
+            case EventLog.START_PROCESSING_INSTRUCTION:
+                handler.startProcessingInstruction(readSymbol());
+                break;
+            case EventLog.END_PROCESSING_INSTRUCTION:
+                handler.endProcessingInstruction();
+                break;
+            case EventLog.START_COMMENT:
+                handler.startComment();
+                break;
+            case EventLog.END_COMMENT:
+                handler.endComment();
+                break;
+            case EventLog.START_CDATA_SECTION:
+                handler.startCDATASection();
+                break;
+            case EventLog.END_CDATA_SECTION:
+                handler.endCDATASection();
+                break;
+            case EventLog.ENTITY_REFERENCE: {
+                String name = readSymbol();
+                handler.processEntityReference(name, readString());
+                break;
+            }
+            case EventLog.COMPLETED:
+                handler.completed();
+                break;
+            default:
+                throw new StreamException("Corrupt event log");
+        }
+        return type;
+    }
+
+}
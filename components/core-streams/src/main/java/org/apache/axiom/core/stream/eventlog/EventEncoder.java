@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.eventlog;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+
+/**
+ * Encodes events into the format described in {@link EventLog}. Subclasses manage the buffers the
+ * encoded events are written to.
+ */
+abstract class EventEncoder implements XmlHandler {
+    private final Map<String,Integer> symbols = new HashMap<String,Integer>();
+    private ByteBuffer buffer;
+
+    /**
+     * Get a buffer to write more encoded data to.
+     * 
+     * @param buffer
+     *            the buffer that has been filled, or <code>null</code> if no data has been
+     *            written yet
+     * @return a buffer with remaining space
+     * @throws StreamException
+     */
+    abstract ByteBuffer bufferFull(ByteBuffer buffer) throws StreamException;
+
+    /**
+     * Called after the {@link XmlHandler#completed()} event has been encoded.
+     * 
+     * @param buffer
+     *            the buffer containing the last encoded data
+     * @throws StreamException
+     */
+    abstract void encodingCompleted(ByteBuffer buffer) throws StreamException;
+
+    private void writeByte(int b) throws StreamException {
+        if (buffer == null || !buffer.hasRemaining()) {
+            buffer = bufferFull(buffer);
+        }
+        buffer.put((byte)b);
+    }
+
+    private void writeInt(int value) throws StreamException {
+        while ((value & ~0x7F) != 0) {
+            writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte(value);
+    }
+
+    private void writeChars(String s) throws StreamException {
+        int length = s.length();
+        writeInt(length);
+        for (int i=0; i<length; i++) {
+            writeInt(s.charAt(i));
+        }
+    }
+
+    private void writeSymbol(String s) throws StreamException {
+        if (s == null) {
+            writeByte(EventLog.SYMBOL_NULL);
+        } else {
+            Integer index = symbols.get(s);
+            if (index != null) {
+                writeInt(index + EventLog.SYMBOL_INDEX_BASE);
+            } else if (symbols.size() < EventLog.MAX_SYMBOLS) {
+                symbols.put(s, symbols.size());
+                writeByte(EventLog.SYMBOL_NEW);
+                writeChars(s);
+            } else {
+                writeByte(EventLog.SYMBOL_LITERAL);
+                writeChars(s);
+            }
+        }
+    }
+
+    private void writeString(String s) throws StreamException {
+        if (s == null) {
+            writeByte(0);
+        } else {
+            writeByte(1);
+            writeChars(s);
+        }
+    }
+
+    @Override
+    public final void startDocument(String inputEncoding, String xmlVersion, String xmlEncoding,
+            Boolean standalone) throws StreamException {
+        writeByte(EventLog.START_DOCUMENT);
+        writeSymbol(inputEncoding);
+        writeSymbol(xmlVersion);
+        writeSymbol(xmlEncoding);
+        writeByte(standalone == null ? 0 : standalone ? 1 : 2);
+    }
+
+    @Override
+    public final void startFragment() throws StreamException {
+        writeByte(EventLog.START_FRAGMENT);
+    }
+
+    @Override
+    public final void processDocumentTypeDeclaration(String rootName, String publicId, String systemId,
+            String internalSubset) throws StreamException {
+        writeByte(EventLog.DOCUMENT_TYPE_DECLARATION);
+        writeSymbol(rootName);
+        writeString(publicId);
+        writeString(systemId);
+        writeString(internalSubset);
+    }
+
+    @Override
+    public final void startElement(String namespaceURI, String localName, String prefix)
+            throws StreamException {
+        writeByte(EventLog.START_ELEMENT);
+        writeSymbol(namespaceURI);
+        writeSymbol(localName);
+        writeSymbol(prefix);
+    }
+
+    @Override
+    public final void endElement() throws StreamException {
+        writeByte(EventLog.END_ELEMENT);
+    }
+
+    @Override
+    public final void processAttribute(String namespaceURI, String localName, String prefix, String value,
+            String type, boolean specified) throws StreamException {
+        writeByte(EventLog.NS_AWARE_ATTRIBUTE);
+        writeSymbol(namespaceURI);
+        writeSymbol(localName);
+        writeSymbol(prefix);
+        writeString(value);
+        writeSymbol(type);
+        writeByte(specified ? 1 : 0);
+    }
+
+    @Override
+    public final void processAttribute(String name, String value, String type, boolean specified)
+            throws StreamException {
+        writeByte(EventLog.NS_UNAWARE_ATTRIBUTE);
+        writeSymbol(name);
+        writeString(value);
+        writeSymbol(type);
+        writeByte(specified ? 1 : 0);
+    }
+
+    @Override
+    public final void processNamespaceDeclaration(String prefix, String namespaceURI)
+            throws StreamException {
+        writeByte(EventLog.NAMESPACE_DECLARATION);
+        writeSymbol(prefix);
+        writeSymbol(namespaceURI);
+    }
+
+    @Override
+    public final void attributesCompleted() throws StreamException {
+        writeByte(EventLog.ATTRIBUTES_COMPLETED);
+    }
+
+    @Override
+    public final void processCharacterData(Object data, boolean ignorable) throws StreamException {
+        writeByte(ignorable ? EventLog.IGNORABLE_CHARACTER_DATA : EventLog.CHARACTER_DATA);
+        writeChars(data.toString());
+    }
+
+    @Override
+    public final void startProcessingInstruction(String target) throws StreamException {
+        writeByte(EventLog.START_PROCESSING_INSTRUCTION);
+        writeSymbol(target);
+    }
+
+    @Override
+    public final void endProcessingInstruction() throws StreamException {
+        writeByte(EventLog.END_PROCESSING_INSTRUCTION);
+    }
+
+    @Override
+    public final void startComment() throws StreamException {
+        writeByte(EventLog.START_COMMENT);
+    }
+
+    @Override
+    public final void endComment() throws StreamException {
+        writeByte(EventLog.END_COMMENT);
+    }
+
+    @Override
+    public final void startCDATASection() throws StreamException {
+        writeByte(EventLog.START_CDATA_SECTION);
+    }
+
+    @Override
+    public final void endCDATASection() throws StreamException {
+        writeByte(EventLog.END_CDATA_SECTION);
+    }
+
+    @Override
+    public final void processEntityReference(String name, String replacementText)
+            throws StreamException {
+        writeByte(EventLog.ENTITY_REFERENCE);
+        writeSymbol(name);
+        writeString(replacementText);
+    }
+
+    @Override
+    public final void completed() throws StreamException {
+        writeByte(EventLog.COMPLETED);
+        encodingCompleted(buffer);
+        buffer = null;
+        symbols.clear();
+    }
+
+    @Override
+    public final boolean drain() throws StreamException {
+        return true;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.eventlog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.axiom.core.stream.XmlEventBatch;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.XmlReader;
+
+/**
+ * A sequence of events recorded by {@link EventLogRecorder} in a compact binary form. The same
+ * encoding is used by {@link BinaryXmlSerializer} and {@link BinaryXmlInput}.
+ * <p>
+ * Each event is encoded as a one byte type code (the same as in {@link XmlEventBatch}) followed
+ * by its arguments, in the order in which they appear in the corresponding {@link XmlHandler}
+ * method. Arguments are encoded as follows:
+ * <dl>
+ * <dt>integers
+ * <dd>Unsigned variable length integers: 7 bits per byte, least significant group first, with
+ * the high order bit set on all bytes except the last.
+ * <dt>character sequences
+ * <dd>The number of <code>char</code>s as an integer, followed by each <code>char</code> as an
+ * integer. ASCII characters therefore take a single byte.
+ * <dt>symbols (names, prefixes, namespace URIs, attribute types, encodings, XML versions, PI
+ * targets and entity names)
+ * <dd>An integer: {@link #SYMBOL_NULL} for <code>null</code>; {@link #SYMBOL_NEW} followed by a
+ * character sequence for a symbol that is added to the symbol table; {@link #SYMBOL_LITERAL}
+ * followed by a character sequence for a symbol that is not added to the symbol table (because
+ * it is full); or {@link #SYMBOL_INDEX_BASE} plus the index of a symbol in the table. The symbol
+ * table is built incrementally while encoding and rebuilt while decoding, so that each symbol is
+ * stored only once.
+ * <dt>other strings (attribute values, identifiers, internal subsets and replacement text)
+ * <dd>A byte that is 0 for <code>null</code> and 1 otherwise, followed by a character sequence
+ * in the latter case.
+ * <dt>booleans
+ * <dd>A byte that is 0 for <code>false</code> and 1 for <code>true</code>. The
+ * <code>standalone</code> argument of {@link XmlHandler#startDocument(String, String, String,
+ * Boolean)} is encoded as 0 for <code>null</code>, 1 for <code>true</code> and 2 for
+ * <code>false</code>.
+ * </dl>
+ * Character data is encoded as a character sequence, with distinct type codes for ignorable and
+ * non ignorable data. The sequence ends with {@link #COMPLETED}.
+ * <p>
+ * Instances are immutable and may be replayed any number of times, including concurrently, using
+ * {@link #createReader(XmlHandler)}. The encoded form can be written to a stream (e.g. to store
+ * it in a blob) and read back using {@link #readFrom(InputStream, boolean)}.
+ */
+public final class EventLog implements XmlInput {
+    static final int START_DOCUMENT = XmlEventBatch.START_DOCUMENT;
+    static final int START_FRAGMENT = XmlEventBatch.START_FRAGMENT;
+    static final int DOCUMENT_TYPE_DECLARATION = XmlEventBatch.DOCUMENT_TYPE_DECLARATION;
+    static final int START_ELEMENT = XmlEventBatch.START_ELEMENT;
+    static final int END_ELEMENT = XmlEventBatch.END_ELEMENT;
+    static final int NS_AWARE_ATTRIBUTE = XmlEventBatch.NS_AWARE_ATTRIBUTE;
+    static final int NS_UNAWARE_ATTRIBUTE = XmlEventBatch.NS_UNAWARE_ATTRIBUTE;
+    static final int NAMESPACE_DECLARATION = XmlEventBatch.NAMESPACE_DECLARATION;
+    static final int ATTRIBUTES_COMPLETED = XmlEventBatch.ATTRIBUTES_COMPLETED;
+    static final int CHARACTER_DATA = XmlEventBatch.CHARACTER_DATA;
+    static final int START_PROCESSING_INSTRUCTION = XmlEventBatch.START_PROCESSING_INSTRUCTION;
+    static final int END_PROCESSING_INSTRUCTION = XmlEventBatch.END_PROCESSING_INSTRUCTION;
+    static final int START_COMMENT = XmlEventBatch.START_COMMENT;
+    static final int END_COMMENT = XmlEventBatch.END_COMMENT;
+    static final int START_CDATA_SECTION = XmlEventBatch.START_CDATA_SECTION;
+    static final int END_CDATA_SECTION = XmlEventBatch.END_CDATA_SECTION;
+    static final int ENTITY_REFERENCE = XmlEventBatch.ENTITY_REFERENCE;
+    static final int COMPLETED = XmlEventBatch.COMPLETED;
+
+    /**
+     * Type code for ignorable character data. There is no corresponding code in
+     * {@link XmlEventBatch}, which stores the <code>ignorable</code> flag as an argument.
+     */
+    static final int IGNORABLE_CHARACTER_DATA = 19;
+
+    /**
+     * Encodes a <code>null</code> reference to a symbol.
+     */
+    static final int SYMBOL_NULL = 0;
+
+    /**
+     * Indicates that the symbol is stored inline and not added to the symbol table.
+     */
+    static final int SYMBOL_LITERAL = 1;
+
+    /**
+     * Indicates that the symbol is stored inline and added to the symbol table.
+     */
+    static final int SYMBOL_NEW = 2;
+
+    /**
+     * The value added to the index of a symbol in the symbol table.
+     */
+    static final int SYMBOL_INDEX_BASE = 3;
+
+    /**
+     * The maximum number of entries in the symbol table.
+     */
+    static final int MAX_SYMBOLS = 65536;
+
+    static final int PAGE_SIZE = 8192;
+
+    private final ByteBuffer[] pages;
+    private final long size;
+
+    /**
+     * Constructor.
+     * 
+     * @param pages
+     *            the pages containing the encoded events; each page must be ready for reading, i.e.
+     *            have its position set to 0 and its limit set to the amount of data it contains
+     */
+    EventLog(ByteBuffer[] pages) {
+        this.pages = pages;
+        long size = 0;
+        for (ByteBuffer page : pages) {
+            size += page.remaining();
+        }
+        this.size = size;
+    }
+
+    /**
+     * Read an event log previously written using {@link #writeTo(OutputStream)}.
+     * 
+     * @param in
+     *            the stream to read from; the stream is read until the end, but not closed
+     * @param direct
+     *            <code>true</code> if the data should be stored in direct (off-heap) buffers
+     * @return the event log
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    public static EventLog readFrom(InputStream in, boolean direct) throws IOException {
+        List<ByteBuffer> pages = new ArrayList<ByteBuffer>();
+        byte[] buffer = new byte[PAGE_SIZE];
+        while (true) {
+            int length = 0;
+            int c;
+            while (length < PAGE_SIZE && (c = in.read(buffer, length, PAGE_SIZE-length)) != -1) {
+                length += c;
+            }
+            if (length > 0) {
+                ByteBuffer page = direct ? ByteBuffer.allocateDirect(length) : ByteBuffer.allocate(length);
+                page.put(buffer, 0, length);
+                ((Buffer)page).flip();
+                pages.add(page);
+            }
+            if (length < PAGE_SIZE) {
+                break;
+            }
+        }
+        return new EventLog(pages.toArray(new ByteBuffer[pages.size()]));
+    }
+
+    /**
+     * Get the size of the encoded events.
+     * 
+     * @return the size in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Write the encoded events to the given stream.
+     * 
+     * @param out
+     *            the stream to write to
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        byte[] buffer = null;
+        for (ByteBuffer page : pages) {
+            if (page.hasArray()) {
+                out.write(page.array(), page.arrayOffset(), page.remaining());
+            } else {
+                if (buffer == null) {
+                    buffer = new byte[PAGE_SIZE];
+                }
+                ByteBuffer src = page.duplicate();
+                while (src.hasRemaining()) {
+                    int c = Math.min(src.remaining(), buffer.length);
+                    src.get(buffer, 0, c);
+                    out.write(buffer, 0, c);
+                }
+            }
+        }
+    }
+
+    @Override
+    public XmlReader createReader(XmlHandler handler) {
+        return new EventLogReader(pages, handler);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.eventlog;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.axiom.core.stream.XmlHandler;
+
+/**
+ * {@link XmlHandler} implementation that records events into an {@link EventLog}. Character data
+ * that is not a {@link String} is recorded using its {@link Object#toString()} representation.
+ */
+public final class EventLogRecorder extends EventEncoder {
+    private final boolean direct;
+    private final List<ByteBuffer> pages = new ArrayList<ByteBuffer>();
+    private EventLog eventLog;
+
+    /**
+     * Constructor.
+     * 
+     * @param direct
+     *            <code>true</code> if the events should be stored in direct (off-heap) buffers,
+     *            <code>false</code> if they should be stored on the heap
+     */
+    public EventLogRecorder(boolean direct) {
+        this.direct = direct;
+    }
+
+    public EventLogRecorder() {
+        this(false);
+    }
+
+    /**
+     * Get the recorded events.
+     * 
+     * @return the event log
+     * @throws IllegalStateException
+     *             if {@link #completed()} has not been called yet
+     */
+    public EventLog getEventLog() {
+        if (eventLog == null) {
+            throw new IllegalStateException("Recording is not complete");
+        }
+        return eventLog;
+    }
+
+    @Override
+    ByteBuffer bufferFull(ByteBuffer buffer) {
+        if (buffer != null) {
+            ((Buffer)buffer).flip();
+        }
+        ByteBuffer page = direct ? ByteBuffer.allocateDirect(EventLog.PAGE_SIZE) : ByteBuffer.allocate(EventLog.PAGE_SIZE);
+        pages.add(page);
+        return page;
+    }
+
+    @Override
+    void encodingCompleted(ByteBuffer buffer) {
+        ((Buffer)buffer).flip();
+        eventLog = new EventLog(pages.toArray(new ByteBuffer[pages.size()]));
+        pages.clear();
+    }
+}
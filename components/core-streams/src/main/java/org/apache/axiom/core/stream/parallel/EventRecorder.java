@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axiom.core.stream.parallel;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.axiom.core.stream.BatchXmlHandler;
+import org.apache.axiom.core.stream.BatchingXmlHandler;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlEventBatch;
+
+/**
+ * {@link BatchXmlHandler} that hands over the batches produced by a {@link BatchingXmlHandler}
+ * to the consumer through a bounded queue. The producer blocks when the queue is full, i.e. when
+ * it is too far ahead of the consumer. The {@link BatchingXmlHandler} must be configured to
+ * allocate a new batch every time, because the batches are replayed by another thread.
+ */
+final class EventRecorder implements BatchXmlHandler {
+    /**
+     * The queue containing the batches and, if the producer failed, the exception, as the last
+     * element.
+     */
+    private final BlockingQueue<Object> queue;
+    private volatile boolean cancelled;
+    private Throwable error;
+
+    EventRecorder(int queueCapacity) {
+        queue = new ArrayBlockingQueue<Object>(queueCapacity);
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Stop the producer. Called by the consumer when it no longer needs events.
+     */
+    void cancel() {
+        cancelled = true;
+        // Unblock the producer if it is waiting for space in the queue
+        queue.clear();
+    }
+
+    boolean isConsumerWaiting() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public void processEvents(XmlEventBatch batch) throws StreamException {
+        put(batch);
+    }
+
+    /**
+     * Signal to the consumer that the producer failed. The exception is rethrown by
+     * {@link #take()} after all batches sent before have been taken.
+     */
+    void fail(Throwable ex) {
+        try {
+            put(ex);
+        } catch (StreamException ex2) {
+            // Cancelled; nobody is interested in the error anymore
+        }
+    }
+
+    private void put(Object item) throws StreamException {
+        try {
+            queue.put(item);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+        }
+        if (cancelled) {
+            throw new StreamException("Cancelled");
+        }
+    }
+
+    XmlEventBatch take() throws StreamException {
+        if (error == null) {
+            Object item;
+            try {
+                item = queue.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new StreamException("Interrupted while waiting for the parser thread", ex);
+            }
+            if (item instanceof XmlEventBatch) {
+                return (XmlEventBatch)item;
+            }
+            error = (Throwable)item;
+        }
+        if (error instanceof StreamException) {
+            throw (StreamException)error;
+        } else if (error instanceof RuntimeException) {
+            throw (RuntimeException)error;
+        } else if (error instanceof Error) {
+            throw (Error)error;
+        } else {
+            throw new StreamException(error);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axiom.core.stream.parallel;
+
+import java.util.concurrent.Executor;
+
+import org.apache.axiom.core.stream.BatchingXmlHandler;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.XmlReader;
+
+/**
+ * {@link XmlInput} that runs the {@link XmlReader} of another {@link XmlInput} on a separate
+ * thread. The events produced by that reader are recorded into a bounded buffer from which they
+ * are replayed to the {@link XmlHandler} when the consumer calls {@link XmlReader#proceed()}. The
+ * consumer only blocks when it gets ahead of the producer, and the producer blocks when the buffer
+ * is full. This allows to overlap I/O and parsing with the processing done by the consumer.
+ * <p>
+ * The producer is started when {@link #createReader(XmlHandler)} is called. Disposing the
+ * returned reader stops the producer, which then disposes the underlying reader on its own
+ * thread. Note that this means that the underlying input (and in particular any stream it reads
+ * from) is accessed by a different thread than the one calling {@link XmlReader#proceed()}.
+ */
+public final class ParallelXmlInput implements XmlInput {
+    private static final int QUEUE_CAPACITY = 16;
+
+    private static final Executor DEFAULT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            Thread thread = new Thread(command, "Axiom parser");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    };
+
+    private final XmlInput parent;
+    private final Executor executor;
+
+    /**
+     * Constructor.
+     * 
+     * @param parent
+     *            the input to read events from
+     * @param executor
+     *            the executor used to run the producer, or {@code null} to start a new daemon
+     *            thread for every reader; applications running on a Java version that supports
+     *            virtual threads would typically pass an executor that creates a virtual thread
+     *            per task
+     */
+    public ParallelXmlInput(XmlInput parent, Executor executor) {
+        this.parent = parent;
+        this.executor = executor == null ? DEFAULT_EXECUTOR : executor;
+    }
+
+    @Override
+    public XmlReader createReader(XmlHandler handler) {
+        EventRecorder recorder = new EventRecorder(QUEUE_CAPACITY);
+        executor.execute(new Producer(parent, recorder, BatchingXmlHandler.DEFAULT_BATCH_SIZE));
+        return new ParallelXmlReader(recorder, handler);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axiom.core.stream.parallel;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlEventBatch;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlReader;
+
+/**
+ * {@link XmlReader} that replays the events recorded by a {@link Producer} running on another
+ * thread. It only blocks if it gets ahead of the producer.
+ */
+final class ParallelXmlReader implements XmlReader {
+    private final EventRecorder recorder;
+    private final XmlHandler handler;
+    private XmlEventBatch batch;
+
+    ParallelXmlReader(EventRecorder recorder, XmlHandler handler) {
+        this.recorder = recorder;
+        this.handler = handler;
+    }
+
+    @Override
+    public boolean proceed() throws StreamException {
+        // Like the other XmlReader implementations, deliver a start tag as a whole, even if it
+        // spans several batches: the builder makes an element visible before its attributes have
+        // been added.
+        boolean inStartTag = false;
+        do {
+            while (batch == null || !batch.hasRemaining()) {
+                batch = recorder.take();
+            }
+            byte type = batch.nextType();
+            if (batch.replayNext(handler)) {
+                return true;
+            }
+            if (type == XmlEventBatch.START_ELEMENT) {
+                inStartTag = true;
+            } else if (type == XmlEventBatch.ATTRIBUTES_COMPLETED) {
+                inStartTag = false;
+            }
+        } while (inStartTag);
+        return false;
+    }
+
+    @Override
+    public void dispose() {
+        recorder.cancel();
+        batch = null;
+    }
+}
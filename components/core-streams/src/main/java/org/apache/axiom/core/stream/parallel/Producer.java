@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axiom.core.stream.parallel;
+
+import org.apache.axiom.core.stream.BatchingXmlHandler;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.XmlReader;
+
+/**
+ * Runs the {@link XmlReader} of the underlying {@link XmlInput} to completion, recording the
+ * events it produces.
+ */
+final class Producer implements Runnable {
+    private final XmlInput input;
+    private final EventRecorder recorder;
+    private final BatchingXmlHandler handler;
+
+    Producer(XmlInput input, EventRecorder recorder, int batchSize) {
+        this.input = input;
+        this.recorder = recorder;
+        handler = new BatchingXmlHandler(recorder, batchSize, false);
+    }
+
+    @Override
+    public void run() {
+        XmlReader reader = null;
+        try {
+            reader = input.createReader(handler);
+            while (!reader.proceed()) {
+                // If the consumer has caught up with us, don't let it wait for a full batch
+                if (recorder.isConsumerWaiting()) {
+                    handler.flush();
+                }
+            }
+        } catch (Throwable ex) {
+            if (!recorder.isCancelled()) {
+                // Send the events recorded before the failure
+                try {
+                    handler.flush();
+                } catch (StreamException ex2) {
+                    // Cancelled
+                }
+                recorder.fail(ex);
+            }
+        } finally {
+            if (reader != null) {
+                reader.dispose();
+            }
+        }
+    }
+}
@@ -180,6 +180,27 @@ public class ContentHandlerXmlHandler implements XmlHandler, CharacterDataSink {
         bufferPos += dataLen;
     }
 
+    @Override
+    public void writeString(String s) throws IOException {
+        writeToBuffer(s);
+        try {
+            contentHandler.characters(buffer, 0, bufferPos);
+        } catch (SAXException ex) {
+            throw new IOException(ex);
+        } finally {
+            bufferPos = 0;
+        }
+    }
+
+    @Override
+    public void writeChars(char[] chars, int start, int length) throws IOException {
+        try {
+            contentHandler.characters(chars, start, length);
+        } catch (SAXException ex) {
+            throw new IOException(ex);
+        }
+    }
+
     @Override
     public Writer getWriter() {
         return new ContentHandlerWriter(contentHandler);
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.serializer;
+
+import org.apache.axiom.core.stream.serializer.writer.EncodedString;
+
+/**
+ * The qualified name of an element, together with its start and end tags in encoded form.
+ * Instances are immutable and may be shared between threads.
+ */
+final class EncodedName {
+    final String prefix;
+    final String localName;
+    /**
+     * The start tag without the closing {@code >}, or {@code null} if the name contains non
+     * ASCII characters.
+     */
+    final EncodedString startTag;
+    /**
+     * The end tag, or {@code null} if the name contains non ASCII characters.
+     */
+    final EncodedString endTag;
+
+    EncodedName(String prefix, String localName) {
+        this.prefix = prefix;
+        this.localName = localName;
+        String qname = prefix.isEmpty() ? localName : prefix + ":" + localName;
+        EncodedString startTag = EncodedString.create("<" + qname);
+        if (startTag == null) {
+            this.startTag = null;
+            endTag = null;
+        } else {
+            this.startTag = startTag;
+            endTag = EncodedString.create("</" + qname + ">");
+        }
+    }
+}
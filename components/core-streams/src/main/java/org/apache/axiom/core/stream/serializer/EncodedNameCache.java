@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.serializer;
+
+import org.apache.axiom.core.stream.serializer.writer.EncodedString;
+
+/**
+ * Bounded cache of pre-encoded start tags, end tags and namespace declarations used by
+ * {@link Serializer}. By default each serializer creates its own cache, but an instance may be
+ * shared between serializers (including serializers used concurrently by different threads) using
+ * {@link Serializer#setEncodedNameCache(EncodedNameCache)}, so that the encoded forms of the names
+ * used by an application are computed only once.
+ * <p>
+ * The cache is a hash table with limited probing; when all candidate slots for a name are
+ * occupied, an existing entry is replaced. Entries are immutable, so that concurrent updates can at
+ * worst cause an entry to be lost. Lookups don't allocate and are fastest if the names are
+ * interned.
+ */
+public final class EncodedNameCache {
+    private static final int MAX_PROBES = 4;
+
+    private static final class NamespaceDeclaration {
+        final String prefix;
+        final String namespaceURI;
+        final EncodedString encoded;
+
+        NamespaceDeclaration(String prefix, String namespaceURI, EncodedString encoded) {
+            this.prefix = prefix;
+            this.namespaceURI = namespaceURI;
+            this.encoded = encoded;
+        }
+    }
+
+    private final EncodedName[] elementNames;
+    private final NamespaceDeclaration[] namespaceDeclarations;
+    private final int mask;
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity
+     *            the maximum number of element names and the maximum number of namespace
+     *            declarations to cache; rounded up to a power of two
+     */
+    public EncodedNameCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, MAX_PROBES)-1) << 1;
+        elementNames = new EncodedName[size];
+        namespaceDeclarations = new NamespaceDeclaration[size];
+        mask = size-1;
+    }
+
+    private static int hash(String s1, String s2) {
+        int h = s1.hashCode()*31 + s2.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    EncodedName getElementName(String prefix, String localName) {
+        int hash = hash(prefix, localName);
+        EncodedName[] elementNames = this.elementNames;
+        int free = -1;
+        for (int i=0; i<MAX_PROBES; i++) {
+            int index = (hash+i) & mask;
+            EncodedName name = elementNames[index];
+            if (name == null) {
+                if (free == -1) {
+                    free = index;
+                }
+            } else if (name.localName.equals(localName) && name.prefix.equals(prefix)) {
+                return name;
+            }
+        }
+        EncodedName name = new EncodedName(prefix, localName);
+        elementNames[free == -1 ? hash & mask : free] = name;
+        return name;
+    }
+
+    /**
+     * Get the encoded form of a namespace declaration, including the leading space.
+     * 
+     * @return the encoded namespace declaration, or {@code null} if the declaration contains
+     *         characters that are not ASCII or that need to be escaped
+     */
+    EncodedString getNamespaceDeclaration(String prefix, String namespaceURI) {
+        int hash = hash(prefix, namespaceURI);
+        NamespaceDeclaration[] namespaceDeclarations = this.namespaceDeclarations;
+        int free = -1;
+        for (int i=0; i<MAX_PROBES; i++) {
+            int index = (hash+i) & mask;
+            NamespaceDeclaration decl = namespaceDeclarations[index];
+            if (decl == null) {
+                if (free == -1) {
+                    free = index;
+                }
+            } else if (decl.namespaceURI.equals(namespaceURI) && decl.prefix.equals(prefix)) {
+                return decl.encoded;
+            }
+        }
+        for (int i=0, length=namespaceURI.length(); i<length; i++) {
+            char c = namespaceURI.charAt(i);
+            if (c < 0x20 || c >= 0x7F || c == '<' || c == '&' || c == '"') {
+                return null;
+            }
+        }
+        EncodedString encoded = EncodedString.create(prefix.isEmpty()
+                ? " xmlns=\"" + namespaceURI + "\""
+                : " xmlns:" + prefix + "=\"" + namespaceURI + "\"");
+        if (encoded == null) {
+            return null;
+        }
+        namespaceDeclarations[free == -1 ? hash & mask : free] = new NamespaceDeclaration(prefix, namespaceURI, encoded);
+        return encoded;
+    }
+}
@@ -23,11 +23,17 @@ package org.apache.axiom.core.stream.serializer;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
 
+import org.apache.axiom.core.stream.BatchXmlHandler;
 import org.apache.axiom.core.stream.CharacterData;
 import org.apache.axiom.core.stream.CharacterDataSink;
 import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlEventBatch;
 import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.serializer.writer.ByteBufferSink;
+import org.apache.axiom.core.stream.serializer.writer.ChannelByteBufferSink;
+import org.apache.axiom.core.stream.serializer.writer.EncodedString;
 import org.apache.axiom.core.stream.serializer.writer.UnmappableCharacterHandler;
 import org.apache.axiom.core.stream.serializer.writer.WriterXmlWriter;
 import org.apache.axiom.core.stream.serializer.writer.XmlWriter;
@@ -39,13 +45,7 @@ import org.apache.axiom.util.base64.AbstractBase64EncodingOutputStream;
  * 
  * @xsl.usage internal
  */
-public final class Serializer implements XmlHandler, CharacterDataSink {
-    /**
-     * The number of characters to process at once. Chosen small enough to leverage processor caches
-     * and large enough to reduce method invocation overhead.
-     */
-    private static final int CHUNK_SIZE = 4096;
-    
+public final class Serializer implements XmlHandler, BatchXmlHandler, CharacterDataSink {
     private static final int MIXED_CONTENT = 0;
     private static final int TAG = 1;
     private static final int ATTRIBUTE_VALUE = 2;
@@ -55,6 +55,33 @@ public final class Serializer implements XmlHandler, CharacterDataSink {
 
     private static final String[] illegalCharacterSequences = { null, null, null, "--", "?>", "]]>" };
 
+    /**
+     * For {@link #MIXED_CONTENT} and {@link #ATTRIBUTE_VALUE}, specifies which ASCII characters can
+     * be written as is. Characters not marked as clean are processed by
+     * {@link #writeDirtyCharacter(char)}. Note that in {@link #MIXED_CONTENT}, ']' and '>' are
+     * not clean because of the tracking required to escape the '>' in "]]>".
+     */
+    private static final boolean[][] cleanCharacters = new boolean[3][];
+
+    static {
+        boolean[] mixedContent = new boolean[128];
+        for (int i=0x20; i<0x7F; i++) {
+            mixedContent[i] = true;
+        }
+        boolean[] attributeValue = mixedContent.clone();
+        mixedContent['\t'] = true;
+        mixedContent['\n'] = true;
+        mixedContent['<'] = false;
+        mixedContent['&'] = false;
+        mixedContent[']'] = false;
+        mixedContent['>'] = false;
+        attributeValue['<'] = false;
+        attributeValue['&'] = false;
+        attributeValue['"'] = false;
+        cleanCharacters[MIXED_CONTENT] = mixedContent;
+        cleanCharacters[ATTRIBUTE_VALUE] = attributeValue;
+    }
+
     private static final UnmappableCharacterHandler[] unmappableCharacterHandlers = {
             UnmappableCharacterHandler.CONVERT_TO_CHARACTER_REFERENCE,
             UnmappableCharacterHandler.THROW_EXCEPTION,
@@ -85,18 +112,11 @@ public final class Serializer implements XmlHandler, CharacterDataSink {
      */
     private int squareBrackets;
 
-    private String[] elementNameStack = new String[8];
+    private EncodedName[] elementNameStack = new EncodedName[8];
+    private EncodedNameCache encodedNameCache;
     private int depth;
     private boolean startTagOpen;
 
-    /**
-     * A utility buffer for converting Strings passed to
-     * character() methods to character arrays.
-     * Reusing this buffer means not creating a new character array
-     * everytime and it runs faster.
-     */
-    private final char[] charsBuff = new char[CHUNK_SIZE];
-
     public Serializer(Writer out) {
         writer = new WriterXmlWriter(out);
         outputStream = null;
@@ -107,6 +127,35 @@ public final class Serializer implements XmlHandler, CharacterDataSink {
         outputStream = out;
     }
 
+    /**
+     * Create a serializer that encodes the output directly into buffers supplied by a
+     * {@link ByteBufferSink}. This avoids copying the output if the sink passes the buffers on to
+     * the network (e.g. if it uses pooled direct buffers).
+     * 
+     * @param sink
+     *            the sink
+     * @param encoding
+     *            the charset encoding
+     */
+    public Serializer(ByteBufferSink sink, String encoding) {
+        writer = XmlWriter.create(sink, encoding);
+        outputStream = null;
+    }
+
+    /**
+     * Create a serializer that writes to a {@link WritableByteChannel} using a single direct
+     * buffer. Use {@link #Serializer(ByteBufferSink, String)} with a
+     * {@link ChannelByteBufferSink} to configure the size and number of buffers.
+     * 
+     * @param channel
+     *            the channel to write to; must be in blocking mode
+     * @param encoding
+     *            the charset encoding
+     */
+    public Serializer(WritableByteChannel channel, String encoding) {
+        this(new ChannelByteBufferSink(channel), encoding);
+    }
+
     private void switchContext(int context) throws StreamException {
         this.context = context;
         try {
@@ -342,141 +391,191 @@ public final class Serializer implements XmlHandler, CharacterDataSink {
         final int context = this.context;
         final String illegalCharacterSequence = illegalCharacterSequences[context];
         
+        if (illegalCharacterSequence == null) {
+            try {
+                if (context == TAG) {
+                    writer.write(chars, start, length);
+                } else {
+                    escapeCharacters(chars, start, length);
+                }
+            } catch (IOException ex) {
+                throw new StreamException(ex);
+            }
+            return;
+        }
+        
+        // Comments, processing instructions and CDATA sections: no escaping, but the content must
+        // not contain the sequence that terminates the construct
+        final int end = start + length;
+        int matchedIllegalCharacters = this.matchedIllegalCharacters;
+        for (int i = start; i < end; i++) {
+            matchedIllegalCharacters = matchIllegalCharacterSequence(illegalCharacterSequence, matchedIllegalCharacters, chars[i]);
+        }
+        this.matchedIllegalCharacters = matchedIllegalCharacters;
         try {
-            int i;
-            
-            final int end = start + length;
-            int lastDirtyCharProcessed = start - 1; // last non-clean character that was processed
-													// that was processed
-            int matchedIllegalCharacters = this.matchedIllegalCharacters;
-            int squareBrackets = this.squareBrackets;
-            for (i = start; i < end; i++) {
-                char ch = chars[i];
-                
-                if (illegalCharacterSequence != null) {
-                    while (true) {
-                        if (ch == illegalCharacterSequence.charAt(matchedIllegalCharacters)) {
-                            if (++matchedIllegalCharacters == illegalCharacterSequence.length()) {
-                                throw new IllegalCharacterSequenceException("Illegal character sequence \"" + illegalCharacterSequence + "\"");
-                            }
-                            break;
-                        } else if (matchedIllegalCharacters > 0) {
-                            int offset = 1;
-                            loop: while (offset < matchedIllegalCharacters) {
-                                for (int j = 0; j < matchedIllegalCharacters - offset; j++) {
-                                    if (illegalCharacterSequence.charAt(j) != illegalCharacterSequence.charAt(j+offset)) {
-                                        offset++;
-                                        continue loop;
-                                    }
-                                }
-                                break;
-                            }
-                            matchedIllegalCharacters -= offset;
-                        } else {
-                            break;
-                        }
-                    }
+            writer.write(chars, start, length);
+        } catch (IOException ex) {
+            throw new StreamException(ex);
+        }
+    }
+
+    /**
+     * Update the number of characters of the illegal character sequence matched so far with the
+     * next character.
+     * 
+     * @return the new number of matched characters
+     * @throws IllegalCharacterSequenceException
+     *             if the illegal character sequence has been matched completely
+     */
+    private static int matchIllegalCharacterSequence(String illegalCharacterSequence,
+            int matchedIllegalCharacters, char ch) throws IllegalCharacterSequenceException {
+        while (true) {
+            if (ch == illegalCharacterSequence.charAt(matchedIllegalCharacters)) {
+                if (++matchedIllegalCharacters == illegalCharacterSequence.length()) {
+                    throw new IllegalCharacterSequenceException("Illegal character sequence \"" + illegalCharacterSequence + "\"");
                 }
-                
-                String replacement = null;
-                boolean generateCharacterReference = false;
-                
-                if (context == MIXED_CONTENT || context == ATTRIBUTE_VALUE) {
-                    if (ch <= 0x1F) {
-                        // Range 0x00 through 0x1F inclusive
-                        //
-                        // This covers the non-whitespace control characters
-                        // in the range 0x1 to 0x1F inclusive.
-                        // It also covers the whitespace control characters in the same way:
-                        // 0x9   TAB
-                        // 0xA   NEW LINE
-                        // 0xD   CARRIAGE RETURN
-                        //
-                        // We also cover 0x0 ... It isn't valid
-                        // but we will output "&#0;" 
-                        
-                        // The default will handle this just fine, but this
-                        // is a little performance boost to handle the more
-                        // common TAB, NEW-LINE, CARRIAGE-RETURN
-                        switch (ch) {
-                            case 0x09:
-                                if (context == ATTRIBUTE_VALUE) {
-                                    replacement = "&#9;";
-                                }
-                                break;
-                            case 0x0A:
-                                if (context == ATTRIBUTE_VALUE) {
-                                    replacement = "&#10;";
-                                }
-                                break;
-                            case 0x0D:
-                                replacement = "&#13;";
-                                // Leave whitespace carriage return as a real character
-                                break;
-                            default:
-                                generateCharacterReference = true;
-                                break;
-                        }
-                    } else if (ch < 0x7F) {
-                        switch (ch) {
-                            case '<':
-                                replacement = "&lt;";
-                                break;
-                            case '>':
-                                if (context == MIXED_CONTENT && squareBrackets >= 2) {
-                                    replacement = "&gt;";
-                                }
-                                break;
-                            case '&':
-                                replacement = "&amp;";
-                                break;
-                            case '"':
-                                if (context == ATTRIBUTE_VALUE) {
-                                    replacement = "&quot;";
-                                }
+                return matchedIllegalCharacters;
+            } else if (matchedIllegalCharacters > 0) {
+                int offset = 1;
+                loop: while (offset < matchedIllegalCharacters) {
+                    for (int j = 0; j < matchedIllegalCharacters - offset; j++) {
+                        if (illegalCharacterSequence.charAt(j) != illegalCharacterSequence.charAt(j+offset)) {
+                            offset++;
+                            continue loop;
                         }
-                    } else if (ch <= 0x9F) {
-                        // Range 0x7F through 0x9F inclusive
-                        // More control characters, including NEL (0x85)
-                        generateCharacterReference = true;
-                    } else if (ch == 0x2028) {
-                        // LINE SEPARATOR
-                        replacement = "&#8232;";
-                    }
-                    
-                    if (ch == ']') {
-                        squareBrackets++;
-                    } else {
-                        squareBrackets = 0;
                     }
+                    break;
                 }
-                
-                int startClean = lastDirtyCharProcessed + 1;
-                int lengthClean = i - startClean;
-                if (replacement != null || generateCharacterReference || lengthClean == CHUNK_SIZE) {
-                    if (startClean < i) {
-                        writer.write(chars, startClean, lengthClean);
-                    }
-                    if (replacement != null) {
-                        writer.write(replacement);
-                    } else if (generateCharacterReference) {
-                        writer.writeCharacterReference(ch);
-                    }
-                    lastDirtyCharProcessed = i;
+                matchedIllegalCharacters -= offset;
+            } else {
+                return 0;
+            }
+        }
+    }
+
+    private static boolean isClean(boolean[] clean, char ch) {
+        return ch < 128 ? clean[ch] : ch > 0x9F && ch != 0x2028;
+    }
+
+    /**
+     * Write character data in {@link #MIXED_CONTENT} or {@link #ATTRIBUTE_VALUE} context. Runs of
+     * clean characters are identified using {@link #cleanCharacters} and passed to the writer in
+     * a single call; only the remaining characters go through {@link #writeDirtyCharacter(char)}.
+     */
+    private void escapeCharacters(char[] chars, int start, int length) throws IOException {
+        final XmlWriter writer = this.writer;
+        final boolean[] clean = cleanCharacters[context];
+        final int end = start + length;
+        int i = start;
+        while (true) {
+            int runStart = i;
+            char ch = 0;
+            while (i < end) {
+                ch = chars[i];
+                if (!isClean(clean, ch)) {
+                    break;
                 }
+                i++;
             }
-            
-            // we've reached the end. Any clean characters at the
-            // end of the array than need to be written out?
-            int startClean = lastDirtyCharProcessed + 1;
-            if (i > startClean) {
-                int lengthClean = i - startClean;
-                writer.write(chars, startClean, lengthClean);
+            if (i > runStart) {
+                writer.write(chars, runStart, i-runStart);
+                squareBrackets = 0;
             }
-            this.matchedIllegalCharacters = matchedIllegalCharacters;
-            this.squareBrackets = squareBrackets;
-        } catch (IOException ex) {
-            throw new StreamException(ex);
+            if (i == end) {
+                break;
+            }
+            writeDirtyCharacter(ch);
+            i++;
+        }
+    }
+
+    /**
+     * Variant of {@link #escapeCharacters(char[], int, int)} that reads the characters directly
+     * from a string.
+     */
+    private void escapeCharacters(String s, int start, int length) throws IOException {
+        final XmlWriter writer = this.writer;
+        final boolean[] clean = cleanCharacters[context];
+        final int end = start + length;
+        int i = start;
+        while (true) {
+            int runStart = i;
+            char ch = 0;
+            while (i < end) {
+                ch = s.charAt(i);
+                if (!isClean(clean, ch)) {
+                    break;
+                }
+                i++;
+            }
+            if (i > runStart) {
+                writer.write(s, runStart, i-runStart);
+                squareBrackets = 0;
+            }
+            if (i == end) {
+                break;
+            }
+            writeDirtyCharacter(ch);
+            i++;
+        }
+    }
+
+    /**
+     * Write a character that has not been identified as clean by {@link #cleanCharacters} in
+     * {@link #MIXED_CONTENT} or {@link #ATTRIBUTE_VALUE} context.
+     */
+    private void writeDirtyCharacter(char ch) throws IOException {
+        String replacement = null;
+        boolean generateCharacterReference = false;
+        switch (ch) {
+            case 0x09:
+                if (context == ATTRIBUTE_VALUE) {
+                    replacement = "&#9;";
+                }
+                break;
+            case 0x0A:
+                if (context == ATTRIBUTE_VALUE) {
+                    replacement = "&#10;";
+                }
+                break;
+            case 0x0D:
+                replacement = "&#13;";
+                break;
+            case '<':
+                replacement = "&lt;";
+                break;
+            case '>':
+                if (context == MIXED_CONTENT && squareBrackets >= 2) {
+                    replacement = "&gt;";
+                }
+                break;
+            case '&':
+                replacement = "&amp;";
+                break;
+            case '"':
+                if (context == ATTRIBUTE_VALUE) {
+                    replacement = "&quot;";
+                }
+                break;
+            case 0x2028:
+                // LINE SEPARATOR
+                replacement = "&#8232;";
+                break;
+            default:
+                // Other control characters in the ranges 0x00-0x1F and 0x7F-0x9F
+                generateCharacterReference = ch <= 0x1F || (ch >= 0x7F && ch <= 0x9F);
+        }
+        if (ch == ']') {
+            squareBrackets++;
+        } else {
+            squareBrackets = 0;
+        }
+        if (replacement != null) {
+            writer.write(replacement);
+        } else if (generateCharacterReference) {
+            writer.writeCharacterReference(ch);
+        } else {
+            writer.write(ch);
         }
     }
 
@@ -484,13 +583,61 @@ public final class Serializer implements XmlHandler, CharacterDataSink {
         characters(s, 0, s.length());
     }
 
+    /**
+     * Write character data taken from a string. This is equivalent to
+     * {@link #characters(char[], int, int)}, but avoids copying the string into a
+     * <code>char</code> array.
+     */
     void characters(String s, int start, int length) throws StreamException {
-        while (length > 0) {
-            int count = Math.min(length, CHUNK_SIZE);
-            s.getChars(start, start+count, charsBuff, 0);
-            characters(charsBuff, 0, count);
-            start += count;
-            length -= count;
+        if (length == 0) {
+            return;
+        }
+        
+        final XmlWriter writer = this.writer;
+        final int context = this.context;
+        final String illegalCharacterSequence = illegalCharacterSequences[context];
+        
+        if (illegalCharacterSequence == null) {
+            try {
+                if (context == TAG) {
+                    writer.write(s, start, length);
+                } else {
+                    escapeCharacters(s, start, length);
+                }
+            } catch (IOException ex) {
+                throw new StreamException(ex);
+            }
+            return;
+        }
+        
+        final int end = start + length;
+        int matchedIllegalCharacters = this.matchedIllegalCharacters;
+        for (int i = start; i < end; i++) {
+            matchedIllegalCharacters = matchIllegalCharacterSequence(illegalCharacterSequence, matchedIllegalCharacters, s.charAt(i));
+        }
+        this.matchedIllegalCharacters = matchedIllegalCharacters;
+        try {
+            writer.write(s, start, length);
+        } catch (IOException ex) {
+            throw new StreamException(ex);
+        }
+    }
+
+    @Override
+    public void writeString(String s) throws IOException {
+        try {
+            characters(s, 0, s.length());
+        } catch (StreamException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public void writeChars(char[] chars, int start, int length) throws IOException {
+        try {
+            characters(chars, start, length);
+        } catch (StreamException ex) {
+            throw new IOException(ex);
         }
     }
 
@@ -523,30 +670,52 @@ public final class Serializer implements XmlHandler, CharacterDataSink {
         }
     }
 
+    /**
+     * Set the cache for pre-encoded names. This may be used to share a cache between serializers.
+     * If no cache is set, the serializer creates its own cache.
+     * 
+     * @param encodedNameCache
+     *            the cache
+     */
+    public void setEncodedNameCache(EncodedNameCache encodedNameCache) {
+        this.encodedNameCache = encodedNameCache;
+    }
+
+    private EncodedNameCache getEncodedNameCache() {
+        if (encodedNameCache == null) {
+            encodedNameCache = new EncodedNameCache(256);
+        }
+        return encodedNameCache;
+    }
+
     @Override
     public void startElement(String namespaceURI, String localName, String prefix) throws StreamException {
         closeStartTag();
+        EncodedName name = getEncodedNameCache().getElementName(prefix, localName);
         try
         {
             switchContext(TAG);
-            writer.write('<');
-            if (!prefix.isEmpty()) {
-                writer.write(prefix);
-                writer.write(':');
+            if (name.startTag != null) {
+                writer.write(name.startTag);
+            } else {
+                writer.write('<');
+                if (!prefix.isEmpty()) {
+                    writer.write(prefix);
+                    writer.write(':');
+                }
+                writer.write(localName);
             }
-            writer.write(localName);
         }
         catch (IOException e)
         {
             throw new StreamException(e);
         }
-        if (2*(depth+1) > elementNameStack.length) {
-            String[] newElementNameStack = new String[elementNameStack.length*2];
+        if (depth == elementNameStack.length) {
+            EncodedName[] newElementNameStack = new EncodedName[elementNameStack.length*2];
             System.arraycopy(elementNameStack, 0, newElementNameStack, 0, elementNameStack.length);
             elementNameStack = newElementNameStack;
         }
-        elementNameStack[2*depth] = prefix;
-        elementNameStack[2*depth+1] = localName;
+        elementNameStack[depth] = name;
         depth++;
         startTagOpen = true;
     }
@@ -608,7 +777,14 @@ public final class Serializer implements XmlHandler, CharacterDataSink {
 
     @Override
     public void processNamespaceDeclaration(String prefix, String namespaceURI) throws StreamException {
-        if (prefix.isEmpty()) {
+        EncodedString encoded = getEncodedNameCache().getNamespaceDeclaration(prefix, namespaceURI);
+        if (encoded != null) {
+            try {
+                writer.write(encoded);
+            } catch (IOException ex) {
+                throw new StreamException(ex);
+            }
+        } else if (prefix.isEmpty()) {
             writeAttribute("", "xmlns", namespaceURI);
         } else {
             writeAttribute("xmlns", prefix, namespaceURI);
@@ -639,16 +815,21 @@ public final class Serializer implements XmlHandler, CharacterDataSink {
                 } else {
                     writer.write("/>");
                 }
+                switchContext(MIXED_CONTENT);
             } else {
                 switchContext(TAG);
-                writer.write("</");
-                String prefix = elementNameStack[2*depth];
-                if (!prefix.isEmpty()) {
-                    writer.write(prefix);
-                    writer.write(':');
+                EncodedName name = elementNameStack[depth];
+                if (name.endTag != null) {
+                    writer.write(name.endTag);
+                } else {
+                    writer.write("</");
+                    if (!name.prefix.isEmpty()) {
+                        writer.write(name.prefix);
+                        writer.write(':');
+                    }
+                    writer.write(name.localName);
+                    writer.write('>');
                 }
-                writer.write(elementNameStack[2*depth+1]);
-                writer.write('>');
                 switchContext(MIXED_CONTENT);
             }
         } catch (IOException ex) {
@@ -857,4 +1038,9 @@ public final class Serializer implements XmlHandler, CharacterDataSink {
     public boolean drain() throws StreamException {
         return true;
     }
+
+    @Override
+    public void processEvents(XmlEventBatch batch) throws StreamException {
+        batch.replay(this);
+    }
 }
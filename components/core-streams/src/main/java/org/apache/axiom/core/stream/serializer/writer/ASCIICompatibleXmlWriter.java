@@ -19,25 +19,99 @@
 package org.apache.axiom.core.stream.serializer.writer;
 
 import java.io.IOException;
-import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 
 import org.apache.axiom.util.base64.AbstractBase64EncodingOutputStream;
 
 abstract class ASCIICompatibleXmlWriter extends XmlWriter {
-    private final OutputStream out;
-    final byte[] buffer = new byte[4096];
+    private static final byte[] EMPTY = new byte[0];
+
+    private final ByteBufferSink sink;
+    /**
+     * The buffer obtained from the sink, or {@code null} if no buffer is currently in use.
+     */
+    private ByteBuffer target;
+    /**
+     * Scratch array used to encode characters for buffers that have no accessible backing array.
+     */
+    private byte[] scratch;
+    /**
+     * The array to write to: either the backing array of {@link #target} or {@link #scratch}.
+     */
+    byte[] buffer = EMPTY;
     int bufferPosition;
+    int bufferLimit;
     private char highSurrogate;
     
-    ASCIICompatibleXmlWriter(OutputStream out) {
-        this.out = out;
+    ASCIICompatibleXmlWriter(ByteBufferSink sink) {
+        this.sink = sink;
     }
 
     protected abstract void writeNonASCIICharacter(int codePoint) throws IOException;
 
+    private void acquire() throws IOException {
+        target = sink.getBuffer();
+        if (target.hasArray()) {
+            buffer = target.array();
+            int offset = target.arrayOffset();
+            bufferPosition = offset + target.position();
+            bufferLimit = offset + target.limit();
+        } else {
+            if (scratch == null) {
+                scratch = new byte[4096];
+            }
+            buffer = scratch;
+            bufferPosition = 0;
+            bufferLimit = Math.min(scratch.length, target.remaining());
+        }
+    }
+
+    /**
+     * Transfer the bytes written to {@link #buffer} into {@link #target}.
+     */
+    private void sync() {
+        if (buffer == scratch) {
+            target.put(scratch, 0, bufferPosition);
+            bufferPosition = 0;
+            bufferLimit = Math.min(scratch.length, target.remaining());
+        } else {
+            // Cast ensures compatibility with Java 8.
+            ((Buffer)target).position(bufferPosition - target.arrayOffset());
+        }
+    }
+
+    private void handOff() throws IOException {
+        // Cast ensures compatibility with Java 8.
+        ((Buffer)target).flip();
+        ByteBuffer target = this.target;
+        this.target = null;
+        buffer = EMPTY;
+        bufferPosition = 0;
+        bufferLimit = 0;
+        sink.write(target);
+    }
+
+    /**
+     * Make room in {@link #buffer}. Called when {@link #bufferPosition} has reached
+     * {@link #bufferLimit}.
+     * 
+     * @throws IOException
+     */
+    final void bufferFull() throws IOException {
+        if (target != null) {
+            sync();
+            if (target.hasRemaining()) {
+                return;
+            }
+            handOff();
+        }
+        acquire();
+    }
+
     protected final void writeByte(byte b) throws IOException {
-        if (bufferPosition == buffer.length) {
-            flushBuffer();
+        if (bufferPosition == bufferLimit) {
+            bufferFull();
         }
         buffer[bufferPosition++] = b;
     }
@@ -45,8 +119,8 @@ abstract class ASCIICompatibleXmlWriter extends XmlWriter {
     @Override
     public final void write(char c) throws IOException {
         if (c < 128 && highSurrogate == 0) {
-            if (bufferPosition == buffer.length) {
-                flushBuffer();
+            if (bufferPosition == bufferLimit) {
+                bufferFull();
             }
             buffer[bufferPosition++] = (byte)c;
         } else {
@@ -76,22 +150,27 @@ abstract class ASCIICompatibleXmlWriter extends XmlWriter {
     }
 
     @Override
-    public final void write(String s) throws IOException {
-        final byte[] buffer = this.buffer;
-        final int bufferLength = buffer.length;
+    public final void write(String s, int start, int length) throws IOException {
+        byte[] buffer = this.buffer;
+        int bufferLimit = this.bufferLimit;
         int bufferPosition = this.bufferPosition;
         int highSurrogate = this.highSurrogate;
-        for (int i=0, length=s.length(); i<length; i++) {
-            char c = s.charAt(i);
+        for (int i=0; i<length; i++) {
+            char c = s.charAt(start+i);
             if (c < 128 && highSurrogate == 0) {
-                if (bufferPosition == bufferLength) {
-                    out.write(buffer, 0, bufferLength);
-                    bufferPosition = 0;
+                if (bufferPosition == bufferLimit) {
+                    this.bufferPosition = bufferPosition;
+                    bufferFull();
+                    buffer = this.buffer;
+                    bufferLimit = this.bufferLimit;
+                    bufferPosition = this.bufferPosition;
                 }
                 buffer[bufferPosition++] = (byte)c;
             } else {
                 this.bufferPosition = bufferPosition;
                 internalWrite(c);
+                buffer = this.buffer;
+                bufferLimit = this.bufferLimit;
                 bufferPosition = this.bufferPosition;
                 highSurrogate = this.highSurrogate;
             }
@@ -101,21 +180,26 @@ abstract class ASCIICompatibleXmlWriter extends XmlWriter {
 
     @Override
     public final void write(char[] chars, int start, int length) throws IOException {
-        final byte[] buffer = this.buffer;
-        final int bufferLength = buffer.length;
+        byte[] buffer = this.buffer;
+        int bufferLimit = this.bufferLimit;
         int bufferPosition = this.bufferPosition;
         int highSurrogate = this.highSurrogate;
         for (int i=0; i<length; i++) {
             char c = chars[start+i];
             if (c < 128 && highSurrogate == 0) {
-                if (bufferPosition == bufferLength) {
-                    out.write(buffer, 0, bufferLength);
-                    bufferPosition = 0;
+                if (bufferPosition == bufferLimit) {
+                    this.bufferPosition = bufferPosition;
+                    bufferFull();
+                    buffer = this.buffer;
+                    bufferLimit = this.bufferLimit;
+                    bufferPosition = this.bufferPosition;
                 }
                 buffer[bufferPosition++] = (byte)c;
             } else {
                 this.bufferPosition = bufferPosition;
                 internalWrite(c);
+                buffer = this.buffer;
+                bufferLimit = this.bufferLimit;
                 bufferPosition = this.bufferPosition;
                 highSurrogate = this.highSurrogate;
             }
@@ -123,16 +207,42 @@ abstract class ASCIICompatibleXmlWriter extends XmlWriter {
         this.bufferPosition = bufferPosition;
     }
 
+    @Override
+    public final void write(EncodedString s) throws IOException {
+        if (highSurrogate != 0) {
+            // Let the regular code path report the error
+            write(s.toString());
+            return;
+        }
+        byte[] bytes = s.bytes;
+        int offset = 0;
+        int length = bytes.length;
+        while (true) {
+            int c = Math.min(length, bufferLimit-bufferPosition);
+            System.arraycopy(bytes, offset, buffer, bufferPosition, c);
+            bufferPosition += c;
+            offset += c;
+            length -= c;
+            if (length == 0) {
+                break;
+            }
+            bufferFull();
+        }
+    }
+
     @Override
     public AbstractBase64EncodingOutputStream getBase64EncodingOutputStream() {
         return new AbstractBase64EncodingOutputStream() {
             @Override
             protected void doWrite(byte[] b) throws IOException {
-                if (buffer.length-bufferPosition < 4) {
-                    ASCIICompatibleXmlWriter.this.flushBuffer();
+                if (bufferLimit-bufferPosition >= 4) {
+                    System.arraycopy(b, 0, buffer, bufferPosition, 4);
+                    bufferPosition += 4;
+                } else {
+                    for (int i=0; i<4; i++) {
+                        writeByte(b[i]);
+                    }
                 }
-                System.arraycopy(b, 0, buffer, bufferPosition, 4);
-                bufferPosition += 4;
             }
             
             @Override
@@ -151,7 +261,12 @@ abstract class ASCIICompatibleXmlWriter extends XmlWriter {
 
     @Override
     public final void flushBuffer() throws IOException {
-        out.write(buffer, 0, bufferPosition);
-        bufferPosition = 0;
+        if (target != null) {
+            sync();
+            if (target.position() > 0) {
+                handOff();
+            }
+        }
+        sink.flush();
     }
 }
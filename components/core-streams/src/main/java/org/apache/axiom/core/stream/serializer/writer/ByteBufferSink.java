@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.serializer.writer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Destination for the bytes produced by an {@link XmlWriter}. Instead of copying its output into
+ * a stream, the writer obtains empty buffers from the sink, encodes characters directly into them
+ * and hands them back once they are full. This allows the sink to supply pooled or direct buffers
+ * and to pass them on to the network without copying.
+ * <p>
+ * Heap buffers are written through their backing array. For direct buffers, the writer encodes
+ * into a small scratch array and transfers its content with a bulk put.
+ */
+public interface ByteBufferSink {
+    /**
+     * Get an empty buffer to write to. The writer will fill the buffer between its position and
+     * its limit; the position must be 0. The buffer must have at least 16 bytes remaining.
+     * 
+     * @return the buffer
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    ByteBuffer getBuffer() throws IOException;
+
+    /**
+     * Take over a buffer previously returned by {@link #getBuffer()}. The buffer has been flipped,
+     * i.e. the data written is between its position and its limit, and the writer no longer
+     * accesses it after this method is called. The sink may write the data immediately or queue
+     * the buffer until {@link #flush()} is called.
+     * 
+     * @param buffer
+     *            the buffer
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    void write(ByteBuffer buffer) throws IOException;
+
+    /**
+     * Write any queued buffers to the underlying destination.
+     * 
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    void flush() throws IOException;
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.serializer.writer;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * {@link ByteBufferSink} that writes to a {@link WritableByteChannel}. The sink owns a fixed
+ * number of buffers that are reused. Filled buffers are queued until all of them are in use (or
+ * until {@link #flush()} is called), and are then written with a single gathering write if the
+ * channel is a {@link GatheringByteChannel}.
+ * <p>
+ * The channel is expected to be in blocking mode.
+ */
+public final class ChannelByteBufferSink implements ByteBufferSink {
+    private final WritableByteChannel channel;
+    private final int bufferSize;
+    private final boolean direct;
+    private final ByteBuffer[] buffers;
+    private int pending;
+
+    /**
+     * Constructor.
+     * 
+     * @param channel
+     *            the channel to write to
+     * @param bufferSize
+     *            the size of each buffer
+     * @param bufferCount
+     *            the number of buffers to fill before writing them to the channel
+     * @param direct
+     *            {@code true} to allocate direct buffers, {@code false} to allocate heap buffers
+     */
+    public ChannelByteBufferSink(WritableByteChannel channel, int bufferSize, int bufferCount,
+            boolean direct) {
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("bufferSize must be at least 16");
+        }
+        if (bufferCount < 1) {
+            throw new IllegalArgumentException("bufferCount must be at least 1");
+        }
+        this.channel = channel;
+        this.bufferSize = bufferSize;
+        this.direct = direct;
+        buffers = new ByteBuffer[bufferCount];
+    }
+
+    /**
+     * Constructor that uses a single direct buffer of 8192 bytes.
+     * 
+     * @param channel
+     *            the channel to write to
+     */
+    public ChannelByteBufferSink(WritableByteChannel channel) {
+        this(channel, 8192, 1, true);
+    }
+
+    @Override
+    public ByteBuffer getBuffer() throws IOException {
+        if (pending == buffers.length) {
+            flush();
+        }
+        ByteBuffer buffer = buffers[pending];
+        if (buffer == null) {
+            buffer = direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+            buffers[pending] = buffer;
+        } else {
+            // Cast ensures compatibility with Java 8.
+            ((Buffer)buffer).clear();
+        }
+        return buffer;
+    }
+
+    @Override
+    public void write(ByteBuffer buffer) throws IOException {
+        if (buffer != buffers[pending]) {
+            throw new IllegalArgumentException("Not the buffer returned by getBuffer()");
+        }
+        pending++;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (pending > 1 && channel instanceof GatheringByteChannel) {
+            GatheringByteChannel gatheringChannel = (GatheringByteChannel)channel;
+            ByteBuffer last = buffers[pending-1];
+            while (last.hasRemaining()) {
+                gatheringChannel.write(buffers, 0, pending);
+            }
+        } else {
+            for (int i=0; i<pending; i++) {
+                ByteBuffer buffer = buffers[i];
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }
+        pending = 0;
+    }
+}
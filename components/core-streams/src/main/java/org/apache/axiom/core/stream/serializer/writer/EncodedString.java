@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.serializer.writer;
+
+/**
+ * A string consisting only of ASCII characters, together with its encoded form. Since the string
+ * is ASCII only, the encoded form is the same for all ASCII compatible charsets, which allows
+ * writers for these charsets to copy it into their buffer with a single
+ * {@link System#arraycopy(Object, int, Object, int, int)} instead of encoding the string character
+ * by character.
+ */
+public final class EncodedString {
+    private final String string;
+    final byte[] bytes;
+
+    private EncodedString(String string, byte[] bytes) {
+        this.string = string;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Create an instance for the given string.
+     * 
+     * @param string
+     *            the string
+     * @return the encoded string, or {@code null} if the string contains non ASCII characters
+     */
+    public static EncodedString create(String string) {
+        int length = string.length();
+        byte[] bytes = new byte[length];
+        for (int i=0; i<length; i++) {
+            char c = string.charAt(i);
+            if (c >= 128) {
+                return null;
+            }
+            bytes[i] = (byte)c;
+        }
+        return new EncodedString(string, bytes);
+    }
+
+    @Override
+    public String toString() {
+        return string;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.serializer.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link ByteBufferSink} that writes to an {@link OutputStream} and reuses a single heap buffer.
+ */
+final class OutputStreamByteBufferSink implements ByteBufferSink {
+    private final OutputStream out;
+    private final ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+    OutputStreamByteBufferSink(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public ByteBuffer getBuffer() {
+        // Cast ensures compatibility with Java 8.
+        ((Buffer)buffer).clear();
+        return buffer;
+    }
+
+    @Override
+    public void write(ByteBuffer buffer) throws IOException {
+        out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    }
+
+    @Override
+    public void flush() {
+    }
+}
@@ -30,25 +30,35 @@ import java.nio.charset.CoderResult;
 import org.apache.axiom.util.base64.AbstractBase64EncodingOutputStream;
 
 final class OutputStreamXmlWriter extends XmlWriter {
-    private final OutputStream out;
+    private final ByteBufferSink sink;
     private final CharBuffer encoderIn;
-    private final ByteBuffer encoderOut;
+    /**
+     * The buffer obtained from the sink, or {@code null} if no buffer is currently in use.
+     */
+    private ByteBuffer encoderOut;
     private final CharsetEncoder encoder;
     private UnmappableCharacterHandler unmappableCharacterHandler = UnmappableCharacterHandler.THROW_EXCEPTION;
     private boolean processingUnmappableCharacter;
     private CharBuffer encoderInAlt;
 
     OutputStreamXmlWriter(OutputStream out, Charset charset) {
-        this.out = out;
+        this(new OutputStreamByteBufferSink(out), charset);
+    }
+
+    OutputStreamXmlWriter(ByteBufferSink sink, Charset charset) {
+        this.sink = sink;
         encoderIn = CharBuffer.allocate(4096);
-        encoderOut = ByteBuffer.allocate(4096);
         encoder = charset.newEncoder();
     }
 
     private void flushEncodingOut() throws IOException {
-        out.write(encoderOut.array(), 0, encoderOut.position());
-        // Cast ensures compatibility with Java 8.
-        ((Buffer)encoderOut).clear();
+        if (encoderOut != null && encoderOut.position() > 0) {
+            // Cast ensures compatibility with Java 8.
+            ((Buffer)encoderOut).flip();
+            ByteBuffer encoderOut = this.encoderOut;
+            this.encoderOut = null;
+            sink.write(encoderOut);
+        }
     }
 
     private CharBuffer getEncoderIn() throws IOException {
@@ -66,6 +76,9 @@ final class OutputStreamXmlWriter extends XmlWriter {
         // Cast ensures compatibility with Java 8.
         ((Buffer)encoderIn).flip();
         while (true) {
+            if (encoderOut == null) {
+                encoderOut = sink.getBuffer();
+            }
             CoderResult coderResult = encoder.encode(encoderIn, encoderOut, false);
             if (coderResult.isUnderflow()) {
                 encoderIn.compact();
@@ -115,16 +128,14 @@ final class OutputStreamXmlWriter extends XmlWriter {
     }
 
     @Override
-    public void write(String src) throws IOException {
+    public void write(String src, int offset, int length) throws IOException {
         CharBuffer encoderIn = getEncoderIn();
-        int offset = 0;
-        int length = src.length();
         while (length > 0) {
             if (!encoderIn.hasRemaining()) {
                 flush(encoderIn);
             }
             int c = Math.min(length, encoderIn.remaining());
-            encoderIn.put(src, offset, length);
+            encoderIn.put(src, offset, offset+c);
             offset += c;
             length -= c;
         }
@@ -138,7 +149,7 @@ final class OutputStreamXmlWriter extends XmlWriter {
                 flush(encoderIn);
             }
             int c = Math.min(length, encoderIn.remaining());
-            encoderIn.put(src, offset, length);
+            encoderIn.put(src, offset, c);
             offset += c;
             length -= c;
         }
@@ -176,5 +187,6 @@ final class OutputStreamXmlWriter extends XmlWriter {
     public void flushBuffer() throws IOException {
         flush(encoderIn);
         flushEncodingOut();
+        sink.flush();
     }
 }
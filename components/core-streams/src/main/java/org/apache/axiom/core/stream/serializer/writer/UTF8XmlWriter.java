@@ -19,11 +19,10 @@
 package org.apache.axiom.core.stream.serializer.writer;
 
 import java.io.IOException;
-import java.io.OutputStream;
 
 final class UTF8XmlWriter extends ASCIICompatibleXmlWriter {
-    UTF8XmlWriter(OutputStream out) {
-        super(out);
+    UTF8XmlWriter(ByteBufferSink sink) {
+        super(sink);
     }
 
     @Override
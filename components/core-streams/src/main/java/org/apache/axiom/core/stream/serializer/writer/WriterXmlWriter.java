@@ -41,8 +41,8 @@ public final class WriterXmlWriter extends XmlWriter {
     }
 
     @Override
-    public void write(String s) throws IOException {
-        out.write(s);
+    public void write(String s, int start, int length) throws IOException {
+        out.write(s, start, length);
     }
 
     @Override
@@ -25,25 +25,71 @@ import java.nio.charset.Charset;
 import org.apache.axiom.util.base64.AbstractBase64EncodingOutputStream;
 
 public abstract class XmlWriter {
+    private final char[] characterReferenceBuffer = new char[10];
+
     public static XmlWriter create(OutputStream out, String encoding) {
+        return create(new OutputStreamByteBufferSink(out), encoding);
+    }
+
+    /**
+     * Create a writer that encodes characters directly into the buffers supplied by the given
+     * sink.
+     * 
+     * @param sink
+     *            the sink
+     * @param encoding
+     *            the charset encoding
+     * @return the writer
+     */
+    public static XmlWriter create(ByteBufferSink sink, String encoding) {
         Charset charset = Charset.forName(encoding);
         String name = charset.name();
         if (name.equals("UTF-8")) {
-            return new UTF8XmlWriter(out);
+            return new UTF8XmlWriter(sink);
         } else if (name.equals("US-ASCII")) {
-            return new Latin1XmlWriter(out, 127);
+            return new Latin1XmlWriter(sink, 127);
         } else if (name.equals("ISO-8859-1")) {
-            return new Latin1XmlWriter(out, 255);
+            return new Latin1XmlWriter(sink, 255);
         } else {
-            return new OutputStreamXmlWriter(out, charset);
+            return new OutputStreamXmlWriter(sink, charset);
         }
     }
 
     public abstract void setUnmappableCharacterHandler(UnmappableCharacterHandler unmappableCharacterHandler) throws IOException;
     public abstract void write(char c) throws IOException;
-    public abstract void write(String s) throws IOException;
+
+    public final void write(String s) throws IOException {
+        write(s, 0, s.length());
+    }
+
+    /**
+     * Write a range of characters from a string. Implementations process the string directly,
+     * i.e. without copying it into an intermediate <code>char</code> array.
+     * 
+     * @param s
+     *            the string
+     * @param start
+     *            the index of the first character to write
+     * @param length
+     *            the number of characters to write
+     * @throws IOException
+     */
+    public abstract void write(String s, int start, int length) throws IOException;
+
     public abstract void write(char chars[], int start, int length) throws IOException;
 
+    /**
+     * Write a pre-encoded string. The default implementation simply writes the string; writers
+     * for ASCII compatible charsets copy the encoded form.
+     * 
+     * @param s
+     *            the string to write
+     * @throws IOException
+     */
+    public void write(EncodedString s) throws IOException {
+        write(s.toString());
+    }
+
     public abstract AbstractBase64EncodingOutputStream getBase64EncodingOutputStream();
 
     /**
@@ -53,10 +99,24 @@ public abstract class XmlWriter {
      */
     public abstract void flushBuffer() throws IOException;
     
+    /**
+     * Write a decimal character reference. This method doesn't allocate any objects.
+     * 
+     * @param codePoint
+     *            the code point
+     * @throws IOException
+     */
     public final void writeCharacterReference(int codePoint) throws IOException {
-        write("&#");
-        // TODO: optimize this
-        write(Integer.toString(codePoint));
-        write(';');
+        // "&#" + at most 7 digits (the maximum code point is 1114111) + ";"
+        char[] buffer = characterReferenceBuffer;
+        int position = buffer.length;
+        buffer[--position] = ';';
+        do {
+            buffer[--position] = (char)('0' + codePoint % 10);
+            codePoint /= 10;
+        } while (codePoint != 0);
+        buffer[--position] = '#';
+        buffer[--position] = '&';
+        write(buffer, position, buffer.length-position);
     }
 }
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.util;
+
+import java.io.IOException;
+
+import org.apache.axiom.core.stream.CharacterData;
+import org.apache.axiom.core.stream.CharacterDataSink;
+
+/**
+ * {@link CharacterData} implementation that stores text containing only ISO-8859-1 characters in a
+ * compact form: up to 8 characters are packed into a single <code>long</code>, longer text is
+ * stored in a <code>byte</code> array with one byte per character. Instances are immutable.
+ */
+public abstract class CompactCharacterData implements CharacterData {
+    private static final class Packed extends CompactCharacterData {
+        private final long value;
+        private final int length;
+
+        Packed(long value, int length) {
+            this.value = value;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char)((value >>> (index*8)) & 0xFF);
+        }
+    }
+
+    private static final class Latin1 extends CompactCharacterData {
+        private final byte[] bytes;
+
+        Latin1(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int length() {
+            return bytes.length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char)(bytes[index] & 0xFF);
+        }
+    }
+
+    private static final int PACKED_MAX_LENGTH = 8;
+
+    CompactCharacterData() {}
+
+    /**
+     * Create a compact representation of the given text.
+     * 
+     * @param s
+     *            the text
+     * @return the compact representation, or <code>null</code> if the text contains characters
+     *         that can't be represented in ISO-8859-1
+     */
+    public static CompactCharacterData create(String s) {
+        int length = s.length();
+        if (length <= PACKED_MAX_LENGTH) {
+            long value = 0;
+            for (int i=0; i<length; i++) {
+                char c = s.charAt(i);
+                if (c > 0xFF) {
+                    return null;
+                }
+                value |= ((long)c) << (i*8);
+            }
+            return new Packed(value, length);
+        } else {
+            byte[] bytes = new byte[length];
+            for (int i=0; i<length; i++) {
+                char c = s.charAt(i);
+                if (c > 0xFF) {
+                    return null;
+                }
+                bytes[i] = (byte)c;
+            }
+            return new Latin1(bytes);
+        }
+    }
+
+    /**
+     * Get the number of characters.
+     * 
+     * @return the length of the text
+     */
+    public abstract int length();
+
+    /**
+     * Get the character at the given index.
+     * 
+     * @param index
+     *            the index of the character
+     * @return the character
+     */
+    public abstract char charAt(int index);
+
+    /**
+     * Check if this object represents the given text.
+     * 
+     * @param s
+     *            the text to compare with
+     * @return <code>true</code> if the content of this object is equal to <code>s</code>
+     */
+    public final boolean contentEquals(String s) {
+        int length = length();
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i=0; i<length; i++) {
+            if (s.charAt(i) != charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void getChars(int start, int end, char[] dst) {
+        for (int i=start; i<end; i++) {
+            dst[i-start] = charAt(i);
+        }
+    }
+
+    @Override
+    public final String toString() {
+        int length = length();
+        char[] chars = new char[length];
+        getChars(0, length, chars);
+        return new String(chars);
+    }
+
+    @Override
+    public final void writeTo(CharacterDataSink sink) throws IOException {
+        int length = length();
+        char[] buffer = new char[Math.min(length, 4096)];
+        for (int start=0; start<length; start+=buffer.length) {
+            int end = Math.min(start+buffer.length, length);
+            getChars(start, end, buffer);
+            sink.writeChars(buffer, 0, end-start);
+        }
+    }
+
+    @Override
+    public final void appendTo(StringBuilder buffer) {
+        int length = length();
+        buffer.ensureCapacity(buffer.length() + length);
+        for (int i=0; i<length; i++) {
+            buffer.append(charAt(i));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+
+import org.apache.axiom.core.stream.async.AsyncXmlInput;
+import org.apache.axiom.core.stream.serializer.Serializer;
+import org.junit.Test;
+
+public class XmlEventBatchTest {
+    private static final String XML;
+
+    static {
+        StringBuilder buffer = new StringBuilder("<?xml version='1.0'?><root xmlns:p='urn:p'>");
+        for (int i=0; i<500; i++) {
+            buffer.append("<p:item id='").append(i).append("' p:a='x'>text &amp; é").append(i)
+                    .append("<![CDATA[<cdata>]]></p:item><!--c--><?pi data?>");
+        }
+        buffer.append("</root>");
+        XML = buffer.toString();
+    }
+
+    private static XmlInput createInput() throws Exception {
+        AsyncXmlInput input = new AsyncXmlInput();
+        input.feed(ByteBuffer.wrap(XML.getBytes("UTF-8")));
+        input.endOfInput();
+        return input;
+    }
+
+    private static void pipe(XmlInput input, XmlHandler handler) throws StreamException {
+        XmlReader reader = input.createReader(handler);
+        while (!reader.proceed()) {
+            // Just loop
+        }
+        reader.dispose();
+    }
+
+    private static String serialize(XmlHandlerFactory factory) throws Exception {
+        StringWriter sw = new StringWriter();
+        pipe(createInput(), factory.create(new Serializer(sw)));
+        return sw.toString();
+    }
+
+    private interface XmlHandlerFactory {
+        XmlHandler create(Serializer serializer);
+    }
+
+    private static final XmlHandlerFactory DIRECT = new XmlHandlerFactory() {
+        @Override
+        public XmlHandler create(Serializer serializer) {
+            return serializer;
+        }
+    };
+
+    @Test
+    public void testSerializerProcessEvents() throws Exception {
+        // Use a batch size that is not a divisor of the number of events per record
+        String batched = serialize(new XmlHandlerFactory() {
+            @Override
+            public XmlHandler create(Serializer serializer) {
+                return new BatchingXmlHandler(serializer, 7);
+            }
+        });
+        assertThat(batched).isEqualTo(serialize(DIRECT));
+    }
+
+    @Test
+    public void testBatchDispatcher() throws Exception {
+        String batched = serialize(new XmlHandlerFactory() {
+            @Override
+            public XmlHandler create(Serializer serializer) {
+                return new BatchingXmlHandler(new BatchDispatcher(serializer));
+            }
+        });
+        assertThat(batched).isEqualTo(serialize(DIRECT));
+    }
+
+    @Test
+    public void testDrain() throws Exception {
+        final int[] count = new int[1];
+        BatchingXmlHandler handler = new BatchingXmlHandler(new BatchXmlHandler() {
+            @Override
+            public void processEvents(XmlEventBatch batch) throws StreamException {
+                count[0] += batch.size();
+            }
+        });
+        handler.startFragment();
+        handler.startElement("", "root", "");
+        assertThat(handler.hasPendingEvents()).isTrue();
+        assertThat(count[0]).isEqualTo(0);
+        assertThat(handler.drain()).isFalse();
+        assertThat(count[0]).isEqualTo(2);
+        assertThat(handler.hasPendingEvents()).isFalse();
+        assertThat(handler.drain()).isTrue();
+    }
+
+    @Test
+    public void testAcceptsBatches() {
+        Serializer serializer = new Serializer(new StringWriter());
+        assertThat(BatchingXmlHandler.acceptsBatches(serializer)).isTrue();
+        assertThat(BatchingXmlHandler.acceptsBatches(new XmlHandlerWrapper(serializer))).isFalse();
+        assertThat(BatchingXmlHandler.acceptsBatches(new BatchingXmlHandler(serializer))).isFalse();
+    }
+
+    @Test
+    public void testReplayNext() throws Exception {
+        final XmlEventBatch[] received = new XmlEventBatch[1];
+        BatchingXmlHandler handler = new BatchingXmlHandler(new BatchXmlHandler() {
+            @Override
+            public void processEvents(XmlEventBatch batch) throws StreamException {
+                received[0] = batch;
+            }
+        }, 16, false);
+        handler.startFragment();
+        handler.processCharacterData("text", false);
+        handler.completed();
+        XmlEventBatch batch = received[0];
+        assertThat(batch.size()).isEqualTo(3);
+        StringWriter sw = new StringWriter();
+        Serializer serializer = new Serializer(sw);
+        assertThat(batch.replayNext(serializer)).isFalse();
+        assertThat(batch.replayNext(serializer)).isFalse();
+        assertThat(batch.hasRemaining()).isTrue();
+        assertThat(batch.replayNext(serializer)).isTrue();
+        assertThat(batch.hasRemaining()).isFalse();
+        assertThat(sw.toString()).isEqualTo("text");
+        // The handler must not reuse the batch that has been handed over
+        handler.startFragment();
+        handler.completed();
+        assertThat(received[0]).isNotSameAs(batch);
+        assertThat(batch.size()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.async;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+
+import org.apache.axiom.core.stream.NullXmlHandler;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlReader;
+import org.apache.axiom.core.stream.serializer.Serializer;
+import org.junit.Test;
+
+public class AsyncXmlInputTest {
+    private static String parse(byte[] data, int chunkSize) throws StreamException {
+        AsyncXmlInput input = new AsyncXmlInput();
+        StringWriter sw = new StringWriter();
+        XmlReader reader = input.createReader(new Serializer(sw));
+        boolean done = false;
+        for (int i=0; i<data.length; i+=chunkSize) {
+            input.feed(ByteBuffer.wrap(data, i, Math.min(chunkSize, data.length-i)));
+            while (!done && input.isEventAvailable()) {
+                done = reader.proceed();
+            }
+        }
+        input.endOfInput();
+        while (!done) {
+            done = reader.proceed();
+        }
+        return sw.toString();
+    }
+
+    @Test
+    public void testChunkSizes() throws Exception {
+        byte[] data = ("<?xml version='1.0' encoding='UTF-8'?>\r\n<!-- comment -->\n"
+                + "<root xmlns='urn:a' xmlns:p=\"urn:p\" p:attr='a&amp;b&#x41;\tc'>"
+                + "<p:child>téxt €😀 &lt;&gt;\r\nline</p:child>"
+                + "<![CDATA[<cdata>]]><?pi data?><empty/></root>\n").getBytes("UTF-8");
+        String expected = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<!-- comment -->\n"
+                + "<root xmlns=\"urn:a\" xmlns:p=\"urn:p\" p:attr=\"a&amp;bA c\">"
+                + "<p:child>téxt €😀 &lt;>\nline</p:child>"
+                + "<![CDATA[<cdata>]]><?pi data?><empty/></root>\n";
+        for (int chunkSize=1; chunkSize<=data.length; chunkSize++) {
+            assertThat(parse(data, chunkSize)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void testEncodingDeclaration() throws Exception {
+        assertThat(parse("<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><a>é</a>".getBytes("ISO-8859-1"), 3))
+                .isEqualTo("<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><a>é</a>");
+    }
+
+    @Test
+    public void testUTF16() throws Exception {
+        assertThat(parse("<a>é</a>".getBytes("UTF-16"), 1)).isEqualTo("<?xml version=\"1.0\"?><a>é</a>");
+    }
+
+    @Test
+    public void testLargeText() throws Exception {
+        StringBuilder buffer = new StringBuilder("<a>");
+        for (int i=0; i<20000; i++) {
+            buffer.append(i % 50 == 0 ? "&amp;" : "x");
+        }
+        buffer.append("</a>");
+        String xml = buffer.toString();
+        assertThat(parse(xml.getBytes("UTF-8"), 1000)).isEqualTo("<?xml version=\"1.0\"?>" + xml);
+    }
+
+    @Test
+    public void testInputNotAvailable() throws Exception {
+        AsyncXmlInput input = new AsyncXmlInput();
+        XmlReader reader = input.createReader(NullXmlHandler.INSTANCE);
+        input.feed(ByteBuffer.wrap("<root><a>".getBytes("UTF-8")));
+        while (input.isEventAvailable()) {
+            assertThat(reader.proceed()).isFalse();
+        }
+        try {
+            reader.proceed();
+            fail("Expected InputNotAvailableException");
+        } catch (InputNotAvailableException ex) {
+            // Expected
+        }
+        input.feed(ByteBuffer.wrap("</a></root>".getBytes("UTF-8")));
+        input.endOfInput();
+        while (!reader.proceed()) {
+            // Just loop
+        }
+        assertThat(input.isEventAvailable()).isFalse();
+    }
+
+    private static void assertParseError(String xml) throws Exception {
+        try {
+            parse(xml.getBytes("UTF-8"), 2);
+            fail("Expected StreamException");
+        } catch (StreamException ex) {
+            assertThat(ex).isNotInstanceOf(InputNotAvailableException.class);
+        }
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        assertParseError("<a></b>");
+        assertParseError("<a>");
+        assertParseError("<a>&foo;</a>");
+        assertParseError("<a/><b/>");
+        assertParseError("<p:a/>");
+        assertParseError("text<a/>");
+        assertParseError("<a x='1' x='2'/>");
+        assertParseError("<a xmlns:p='urn:p' xmlns:p='urn:p'/>");
+        assertParseError("<a xmlns:p='urn:x' xmlns:q='urn:x' p:x='1' q:x='2'/>");
+        assertParseError("<a><!-- a -- b --></a>");
+        assertParseError("<a><!-- a ---></a>");
+        assertParseError("<a>a]]>b</a>");
+        assertParseError("<a>&#0;</a>");
+        assertParseError("<a>&#1;</a>");
+        assertParseError("<a>&#xD800;</a>");
+        assertParseError("<a>&#xFFFE;</a>");
+        assertParseError("<a>&#x110000;</a>");
+        assertParseError("<a>&#+65;</a>");
+        assertParseError("<a>&#x;</a>");
+        assertParseError("<a>&#99999999999;</a>");
+    }
+
+    @Test
+    public void testWellFormedEdgeCases() throws Exception {
+        String xml = "<a xmlns:p='urn:p' xmlns:q='urn:q' p:x='1' q:x='2' y=']]>'>"
+                + "<!-- - -->]]&#x9;&#x10000;</a>";
+        assertThat(parse(xml.getBytes("UTF-8"), 2)).isEqualTo("<?xml version=\"1.0\"?>"
+                + "<a xmlns:p=\"urn:p\" xmlns:q=\"urn:q\" p:x=\"1\" q:x=\"2\" y=\"]]>\">"
+                + "<!-- - -->]]\t\uD800\uDC00</a>");
+    }
+
+    /**
+     * Tests that "]]>" is detected if the text is reported in several chunks.
+     */
+    @Test
+    public void testCDATAEndInLargeText() throws Exception {
+        StringBuilder buffer = new StringBuilder("<a>");
+        for (int i=0; i<20000; i++) {
+            buffer.append(']');
+        }
+        buffer.append("></a>");
+        try {
+            parse(buffer.toString().getBytes("UTF-8"), 1000);
+            fail("Expected StreamException");
+        } catch (StreamException ex) {
+            assertThat(ex).isNotInstanceOf(InputNotAvailableException.class);
+        }
+    }
+
+    @Test(expected=StreamException.class)
+    public void testInvalidByteSequence() throws Exception {
+        parse(new byte[] { '<', 'a', '>', (byte)0xC3, '<', '/', 'a', '>' }, 2);
+    }
+}
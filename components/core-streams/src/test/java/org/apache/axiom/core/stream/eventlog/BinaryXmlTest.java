@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.eventlog;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+
+import org.apache.axiom.core.stream.NullXmlHandler;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlHandlerWrapper;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.XmlReader;
+import org.apache.axiom.core.stream.async.AsyncXmlInput;
+import org.apache.axiom.core.stream.serializer.Serializer;
+import org.junit.Test;
+
+public class BinaryXmlTest {
+    private static XmlInput createInput(String xml) throws Exception {
+        AsyncXmlInput input = new AsyncXmlInput();
+        input.feed(ByteBuffer.wrap(xml.getBytes("UTF-8")));
+        input.endOfInput();
+        return input;
+    }
+
+    private static void pipe(XmlInput input, XmlHandler handler) throws StreamException {
+        XmlReader reader = input.createReader(handler);
+        while (!reader.proceed()) {
+            // Just loop
+        }
+        reader.dispose();
+    }
+
+    private static String serialize(XmlInput input) throws StreamException {
+        StringWriter sw = new StringWriter();
+        pipe(input, new Serializer(sw));
+        return sw.toString();
+    }
+
+    @Test
+    public void testRoundtrip() throws Exception {
+        StringBuilder buffer = new StringBuilder("<?xml version='1.0'?><root xmlns:p='urn:p'>");
+        for (int i=0; i<5000; i++) {
+            buffer.append("<p:item id='").append(i).append("'>text &amp; é").append(i).append("</p:item><!--c-->");
+        }
+        buffer.append("</root>");
+        String xml = buffer.toString();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        pipe(createInput(xml), new BinaryXmlSerializer(baos));
+        // Read the data in small chunks to check that events spanning buffer boundaries are decoded correctly
+        InputStream in = new ByteArrayInputStream(baos.toByteArray()) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        };
+        assertThat(serialize(new BinaryXmlInput(in))).isEqualTo(serialize(createInput(xml)));
+    }
+
+    /**
+     * Checks that {@link XmlReader#proceed()} never returns in the middle of a start tag.
+     */
+    private static void assertStartTagsNotSplit(XmlInput input) throws StreamException {
+        final boolean[] inStartTag = new boolean[1];
+        XmlReader reader = input.createReader(new XmlHandlerWrapper(NullXmlHandler.INSTANCE) {
+            @Override
+            public void startElement(String namespaceURI, String localName, String prefix)
+                    throws StreamException {
+                inStartTag[0] = true;
+            }
+
+            @Override
+            public void attributesCompleted() throws StreamException {
+                inStartTag[0] = false;
+            }
+        });
+        while (!reader.proceed()) {
+            assertThat(inStartTag[0]).isFalse();
+        }
+        reader.dispose();
+    }
+
+    @Test
+    public void testStartTagNotSplit() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        pipe(createInput("<root xmlns='urn:a'><a id='1' p:x='2' xmlns:p='urn:p'/><b/></root>"),
+                new BinaryXmlSerializer(baos));
+        assertStartTagsNotSplit(new BinaryXmlInput(new ByteArrayInputStream(baos.toByteArray())));
+    }
+
+    @Test
+    public void testNotBinaryXml() throws Exception {
+        try {
+            serialize(new BinaryXmlInput(new ByteArrayInputStream("<root/>".getBytes("UTF-8"))));
+            fail("Expected StreamException");
+        } catch (StreamException ex) {
+            // Expected
+        }
+    }
+
+    private static void assertCorrupt(int... events) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(BinaryXmlSerializer.SIGNATURE);
+        baos.write(BinaryXmlSerializer.VERSION);
+        for (int b : events) {
+            baos.write(b);
+        }
+        try {
+            serialize(new BinaryXmlInput(new ByteArrayInputStream(baos.toByteArray())));
+            fail("Expected StreamException");
+        } catch (StreamException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testInvalidSymbolIndex() throws Exception {
+        assertCorrupt(EventLog.START_FRAGMENT, EventLog.START_ELEMENT, EventLog.SYMBOL_INDEX_BASE + 5);
+    }
+
+    @Test
+    public void testLengthExceedingData() throws Exception {
+        // A length of 2^31-1 must not cause the decoder to allocate a huge buffer
+        assertCorrupt(EventLog.START_FRAGMENT, EventLog.CHARACTER_DATA, 0xFF, 0xFF, 0xFF, 0xFF, 0x07, 'a');
+    }
+
+    @Test
+    public void testIntegerTooLarge() throws Exception {
+        assertCorrupt(EventLog.START_FRAGMENT, EventLog.CHARACTER_DATA, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F, 'a');
+        assertCorrupt(EventLog.START_FRAGMENT, EventLog.CHARACTER_DATA, 0x80, 0x80, 0x80, 0x80, 0x80, 0x01, 'a');
+    }
+
+    @Test
+    public void testInvalidCharacter() throws Exception {
+        assertCorrupt(EventLog.START_FRAGMENT, EventLog.CHARACTER_DATA, 1, 0x80, 0x80, 0x04);
+    }
+}
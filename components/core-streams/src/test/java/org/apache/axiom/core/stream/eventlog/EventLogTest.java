@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.eventlog;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.XmlReader;
+import org.apache.axiom.core.stream.async.AsyncXmlInput;
+import org.apache.axiom.core.stream.serializer.Serializer;
+import org.junit.Test;
+
+public class EventLogTest {
+    private static final String XML = "<?xml version='1.0' encoding='UTF-8' standalone='yes'?>"
+            + "<!DOCTYPE root SYSTEM 'test.dtd'>"
+            + "<root xmlns='urn:default' xmlns:p='urn:p' attr='value'>"
+            + "<p:a p:attr='&lt;&amp;'>text \u00e9\u20ac\uD83D\uDE00</p:a>"
+            + "<!-- comment --><?pi data?><![CDATA[cdata]]>"
+            + "<p:a p:attr='other'/>"
+            + "</root>";
+
+    private static XmlInput createInput(String xml) throws Exception {
+        AsyncXmlInput input = new AsyncXmlInput();
+        input.feed(ByteBuffer.wrap(xml.getBytes("UTF-8")));
+        input.endOfInput();
+        return input;
+    }
+
+    private static void pipe(XmlInput input, XmlHandler handler) throws StreamException {
+        XmlReader reader = input.createReader(handler);
+        while (!reader.proceed()) {
+            // Just loop
+        }
+        reader.dispose();
+    }
+
+    private static String serialize(XmlInput input) throws StreamException {
+        StringWriter sw = new StringWriter();
+        pipe(input, new Serializer(sw));
+        return sw.toString();
+    }
+
+    private static EventLog record(String xml, boolean direct) throws Exception {
+        EventLogRecorder recorder = new EventLogRecorder(direct);
+        pipe(createInput(xml), recorder);
+        return recorder.getEventLog();
+    }
+
+    @Test
+    public void testReplay() throws Exception {
+        EventLog eventLog = record(XML, false);
+        String expected = serialize(createInput(XML));
+        assertThat(serialize(eventLog)).isEqualTo(expected);
+        // An event log can be replayed more than once
+        assertThat(serialize(eventLog)).isEqualTo(expected);
+    }
+
+    @Test
+    public void testDirect() throws Exception {
+        assertThat(serialize(record(XML, true))).isEqualTo(serialize(createInput(XML)));
+    }
+
+    @Test
+    public void testLarge() throws Exception {
+        StringBuilder buffer = new StringBuilder("<root xmlns:p='urn:p'>");
+        for (int i=0; i<10000; i++) {
+            buffer.append("<p:item id='").append(i).append("'>text").append(i).append("</p:item>");
+        }
+        buffer.append("</root>");
+        String xml = buffer.toString();
+        EventLog eventLog = record(xml, false);
+        // Thanks to the symbol table, the log is smaller than the original document
+        assertThat(eventLog.getSize() < xml.length()).isTrue();
+        assertThat(serialize(eventLog)).isEqualTo(serialize(createInput(xml)));
+    }
+
+    @Test
+    public void testWriteToReadFrom() throws Exception {
+        EventLog eventLog = record(XML, true);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        eventLog.writeTo(baos);
+        assertThat((long)baos.size()).isEqualTo(eventLog.getSize());
+        EventLog copy = EventLog.readFrom(new ByteArrayInputStream(baos.toByteArray()), false);
+        assertThat(serialize(copy)).isEqualTo(serialize(eventLog));
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testGetEventLogBeforeCompleted() throws Exception {
+        EventLogRecorder recorder = new EventLogRecorder();
+        recorder.startFragment();
+        recorder.getEventLog();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axiom.core.stream.parallel;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.axiom.core.stream.NullXmlHandler;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandlerWrapper;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.XmlReader;
+import org.apache.axiom.core.stream.async.AsyncXmlInput;
+import org.apache.axiom.core.stream.serializer.Serializer;
+import org.junit.Test;
+
+public class ParallelXmlInputTest {
+    private static XmlInput createInput(String xml) throws Exception {
+        AsyncXmlInput input = new AsyncXmlInput();
+        input.feed(ByteBuffer.wrap(xml.getBytes("UTF-8")));
+        input.endOfInput();
+        return input;
+    }
+
+    private static String largeDocument() {
+        StringBuilder buffer = new StringBuilder("<root xmlns:p='urn:p'>");
+        for (int i=0; i<10000; i++) {
+            buffer.append("<p:item id='").append(i).append("'><!--c-->text").append(i).append("</p:item>");
+        }
+        buffer.append("</root>");
+        return buffer.toString();
+    }
+
+    private static String serialize(XmlInput input) throws StreamException {
+        StringWriter sw = new StringWriter();
+        XmlReader reader = input.createReader(new Serializer(sw));
+        while (!reader.proceed()) {
+            // Just loop
+        }
+        reader.dispose();
+        return sw.toString();
+    }
+
+    @Test
+    public void testSameEventsAsSynchronousReader() throws Exception {
+        String xml = largeDocument();
+        assertThat(serialize(new ParallelXmlInput(createInput(xml), null)))
+                .isEqualTo(serialize(createInput(xml)));
+    }
+
+    /**
+     * Checks that {@link XmlReader#proceed()} never returns in the middle of a start tag.
+     */
+    private static void assertStartTagsNotSplit(XmlInput input) throws StreamException {
+        final boolean[] inStartTag = new boolean[1];
+        XmlReader reader = input.createReader(new XmlHandlerWrapper(NullXmlHandler.INSTANCE) {
+            @Override
+            public void startElement(String namespaceURI, String localName, String prefix)
+                    throws StreamException {
+                inStartTag[0] = true;
+            }
+
+            @Override
+            public void attributesCompleted() throws StreamException {
+                inStartTag[0] = false;
+            }
+        });
+        while (!reader.proceed()) {
+            assertThat(inStartTag[0]).isFalse();
+        }
+        reader.dispose();
+    }
+
+    @Test
+    public void testStartTagNotSplit() throws Exception {
+        StringBuilder buffer = new StringBuilder("<root>");
+        for (int i=0; i<5000; i++) {
+            // Elements with a number of attributes that doesn't divide the batch size, so that
+            // some start tags span two batches
+            buffer.append("<item a='1' b='2' c='3' d='4' e='5' f='6'/>");
+        }
+        buffer.append("</root>");
+        assertStartTagsNotSplit(new ParallelXmlInput(createInput(buffer.toString()), null));
+    }
+
+    @Test
+    public void testError() throws Exception {
+        XmlReader reader = new ParallelXmlInput(createInput("<a><b></a>"), null)
+                .createReader(NullXmlHandler.INSTANCE);
+        try {
+            while (!reader.proceed()) {
+                // Just loop
+            }
+            fail("Expected StreamException");
+        } catch (StreamException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testDisposeStopsProducer() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        Executor executor = new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        command.run();
+                        latch.countDown();
+                    }
+                }).start();
+            }
+        };
+        XmlReader reader = new ParallelXmlInput(createInput(largeDocument()), executor)
+                .createReader(NullXmlHandler.INSTANCE);
+        for (int i=0; i<10; i++) {
+            reader.proceed();
+        }
+        reader.dispose();
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -174,4 +174,76 @@ public class SerializerTest {
             assertThat(sw.toString()).matches("xxx]]&gt;yyy");
         }
     }
+
+    @Test
+    public void testEscapingAfterEmptyElement() throws Exception {
+        StringWriter sw = new StringWriter();
+        Serializer handler = new Serializer(sw);
+        handler.startFragment();
+        handler.startElement("", "root", "");
+        handler.attributesCompleted();
+        handler.startElement("", "empty", "");
+        handler.attributesCompleted();
+        handler.endElement();
+        handler.processCharacterData("a<b&c]]", false);
+        handler.processCharacterData(">d", false);
+        handler.endElement();
+        handler.completed();
+        assertThat(sw.toString()).isEqualTo("<root><empty/>a&lt;b&amp;c]]&gt;d</root>");
+    }
+
+    private static String serialize(EncodedNameCache cache, String encoding) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Serializer handler = new Serializer(baos, encoding);
+        handler.setEncodedNameCache(cache);
+        handler.startFragment();
+        handler.startElement("urn:a", "root", "p");
+        handler.processNamespaceDeclaration("p", "urn:a");
+        handler.processNamespaceDeclaration("", "urn:x?a=1&b=\"2\"");
+        handler.attributesCompleted();
+        for (int i=0; i<20; i++) {
+            handler.startElement("", "child" + i, "");
+            handler.attributesCompleted();
+            handler.startElement("urn:a", "\u00e9l\u00e9ment", "p");
+            handler.attributesCompleted();
+            handler.processCharacterData("text", false);
+            handler.endElement();
+            handler.endElement();
+        }
+        handler.endElement();
+        handler.completed();
+        return new String(baos.toByteArray(), encoding);
+    }
+
+    @Test
+    public void testSharedEncodedNameCache() throws Exception {
+        StringBuilder expected = new StringBuilder("<p:root xmlns:p=\"urn:a\" xmlns=\"urn:x?a=1&amp;b=&quot;2&quot;\">");
+        for (int i=0; i<20; i++) {
+            expected.append("<child").append(i).append("><p:\u00e9l\u00e9ment>text</p:\u00e9l\u00e9ment></child").append(i).append(">");
+        }
+        expected.append("</p:root>");
+        // Use a small cache so that entries get replaced
+        EncodedNameCache cache = new EncodedNameCache(4);
+        for (String encoding : new String[] { "UTF-8", "iso-8859-1", "UTF-16" }) {
+            assertThat(serialize(cache, encoding)).isEqualTo(expected.toString());
+        }
+        assertThat(serialize(null, "UTF-8")).isEqualTo(expected.toString());
+    }
+
+    @Test
+    public void testEscaping() throws Exception {
+        String text = "a<b>&c\"d\te\nf\rg\u0001h\u0085i\u2028j]]>k\uD83D\uDE00";
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Serializer handler = new Serializer(baos, "ascii");
+        handler.startFragment();
+        handler.startElement("", "test", "");
+        handler.processAttribute("", "attr", "", text, "CDATA", true);
+        handler.attributesCompleted();
+        handler.processCharacterData(text, false);
+        handler.endElement();
+        handler.completed();
+        assertThat(new String(baos.toByteArray(), "ascii")).isEqualTo(
+                "<test attr=\"a&lt;b>&amp;c&quot;d&#9;e&#10;f&#13;g&#1;h&#133;i&#8232;j]]>k&#128512;\">"
+                + "a&lt;b>&amp;c\"d\te\nf&#13;g&#1;h&#133;i&#8232;j]]&gt;k&#128512;</test>");
+    }
 }
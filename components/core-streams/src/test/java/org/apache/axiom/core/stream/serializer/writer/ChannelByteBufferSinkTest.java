@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.serializer.writer;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.junit.Test;
+
+public class ChannelByteBufferSinkTest {
+    /**
+     * Gathering channel that writes at most 7 bytes per call, to check that partial writes are
+     * handled correctly.
+     */
+    private static final class SlowGatheringChannel implements GatheringByteChannel {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        @Override
+        public int write(ByteBuffer src) {
+            int count = Math.min(7, src.remaining());
+            for (int i=0; i<count; i++) {
+                out.write(src.get());
+            }
+            return count;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) {
+            for (int i=offset; i<offset+length; i++) {
+                if (srcs[i].hasRemaining()) {
+                    return write(srcs[i]);
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs) {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final String TEXT;
+
+    static {
+        StringBuilder buffer = new StringBuilder();
+        for (int i=0; i<500; i++) {
+            buffer.append("<a attr='x'>text é€😀</a>");
+        }
+        TEXT = buffer.toString();
+    }
+
+    private static void write(XmlWriter writer) throws IOException {
+        writer.setUnmappableCharacterHandler(UnmappableCharacterHandler.CONVERT_TO_CHARACTER_REFERENCE);
+        writer.write(TEXT.substring(0, 1000));
+        for (int i=1000; i<2000; i++) {
+            writer.write(TEXT.charAt(i));
+        }
+        char[] chars = TEXT.toCharArray();
+        writer.write(chars, 2000, chars.length-2000);
+        writer.flushBuffer();
+    }
+
+    private static byte[] expected(String encoding) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        write(XmlWriter.create(baos, encoding));
+        return baos.toByteArray();
+    }
+
+    private static void check(String encoding, int bufferSize, int bufferCount, boolean direct)
+            throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        WritableByteChannel channel = Channels.newChannel(baos);
+        write(XmlWriter.create(new ChannelByteBufferSink(channel, bufferSize, bufferCount, direct), encoding));
+        assertThat(baos.toByteArray()).isEqualTo(expected(encoding));
+        SlowGatheringChannel gatheringChannel = new SlowGatheringChannel();
+        write(XmlWriter.create(new ChannelByteBufferSink(gatheringChannel, bufferSize, bufferCount, direct), encoding));
+        assertThat(gatheringChannel.out.toByteArray()).isEqualTo(expected(encoding));
+    }
+
+    @Test
+    public void testEncodings() throws Exception {
+        for (String encoding : new String[] { "UTF-8", "ISO-8859-1", "US-ASCII", "UTF-16" }) {
+            for (int bufferSize : new int[] { 16, 17, 100, 8192 }) {
+                check(encoding, bufferSize, 1, false);
+                check(encoding, bufferSize, 3, false);
+                check(encoding, bufferSize, 1, true);
+                check(encoding, bufferSize, 3, true);
+            }
+        }
+    }
+
+    @Test
+    public void testExpectedOutput() throws Exception {
+        assertThat(new String(expected("UTF-8"), "UTF-8")).isEqualTo(TEXT);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.StringWriter;
+
+import org.apache.axiom.core.stream.serializer.Serializer;
+import org.junit.Test;
+
+public class CompactCharacterDataTest {
+    private static String createString(int length) {
+        StringBuilder buffer = new StringBuilder();
+        for (int i=0; i<length; i++) {
+            buffer.append((char)('a' + i%26));
+        }
+        return buffer.toString();
+    }
+
+    @Test
+    public void testRoundTrip() {
+        for (int length=0; length<20; length++) {
+            String s = createString(length) + "é";
+            CompactCharacterData data = CompactCharacterData.create(s);
+            assertThat(data.toString()).isEqualTo(s);
+            assertThat(data.length()).isEqualTo(s.length());
+            assertThat(data.contentEquals(s)).isTrue();
+            StringBuilder buffer = new StringBuilder("x");
+            data.appendTo(buffer);
+            assertThat(buffer.toString()).isEqualTo("x" + s);
+        }
+    }
+
+    @Test
+    public void testNonLatin1() {
+        assertThat(CompactCharacterData.create("a€")).isNull();
+        assertThat(CompactCharacterData.create(createString(100) + "€")).isNull();
+    }
+
+    @Test
+    public void testSerialize() throws Exception {
+        String s = createString(5000) + "<&>";
+        StringWriter sw = new StringWriter();
+        Serializer handler = new Serializer(sw);
+        handler.startFragment();
+        handler.startElement("", "test", "");
+        handler.attributesCompleted();
+        handler.processCharacterData(CompactCharacterData.create(s), false);
+        handler.endElement();
+        handler.completed();
+        assertThat(sw.toString()).isEqualTo("<test>" + createString(5000) + "&lt;&amp;></test>");
+    }
+}
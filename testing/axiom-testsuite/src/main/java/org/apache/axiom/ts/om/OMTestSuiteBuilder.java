@@ -24,6 +24,7 @@ import java.lang.reflect.Method;
 
 import javax.xml.namespace.QName;
 
+import org.apache.axiom.om.OMCharacterDataStorage;
 import org.apache.axiom.om.OMMetaFactory;
 import org.apache.axiom.om.OMNode;
 import org.apache.axiom.testing.multiton.Multiton;
@@ -104,6 +105,8 @@ public class OMTestSuiteBuilder extends MatrixTestSuiteBuilder {
         }
         addTest(new org.apache.axiom.ts.om.builder.TestCloseWithSystemId(metaFactory));
         addTest(new org.apache.axiom.ts.om.builder.TestCloseWithXMLStreamReader(metaFactory));
+        addTest(new org.apache.axiom.ts.om.builder.TestCreateAsyncOMBuilder(metaFactory));
+        addTest(new org.apache.axiom.ts.om.builder.TestCreateBinaryOMBuilder(metaFactory));
         for (XMLSample file : getInstances(XMLSample.class)) {
             for (DOMImplementation implementation : getInstances(DOMImplementation.class)) {
                 addTest(new org.apache.axiom.ts.om.builder.TestCreateOMBuilderFromDOM(metaFactory, file, implementation, Boolean.TRUE));
@@ -127,11 +130,18 @@ public class OMTestSuiteBuilder extends MatrixTestSuiteBuilder {
             addTest(new org.apache.axiom.ts.om.builder.TestCreateOMBuilderXOP(metaFactory, sample, false));
             addTest(new org.apache.axiom.ts.om.builder.TestCreateOMBuilderXOP(metaFactory, sample, true));
         }
+        addTest(new org.apache.axiom.ts.om.builder.TestCreateOMBuilderWithProjection(metaFactory));
+        addTest(new org.apache.axiom.ts.om.builder.TestCreateOMBuilderWithBinaryContent(metaFactory));
+        for (OMCharacterDataStorage characterDataStorage : OMCharacterDataStorage.values()) {
+            addTest(new org.apache.axiom.ts.om.builder.TestCreateOMBuilderWithCharacterDataStorage(metaFactory, characterDataStorage));
+        }
+        addTest(new org.apache.axiom.ts.om.builder.TestCreateParallelOMBuilder(metaFactory));
         addTest(new org.apache.axiom.ts.om.builder.TestCreateStAXOMBuilderFromFragment(metaFactory));
         addTest(new org.apache.axiom.ts.om.builder.TestCreateStAXOMBuilderFromXmlBeansPullParser(metaFactory));
         addTest(new org.apache.axiom.ts.om.builder.TestCreateStAXOMBuilderIncorrectState(metaFactory));
         addTest(new org.apache.axiom.ts.om.builder.TestCreateStAXOMBuilderNamespaceRepairing(metaFactory));
         addTest(new org.apache.axiom.ts.om.builder.TestCreateStAXOMBuilderNamespaceRepairing2(metaFactory));
+        addTest(new org.apache.axiom.ts.om.builder.TestDetachParallel(metaFactory));
         addTest(new org.apache.axiom.ts.om.builder.TestDetachWithDOM(metaFactory, false));
         addTest(new org.apache.axiom.ts.om.builder.TestDetachWithDOM(metaFactory, true));
         for (StreamType streamType : Multiton.getInstances(StreamType.class)) {
@@ -150,6 +160,7 @@ public class OMTestSuiteBuilder extends MatrixTestSuiteBuilder {
         addTest(new org.apache.axiom.ts.om.builder.TestIOExceptionInGetText(metaFactory));
         addTest(new org.apache.axiom.ts.om.builder.TestMalformedDocument(metaFactory));
         addTest(new org.apache.axiom.ts.om.builder.TestReadAttachmentBeforeRootPartComplete(metaFactory));
+        addTest(new org.apache.axiom.ts.om.builder.TestReset(metaFactory));
         addTest(new org.apache.axiom.ts.om.builder.TestRegisterCustomBuilderForPayloadJAXBPlain(metaFactory));
         addTest(new org.apache.axiom.ts.om.builder.TestRegisterCustomBuilderForPayloadJAXBWithDataHandlerReaderExtension(metaFactory));
         addTest(new org.apache.axiom.ts.om.builder.TestRegisterCustomBuilderForPayloadJAXBWithXOP(metaFactory));
@@ -178,9 +189,13 @@ public class OMTestSuiteBuilder extends MatrixTestSuiteBuilder {
         }
         for (OMContainerFactory cf : getInstances(OMContainerFactory.class)) {
             addTest(new org.apache.axiom.ts.om.container.TestAddChildWithIncompleteSibling(metaFactory, cf));
+            addTest(new org.apache.axiom.ts.om.container.TestFreeze(metaFactory, cf));
             addTest(new org.apache.axiom.ts.om.container.TestGetBuilderNull(metaFactory, cf));
             addTest(new org.apache.axiom.ts.om.container.TestGetDescendants(metaFactory, cf, true));
             addTest(new org.apache.axiom.ts.om.container.TestGetDescendants(metaFactory, cf, false));
+            addTest(new org.apache.axiom.ts.om.container.TestSerializeParallel(metaFactory, cf));
+            addTest(new org.apache.axiom.ts.om.container.TestSerializeParallelAdjacentText(metaFactory, cf));
+            addTest(new org.apache.axiom.ts.om.container.TestSerializeParallelInExecutorThread(metaFactory, cf));
         }
         addTest(new org.apache.axiom.ts.om.doctype.TestSerialize(metaFactory));
         addTest(new org.apache.axiom.ts.om.document.TestAddChildIncomplete(metaFactory));
@@ -289,6 +304,8 @@ public class OMTestSuiteBuilder extends MatrixTestSuiteBuilder {
         addTest(new org.apache.axiom.ts.om.element.TestFindNamespaceByPrefix(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestFindNamespaceCaseSensitivity(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestFindNamespaceURIWithPrefixUndeclaring(metaFactory));
+        addTest(new org.apache.axiom.ts.om.element.TestFreezeDeepTree(metaFactory));
+        addTest(new org.apache.axiom.ts.om.element.TestFreezeWithParent(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestGetAllAttributes1(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestGetAllAttributes2(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestGetAllDeclaredNamespaces(metaFactory));
@@ -321,6 +338,7 @@ public class OMTestSuiteBuilder extends MatrixTestSuiteBuilder {
         addTest(new org.apache.axiom.ts.om.element.TestGetDescendants(metaFactory, false));
         addTest(new org.apache.axiom.ts.om.element.TestGetDescendantsRemoveSubtree(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestGetFirstChildWithName(metaFactory));
+        addTest(new org.apache.axiom.ts.om.element.TestGetFirstChildWithNameLargeContainer(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestGetFirstChildWithNameOnIncompleteElement(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestGetFirstOMChildAfterConsume(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestGetFirstOMChildAfterDiscard(metaFactory));
@@ -383,6 +401,7 @@ public class OMTestSuiteBuilder extends MatrixTestSuiteBuilder {
         addTest(new org.apache.axiom.ts.om.element.TestHasNameWithoutNamespace(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestIsCompleteAfterAddingIncompleteChild(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestIsCompleteWithParser(metaFactory));
+        addTest(new org.apache.axiom.ts.om.element.TestManyAttributes(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestMultipleDefaultNS(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestRemoveAttribute(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestRemoveAttributeNotOwner(metaFactory));
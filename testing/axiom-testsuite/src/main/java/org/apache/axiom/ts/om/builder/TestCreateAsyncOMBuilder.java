@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axiom.ts.om.builder;
+
+import java.nio.ByteBuffer;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.om.NonBlockingBuilder;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMException;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMInputFeeder;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.OMXMLParserWrapper;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests that a builder created by {@link OMXMLBuilderFactory#createAsyncOMBuilder(OMFactory)}
+ * builds the parts of the document fed so far and fails instead of blocking when the application
+ * accesses parts that haven't been received yet.
+ */
+public class TestCreateAsyncOMBuilder extends AxiomTestCase {
+    public TestCreateAsyncOMBuilder(OMMetaFactory metaFactory) {
+        super(metaFactory);
+    }
+
+    private static void feed(OMInputFeeder feeder, String s) throws Exception {
+        feeder.feed(ByteBuffer.wrap(s.getBytes("UTF-8")));
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMXMLParserWrapper builder = OMXMLBuilderFactory.createAsyncOMBuilder(metaFactory.getOMFactory());
+        OMInputFeeder feeder = ((NonBlockingBuilder)builder).getInputFeeder();
+        assertNotNull(feeder);
+        assertTrue(feeder.isInputNeeded());
+        feed(feeder, "<root><a>te");
+        feed(feeder, "xt</a><b attr=");
+        OMElement root = builder.getDocumentElement();
+        assertEquals("root", root.getLocalName());
+        assertFalse(root.isComplete());
+        OMElement a = root.getFirstElement();
+        assertTrue(a.isComplete());
+        assertEquals("text", a.getText());
+        try {
+            a.getNextOMSibling();
+            fail("Expected OMException");
+        } catch (OMException ex) {
+            // Expected
+        }
+        assertTrue(feeder.isInputNeeded());
+        feed(feeder, "'1'/></root>");
+        feeder.endOfInput();
+        assertTrue(builder.isCompleted());
+        assertFalse(feeder.isInputNeeded());
+        OMElement b = (OMElement)a.getNextOMSibling();
+        assertEquals("b", b.getLocalName());
+        assertEquals("1", b.getAttributeValue(new QName("attr")));
+        assertNull(b.getNextOMSibling());
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.builder;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static org.apache.axiom.truth.xml.XMLTruth.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMOutputFormat;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.OMXMLParserWrapper;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests that a document serialized with {@link OMOutputFormat#setBinaryXML(boolean)} enabled can
+ * be read back using {@link OMXMLBuilderFactory#createBinaryOMBuilder(OMFactory, InputStream)}.
+ */
+public class TestCreateBinaryOMBuilder extends AxiomTestCase {
+    public TestCreateBinaryOMBuilder(OMMetaFactory metaFactory) {
+        super(metaFactory);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMFactory factory = metaFactory.getOMFactory();
+        StringBuilder buffer = new StringBuilder("<p:root xmlns:p='urn:test'>");
+        for (int i=0; i<1000; i++) {
+            buffer.append("<p:item id='").append(i).append("'>text").append(i).append("<!--c--></p:item>");
+        }
+        buffer.append("<?pi data?><![CDATA[x < y]]></p:root>");
+        String xml = buffer.toString();
+        OMElement root = OMXMLBuilderFactory.createOMBuilder(factory, new StringReader(xml)).getDocumentElement();
+        OMOutputFormat format = new OMOutputFormat();
+        format.setBinaryXML(true);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        root.serialize(baos, format);
+        OMXMLParserWrapper builder = OMXMLBuilderFactory.createBinaryOMBuilder(factory,
+                new ByteArrayInputStream(baos.toByteArray()));
+        assertAbout(xml())
+                .that(xml(OMElement.class, builder.getDocumentElement()))
+                .hasSameContentAs(xml);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.builder;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.om.OMBinaryContent;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMProjection;
+import org.apache.axiom.om.OMText;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.util.StAXParserConfiguration;
+import org.apache.axiom.ts.AxiomTestCase;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Tests that
+ * {@link OMXMLBuilderFactory#createOMBuilder(org.apache.axiom.om.OMFactory, StAXParserConfiguration, java.io.InputStream, String, OMProjection, OMBinaryContent)}
+ * decodes the content of the elements selected by name or by <tt>xsi:type</tt> into binary text
+ * nodes and leaves the other elements unchanged.
+ */
+public class TestCreateOMBuilderWithBinaryContent extends AxiomTestCase {
+    public TestCreateOMBuilderWithBinaryContent(OMMetaFactory metaFactory) {
+        super(metaFactory);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        Random random = new Random(1234);
+        byte[] data1 = new byte[10000];
+        random.nextBytes(data1);
+        byte[] data2 = new byte[100];
+        random.nextBytes(data2);
+        String base64 = Base64.encodeBase64String(data1);
+        String xml = "<root xmlns:p='urn:ns' xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' xmlns:xs='http://www.w3.org/2001/XMLSchema'>"
+                + "<p:data>" + base64.substring(0, 1000) + "<![CDATA[" + base64.substring(1000, 2000) + "]]>" + base64.substring(2000) + "</p:data>"
+                + "<other xsi:type='xs:base64Binary'>" + Base64.encodeBase64String(data2) + "</other>"
+                + "<text>" + base64.substring(0, 8) + "</text>"
+                + "<p:data/>"
+                + "</root>";
+        OMBinaryContent binaryContent = new OMBinaryContent()
+                .addElement(new QName("urn:ns", "data"))
+                .setXsiTypeDetection(true);
+        OMElement root = OMXMLBuilderFactory.createOMBuilder(metaFactory.getOMFactory(),
+                StAXParserConfiguration.DEFAULT, new ByteArrayInputStream(xml.getBytes("UTF-8")),
+                "UTF-8", null, binaryContent).getDocumentElement();
+        Iterator<OMElement> it = root.getChildElements();
+        assertBinary(data1, it.next());
+        assertBinary(data2, it.next());
+        OMElement text = it.next();
+        assertFalse(((OMText)text.getFirstOMChild()).isBinary());
+        assertEquals(base64.substring(0, 8), text.getText());
+        assertNull(it.next().getFirstOMChild());
+        assertFalse(it.hasNext());
+    }
+
+    private static void assertBinary(byte[] expected, OMElement element) throws Exception {
+        OMText text = (OMText)element.getFirstOMChild();
+        assertTrue(text.isBinary());
+        assertNull(text.getNextOMSibling());
+        assertTrue(Arrays.equals(expected,
+                IOUtils.toByteArray(text.getDataHandler().getInputStream())));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.builder;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.common.truth.Truth.assertThat;
+import static org.apache.axiom.truth.xml.XMLTruth.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.om.OMBinaryContent;
+import org.apache.axiom.om.OMCharacterDataStorage;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMProjection;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.util.StAXParserConfiguration;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests that a document parsed with
+ * {@link OMXMLBuilderFactory#createOMBuilder(org.apache.axiom.om.OMFactory, StAXParserConfiguration, java.io.InputStream, String, OMProjection, OMBinaryContent, OMCharacterDataStorage)}
+ * gives access to the same text and attribute values and serializes to the same content,
+ * whatever form is used to store the character data.
+ */
+public class TestCreateOMBuilderWithCharacterDataStorage extends AxiomTestCase {
+    private final OMCharacterDataStorage characterDataStorage;
+
+    public TestCreateOMBuilderWithCharacterDataStorage(OMMetaFactory metaFactory,
+            OMCharacterDataStorage characterDataStorage) {
+        super(metaFactory);
+        this.characterDataStorage = characterDataStorage;
+        addTestParameter("characterDataStorage", characterDataStorage.name());
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        StringBuilder longLatin1 = new StringBuilder();
+        for (int i=0; i<100; i++) {
+            longLatin1.append("caf\u00e9 ").append(i).append(' ');
+        }
+        // Covers values that can be packed, values stored as ISO-8859-1, values that are not
+        // ISO-8859-1 and values that occur repeatedly
+        String xml = "<root xmlns='urn:test' code='A1'>\n"
+                + "  <item code='A1' flag='true'>ab</item>\n"
+                + "  <item code='A1' flag='false'>" + longLatin1 + "</item>\n"
+                + "  <item code='B2' flag='true'>10 \u20ac &amp; &lt;more&gt;</item>\n"
+                + "  <item code='A1' flag='true'>ab<!--comment--><![CDATA[<cdata>]]></item>\n"
+                + "  <item code='' flag='true'></item>\n"
+                + "</root>";
+        OMElement root = OMXMLBuilderFactory.createOMBuilder(metaFactory.getOMFactory(),
+                StAXParserConfiguration.DEFAULT, new ByteArrayInputStream(xml.getBytes("UTF-8")),
+                "UTF-8", null, null, characterDataStorage).getDocumentElement();
+        QName code = new QName("code");
+        assertThat(root.getAttributeValue(code)).isEqualTo("A1");
+        Iterator<OMElement> it = root.getChildElements();
+        OMElement item = it.next();
+        assertThat(item.getAttributeValue(code)).isEqualTo("A1");
+        assertThat(item.getText()).isEqualTo("ab");
+        item = it.next();
+        assertThat(item.getAttributeValue(new QName("flag"))).isEqualTo("false");
+        assertThat(item.getText()).isEqualTo(longLatin1.toString());
+        item = it.next();
+        assertThat(item.getAttributeValue(code)).isEqualTo("B2");
+        assertThat(item.getText()).isEqualTo("10 \u20ac & <more>");
+        item = it.next();
+        assertThat(item.getText()).isEqualTo("ab<cdata>");
+        item = it.next();
+        assertThat(item.getAttributeValue(code)).isEqualTo("");
+        assertThat(it.hasNext()).isFalse();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        root.serialize(out);
+        assertAbout(xml())
+                .that(out.toByteArray())
+                .hasSameContentAs(xml);
+        // The stored text must remain modifiable
+        item.setText("modified");
+        assertThat(item.getText()).isEqualTo("modified");
+    }
+}
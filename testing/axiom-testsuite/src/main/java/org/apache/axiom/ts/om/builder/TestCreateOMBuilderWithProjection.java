@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.builder;
+
+import java.io.ByteArrayInputStream;
+import java.util.Iterator;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMProjection;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.util.StAXParserConfiguration;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests that
+ * {@link OMXMLBuilderFactory#createOMBuilder(org.apache.axiom.om.OMFactory, StAXParserConfiguration, java.io.InputStream, String, OMProjection)}
+ * only builds the elements selected by the projection.
+ */
+public class TestCreateOMBuilderWithProjection extends AxiomTestCase {
+    public TestCreateOMBuilderWithProjection(OMMetaFactory metaFactory) {
+        super(metaFactory);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        String xml = "<root xmlns:p='urn:ns'><skip><a/></skip><p:data attr='1'><a><b/></a><skip/><c>text</c></p:data><skip/><p:data><c/></p:data></root>";
+        OMProjection projection = new OMProjection()
+                .addPath(new QName("root"), new QName("urn:ns", "data"), new QName("a"))
+                .addPath(new QName("root"), new QName("urn:ns", "data"), new QName("c"));
+        OMElement root = OMXMLBuilderFactory.createOMBuilder(metaFactory.getOMFactory(),
+                StAXParserConfiguration.DEFAULT, new ByteArrayInputStream(xml.getBytes("UTF-8")),
+                "UTF-8", projection).getDocumentElement();
+        Iterator<OMElement> it = root.getChildElements();
+        OMElement data = it.next();
+        assertEquals(new QName("urn:ns", "data"), data.getQName());
+        assertEquals("1", data.getAttributeValue(new QName("attr")));
+        Iterator<OMElement> it2 = data.getChildElements();
+        OMElement a = it2.next();
+        assertEquals("a", a.getLocalName());
+        // The subtree of a selected element must be built entirely
+        assertEquals("b", a.getFirstElement().getLocalName());
+        OMElement c = it2.next();
+        assertEquals("c", c.getLocalName());
+        assertEquals("text", c.getText());
+        assertFalse(it2.hasNext());
+        data = it.next();
+        assertEquals(new QName("urn:ns", "data"), data.getQName());
+        assertEquals("c", data.getFirstElement().getLocalName());
+        assertFalse(it.hasNext());
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axiom.ts.om.builder;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.OMXMLParserWrapper;
+import org.apache.axiom.om.ResettableBuilder;
+import org.apache.axiom.om.util.StAXParserConfiguration;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests that a builder created by
+ * {@link OMXMLBuilderFactory#createParallelOMBuilder(OMFactory, StAXParserConfiguration, InputStream, String, java.util.concurrent.Executor)}
+ * builds the same tree as a synchronous builder, and that it can be reset.
+ */
+public class TestCreateParallelOMBuilder extends AxiomTestCase {
+    public TestCreateParallelOMBuilder(OMMetaFactory metaFactory) {
+        super(metaFactory);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        StringBuilder buffer = new StringBuilder("<root xmlns='urn:test'>");
+        for (int i=0; i<5000; i++) {
+            buffer.append("<item id='").append(i).append("'>text").append(i).append("</item>");
+        }
+        buffer.append("</root>");
+        byte[] data = buffer.toString().getBytes("UTF-8");
+        OMXMLParserWrapper builder = OMXMLBuilderFactory.createParallelOMBuilder(
+                metaFactory.getOMFactory(), StAXParserConfiguration.DEFAULT,
+                new ByteArrayInputStream(data), "UTF-8", null);
+        OMElement root = builder.getDocumentElement();
+        int count = 0;
+        for (Iterator<OMElement> it = root.getChildElements(); it.hasNext(); ) {
+            OMElement item = it.next();
+            assertEquals(String.valueOf(count), item.getAttributeValue(new QName("id")));
+            assertEquals("text" + count, item.getText());
+            count++;
+        }
+        assertEquals(5000, count);
+        builder.getDocument().build();
+        assertTrue(builder.isCompleted());
+        ((ResettableBuilder)builder).reset(
+                new ByteArrayInputStream("<a><b/></a>".getBytes("UTF-8")));
+        OMElement a = builder.getDocumentElement();
+        assertEquals("b", a.getFirstElement().getLocalName());
+        assertNotSame(root.getParent(), a.getParent());
+        builder.close();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.builder;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.common.truth.Truth.assertThat;
+import static org.apache.axiom.truth.xml.XMLTruth.xml;
+
+import java.io.InputStream;
+
+import org.apache.axiom.om.OMDocument;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.OMXMLParserWrapper;
+import org.apache.axiom.om.util.StAXParserConfiguration;
+import org.apache.axiom.testutils.io.InstrumentedInputStream;
+import org.apache.axiom.ts.AxiomTestCase;
+import org.apache.axiom.ts.xml.XMLSample;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Tests that {@link OMXMLParserWrapper#detach()} works on a builder created by
+ * {@link OMXMLBuilderFactory#createParallelOMBuilder(OMFactory, StAXParserConfiguration, InputStream, String, java.util.concurrent.Executor)},
+ * i.e. while the stream is being read by the parser thread.
+ */
+public class TestDetachParallel extends AxiomTestCase {
+    public TestDetachParallel(OMMetaFactory metaFactory) {
+        super(metaFactory);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        long size = IOUtils.toByteArray(XMLSample.LARGE.getInputStream()).length;
+        InstrumentedInputStream stream = new InstrumentedInputStream(XMLSample.LARGE.getInputStream());
+        OMXMLParserWrapper builder = OMXMLBuilderFactory.createParallelOMBuilder(
+                metaFactory.getOMFactory(), StAXParserConfiguration.DEFAULT, stream, null, null);
+        builder.getDocumentElement();
+        builder.detach();
+        // The stream has been buffered; the tree has not been built
+        assertThat(builder.isCompleted()).isFalse();
+        assertThat(stream.getCount()).isEqualTo(size);
+        assertThat(stream.isClosed()).isFalse();
+        stream.close();
+        OMDocument document = builder.getDocument();
+        document.build();
+        assertAbout(xml())
+                .that(xml(OMDocument.class, document))
+                .hasSameContentAs(XMLSample.LARGE.getInputStream());
+        builder.close();
+    }
+}
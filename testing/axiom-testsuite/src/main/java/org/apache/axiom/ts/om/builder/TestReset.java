@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.builder;
+
+import java.io.ByteArrayInputStream;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.OMXMLParserWrapper;
+import org.apache.axiom.om.ResettableBuilder;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests that {@link ResettableBuilder#reset(java.io.InputStream)} can be used to parse a second
+ * document and that the tree built from the first document is left untouched.
+ */
+public class TestReset extends AxiomTestCase {
+    public TestReset(OMMetaFactory metaFactory) {
+        super(metaFactory);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMXMLParserWrapper builder = OMXMLBuilderFactory.createOMBuilder(metaFactory.getOMFactory(),
+                new ByteArrayInputStream("<a><b/></a>".getBytes("UTF-8")));
+        OMElement a = builder.getDocumentElement();
+        try {
+            ((ResettableBuilder)builder).reset(new ByteArrayInputStream("<c/>".getBytes("UTF-8")));
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+        builder.getDocument().build();
+        assertTrue(builder.isCompleted());
+        ((ResettableBuilder)builder).reset(new ByteArrayInputStream("<c><d>text</d></c>".getBytes("UTF-8")));
+        assertFalse(builder.isCompleted());
+        OMElement c = builder.getDocumentElement();
+        assertEquals("c", c.getLocalName());
+        assertEquals("text", c.getFirstElement().getText());
+        assertNotSame(a.getParent(), c.getParent());
+        assertEquals("b", a.getFirstElement().getLocalName());
+        assertNull(a.getFirstElement().getNextOMSibling());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.container;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.StringReader;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.om.Freezable;
+import org.apache.axiom.om.OMContainer;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests that {@link Freezable#freeze()} builds the tree completely and that any subsequent
+ * attempt to modify the tree is rejected.
+ */
+public class TestFreeze extends AxiomTestCase {
+    private final OMContainerFactory containerFactory;
+    
+    public TestFreeze(OMMetaFactory metaFactory, OMContainerFactory containerFactory) {
+        super(metaFactory);
+        this.containerFactory = containerFactory;
+        containerFactory.addTestParameters(this);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMFactory factory = metaFactory.getOMFactory();
+        OMContainer container = containerFactory.create(factory);
+        OMElement child = OMXMLBuilderFactory.createOMBuilder(factory,
+                new StringReader("<a attr='value'><b>text</b></a>")).getDocumentElement(true);
+        container.addChild(child);
+        assertThat(container.isComplete()).isFalse();
+        assertThat(((Freezable)container).isFrozen()).isFalse();
+        ((Freezable)container).freeze();
+        assertThat(((Freezable)container).isFrozen()).isTrue();
+        assertThat(container.isComplete()).isTrue();
+        assertThat(((Freezable)child).isFrozen()).isTrue();
+        OMElement grandChild = child.getFirstElement();
+        assertThat(((Freezable)grandChild).isFrozen()).isTrue();
+        assertThat(grandChild.getText()).isEqualTo("text");
+        assertThat(child.getAttributeValue(new QName("attr"))).isEqualTo("value");
+        // Freezing a tree twice has no effect
+        ((Freezable)container).freeze();
+        try {
+            container.addChild(factory.createOMText("test"));
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException ex) {
+            // Expected
+        }
+        try {
+            child.detach();
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException ex) {
+            // Expected
+        }
+        try {
+            grandChild.setText("modified");
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException ex) {
+            // Expected
+        }
+        try {
+            child.addAttribute("attr", "modified", null);
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException ex) {
+            // Expected
+        }
+        try {
+            child.setLocalName("modified");
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException ex) {
+            // Expected
+        }
+        assertThat(grandChild.getText()).isEqualTo("text");
+        assertThat(child.getAttributeValue(new QName("attr"))).isEqualTo("value");
+        assertThat(child.getLocalName()).isEqualTo("a");
+        // A clone of a frozen tree is not frozen
+        OMElement clone = child.cloneOMElement();
+        assertThat(((Freezable)clone).isFrozen()).isFalse();
+        clone.setLocalName("modified");
+    }
+}
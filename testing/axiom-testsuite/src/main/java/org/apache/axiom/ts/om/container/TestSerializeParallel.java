@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.container;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.axiom.om.OMContainer;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMNamespace;
+import org.apache.axiom.om.OMOutputFormat;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests that {@link OMContainer#serialize(java.io.OutputStream, OMOutputFormat)} produces the same
+ * output with and without {@link OMOutputFormat#setParallelSerializationExecutor(java.util.concurrent.Executor)}.
+ */
+public class TestSerializeParallel extends AxiomTestCase {
+    private final OMContainerFactory containerFactory;
+    
+    public TestSerializeParallel(OMMetaFactory metaFactory, OMContainerFactory containerFactory) {
+        super(metaFactory);
+        this.containerFactory = containerFactory;
+        containerFactory.addTestParameters(this);
+    }
+
+    static void assertSameOutput(OMContainer container, ExecutorService executor) throws Exception {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        container.serialize(expected);
+        OMOutputFormat format = new OMOutputFormat();
+        format.setParallelSerializationExecutor(executor);
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        container.serialize(actual, format);
+        assertThat(actual.toByteArray()).isEqualTo(expected.toByteArray());
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMFactory factory = metaFactory.getOMFactory();
+        OMContainer container = containerFactory.create(factory);
+        if (container instanceof OMElement) {
+            // Used to resolve the prefix of xsi:type attributes when serializing the child element
+            ((OMElement)container).declareNamespace("urn:types", "types");
+        }
+        OMNamespace ns = factory.createOMNamespace("urn:test", "t");
+        OMNamespace xsi = factory.createOMNamespace("http://www.w3.org/2001/XMLSchema-instance", "xsi");
+        OMElement records = factory.createOMElement("records", ns, container);
+        for (int i=0; i<1000; i++) {
+            OMElement record;
+            if (i % 2 == 0) {
+                record = factory.createOMElement("record", ns, records);
+            } else {
+                record = factory.createOMElement("record", factory.createOMNamespace("urn:ns" + (i % 3), "p"), records);
+            }
+            record.addAttribute("id", String.valueOf(i), null);
+            record.addAttribute("type", "types:record", xsi);
+            record.setText("<" + i + "> & \"]]>\" \u00e9\u20ac");
+            if (i % 100 == 0) {
+                factory.createOMComment(records, "comment " + i);
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            assertSameOutput(container, executor);
+            assertSameOutput(records, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
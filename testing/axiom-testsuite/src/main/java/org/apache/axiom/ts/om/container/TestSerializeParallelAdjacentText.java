@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.container;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.axiom.om.OMContainer;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMOutputFormat;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests parallel serialization of an element whose children are text nodes, where one text node
+ * ends with "]]" and the next one starts with "&gt;". The '&gt;' must be escaped as in sequential
+ * serialization, even if the two text nodes are in different chunks.
+ */
+public class TestSerializeParallelAdjacentText extends AxiomTestCase {
+    private final OMContainerFactory containerFactory;
+    
+    public TestSerializeParallelAdjacentText(OMMetaFactory metaFactory, OMContainerFactory containerFactory) {
+        super(metaFactory);
+        this.containerFactory = containerFactory;
+        containerFactory.addTestParameters(this);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMFactory factory = metaFactory.getOMFactory();
+        OMContainer container = containerFactory.create(factory);
+        OMElement parent = factory.createOMElement("parent", null, container);
+        for (int i=0; i<1000; i++) {
+            factory.createOMText(parent, "a]]");
+            factory.createOMText(parent, ">b");
+            if (i % 10 == 0) {
+                factory.createOMElement("child", null, parent);
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            TestSerializeParallel.assertSameOutput(container, executor);
+            OMOutputFormat format = new OMOutputFormat();
+            format.setParallelSerializationExecutor(executor);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            parent.serialize(out, format);
+            assertThat(new String(out.toByteArray(), "UTF-8")).doesNotContain("]]>");
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.element;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.apache.axiom.om.Freezable;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests that {@link Freezable#freeze()} doesn't overflow the stack for very deep trees.
+ */
+public class TestFreezeDeepTree extends AxiomTestCase {
+    public TestFreezeDeepTree(OMMetaFactory metaFactory) {
+        super(metaFactory);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMFactory factory = metaFactory.getOMFactory();
+        OMElement root = factory.createOMElement("root", null);
+        OMElement element = root;
+        for (int i=0; i<100000; i++) {
+            element.addAttribute("depth", String.valueOf(i), null);
+            factory.createOMText(element, "text");
+            // Don't pass the parent to createOMElement; this would look up the default namespace
+            // in all ancestors
+            OMElement child = factory.createOMElement("child", null);
+            element.addChild(child);
+            element = child;
+        }
+        ((Freezable)root).freeze();
+        assertThat(((Freezable)root).isFrozen()).isTrue();
+        assertThat(((Freezable)element).isFrozen()).isTrue();
+        assertThat(((Freezable)element.getParent()).isFrozen()).isTrue();
+    }
+}
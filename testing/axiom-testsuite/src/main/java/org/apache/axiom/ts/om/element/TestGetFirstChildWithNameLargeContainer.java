@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.element;
+
+import java.util.Iterator;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMNamespace;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests {@link OMElement#getFirstChildWithName(QName)} and
+ * {@link OMElement#getChildrenWithName(QName)} on an element with a number of children large
+ * enough to trigger the creation of an element index (if the implementation uses one), and checks
+ * that the results remain correct after the children are modified.
+ */
+public class TestGetFirstChildWithNameLargeContainer extends AxiomTestCase {
+    public TestGetFirstChildWithNameLargeContainer(OMMetaFactory metaFactory) {
+        super(metaFactory);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMFactory factory = metaFactory.getOMFactory();
+        OMNamespace ns = factory.createOMNamespace("urn:ns", "p");
+        OMElement parent = factory.createOMElement("root", null);
+        OMElement[] children = new OMElement[1000];
+        for (int i=0; i<children.length; i++) {
+            children[i] = factory.createOMElement("child" + (i % 100), i % 2 == 0 ? null : ns, parent);
+            factory.createOMText(parent, " ");
+        }
+        for (int i=0; i<100; i++) {
+            assertSame(children[i], parent.getFirstChildWithName(new QName(i % 2 == 0 ? "" : "urn:ns", "child" + i)));
+        }
+        assertNull(parent.getFirstChildWithName(new QName("urn:ns", "child0")));
+        
+        // Appended children must be found
+        OMElement appended = factory.createOMElement("appended", null, parent);
+        assertSame(appended, parent.getFirstChildWithName(new QName("appended")));
+        
+        // Detached children must no longer be found
+        children[50].detach();
+        assertSame(children[150], parent.getFirstChildWithName(new QName("child50")));
+        
+        // Children inserted in the middle must be taken into account
+        OMElement inserted = factory.createOMElement("child50", null);
+        children[10].insertSiblingAfter(inserted);
+        assertSame(inserted, parent.getFirstChildWithName(new QName("child50")));
+        
+        // Renamed children must be taken into account
+        children[20].setLocalName("renamed");
+        assertSame(children[20], parent.getFirstChildWithName(new QName("renamed")));
+        assertSame(children[120], parent.getFirstChildWithName(new QName("child20")));
+        
+        // Children inserted before another child must be taken into account
+        OMElement insertedBefore = factory.createOMElement("child30", null);
+        children[5].insertSiblingBefore(insertedBefore);
+        assertSame(insertedBefore, parent.getFirstChildWithName(new QName("child30")));
+        
+        // Renaming a child to the name of other children must preserve document order
+        children[40].setLocalName("child30");
+        Iterator<OMElement> it = parent.getChildrenWithName(new QName("child30"));
+        assertSame(insertedBefore, it.next());
+        for (int i=30; i<children.length; i+=100) {
+            assertSame(children[i], it.next());
+            if (i == 30) {
+                assertSame(children[40], it.next());
+            }
+        }
+        assertFalse(it.hasNext());
+        assertSame(children[140], parent.getFirstChildWithName(new QName("child40")));
+        
+        // Changing the namespace of a child is a rename too
+        children[60].setNamespace(ns);
+        assertSame(children[60], parent.getFirstChildWithName(new QName("urn:ns", "child60")));
+        assertSame(children[160], parent.getFirstChildWithName(new QName("child60")));
+        
+        // Iterate over children with a given name
+        it = parent.getChildrenWithName(new QName("urn:ns", "child7"));
+        for (int i=7; i<children.length; i+=100) {
+            assertTrue(it.hasNext());
+            assertSame(children[i], it.next());
+        }
+        assertFalse(it.hasNext());
+        
+        // Remove children using the iterator
+        it = parent.getChildrenWithName(new QName("child8"));
+        while (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        assertNull(parent.getFirstChildWithName(new QName("child8")));
+        
+        // Remove some of the children with a given name and iterate over the remaining ones
+        for (int i=9; i<children.length-100; i+=100) {
+            children[i].detach();
+        }
+        it = parent.getChildrenWithName(new QName("urn:ns", "child9"));
+        assertSame(children[children.length-91], it.next());
+        assertFalse(it.hasNext());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.element;
+
+import java.util.Iterator;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.om.OMAttribute;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMNamespace;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests attribute lookup, replacement, removal and renaming on an element with a number of
+ * attributes large enough to trigger the creation of an attribute index (if the implementation
+ * uses one). Also checks that document order is preserved.
+ */
+public class TestManyAttributes extends AxiomTestCase {
+    public TestManyAttributes(OMMetaFactory metaFactory) {
+        super(metaFactory);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMFactory factory = metaFactory.getOMFactory();
+        OMNamespace ns = factory.createOMNamespace("urn:ns", "p");
+        OMElement element = factory.createOMElement("test", null);
+        for (int i=0; i<200; i++) {
+            element.addAttribute("attr" + i, "value" + i, i % 2 == 0 ? null : ns);
+        }
+        for (int i=0; i<200; i++) {
+            assertEquals("value" + i, element.getAttributeValue(new QName(i % 2 == 0 ? "" : "urn:ns", "attr" + i)));
+        }
+        assertNull(element.getAttributeValue(new QName("urn:ns", "attr0")));
+        
+        // Replace an existing attribute
+        element.addAttribute("attr10", "new", null);
+        assertEquals("new", element.getAttributeValue(new QName("attr10")));
+        
+        // Remove every third attribute
+        for (int i=0; i<200; i+=3) {
+            element.removeAttribute(element.getAttribute(new QName(i % 2 == 0 ? "" : "urn:ns", "attr" + i)));
+        }
+        for (int i=0; i<200; i++) {
+            OMAttribute attr = element.getAttribute(new QName(i % 2 == 0 ? "" : "urn:ns", "attr" + i));
+            if (i % 3 == 0) {
+                assertNull(attr);
+            } else {
+                assertNotNull(attr);
+            }
+        }
+        
+        // Rename an attribute
+        OMAttribute attr = element.getAttribute(new QName("attr2"));
+        attr.setLocalName("renamed");
+        assertNull(element.getAttribute(new QName("attr2")));
+        assertSame(attr, element.getAttribute(new QName("renamed")));
+        
+        // Check document order
+        Iterator<OMAttribute> it = element.getAllAttributes();
+        for (int i=0; i<200; i++) {
+            if (i % 3 != 0) {
+                assertTrue(it.hasNext());
+                assertEquals(i == 2 ? "renamed" : "attr" + i, it.next().getLocalName());
+            }
+        }
+        assertFalse(it.hasNext());
+    }
+}